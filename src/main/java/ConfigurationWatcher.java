@@ -0,0 +1,149 @@
+package main.java;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Watches the config files of running configurations and reloads their timing
+ * and dispatch parameters when a file changes, so they can be tuned without a
+ * restart. An invalid file is reported and leaves the running values
+ * unchanged.
+ *
+ * @author Zakaria Ismail
+ */
+public class ConfigurationWatcher implements Runnable {
+	private static ConfigurationWatcher defaultWatcher;
+
+	private final WatchService watchService;
+	// key: absolute path of a config file
+	private final Map<Path, List<SimulatorConfiguration>> configurations;
+	private final Set<Path> watchedDirectories;
+
+	/**
+	 * Get the watcher of the process, started on first use.
+	 *
+	 * @return ConfigurationWatcher, the watcher
+	 */
+	public static synchronized ConfigurationWatcher getDefault() {
+		if (defaultWatcher == null) {
+			try {
+				defaultWatcher = new ConfigurationWatcher();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to watch config files", e);
+			}
+			Thread watcherThread = new Thread(defaultWatcher, "ConfigurationWatcher");
+			watcherThread.setDaemon(true);
+			watcherThread.start();
+		}
+		return defaultWatcher;
+	}
+
+	/**
+	 * Constructor for the configuration watcher.
+	 *
+	 * @throws IOException
+	 */
+	public ConfigurationWatcher() throws IOException {
+		watchService = FileSystems.getDefault().newWatchService();
+		configurations = new HashMap<>();
+		watchedDirectories = new HashSet<>();
+	}
+
+	/**
+	 * Reload a configuration whenever its config file changes.
+	 *
+	 * @param configuration SimulatorConfiguration, a configuration loaded from a
+	 *                      file
+	 * @throws IOException
+	 */
+	public synchronized void watch(SimulatorConfiguration configuration) throws IOException {
+		if (configuration.getConfigFilePath() == null) {
+			throw new IllegalArgumentException("Configuration was not loaded from a file");
+		}
+		Path file = Paths.get(configuration.getConfigFilePath()).toAbsolutePath().normalize();
+		Path directory = file.getParent();
+		if (watchedDirectories.add(directory)) {
+			directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_CREATE);
+		}
+		configurations.computeIfAbsent(file, path -> new ArrayList<>()).add(configuration);
+	}
+
+	/**
+	 * Reload the configurations of a config file.
+	 *
+	 * @param file Path, the absolute path of the config file
+	 * @return boolean, true if the file was valid and applied
+	 */
+	public boolean reload(Path file) {
+		List<SimulatorConfiguration> reloaded;
+		synchronized (this) {
+			reloaded = configurations.get(file);
+			if (reloaded == null) {
+				return false;
+			}
+			reloaded = new ArrayList<>(reloaded);
+		}
+		try {
+			for (SimulatorConfiguration configuration : reloaded) {
+				configuration.reload();
+			}
+		} catch (IllegalArgumentException | UncheckedIOException e) {
+			System.out.println(String.format("Config reload of %s rejected: %s", file, e.getMessage()));
+			return false;
+		}
+		System.out.println(String.format("Config reloaded from %s", file));
+		return true;
+	}
+
+	/**
+	 * Wait for file changes and reload the watched configurations.
+	 */
+	@Override
+	public void run() {
+		while (true) {
+			WatchKey key;
+			try {
+				key = watchService.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				return;
+			}
+			Path directory = (Path) key.watchable();
+			// editors may report several events for one save, reload each file once
+			Set<Path> changed = new HashSet<>();
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() != StandardWatchEventKinds.OVERFLOW) {
+					changed.add(directory.resolve((Path) event.context()));
+				}
+			}
+			key.reset();
+			for (Path file : changed) {
+				reload(file);
+			}
+		}
+	}
+
+	/**
+	 * Stop watching.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		watchService.close();
+	}
+
+}
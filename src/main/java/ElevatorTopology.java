@@ -0,0 +1,209 @@
+package main.java;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes how the elevator cars are sharded across ElevatorSubsystem
+ * processes. Each node hosts a contiguous range of cars and listens for
+ * assigned requests on its own host and port.
+ *
+ * The topology is read from the ELEVATOR_NODES property as a comma separated
+ * list of host:port:firstCar-lastCar entries, e.g.
+ * 127.0.0.1:5101:1-2,127.0.0.1:5102:3-4. When the property is absent a single
+ * node hosting every car on ELEVATOR_SUBSYSTEM_HOST and
+ * ELEVATOR_SUBSYSTEM_REQ_PORT is used.
+ *
+ * @author Zakaria Ismail
+ */
+public class ElevatorTopology {
+	private List<Node> nodes;
+	// index: elevator id, value: node index
+	private int[] elevatorToNode;
+
+	/**
+	 * Constructor for a topology with a single node hosting every car.
+	 *
+	 * @param host         String, the elevator subsystem host
+	 * @param port         int, the elevator subsystem request port
+	 * @param numElevators int, the number of elevators
+	 */
+	public ElevatorTopology(String host, int port, int numElevators) {
+		this(List.of(new Node(0, host, port, 1, numElevators)), numElevators);
+	}
+
+	/**
+	 * Constructor for the elevator topology.
+	 *
+	 * @param nodes        List, the elevator subsystem nodes
+	 * @param numElevators int, the number of elevators
+	 */
+	private ElevatorTopology(List<Node> nodes, int numElevators) {
+		this.nodes = Collections.unmodifiableList(nodes);
+		elevatorToNode = new int[numElevators + 1];
+		for (int i = 0; i <= numElevators; i++) {
+			elevatorToNode[i] = -1;
+		}
+		for (Node node : nodes) {
+			if (node.getFirstElevatorId() < 1 || node.getLastElevatorId() > numElevators
+					|| node.getFirstElevatorId() > node.getLastElevatorId()) {
+				throw new IllegalArgumentException("Invalid elevator range for node " + node);
+			}
+			for (int id = node.getFirstElevatorId(); id <= node.getLastElevatorId(); id++) {
+				if (elevatorToNode[id] != -1) {
+					throw new IllegalArgumentException("Elevator#" + id + " is assigned to more than one node");
+				}
+				elevatorToNode[id] = node.getIndex();
+			}
+		}
+		for (int id = 1; id <= numElevators; id++) {
+			if (elevatorToNode[id] == -1) {
+				throw new IllegalArgumentException("Elevator#" + id + " is not assigned to a node");
+			}
+		}
+	}
+
+	/**
+	 * Parse the ELEVATOR_NODES property.
+	 *
+	 * @param nodesProperty String, the comma separated host:port:first-last list
+	 * @param numElevators  int, the number of elevators
+	 * @return ElevatorTopology, the parsed topology
+	 */
+	public static ElevatorTopology parse(String nodesProperty, int numElevators) {
+		List<Node> nodes = new ArrayList<>();
+		String[] entries = nodesProperty.split(",");
+		for (int i = 0; i < entries.length; i++) {
+			String[] parts = entries[i].trim().split(":");
+			if (parts.length != 3) {
+				throw new IllegalArgumentException("Invalid elevator node: " + entries[i]);
+			}
+			String[] range = parts[2].split("-");
+			int first = Integer.parseInt(range[0].trim());
+			int last = range.length > 1 ? Integer.parseInt(range[1].trim()) : first;
+			nodes.add(new Node(i, parts[0].trim(), Integer.parseInt(parts[1].trim()), first, last));
+		}
+		return new ElevatorTopology(nodes, numElevators);
+	}
+
+	/**
+	 * Get the node hosting an elevator.
+	 *
+	 * @param elevatorId int, the elevator id
+	 * @return Node, the node hosting the elevator
+	 */
+	public Node getNodeForElevator(int elevatorId) {
+		return nodes.get(elevatorToNode[elevatorId]);
+	}
+
+	/**
+	 * Get a node by index.
+	 *
+	 * @param index int, the node index
+	 * @return Node, the node
+	 */
+	public Node getNode(int index) {
+		return nodes.get(index);
+	}
+
+	/**
+	 * Get all the nodes.
+	 *
+	 * @return List, the elevator subsystem nodes
+	 */
+	public List<Node> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Get the number of nodes.
+	 *
+	 * @return int, the number of nodes
+	 */
+	public int getNumNodes() {
+		return nodes.size();
+	}
+
+	/**
+	 * An ElevatorSubsystem process hosting a contiguous range of cars.
+	 */
+	public static class Node {
+		private int index;
+		private String host;
+		private int port;
+		private int firstElevatorId;
+		private int lastElevatorId;
+
+		/**
+		 * Constructor for a node.
+		 *
+		 * @param index           int, the node index
+		 * @param host            String, the host of the node
+		 * @param port            int, the request port of the node
+		 * @param firstElevatorId int, the first elevator id hosted
+		 * @param lastElevatorId  int, the last elevator id hosted
+		 */
+		public Node(int index, String host, int port, int firstElevatorId, int lastElevatorId) {
+			this.index = index;
+			this.host = host;
+			this.port = port;
+			this.firstElevatorId = firstElevatorId;
+			this.lastElevatorId = lastElevatorId;
+		}
+
+		/**
+		 * Getter for the node index.
+		 *
+		 * @return int, the node index
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Getter for the host.
+		 *
+		 * @return String, the host of the node
+		 */
+		public String getHost() {
+			return host;
+		}
+
+		/**
+		 * Getter for the request port.
+		 *
+		 * @return int, the request port of the node
+		 */
+		public int getPort() {
+			return port;
+		}
+
+		/**
+		 * Getter for the first elevator id hosted by the node.
+		 *
+		 * @return int, the first elevator id
+		 */
+		public int getFirstElevatorId() {
+			return firstElevatorId;
+		}
+
+		/**
+		 * Getter for the last elevator id hosted by the node.
+		 *
+		 * @return int, the last elevator id
+		 */
+		public int getLastElevatorId() {
+			return lastElevatorId;
+		}
+
+		/**
+		 * Overriding toString method.
+		 */
+		@Override
+		public String toString() {
+			return String.format("%s:%d:%d-%d", host, port, firstElevatorId, lastElevatorId);
+		}
+	}
+
+}
@@ -1,8 +1,11 @@
 package main.java;
 
+import java.io.IOException;
+
 import main.java.elevator.ElevatorSubsystem;
 import main.java.floor.FloorSubsystem;
 import main.java.gui.GUI;
+import main.java.metrics.MetricsRegistry;
 import main.java.scheduler.SchedulerSubsystem;
 
 /**
@@ -16,24 +19,38 @@ public class Main {
 	 * Main method.
 	 * 
 	 * @param args, default parameters
+	 * @throws IOException
 	 */
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
 
 		SimulatorConfiguration configuration = new SimulatorConfiguration("./src/main/resources/config.properties");
+		UDPClient.setMaxDatagramSize(configuration.MAX_DATAGRAM_SIZE);
+		if (configuration.CAPTURE_PATH != null) {
+			UDPClient.startCapture(configuration.CAPTURE_PATH);
+		}
+		MetricsRegistry.getDefault().expose(configuration.METRICS_PORT);
+		SimulatorConfiguration elevatorConfiguration = configuration.forSection("elevator");
 
-		SchedulerSubsystem schedulerSubsystem = new SchedulerSubsystem(configuration);
-		ElevatorSubsystem elevatorSubsystem = new ElevatorSubsystem(configuration);
-		FloorSubsystem floorSubsystem = new FloorSubsystem(configuration);
-		GUI gui = new GUI(configuration);
+		SchedulerSubsystem schedulerSubsystem = new SchedulerSubsystem(configuration.forSection("scheduler"));
+		schedulerSubsystem.watchConfigurations();
+		ConfigurationWatcher.getDefault().watch(elevatorConfiguration);
+		// host every elevator topology node in this process
+		ElevatorSubsystem[] elevatorSubsystems = new ElevatorSubsystem[configuration.ELEVATOR_TOPOLOGY.getNumNodes()];
+		for (int i = 0; i < elevatorSubsystems.length; i++) {
+			elevatorSubsystems[i] = new ElevatorSubsystem(elevatorConfiguration, i);
+		}
+		FloorSubsystem floorSubsystem = new FloorSubsystem(configuration.forSection("floor"));
+		GUI gui = new GUI(configuration.forSection("gui"));
 
 		Thread schedulerThread = new Thread(schedulerSubsystem);
 		Thread floorThread = new Thread(floorSubsystem);
-		Thread elevatorThread = new Thread(elevatorSubsystem);
 		Thread guiThread = new Thread(gui);
 
 		schedulerThread.start();
 		floorThread.start();
-		elevatorThread.start();
+		for (ElevatorSubsystem elevatorSubsystem : elevatorSubsystems) {
+			new Thread(elevatorSubsystem).start();
+		}
 		guiThread.start();
 	}
 }
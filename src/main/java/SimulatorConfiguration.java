@@ -2,37 +2,80 @@ package main.java;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Properties;
 
+import main.java.scheduler.DemandForecast;
+import main.java.scheduler.DispatchStrategy;
+import main.java.transport.TransportType;
+
 /**
  * Takes the values of the config.properties files and creates variable
- * instances.
+ * instances. Every value is parsed and validated up front, an optional section
+ * lets a subsystem override any property with section.PROPERTY, and the timing
+ * and dispatch parameters can be reloaded from the file while running.
  * 
  * @author Zakaria Ismail
  */
 public class SimulatorConfiguration {
 	// node topology configuration
+	public final int GROUP_ID;
 	public final int NUM_ELEVATORS;
 	public final int NUM_FLOORS;
+	// passengers a car can carry
+	public final int CAR_CAPACITY;
 
 	public final String INPUT_PATH;
 
-	// times in ms
-	public final int DOORS_OPEN_TIME;
-	public final int DOORS_CLOSE_TIME;
-	public final int LOADING_TIME;
-	public final int MOVING_TIME;
-	public final int DOORS_OBSTRUCTED_TIME;
+	// times in ms, reloadable
+	public volatile int DOORS_OPEN_TIME;
+	public volatile int DOORS_CLOSE_TIME;
+	public volatile int LOADING_TIME;
+	public volatile int MOVING_TIME;
+	public volatile int DOORS_OBSTRUCTED_TIME;
+	// reloadable
+	public volatile DispatchStrategy DISPATCH_STRATEGY;
+	// a call waiting longer is given the closest idle car first, in ms, reloadable
+	public volatile int MAX_WAIT_TIME;
+	// head start of a call a moving car can take on its way over older calls, in
+	// ms, reloadable
+	public volatile int MATCH_BONUS_TIME;
+	// period of the reassignment pass in ms, 0 to disable, reloadable
+	public volatile int REASSIGN_INTERVAL;
+	// arrival time a reassignment must save, in ms, reloadable
+	public volatile int REASSIGN_THRESHOLD;
+	// time-of-day window of the demand forecast parking idle cars, in ms, 0 to
+	// disable parking
+	public final int PARKING_WINDOW;
 
 	// SchedulerOld and SchedulerSubsystem config
 	public final String SCHEDULER_HOST;
 	public final int SCHEDULER_PENDING_REQ_PORT;
 	public final int SCHEDULER_ARRIVAL_REQ_PORT;
 	public final int SCHEDULER_COMPLETED_REQ_PORT;
+	// config files of the other elevator groups hosted by the scheduler
+	public final String[] SCHEDULER_GROUP_CONFIGS;
+	public final int SCHEDULER_WORKER_THREADS;
+	public final String JOURNAL_DIR;
+	public final int JOURNAL_SIZE;
+	public final int JOURNAL_SNAPSHOT_INTERVAL;
+	public final String CAPTURE_PATH;
+	public final int MAX_DATAGRAM_SIZE;
+	public final TransportType TRANSPORT;
+	public final String TRANSPORT_DIR;
+	public final int TRANSPORT_RING_SIZE;
+	public final int METRICS_PORT;
+	public final String JOURNEY_EXPORT_PATH;
 
 	// Elevator config
 	public final String ELEVATOR_SUBSYSTEM_HOST;
 	public final int ELEVATOR_SUBSYSTEM_REQ_PORT;
+	// cars hosted by each ElevatorSubsystem process
+	public final ElevatorTopology ELEVATOR_TOPOLOGY;
+	// floors served by each car, every floor for every car unless zoned
+	public final ZoneLayout ELEVATOR_ZONES;
+	// threads draining the mailboxes of the cars of an ElevatorSubsystem
+	public final int ELEVATOR_WORKER_THREADS;
 
 	// Floor config
 	public final String FLOOR_SUBSYSTEM_HOST;
@@ -46,6 +89,12 @@ public class SimulatorConfiguration {
 
 	// Test config, disables automataic state transitions via clock timeout
 	public final boolean TEST_MODE;
+	// disables the log console windows, used by in-process simulations
+	public final boolean HEADLESS;
+
+	private final Properties properties;
+	private final String section;
+	private final String configFilePath;
 
 	/**
 	 * Constructor for the simulator configuration.
@@ -53,46 +102,309 @@ public class SimulatorConfiguration {
 	 * @param configFilePath String, file path name
 	 */
 	public SimulatorConfiguration(String configFilePath) {
-		FileInputStream propsInput;
-		Properties prop = null;
+		this(configFilePath, null);
+	}
 
-		try {
-			propsInput = new FileInputStream(configFilePath);
-			prop = new Properties();
-			prop.load(propsInput);
-		} catch (IOException e) {
-			System.out.println("Failed to load config.");
-			System.exit(0);
+	/**
+	 * Constructor for the simulator configuration of a subsystem, whose section
+	 * properties override the shared ones.
+	 * 
+	 * @param configFilePath String, file path name
+	 * @param section        String, the section of the subsystem, e.g. scheduler
+	 */
+	public SimulatorConfiguration(String configFilePath, String section) {
+		this(loadProperties(configFilePath), section, configFilePath);
+	}
+
+	/**
+	 * Constructor for the simulator configuration from loaded properties.
+	 * 
+	 * @param prop Properties, the configuration properties
+	 */
+	public SimulatorConfiguration(Properties prop) {
+		this(prop, null, null);
+	}
+
+	/**
+	 * Constructor for the simulator configuration.
+	 * 
+	 * @param prop           Properties, the configuration properties
+	 * @param section        String, the section of the subsystem, null for none
+	 * @param configFilePath String, the file the properties were loaded from,
+	 *                       null if none
+	 */
+	private SimulatorConfiguration(Properties prop, String section, String configFilePath) {
+		this.properties = prop;
+		this.section = section;
+		this.configFilePath = configFilePath;
+
+		GROUP_ID = getInt("GROUP_ID", 1, 1, Integer.MAX_VALUE);
+		NUM_ELEVATORS = getInt("NUM_ELEVATORS", 1, Integer.MAX_VALUE);
+		NUM_FLOORS = getInt("NUM_FLOORS", 2, Integer.MAX_VALUE);
+		CAR_CAPACITY = getInt("CAR_CAPACITY", Integer.MAX_VALUE, 1, Integer.MAX_VALUE);
+
+		INPUT_PATH = getProperty("INPUT_PATH");
+
+		DOORS_OPEN_TIME = getInt("DOORS_OPEN_TIME", 0, Integer.MAX_VALUE);
+		DOORS_CLOSE_TIME = getInt("DOORS_CLOSE_TIME", 0, Integer.MAX_VALUE);
+		LOADING_TIME = getInt("LOADING_TIME", 0, Integer.MAX_VALUE);
+		MOVING_TIME = getInt("MOVING_TIME", 0, Integer.MAX_VALUE);
+		DOORS_OBSTRUCTED_TIME = getInt("DOORS_OBSTRUCTED_TIME", 0, Integer.MAX_VALUE);
+		DISPATCH_STRATEGY = DispatchStrategy.fromName(getString("DISPATCH_STRATEGY", "closest-car"));
+		MAX_WAIT_TIME = getInt("MAX_WAIT_TIME", 120000, 0, Integer.MAX_VALUE);
+		MATCH_BONUS_TIME = getInt("MATCH_BONUS_TIME", 30000, 0, Integer.MAX_VALUE);
+		REASSIGN_INTERVAL = getInt("REASSIGN_INTERVAL", 2000, 0, Integer.MAX_VALUE);
+		REASSIGN_THRESHOLD = getInt("REASSIGN_THRESHOLD", 10000, 0, Integer.MAX_VALUE);
+		PARKING_WINDOW = getInt("PARKING_WINDOW", 900000, 0, (int) DemandForecast.DAY);
+
+		SCHEDULER_HOST = getString("SCHEDULER_HOST");
+		SCHEDULER_PENDING_REQ_PORT = getPort("SCHEDULER_PENDING_REQ_PORT");
+		SCHEDULER_ARRIVAL_REQ_PORT = getPort("SCHEDULER_ARRIVAL_REQ_PORT");
+		SCHEDULER_COMPLETED_REQ_PORT = getPort("SCHEDULER_COMPLETED_REQ_PORT");
+		String groupConfigs = getString("SCHEDULER_GROUP_CONFIGS", "").trim();
+		SCHEDULER_GROUP_CONFIGS = groupConfigs.isEmpty() ? new String[0] : groupConfigs.split("\\s*,\\s*");
+		SCHEDULER_WORKER_THREADS = getInt("SCHEDULER_WORKER_THREADS",
+				Math.min(SCHEDULER_GROUP_CONFIGS.length + 1, Runtime.getRuntime().availableProcessors()), 1,
+				Integer.MAX_VALUE);
+		// journaling is disabled when no directory is configured
+		JOURNAL_DIR = getProperty("JOURNAL_DIR");
+		JOURNAL_SIZE = getInt("JOURNAL_SIZE", 8388608, 4096, Integer.MAX_VALUE);
+		JOURNAL_SNAPSHOT_INTERVAL = getInt("JOURNAL_SNAPSHOT_INTERVAL", 1000, 1, Integer.MAX_VALUE);
+		// received datagrams are captured when a path is configured
+		CAPTURE_PATH = getProperty("CAPTURE_PATH");
+		// larger messages are fragmented, must match between the subsystems
+		MAX_DATAGRAM_SIZE = getInt("MAX_DATAGRAM_SIZE", UDPClient.DEFAULT_DATAGRAM_SIZE, UDPClient.HEADER_SIZE + 1,
+				UDPClient.MAX_DATAGRAM_SIZE);
+		TRANSPORT = TransportType.fromName(getString("TRANSPORT", "udp"));
+		TRANSPORT_DIR = getString("TRANSPORT_DIR", System.getProperty("java.io.tmpdir") + "/elevator-transport");
+		TRANSPORT_RING_SIZE = getInt("TRANSPORT_RING_SIZE", 1 << 20, 4096, 1 << 30);
+		if (Integer.bitCount(TRANSPORT_RING_SIZE) != 1) {
+			throw new IllegalArgumentException(
+					String.format("Invalid TRANSPORT_RING_SIZE=%d, expected a power of two", TRANSPORT_RING_SIZE));
 		}
+		// metrics are only served over HTTP when a port is configured
+		METRICS_PORT = getInt("METRICS_PORT", 0, 0, 65535);
+		// completed journeys are exported by the floor subsystem when a path is set
+		JOURNEY_EXPORT_PATH = getProperty("JOURNEY_EXPORT_PATH");
 
-		NUM_ELEVATORS = Integer.parseInt(prop.getProperty("NUM_ELEVATORS"));
-		NUM_FLOORS = Integer.parseInt(prop.getProperty("NUM_FLOORS"));
+		ELEVATOR_SUBSYSTEM_HOST = getString("ELEVATOR_SUBSYSTEM_HOST");
+		ELEVATOR_SUBSYSTEM_REQ_PORT = getPort("ELEVATOR_SUBSYSTEM_REQ_PORT");
+		if (getProperty("ELEVATOR_NODES") != null) {
+			ELEVATOR_TOPOLOGY = ElevatorTopology.parse(getProperty("ELEVATOR_NODES"), NUM_ELEVATORS);
+		} else {
+			ELEVATOR_TOPOLOGY = new ElevatorTopology(ELEVATOR_SUBSYSTEM_HOST, ELEVATOR_SUBSYSTEM_REQ_PORT,
+					NUM_ELEVATORS);
+		}
+		if (getProperty("ELEVATOR_ZONES") != null) {
+			ELEVATOR_ZONES = ZoneLayout.parse(getProperty("ELEVATOR_ZONES"), NUM_ELEVATORS, NUM_FLOORS);
+		} else {
+			ELEVATOR_ZONES = new ZoneLayout(NUM_ELEVATORS, NUM_FLOORS);
+		}
+		ELEVATOR_WORKER_THREADS = getInt("ELEVATOR_WORKER_THREADS", Runtime.getRuntime().availableProcessors(), 1,
+				Integer.MAX_VALUE);
 
-		INPUT_PATH = prop.getProperty("INPUT_PATH");
+		FLOOR_SUBSYSTEM_HOST = getString("FLOOR_SUBSYSTEM_HOST");
+		FLOOR_SUBSYSTEM_COMPLETED_REQ_PORT = getPort("FLOOR_SUBSYSTEM_COMPLETED_REQ_PORT");
+		FLOOR_SUBSYSTEM_ARRIVAL_REQ_PORT = getPort("FLOOR_SUBSYSTEM_ARRIVAL_REQ_PORT");
 
-		DOORS_OPEN_TIME = Integer.parseInt(prop.getProperty("DOORS_OPEN_TIME"));
-		DOORS_CLOSE_TIME = Integer.parseInt(prop.getProperty("DOORS_CLOSE_TIME"));
-		LOADING_TIME = Integer.parseInt(prop.getProperty("LOADING_TIME"));
-		MOVING_TIME = Integer.parseInt(prop.getProperty("MOVING_TIME"));
-		DOORS_OBSTRUCTED_TIME = Integer.parseInt(prop.getProperty("DOORS_OBSTRUCTED_TIME"));
+		GUI_HOST = getString("GUI_HOST");
+		GUI_FLOOR_DTO_PORT = getPort("GUI_FLOOR_DTO_PORT");
+		GUI_ELEVATOR_DTO_PORT = getPort("GUI_ELEVATOR_DTO_PORT");
 
-		SCHEDULER_HOST = prop.getProperty("SCHEDULER_HOST");
-		SCHEDULER_PENDING_REQ_PORT = Integer.parseInt(prop.getProperty("SCHEDULER_PENDING_REQ_PORT"));
-		SCHEDULER_ARRIVAL_REQ_PORT = Integer.parseInt(prop.getProperty("SCHEDULER_ARRIVAL_REQ_PORT"));
-		SCHEDULER_COMPLETED_REQ_PORT = Integer.parseInt(prop.getProperty("SCHEDULER_COMPLETED_REQ_PORT"));
+		TEST_MODE = getBoolean("TEST_MODE", false);
+		HEADLESS = getBoolean("HEADLESS", false);
+	}
 
-		ELEVATOR_SUBSYSTEM_HOST = prop.getProperty("ELEVATOR_SUBSYSTEM_HOST");
-		ELEVATOR_SUBSYSTEM_REQ_PORT = Integer.parseInt(prop.getProperty("ELEVATOR_SUBSYSTEM_REQ_PORT"));
+	/**
+	 * Get the configuration of a subsystem, whose section properties override the
+	 * shared ones. The properties are not read again.
+	 * 
+	 * @param section String, the section of the subsystem, e.g. scheduler
+	 * @return SimulatorConfiguration, the configuration of the subsystem
+	 */
+	public SimulatorConfiguration forSection(String section) {
+		return new SimulatorConfiguration(properties, section, configFilePath);
+	}
 
-		FLOOR_SUBSYSTEM_HOST = prop.getProperty("FLOOR_SUBSYSTEM_HOST");
-		FLOOR_SUBSYSTEM_COMPLETED_REQ_PORT = Integer.parseInt(prop.getProperty("FLOOR_SUBSYSTEM_COMPLETED_REQ_PORT"));
-		FLOOR_SUBSYSTEM_ARRIVAL_REQ_PORT = Integer.parseInt(prop.getProperty("FLOOR_SUBSYSTEM_ARRIVAL_REQ_PORT"));
+	/**
+	 * Reload the config file and apply the reloadable parameters: the state times
+	 * and the dispatch parameters. The other properties need a restart. Nothing is
+	 * applied if the file is invalid.
+	 * 
+	 * @throws IllegalArgumentException if the file is invalid
+	 * @throws UncheckedIOException     if the file cannot be read
+	 */
+	public void reload() {
+		if (configFilePath == null) {
+			throw new IllegalArgumentException("Configuration was not loaded from a file");
+		}
+		SimulatorConfiguration reloaded = new SimulatorConfiguration(loadProperties(configFilePath), section,
+				configFilePath);
+		DOORS_OPEN_TIME = reloaded.DOORS_OPEN_TIME;
+		DOORS_CLOSE_TIME = reloaded.DOORS_CLOSE_TIME;
+		LOADING_TIME = reloaded.LOADING_TIME;
+		MOVING_TIME = reloaded.MOVING_TIME;
+		DOORS_OBSTRUCTED_TIME = reloaded.DOORS_OBSTRUCTED_TIME;
+		DISPATCH_STRATEGY = reloaded.DISPATCH_STRATEGY;
+		MAX_WAIT_TIME = reloaded.MAX_WAIT_TIME;
+		MATCH_BONUS_TIME = reloaded.MATCH_BONUS_TIME;
+		REASSIGN_INTERVAL = reloaded.REASSIGN_INTERVAL;
+		REASSIGN_THRESHOLD = reloaded.REASSIGN_THRESHOLD;
+	}
 
-		GUI_HOST = prop.getProperty("GUI_HOST");
-		GUI_FLOOR_DTO_PORT = Integer.parseInt(prop.getProperty("GUI_FLOOR_DTO_PORT"));
-		GUI_ELEVATOR_DTO_PORT = Integer.parseInt(prop.getProperty("GUI_ELEVATOR_DTO_PORT"));
+	/**
+	 * Getter for the file the configuration was loaded from.
+	 * 
+	 * @return String, the file path, null if not loaded from a file
+	 */
+	public String getConfigFilePath() {
+		return configFilePath;
+	}
+
+	/**
+	 * Getter for the section of the configuration.
+	 * 
+	 * @return String, the section, null for none
+	 */
+	public String getSection() {
+		return section;
+	}
 
-		TEST_MODE = Boolean.parseBoolean(prop.getProperty("TEST_MODE", "false"));
+	/**
+	 * Get a property, the section property first.
+	 * 
+	 * @param key String, the property name
+	 * @return String, the trimmed value, null if not set
+	 */
+	private String getProperty(String key) {
+		String value = null;
+		if (section != null) {
+			value = properties.getProperty(section + "." + key);
+		}
+		if (value == null) {
+			value = properties.getProperty(key);
+		}
+		return value == null ? null : value.trim();
+	}
+
+	/**
+	 * Get a required string property.
+	 * 
+	 * @param key String, the property name
+	 * @return String, the value
+	 */
+	private String getString(String key) {
+		String value = getProperty(key);
+		if (value == null || value.isEmpty()) {
+			throw new IllegalArgumentException("Missing property " + key);
+		}
+		return value;
+	}
+
+	/**
+	 * Get an optional string property.
+	 * 
+	 * @param key          String, the property name
+	 * @param defaultValue String, the value if not set
+	 * @return String, the value
+	 */
+	private String getString(String key, String defaultValue) {
+		String value = getProperty(key);
+		return value == null ? defaultValue : value;
+	}
+
+	/**
+	 * Get a required integer property within bounds.
+	 * 
+	 * @param key String, the property name
+	 * @param min int, the smallest valid value
+	 * @param max int, the largest valid value
+	 * @return int, the value
+	 */
+	private int getInt(String key, int min, int max) {
+		return parseInt(key, getString(key), min, max);
+	}
+
+	/**
+	 * Get an optional integer property within bounds.
+	 * 
+	 * @param key          String, the property name
+	 * @param defaultValue int, the value if not set
+	 * @param min          int, the smallest valid value
+	 * @param max          int, the largest valid value
+	 * @return int, the value
+	 */
+	private int getInt(String key, int defaultValue, int min, int max) {
+		String value = getProperty(key);
+		return value == null ? defaultValue : parseInt(key, value, min, max);
+	}
+
+	/**
+	 * Get a required port property.
+	 * 
+	 * @param key String, the property name
+	 * @return int, the port
+	 */
+	private int getPort(String key) {
+		return getInt(key, 1, 65535);
+	}
+
+	/**
+	 * Get an optional boolean property, true or false.
+	 * 
+	 * @param key          String, the property name
+	 * @param defaultValue boolean, the value if not set
+	 * @return boolean, the value
+	 */
+	private boolean getBoolean(String key, boolean defaultValue) {
+		String value = getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+			throw new IllegalArgumentException(String.format("Invalid %s=%s, expected true or false", key, value));
+		}
+		return Boolean.parseBoolean(value);
+	}
+
+	/**
+	 * Parse an integer property within bounds.
+	 * 
+	 * @param key   String, the property name
+	 * @param value String, the value
+	 * @param min   int, the smallest valid value
+	 * @param max   int, the largest valid value
+	 * @return int, the value
+	 */
+	private static int parseInt(String key, String value, int min, int max) {
+		int parsed;
+		try {
+			parsed = Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Invalid %s=%s, expected an integer", key, value));
+		}
+		if (parsed < min || parsed > max) {
+			throw new IllegalArgumentException(
+					String.format("Invalid %s=%s, expected a value in [%d, %d]", key, value, min, max));
+		}
+		return parsed;
+	}
+
+	/**
+	 * Load the properties of a config file.
+	 * 
+	 * @param configFilePath String, file path name
+	 * @return Properties, the loaded properties
+	 * @throws UncheckedIOException if the file cannot be read
+	 */
+	public static Properties loadProperties(String configFilePath) {
+		Properties prop = new Properties();
+		try (FileInputStream propsInput = new FileInputStream(configFilePath)) {
+			prop.load(propsInput);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to load config " + configFilePath, e);
+		}
+		return prop;
 	}
 
 }
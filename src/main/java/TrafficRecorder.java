@@ -0,0 +1,159 @@
+package main.java;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Records the datagrams received by the UDPClient sockets of a process into a
+ * compact binary capture file, and reads them back for replay.
+ *
+ * The file starts with the magic number and format version, followed by one
+ * record per datagram: [nanoseconds since capture start][local port][length]
+ * [payload].
+ *
+ * @author Zakaria Ismail
+ */
+public class TrafficRecorder {
+	private static final int MAGIC = 0x45435343; // "ECSC"
+	// 2: payloads in the binary wire format of the DTOs
+	// 3: requests in primitive form, timestamps in ms
+	private static final int VERSION = 3;
+
+	private final DataOutputStream out;
+	private final long startNanos;
+
+	/**
+	 * Constructor for the traffic recorder, truncating the capture file.
+	 *
+	 * @param capturePath String, the path of the capture file
+	 * @throws IOException
+	 */
+	public TrafficRecorder(String capturePath) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(capturePath), 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Record a received datagram.
+	 *
+	 * @param port   int, the local port the datagram was received on
+	 * @param data   byte[], the packet buffer
+	 * @param offset int, the offset of the payload in the buffer
+	 * @param length int, the length of the payload
+	 */
+	public synchronized void record(int port, byte[] data, int offset, int length) {
+		try {
+			out.writeLong(System.nanoTime() - startNanos);
+			out.writeInt(port);
+			out.writeInt(length);
+			out.write(data, offset, length);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Flush and close the capture file.
+	 */
+	public synchronized void close() {
+		try {
+			out.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Open a capture file for reading.
+	 *
+	 * @param capturePath String, the path of the capture file
+	 * @return DataInputStream, the stream positioned on the first record
+	 * @throws IOException
+	 */
+	public static DataInputStream openCapture(String capturePath) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(capturePath), 1 << 16));
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			in.close();
+			throw new IOException("Not a traffic capture: " + capturePath);
+		}
+		return in;
+	}
+
+	/**
+	 * Read the next record of a capture file.
+	 *
+	 * @param in DataInputStream, the capture stream
+	 * @return Record, the next record, or null at the end of the capture
+	 * @throws IOException
+	 */
+	public static Record readRecord(DataInputStream in) throws IOException {
+		long timestampNanos;
+		try {
+			timestampNanos = in.readLong();
+		} catch (EOFException e) {
+			return null;
+		}
+		int port = in.readInt();
+		byte[] data = new byte[in.readInt()];
+		in.readFully(data);
+		return new Record(timestampNanos, port, data);
+	}
+
+	/**
+	 * A datagram read from a capture file.
+	 */
+	public static class Record {
+		private final long timestampNanos;
+		private final int port;
+		private final byte[] data;
+
+		/**
+		 * Constructor for a capture record.
+		 *
+		 * @param timestampNanos long, nanoseconds since the capture started
+		 * @param port           int, the local port the datagram was received on
+		 * @param data           byte[], the payload of the datagram
+		 */
+		public Record(long timestampNanos, int port, byte[] data) {
+			this.timestampNanos = timestampNanos;
+			this.port = port;
+			this.data = data;
+		}
+
+		/**
+		 * Getter for the timestamp.
+		 *
+		 * @return long, nanoseconds since the capture started
+		 */
+		public long getTimestampNanos() {
+			return timestampNanos;
+		}
+
+		/**
+		 * Getter for the port.
+		 *
+		 * @return int, the local port the datagram was received on
+		 */
+		public int getPort() {
+			return port;
+		}
+
+		/**
+		 * Getter for the payload.
+		 *
+		 * @return byte[], the payload of the datagram
+		 */
+		public byte[] getData() {
+			return data;
+		}
+	}
+
+}
@@ -0,0 +1,149 @@
+package main.java;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import main.java.elevator.ElevatorSubsystem;
+import main.java.scheduler.SchedulerSubsystem;
+
+/**
+ * Replays a traffic capture recorded by the UDPClient into a SchedulerSubsystem
+ * or ElevatorSubsystem hosted in the same process. Each captured datagram is
+ * handed to the handler of the port it was received on, bypassing the
+ * sockets, either at full speed or paced by the captured timestamps.
+ *
+ * Usage: TrafficReplayer capturePath scheduler|elevator [nodeIndex] [speed]
+ *
+ * @author Zakaria Ismail
+ */
+public class TrafficReplayer {
+	private final String capturePath;
+
+	/**
+	 * Handler of the datagrams received on a port.
+	 */
+	public interface PacketHandler {
+		/**
+		 * Handle a replayed datagram.
+		 *
+		 * @param data byte[], the payload of the datagram
+		 * @throws IOException
+		 * @throws ClassNotFoundException
+		 */
+		void handle(byte[] data) throws IOException, ClassNotFoundException;
+	}
+
+	/**
+	 * Constructor for the traffic replayer.
+	 *
+	 * @param capturePath String, the path of the capture file
+	 */
+	public TrafficReplayer(String capturePath) {
+		this.capturePath = capturePath;
+	}
+
+	/**
+	 * Replay the datagrams captured on the scheduler ports into a scheduler.
+	 *
+	 * @param scheduler SchedulerSubsystem, the scheduler to feed
+	 * @param speed     double, the replay speed relative to the capture, 0 for full
+	 *                  speed
+	 * @return int, the number of datagrams replayed
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public int replay(SchedulerSubsystem scheduler, double speed) throws IOException, InterruptedException {
+		SimulatorConfiguration config = scheduler.getSimulatorConfiguration();
+		Map<Integer, PacketHandler> handlers = new HashMap<>();
+		handlers.put(config.SCHEDULER_PENDING_REQ_PORT, scheduler::handlePendingRequest);
+		handlers.put(config.SCHEDULER_ARRIVAL_REQ_PORT, scheduler::handleArrivalNotification);
+		handlers.put(config.SCHEDULER_COMPLETED_REQ_PORT, scheduler::handleCompletedElevatorRequest);
+		return replay(handlers, speed);
+	}
+
+	/**
+	 * Replay the datagrams captured on the port of an elevator node into an
+	 * elevator subsystem.
+	 *
+	 * @param elevatorSubsystem ElevatorSubsystem, the elevator subsystem to feed
+	 * @param speed             double, the replay speed relative to the capture, 0
+	 *                          for full speed
+	 * @return int, the number of datagrams replayed
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public int replay(ElevatorSubsystem elevatorSubsystem, double speed) throws IOException, InterruptedException {
+		Map<Integer, PacketHandler> handlers = new HashMap<>();
+		handlers.put(elevatorSubsystem.getNode().getPort(), elevatorSubsystem::handleElevatorRequest);
+		return replay(handlers, speed);
+	}
+
+	/**
+	 * Replay the captured datagrams into the handlers of their ports. Datagrams
+	 * received on other ports are skipped.
+	 *
+	 * @param handlers Map, key: port, value: handler of the port
+	 * @param speed    double, the replay speed relative to the capture, 0 for full
+	 *                 speed
+	 * @return int, the number of datagrams replayed
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public int replay(Map<Integer, PacketHandler> handlers, double speed) throws IOException, InterruptedException {
+		int replayed = 0;
+		long startNanos = System.nanoTime();
+		try (DataInputStream in = TrafficRecorder.openCapture(capturePath)) {
+			TrafficRecorder.Record record;
+			while ((record = TrafficRecorder.readRecord(in)) != null) {
+				PacketHandler handler = handlers.get(record.getPort());
+				if (handler == null) {
+					continue;
+				}
+				if (speed > 0) {
+					long delayNanos = (long) (record.getTimestampNanos() / speed) - (System.nanoTime() - startNanos);
+					if (delayNanos > 0) {
+						Thread.sleep(delayNanos / 1000000, (int) (delayNanos % 1000000));
+					}
+				}
+				try {
+					handler.handle(record.getData());
+				} catch (ClassNotFoundException e) {
+					e.printStackTrace();
+				}
+				replayed++;
+			}
+		}
+		return replayed;
+	}
+
+	/**
+	 * Main method, replaying a capture into a subsystem created in this process.
+	 *
+	 * @param args String[], capture path, target subsystem, node index and speed
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 2) {
+			System.out.println("Usage: TrafficReplayer capturePath scheduler|elevator [nodeIndex] [speed]");
+			System.exit(1);
+		}
+		SimulatorConfiguration configuration = new SimulatorConfiguration("./src/main/resources/config.properties");
+		TrafficReplayer replayer = new TrafficReplayer(args[0]);
+		int nodeIndex = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+		double speed = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+
+		long start = System.nanoTime();
+		int replayed;
+		if (args[1].equals("scheduler")) {
+			replayed = replayer.replay(new SchedulerSubsystem(configuration), speed);
+		} else {
+			replayed = replayer.replay(new ElevatorSubsystem(configuration, nodeIndex), speed);
+		}
+		System.out.println(String.format("Replayed %d datagrams in %d ms", replayed,
+				(System.nanoTime() - start) / 1000000));
+	}
+
+}
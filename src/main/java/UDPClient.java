@@ -6,17 +6,51 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * UDP Client class for sending and receiving requests between Elevator,
  * Scheduler and Floor Subsystem.
  * 
+ * Every message is framed with a header holding its id, length and the index
+ * and offset of the fragment carried by the datagram. A message larger than the
+ * max datagram size is split into fragments that the receiver reassembles; a
+ * message missing fragments is dropped once MAX_PARTIAL_MESSAGES newer
+ * fragmented messages are in reassembly. The max datagram size is process wide
+ * and must be the same for the sender and the receiver.
+ * 
+ * A receiving client reuses a single buffer for every datagram: the packet
+ * returned by receiveMessage and the ByteBuffer returned by receive belong to
+ * the client and are only valid until its next receive. A receiving client is
+ * meant to be used by a single listener thread, a caller keeping the data
+ * longer must decode it or copy it with readPacketData first.
+ * 
  * @author Zakaria Ismail
  */
 public class UDPClient {
-	private static final int BUF_SIZE = 1000;
+	// message id, fragment count, fragment index, message length, fragment offset
+	public static final int HEADER_SIZE = 16;
+	// max payload of a UDP datagram over IPv4
+	public static final int MAX_DATAGRAM_SIZE = 65507;
+	public static final int DEFAULT_DATAGRAM_SIZE = 1400;
+	public static final int MAX_MESSAGE_SIZE = 1 << 20;
+	private static final int MAX_PARTIAL_MESSAGES = 16;
+	private static final AtomicInteger NEXT_MESSAGE_ID = new AtomicInteger();
+	private static volatile int maxDatagramSize = DEFAULT_DATAGRAM_SIZE;
+	// process wide capture of the received datagrams, null when not capturing
+	private static volatile TrafficRecorder trafficRecorder;
 	private DatagramSocket socket;
+	// reused by every receive, owned by the listener thread of the client
+	private byte[] receiveBuf;
+	private DatagramPacket receivePacket;
+	private ByteBuffer receiveBuffer;
+	// key: sender address and message id, messages waiting for fragments
+	private Map<String, Reassembly> partialMessages;
 
 	/**
 	 * Constructor for UDP Client class, for sending datagram socket
@@ -45,6 +79,61 @@ public class UDPClient {
 		}
 	}
 
+	/**
+	 * Start recording every datagram received by this process into a capture
+	 * file. Does nothing if a capture is already running.
+	 * 
+	 * @param capturePath String, the path of the capture file
+	 */
+	public static synchronized void startCapture(String capturePath) {
+		if (trafficRecorder != null) {
+			return;
+		}
+		try {
+			TrafficRecorder recorder = new TrafficRecorder(capturePath);
+			Runtime.getRuntime().addShutdownHook(new Thread(recorder::close));
+			trafficRecorder = recorder;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Set the max size of the datagrams sent and received by this process,
+	 * header included. Receiving clients size their buffer on their first
+	 * receive.
+	 * 
+	 * @param size int, the max datagram size in bytes
+	 * @throws IllegalArgumentException if the size cannot hold a header and a
+	 *                                  byte of payload, or is over
+	 *                                  MAX_DATAGRAM_SIZE
+	 */
+	public static void setMaxDatagramSize(int size) {
+		if (size <= HEADER_SIZE || size > MAX_DATAGRAM_SIZE) {
+			throw new IllegalArgumentException(String.format("Invalid max datagram size %d, expected %d to %d", size,
+					HEADER_SIZE + 1, MAX_DATAGRAM_SIZE));
+		}
+		maxDatagramSize = size;
+	}
+
+	/**
+	 * Getter for the max datagram size.
+	 * 
+	 * @return int, the max datagram size in bytes
+	 */
+	public static int getMaxDatagramSize() {
+		return maxDatagramSize;
+	}
+
+	/**
+	 * Getter for the local port of the socket.
+	 * 
+	 * @return int, the port number
+	 */
+	public int getPort() {
+		return socket.getLocalPort();
+	}
+
 	/**
 	 * Closing socket method.
 	 */
@@ -53,22 +142,49 @@ public class UDPClient {
 	}
 
 	/**
-	 * Method for sending the data.
+	 * Method for sending the data, fragmented if it does not fit in one
+	 * datagram.
 	 * 
 	 * @param data     byte[], the data to be sent
 	 * @param destAddr InetAddress, destination address
 	 * @param destPort int, destination port number
-	 * @return DatagramPacket, sent packet
+	 * @return DatagramPacket, the last sent packet
+	 * @throws IllegalArgumentException if the data is over MAX_MESSAGE_SIZE or
+	 *                                  needs too many fragments
 	 */
 	public DatagramPacket sendMessage(byte[] data, InetAddress destAddr, int destPort) {
-		DatagramPacket sendPacket;
+		if (data.length > MAX_MESSAGE_SIZE) {
+			throw new IllegalArgumentException(
+					String.format("Message of %d bytes over the max of %d bytes", data.length, MAX_MESSAGE_SIZE));
+		}
+		int maxPayload = maxDatagramSize - HEADER_SIZE;
+		int numFragments = Math.max(1, (data.length + maxPayload - 1) / maxPayload);
+		if (numFragments > Short.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format("Message of %d bytes needs %d fragments, over the max of %d",
+					data.length, numFragments, Short.MAX_VALUE));
+		}
+		int messageId = NEXT_MESSAGE_ID.incrementAndGet();
+		byte[] datagram = new byte[HEADER_SIZE + Math.min(maxPayload, data.length)];
+		ByteBuffer frame = ByteBuffer.wrap(datagram);
+		DatagramPacket sendPacket = null;
 
-		sendPacket = new DatagramPacket(data, data.length, destAddr, destPort);
-		try {
-			socket.send(sendPacket);
-		} catch (IOException e) {
-			e.printStackTrace();
-			System.exit(1);
+		for (int i = 0; i < numFragments; i++) {
+			int offset = i * maxPayload;
+			int length = Math.min(maxPayload, data.length - offset);
+			frame.clear();
+			frame.putInt(messageId);
+			frame.putShort((short) numFragments);
+			frame.putShort((short) i);
+			frame.putInt(data.length);
+			frame.putInt(offset);
+			frame.put(data, offset, length);
+			sendPacket = new DatagramPacket(datagram, frame.position(), destAddr, destPort);
+			try {
+				socket.send(sendPacket);
+			} catch (IOException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
 		}
 		return sendPacket;
 	}
@@ -91,22 +207,151 @@ public class UDPClient {
 	}
 
 	/**
-	 * Method for receiving the data.
+	 * Method for receiving the data of the next complete message. A message
+	 * carried by one datagram is returned in place, the packet and its data are
+	 * reused by the next receive on this client.
 	 * 
-	 * @return DatagramPacket, received packet
+	 * @return DatagramPacket, packet holding the received message
 	 */
 	public DatagramPacket receiveMessage() {
-		DatagramPacket receivePacket;
-		byte[] receiveBuf = new byte[BUF_SIZE];
+		if (receivePacket == null) {
+			receiveBuf = new byte[maxDatagramSize];
+			receivePacket = new DatagramPacket(receiveBuf, receiveBuf.length);
+			receiveBuffer = ByteBuffer.wrap(receiveBuf);
+		}
+		DatagramPacket message = null;
+		while (message == null) {
+			// a receive shrinks the length of the packet to the datagram received
+			receivePacket.setData(receiveBuf, 0, receiveBuf.length);
+			try {
+				socket.receive(receivePacket);
+			} catch (IOException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+			message = readFrame(receivePacket);
+		}
+		TrafficRecorder recorder = trafficRecorder;
+		if (recorder != null) {
+			recorder.record(socket.getLocalPort(), message.getData(), message.getOffset(), message.getLength());
+		}
+		return message;
+	}
 
-		receivePacket = new DatagramPacket(receiveBuf, receiveBuf.length);
-		try {
-			socket.receive(receivePacket);
-		} catch (IOException e) {
-			e.printStackTrace();
-			System.exit(1);
+	/**
+	 * Method for receiving the data of the next complete message without copying
+	 * it. The buffer is positioned at the start of the message with its limit at
+	 * the end, and is reused by the next receive on this client.
+	 * 
+	 * @return ByteBuffer, the received data
+	 */
+	public ByteBuffer receive() {
+		DatagramPacket packet = receiveMessage();
+		if (packet.getData() != receiveBuf) {
+			return ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength());
+		}
+		receiveBuffer.clear();
+		receiveBuffer.limit(packet.getOffset() + packet.getLength());
+		receiveBuffer.position(packet.getOffset());
+		return receiveBuffer;
+	}
+
+	/**
+	 * Read the frame header of a received datagram.
+	 * 
+	 * @param packet DatagramPacket, the received datagram
+	 * @return DatagramPacket, the complete message, null if the datagram is
+	 *         invalid or the message is still missing fragments
+	 */
+	private DatagramPacket readFrame(DatagramPacket packet) {
+		int length = packet.getLength() - HEADER_SIZE;
+		if (length < 0) {
+			System.out.println(String.format("Dropping datagram of %d bytes from %s, shorter than the header",
+					packet.getLength(), packet.getSocketAddress()));
+			return null;
+		}
+		int messageId = receiveBuffer.getInt(0);
+		int numFragments = receiveBuffer.getShort(4);
+		int index = receiveBuffer.getShort(6);
+		int messageLength = receiveBuffer.getInt(8);
+		int offset = receiveBuffer.getInt(12);
+		if (numFragments < 1 || index < 0 || index >= numFragments || messageLength < 0
+				|| messageLength > MAX_MESSAGE_SIZE || offset < 0 || offset > messageLength - length) {
+			System.out.println(String.format("Dropping datagram with an invalid header from %s",
+					packet.getSocketAddress()));
+			return null;
+		}
+		if (numFragments == 1) {
+			if (offset != 0 || length != messageLength) {
+				System.out.println(String.format("Dropping datagram of %d bytes from %s, the header announces %d bytes",
+						length, packet.getSocketAddress(), messageLength));
+				return null;
+			}
+			// the whole message is in the receive buffer
+			packet.setData(receiveBuf, HEADER_SIZE, length);
+			return packet;
+		}
+
+		if (partialMessages == null) {
+			partialMessages = new LinkedHashMap<String, Reassembly>() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Reassembly> eldest) {
+					return size() > MAX_PARTIAL_MESSAGES;
+				}
+			};
+		}
+		String key = packet.getSocketAddress() + "/" + messageId;
+		Reassembly reassembly = partialMessages.get(key);
+		if (reassembly == null) {
+			reassembly = new Reassembly(messageLength, numFragments);
+			partialMessages.put(key, reassembly);
+		} else if (reassembly.data.length != messageLength || reassembly.numFragments != numFragments) {
+			System.out.println(String.format("Dropping fragment not matching message %s", key));
+			return null;
+		}
+		if (!reassembly.received.get(index)) {
+			reassembly.received.set(index);
+			reassembly.numMissing--;
+			reassembly.numBytes += length;
+			System.arraycopy(receiveBuf, HEADER_SIZE, reassembly.data, offset, length);
+		}
+		if (reassembly.numMissing > 0) {
+			return null;
+		}
+		partialMessages.remove(key);
+		if (reassembly.numBytes != messageLength) {
+			System.out.println(String.format("Dropping message %s, its fragments carry %d of %d bytes", key,
+					reassembly.numBytes, messageLength));
+			return null;
+		}
+		return new DatagramPacket(reassembly.data, reassembly.data.length, packet.getSocketAddress());
+	}
+
+	/**
+	 * A fragmented message being reassembled.
+	 */
+	private static class Reassembly {
+		private final byte[] data;
+		private final int numFragments;
+		private final BitSet received;
+		private int numMissing;
+		// bytes carried by the fragments received
+		private int numBytes;
+
+		/**
+		 * Constructor for the reassembly of a message.
+		 * 
+		 * @param length       int, the length of the message
+		 * @param numFragments int, the number of fragments of the message
+		 */
+		private Reassembly(int length, int numFragments) {
+			data = new byte[length];
+			this.numFragments = numFragments;
+			received = new BitSet(numFragments);
+			numMissing = numFragments;
 		}
-		return receivePacket;
 	}
 
 	/**
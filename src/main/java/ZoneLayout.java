@@ -0,0 +1,177 @@
+package main.java;
+
+/**
+ * Describes the floors served by each elevator car of a group, for zoned and
+ * express dispatch in tall buildings. A zone is a range of cars serving a set of
+ * floors, a car runs express past the floors between the ones it serves.
+ *
+ * The zones are read from the ELEVATOR_ZONES property as a comma separated list
+ * of firstCar-lastCar:floors entries, the floors being ranges joined by +, e.g.
+ * 1-2:1-11,3-4:1+12-22 for a low-rise group and a high-rise group running
+ * express from the lobby. A car in no zone serves every floor, and every floor
+ * must be served by a car. When the property is absent every car serves every
+ * floor.
+ *
+ * @author Zakaria Ismail
+ */
+public class ZoneLayout {
+	private int numElevators;
+	private int numFloors;
+	private boolean zoned;
+	// index: elevator id, floor
+	private boolean[][] servedFloors;
+
+	/**
+	 * Constructor for a layout where every car serves every floor.
+	 *
+	 * @param numElevators int, the number of elevators
+	 * @param numFloors    int, the number of floors
+	 */
+	public ZoneLayout(int numElevators, int numFloors) {
+		this.numElevators = numElevators;
+		this.numFloors = numFloors;
+		servedFloors = new boolean[numElevators + 1][];
+		boolean[] allFloors = new boolean[numFloors + 1];
+		for (int floor = 1; floor <= numFloors; floor++) {
+			allFloors[floor] = true;
+		}
+		for (int id = 1; id <= numElevators; id++) {
+			servedFloors[id] = allFloors;
+		}
+	}
+
+	/**
+	 * Parse the ELEVATOR_ZONES property.
+	 *
+	 * @param zonesProperty String, the comma separated firstCar-lastCar:floors
+	 *                      list
+	 * @param numElevators  int, the number of elevators
+	 * @param numFloors     int, the number of floors
+	 * @return ZoneLayout, the parsed layout
+	 */
+	public static ZoneLayout parse(String zonesProperty, int numElevators, int numFloors) {
+		ZoneLayout layout = new ZoneLayout(numElevators, numFloors);
+		boolean[] zonedCars = new boolean[numElevators + 1];
+		for (String entry : zonesProperty.split(",")) {
+			String[] parts = entry.trim().split(":");
+			if (parts.length != 2) {
+				throw new IllegalArgumentException("Invalid elevator zone: " + entry);
+			}
+			int[] cars = parseRange(parts[0], entry);
+			if (cars[0] < 1 || cars[1] > numElevators || cars[0] > cars[1]) {
+				throw new IllegalArgumentException("Invalid elevator range for zone " + entry.trim());
+			}
+			boolean[] floors = new boolean[numFloors + 1];
+			for (String floorRange : parts[1].split("\\+")) {
+				int[] range = parseRange(floorRange, entry);
+				if (range[0] < 1 || range[1] > numFloors || range[0] > range[1]) {
+					throw new IllegalArgumentException("Invalid floor range for zone " + entry.trim());
+				}
+				for (int floor = range[0]; floor <= range[1]; floor++) {
+					floors[floor] = true;
+				}
+			}
+			for (int id = cars[0]; id <= cars[1]; id++) {
+				if (zonedCars[id]) {
+					throw new IllegalArgumentException("Elevator#" + id + " is assigned to more than one zone");
+				}
+				zonedCars[id] = true;
+				layout.servedFloors[id] = floors;
+			}
+		}
+		for (int floor = 1; floor <= numFloors; floor++) {
+			if (layout.getNumServingElevators(floor) == 0) {
+				throw new IllegalArgumentException("Floor " + floor + " is not served by an elevator");
+			}
+		}
+		layout.zoned = true;
+		return layout;
+	}
+
+	/**
+	 * Parse a first-last range, or a single value.
+	 *
+	 * @param range String, the range
+	 * @param entry String, the zone entry, for the error message
+	 * @return int[], the first and last values
+	 */
+	private static int[] parseRange(String range, String entry) {
+		String[] bounds = range.split("-");
+		try {
+			int first = Integer.parseInt(bounds[0].trim());
+			int last = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : first;
+			return new int[] { first, last };
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid elevator zone: " + entry);
+		}
+	}
+
+	/**
+	 * Check whether an elevator stops at a floor.
+	 *
+	 * @param elevatorId int, the elevator id
+	 * @param floor      int, the floor
+	 * @return boolean, true if the floor is in the zone of the elevator
+	 */
+	public boolean serves(int elevatorId, int floor) {
+		if (elevatorId < 1 || elevatorId > numElevators || floor < 1 || floor > numFloors) {
+			return false;
+		}
+		return servedFloors[elevatorId][floor];
+	}
+
+	/**
+	 * Check whether an elevator can be given a request. A request is given to a
+	 * car serving both its floors. When no car serves both, as for a trip between
+	 * two zones, it is given to a car serving its source floor, which makes an
+	 * exceptional stop at the destination.
+	 *
+	 * @param elevatorId       int, the elevator id
+	 * @param sourceFloor      int, the source floor of the request
+	 * @param destinationFloor int, the destination floor of the request
+	 * @return boolean, true if the elevator can be given the request
+	 */
+	public boolean canServe(int elevatorId, int sourceFloor, int destinationFloor) {
+		if (!zoned) {
+			return true;
+		}
+		if (!serves(elevatorId, sourceFloor)) {
+			return false;
+		}
+		if (serves(elevatorId, destinationFloor)) {
+			return true;
+		}
+		for (int id = 1; id <= numElevators; id++) {
+			if (serves(id, sourceFloor) && serves(id, destinationFloor)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the number of elevators stopping at a floor.
+	 *
+	 * @param floor int, the floor
+	 * @return int, the number of elevators serving the floor
+	 */
+	public int getNumServingElevators(int floor) {
+		int count = 0;
+		for (int id = 1; id <= numElevators; id++) {
+			if (serves(id, floor)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Check whether the cars are split into zones.
+	 *
+	 * @return boolean, false if every car serves every floor
+	 */
+	public boolean isZoned() {
+		return zoned;
+	}
+
+}
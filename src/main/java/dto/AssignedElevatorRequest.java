@@ -2,6 +2,7 @@ package main.java.dto;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 
 import main.java.elevator.Direction;
@@ -17,6 +18,12 @@ public class AssignedElevatorRequest extends ElevatorRequest implements Serializ
 	private static final long serialVersionUID = 1L;
 	private int elevatorId;
 
+	/**
+	 * Constructor of an empty assigned request, to be filled by readFrom.
+	 */
+	public AssignedElevatorRequest() {
+	}
+
 	/**
 	 * Constructor method for assigned elevator request.
 	 * 
@@ -41,8 +48,7 @@ public class AssignedElevatorRequest extends ElevatorRequest implements Serializ
 	 * @param request            ElevatorRequest, the elevator request object
 	 */
 	public AssignedElevatorRequest(int assignedElevatorId, ElevatorRequest request) {
-		super(request.getTimestamp(), request.getSourceFloor(), request.getDirection(), request.getDestinationFloor(),
-				request.getElevatorError());
+		super(request);
 		elevatorId = assignedElevatorId;
 	}
 
@@ -70,8 +76,55 @@ public class AssignedElevatorRequest extends ElevatorRequest implements Serializ
 		return elevatorId;
 	}
 
+	@Override
+	protected byte getMessageType() {
+		return WireFormat.ASSIGNED_ELEVATOR_REQUEST;
+	}
+
+	@Override
+	public int getEncodedSize() {
+		return super.getEncodedSize() + 4;
+	}
+
+	@Override
+	protected void writeFields(ByteBuffer buffer) {
+		super.writeFields(buffer);
+		buffer.putInt(elevatorId);
+	}
+
+	@Override
+	protected void readFields(ByteBuffer buffer) throws IOException {
+		super.readFields(buffer);
+		elevatorId = buffer.getInt();
+	}
+
+	/**
+	 * Decode a new assigned request at the position of a buffer. A revocation is
+	 * decoded as a RevokeElevatorRequest, a parking command as a
+	 * ParkElevatorRequest.
+	 * 
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @return AssignedElevatorRequest, the decoded request
+	 * @throws IOException if the buffer does not hold a valid assigned request
+	 */
+	public static AssignedElevatorRequest decode(ByteBuffer buffer) throws IOException {
+		AssignedElevatorRequest request;
+		switch (WireFormat.peekType(buffer)) {
+		case WireFormat.REVOKE_ELEVATOR_REQUEST:
+			request = new RevokeElevatorRequest();
+			break;
+		case WireFormat.PARK_ELEVATOR_REQUEST:
+			request = new ParkElevatorRequest();
+			break;
+		default:
+			request = new AssignedElevatorRequest();
+		}
+		request.readFrom(buffer);
+		return request;
+	}
+
 	/**
-	 * Serializable decode data method.
+	 * Decode data method.
 	 * 
 	 * @param data byte[], the data to be decoded
 	 * @return AssignedElevatorRequest, the assigned elevator request object
@@ -79,20 +132,9 @@ public class AssignedElevatorRequest extends ElevatorRequest implements Serializ
 	 * @throws ClassNotFoundException
 	 */
 	public static AssignedElevatorRequest decode(byte[] data) throws IOException, ClassNotFoundException {
-		Object decodedObj = SerializableEncoder.decode(data);
-		return (AssignedElevatorRequest) decodedObj;
+		return decode(ByteBuffer.wrap(data));
 	}
 
-	/**
-	 * Serializable encode method.
-	 * 
-	 * @return byte[], the data encoded
-	 */
-	public byte[] encode() throws IOException {
-		byte[] encodedData = SerializableEncoder.encode(this);
-		return encodedData;
-	}
-	
 	@Override
 	public String toString() {
 		return String.format("%d %s", elevatorId, super.toString());
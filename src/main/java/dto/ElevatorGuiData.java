@@ -19,6 +19,7 @@ import main.java.elevator.state.ElevatorStateEnum;
 public class ElevatorGuiData implements Serializable {
 
 	private static final long serialVersionUID = 1L;
+	private int groupId;
 	private int id;
 	private ElevatorStateEnum currentState;
 	private int currentFloor;
@@ -34,6 +35,7 @@ public class ElevatorGuiData implements Serializable {
 	 * @param ctx ElevatorContext, the context of the elevator
 	 */
 	public ElevatorGuiData(ElevatorContext ctx) {
+		groupId = ctx.getConfig().GROUP_ID;
 		id = ctx.getId();
 		currentState = ctx.getCurrentState().getElevatorStateEnum();
 		currentFloor = ctx.getCurrentFloor();
@@ -79,6 +81,15 @@ public class ElevatorGuiData implements Serializable {
 		return encodedData;
 	}
 
+	/**
+	 * Get the id of the elevator group (building).
+	 *
+	 * @return int, the group id
+	 */
+	public int getGroupId() {
+		return groupId;
+	}
+
 	/**
 	 * Get elevator id.
 	 *
@@ -2,28 +2,49 @@ package main.java.dto;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.atomic.AtomicLong;
 
 import main.java.elevator.Direction;
 import main.java.elevator.ElevatorError;
 
 /**
  * The ElevatorRequest class is responsible for storing all the relevant
- * information regarding passenger's elevator requests.
+ * information regarding passenger's elevator requests. On the wire the request
+ * uses the binary format of WireFormat. The fields are kept in primitive form,
+ * a request holds no other object than its trace; the boxed floors and the
+ * Timestamp of the getters are created on demand.
  * 
  * @author Patrick Liu
  * @version 1.0, 02/04/23
  */
 public class ElevatorRequest implements Serializable {
 
-	private static final long serialVersionUID = 1L;
-	private Timestamp timestamp;
-	private Integer sourceFloor;
-	private Direction direction;
-	private Integer destinationFloor;
-	private ElevatorError elevatorError;
+	private static final long serialVersionUID = 2L;
+	private static final AtomicLong NEXT_REQUEST_ID = new AtomicLong();
+	private long requestId;
+	// epoch time in ms, WireFormat.NULL_LONG if none
+	private long time = WireFormat.NULL_LONG;
+	// WireFormat.NULL_INT if none
+	private int sourceFloor = WireFormat.NULL_INT;
+	private int destinationFloor = WireFormat.NULL_INT;
+	// ordinals, -1 if none
+	private byte direction = -1;
+	private byte elevatorError = -1;
+	private int groupId = 1;
+	// index: TraceSpan ordinal, value: epoch time in ms, 0 if not reached
+	private long[] traceSpans = new long[TraceSpan.values().length];
+
+	/**
+	 * Constructor of an empty request, to be filled by readFrom. No request id is
+	 * taken.
+	 */
+	public ElevatorRequest() {
+	}
 
 	/**
 	 * Constructor of the ElevatorRequest class.
@@ -39,11 +60,48 @@ public class ElevatorRequest implements Serializable {
 	 */
 	public ElevatorRequest(Timestamp timestamp, Integer sourceFloor, Direction direction, Integer destinationFloor,
 			ElevatorError elevatorError) {
-		this.timestamp = timestamp;
+		this(timestamp == null ? WireFormat.NULL_LONG : timestamp.getTime(),
+				sourceFloor == null ? WireFormat.NULL_INT : sourceFloor, direction,
+				destinationFloor == null ? WireFormat.NULL_INT : destinationFloor, elevatorError);
+	}
+
+	/**
+	 * Constructor of the ElevatorRequest class from primitive fields.
+	 * 
+	 * @param time             long, the epoch time in ms which the passenger
+	 *                         pressed the floor button
+	 * @param sourceFloor      int, the floor which the passenger declared
+	 *                         his/her traveling intention
+	 * @param direction        Direction, passenger's declared traveling direction
+	 * @param destinationFloor int, the destination floor which the passenger
+	 *                         entered inside the elevator cart
+	 * @param elevatorError    ElevatorError, error enum representing fault
+	 */
+	public ElevatorRequest(long time, int sourceFloor, Direction direction, int destinationFloor,
+			ElevatorError elevatorError) {
+		this.requestId = NEXT_REQUEST_ID.incrementAndGet();
+		this.time = time;
 		this.sourceFloor = sourceFloor;
-		this.direction = direction;
+		this.direction = toByte(direction);
 		this.destinationFloor = destinationFloor;
-		this.elevatorError = elevatorError;
+		this.elevatorError = toByte(elevatorError);
+	}
+
+	/**
+	 * Copy constructor, keeping the id, group and a copy of the trace of the
+	 * request.
+	 * 
+	 * @param request ElevatorRequest, the request copied
+	 */
+	protected ElevatorRequest(ElevatorRequest request) {
+		requestId = request.requestId;
+		time = request.time;
+		sourceFloor = request.sourceFloor;
+		direction = request.direction;
+		destinationFloor = request.destinationFloor;
+		elevatorError = request.elevatorError;
+		groupId = request.groupId;
+		traceSpans = request.traceSpans.clone();
 	}
 
 	/**
@@ -98,13 +156,23 @@ public class ElevatorRequest implements Serializable {
 	}
 
 	/**
-	 * Get the point in time which the passenger pressed the floor button.
+	 * Get the point in time which the passenger pressed the floor button. A new
+	 * Timestamp is created on every call, use getTimeMillis on hot paths.
 	 * 
 	 * @return Timestamp, time which the passenger pressed the floor button
 	 * @see java.sql.Timestamp
 	 */
 	public Timestamp getTimestamp() {
-		return timestamp;
+		return time == WireFormat.NULL_LONG ? null : new Timestamp(time);
+	}
+
+	/**
+	 * Get the epoch time which the passenger pressed the floor button.
+	 * 
+	 * @return long, the epoch time in ms
+	 */
+	public long getTimeMillis() {
+		return time;
 	}
 
 	/**
@@ -113,7 +181,7 @@ public class ElevatorRequest implements Serializable {
 	 * @return Integer, the floor number chosen by the passenger
 	 */
 	public Integer getSourceFloor() {
-		return sourceFloor;
+		return sourceFloor == WireFormat.NULL_INT ? null : Integer.valueOf(sourceFloor);
 	}
 
 	/**
@@ -122,7 +190,7 @@ public class ElevatorRequest implements Serializable {
 	 * @return direction Direction, enum
 	 */
 	public Direction getDirection() {
-		return direction;
+		return direction < 0 ? null : WireFormat.DIRECTIONS[direction];
 	}
 
 	/**
@@ -132,7 +200,7 @@ public class ElevatorRequest implements Serializable {
 	 * @return Integer, the destination floor chosen by the passenger
 	 */
 	public Integer getDestinationFloor() {
-		return destinationFloor;
+		return destinationFloor == WireFormat.NULL_INT ? null : Integer.valueOf(destinationFloor);
 	}
 
 	/**
@@ -142,7 +210,73 @@ public class ElevatorRequest implements Serializable {
 	 * @return ElevatorError, the error of the request
 	 */
 	public ElevatorError getElevatorError() {
-		return elevatorError;
+		return elevatorError < 0 ? null : WireFormat.ELEVATOR_ERRORS[elevatorError];
+	}
+
+	/**
+	 * Get the id of the elevator group (building) the request belongs to.
+	 * 
+	 * @return int, the group id
+	 */
+	public int getGroupId() {
+		return groupId;
+	}
+
+	/**
+	 * Set the id of the elevator group (building) the request belongs to.
+	 * 
+	 * @param groupId int, the group id
+	 */
+	public void setGroupId(int groupId) {
+		this.groupId = groupId;
+	}
+
+	/**
+	 * Get the id of the request, unique within the process that created it and
+	 * kept by every copy of the request.
+	 * 
+	 * @return long, the request id
+	 */
+	public long getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Set the id of the request.
+	 * 
+	 * @param requestId long, the request id
+	 */
+	public void setRequestId(long requestId) {
+		this.requestId = requestId;
+	}
+
+	/**
+	 * Stamp the current time on a span of the journey of the request.
+	 * 
+	 * @param span TraceSpan, the span reached
+	 */
+	public void stamp(TraceSpan span) {
+		stamp(span, System.currentTimeMillis());
+	}
+
+	/**
+	 * Stamp a time on a span of the journey of the request.
+	 * 
+	 * @param span TraceSpan, the span reached
+	 * @param time long, the epoch time in ms
+	 */
+	public void stamp(TraceSpan span, long time) {
+		traceSpans[span.ordinal()] = time;
+	}
+
+	/**
+	 * Get the time a span of the journey was reached.
+	 * 
+	 * @param span TraceSpan, the span
+	 * @return long, the epoch time in ms, 0 if the span was not reached
+	 */
+	public long getSpan(TraceSpan span) {
+		return traceSpans[span.ordinal()];
 	}
 
 	/**
@@ -152,11 +286,12 @@ public class ElevatorRequest implements Serializable {
 	 */
 	@Override
 	public String toString() {
-		if (elevatorError == null) {
-			return timestamp.toString().split(" ")[1] + " " + sourceFloor + " " + direction + " " + destinationFloor;
+		String request = getTimestamp().toString().split(" ")[1] + " " + getSourceFloor() + " " + getDirection()
+				+ " " + getDestinationFloor();
+		if (elevatorError < 0) {
+			return request;
 		} else {
-			return timestamp.toString().split(" ")[1] + " " + sourceFloor + " " + direction + " " + destinationFloor
-					+ " " + elevatorError.toString();
+			return request + " " + getElevatorError().toString();
 		}
 	}
 
@@ -176,8 +311,21 @@ public class ElevatorRequest implements Serializable {
 
 		ElevatorRequest that = (ElevatorRequest) obj;
 
-		return timestamp.equals(that.timestamp) && sourceFloor.equals(that.sourceFloor)
-				&& direction.equals(that.direction) && destinationFloor.equals(that.destinationFloor);
+		return time == that.time && sourceFloor == that.sourceFloor && direction == that.direction
+				&& destinationFloor == that.destinationFloor;
+	}
+
+	/**
+	 * Override hashCode method, consistent with equals.
+	 * 
+	 * @return int, the hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = Long.hashCode(time);
+		hash = 31 * hash + sourceFloor;
+		hash = 31 * hash + direction;
+		return 31 * hash + destinationFloor;
 	}
 
 	/**
@@ -195,6 +343,124 @@ public class ElevatorRequest implements Serializable {
 		return timestamp;
 	}
 
+	/**
+	 * Encode an enum as its ordinal.
+	 * 
+	 * @param value Enum, the value, can be null
+	 * @return byte, the ordinal, -1 for null
+	 */
+	private static byte toByte(Enum<?> value) {
+		return value == null ? -1 : (byte) value.ordinal();
+	}
+
+	/**
+	 * Get the type byte of the request in the wire format.
+	 * 
+	 * @return byte, the message type
+	 */
+	protected byte getMessageType() {
+		return WireFormat.ELEVATOR_REQUEST;
+	}
+
+	/**
+	 * Get the size of the request in the wire format.
+	 * 
+	 * @return int, the size in bytes
+	 */
+	public int getEncodedSize() {
+		return 32 + 8 * traceSpans.length;
+	}
+
+	/**
+	 * Write the request in the wire format at the position of a buffer.
+	 * 
+	 * @param buffer ByteBuffer, the buffer written to
+	 */
+	public void writeTo(ByteBuffer buffer) {
+		buffer.put(getMessageType());
+		writeFields(buffer);
+	}
+
+	/**
+	 * Write the fields of the request, after the type byte.
+	 * 
+	 * @param buffer ByteBuffer, the buffer written to
+	 */
+	protected void writeFields(ByteBuffer buffer) {
+		buffer.putLong(requestId);
+		buffer.putInt(groupId);
+		buffer.putLong(time);
+		buffer.putInt(sourceFloor);
+		buffer.put(direction);
+		buffer.putInt(destinationFloor);
+		buffer.put(elevatorError);
+		buffer.put((byte) traceSpans.length);
+		for (long span : traceSpans) {
+			buffer.putLong(span);
+		}
+	}
+
+	/**
+	 * Overwrite this request with the one at the position of a buffer. The
+	 * message must be of the type of this request.
+	 * 
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @throws IOException if the buffer does not hold a valid request
+	 */
+	public void readFrom(ByteBuffer buffer) throws IOException {
+		try {
+			WireFormat.checkType(buffer, getMessageType());
+			readFields(buffer);
+		} catch (BufferUnderflowException e) {
+			throw WireFormat.truncated();
+		}
+	}
+
+	/**
+	 * Read the fields of the request, after the type byte. Spans unknown to this
+	 * version are skipped.
+	 * 
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @throws IOException if the buffer does not hold a valid request
+	 */
+	protected void readFields(ByteBuffer buffer) throws IOException {
+		requestId = buffer.getLong();
+		groupId = buffer.getInt();
+		time = buffer.getLong();
+		sourceFloor = buffer.getInt();
+		direction = WireFormat.getOrdinal(buffer, WireFormat.DIRECTIONS);
+		destinationFloor = buffer.getInt();
+		elevatorError = WireFormat.getOrdinal(buffer, WireFormat.ELEVATOR_ERRORS);
+		int numSpans = buffer.get();
+		for (int i = 0; i < numSpans; i++) {
+			long span = buffer.getLong();
+			if (i < traceSpans.length) {
+				traceSpans[i] = span;
+			}
+		}
+		for (int i = numSpans; i < traceSpans.length; i++) {
+			traceSpans[i] = 0;
+		}
+	}
+
+	/**
+	 * Decode a new request at the position of a buffer. An assigned request is
+	 * decoded as an AssignedElevatorRequest, a revocation or a parking command as
+	 * their own subclass.
+	 * 
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @return ElevatorRequest, the decoded request
+	 * @throws IOException if the buffer does not hold a valid request
+	 */
+	public static ElevatorRequest decode(ByteBuffer buffer) throws IOException {
+		if (WireFormat.peekType(buffer) == WireFormat.ELEVATOR_REQUEST) {
+			ElevatorRequest request = new ElevatorRequest();
+			request.readFrom(buffer);
+			return request;
+		}
+		return AssignedElevatorRequest.decode(buffer);
+	}
+
 	/**
 	 * Decoding method.
 	 * 
@@ -204,8 +470,7 @@ public class ElevatorRequest implements Serializable {
 	 * @throws ClassNotFoundException
 	 */
 	public static ElevatorRequest decode(byte[] data) throws IOException, ClassNotFoundException {
-		Object decodedObj = SerializableEncoder.decode(data);
-		return (ElevatorRequest) decodedObj;
+		return decode(ByteBuffer.wrap(data));
 	}
 
 	/**
@@ -215,8 +480,9 @@ public class ElevatorRequest implements Serializable {
 	 * @throws IOException
 	 */
 	public byte[] encode() throws IOException {
-		byte[] encodedData = SerializableEncoder.encode(this);
-		return encodedData;
+		ByteBuffer buffer = ByteBuffer.allocate(getEncodedSize());
+		writeTo(buffer);
+		return buffer.array();
 	}
 
 }
@@ -2,6 +2,8 @@ package main.java.dto;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 import main.java.elevator.Direction;
 import main.java.elevator.ElevatorContext;
@@ -9,17 +11,30 @@ import main.java.elevator.state.ElevatorStateEnum;
 
 /**
  * The Elevator Object that is used to share the information of Elevator Context
- * with the Scheduler through UDP Communication
+ * with the Scheduler through UDP Communication. On the wire the status uses the
+ * binary format of WireFormat, a receiver that does not keep the status can
+ * decode every message into the same instance with readFrom.
  * 
  * @author Zakaria Ismail
  */
 public class ElevatorStatus implements Serializable {
 	private static final long serialVersionUID = 1L;
+	private int groupId;
 	private int elevatorId;
 	private int floor;
 	private Direction direction;
 	private ElevatorStateEnum state;
 	int numRequests;
+	// passengers on board
+	private int numPassengers;
+	private int[] plannedStops;
+
+	/**
+	 * Constructor for an empty Elevator Status, to be filled by readFrom.
+	 */
+	public ElevatorStatus() {
+		this(0);
+	}
 
 	/**
 	 * Constructor for Elevator Status
@@ -27,11 +42,14 @@ public class ElevatorStatus implements Serializable {
 	 * @param ctx ElevatorContext, the elevator context
 	 */
 	public ElevatorStatus(ElevatorContext ctx) {
+		groupId = ctx.getConfig().GROUP_ID;
 		elevatorId = ctx.getId();
 		floor = ctx.getCurrentFloor();
 		direction = ctx.getDirection();
 		numRequests = ctx.getNumRequests();
+		numPassengers = ctx.getNumPassengers();
 		state = ctx.getCurrentState().getElevatorStateEnum();
+		plannedStops = ctx.getPlannedStops();
 	}
 
 	/**
@@ -40,11 +58,13 @@ public class ElevatorStatus implements Serializable {
 	 * @param id int, the elevator id
 	 */
 	public ElevatorStatus(int id) {
+		groupId = 1;
 		elevatorId = id;
 		floor = 1;
 		direction = Direction.IDLE;
 		numRequests = 0;
 		state = ElevatorStateEnum.IDLE;
+		plannedStops = new int[0];
 	}
 
 	/**
@@ -57,11 +77,31 @@ public class ElevatorStatus implements Serializable {
 	 * @param state       ElevatorStateEnum, the state of the elevator
 	 */
 	public ElevatorStatus(int id, int floor, Direction direction, int numRequests, ElevatorStateEnum state) {
+		groupId = 1;
 		elevatorId = id;
 		this.floor = floor;
 		this.direction = direction;
 		this.numRequests = numRequests;
 		this.state = state;
+		this.plannedStops = new int[0];
+	}
+
+	/**
+	 * Getter for the id of the elevator group (building) of the elevator
+	 * 
+	 * @return group id
+	 */
+	public int getGroupId() {
+		return groupId;
+	}
+
+	/**
+	 * Setter for the id of the elevator group (building) of the elevator
+	 * 
+	 * @param groupId int, the group id
+	 */
+	public void setGroupId(int groupId) {
+		this.groupId = groupId;
 	}
 
 	/**
@@ -103,11 +143,124 @@ public class ElevatorStatus implements Serializable {
 	public ElevatorStateEnum getState() {
 		return state;
 	}
+
+	/**
+	 * Getter for the number of passengers on board.
+	 * 
+	 * @return int, the number of passengers
+	 */
+	public int getNumPassengers() {
+		return numPassengers;
+	}
+
+	/**
+	 * Setter for the number of passengers on board.
+	 * 
+	 * @param numPassengers int, the number of passengers
+	 */
+	public void setNumPassengers(int numPassengers) {
+		this.numPassengers = numPassengers;
+	}
+
+	/**
+	 * Getter for the planned stops of the elevator, in the order the elevator
+	 * will visit them.
+	 * 
+	 * @return int[], the planned stops
+	 */
+	public int[] getPlannedStops() {
+		return plannedStops;
+	}
+
+	/**
+	 * Setter for the planned stops of the elevator.
+	 * 
+	 * @param plannedStops int[], the planned stops
+	 */
+	public void setPlannedStops(int[] plannedStops) {
+		this.plannedStops = plannedStops;
+	}
 	
 	public void setDirection(Direction direction) {
 		this.direction = direction;
 	}
 
+	/**
+	 * Get the size of the status in the wire format.
+	 * 
+	 * @return int, the size in bytes
+	 */
+	public int getEncodedSize() {
+		return 27 + 4 * (plannedStops == null ? 0 : plannedStops.length);
+	}
+
+	/**
+	 * Write the status in the wire format at the position of a buffer.
+	 * 
+	 * @param buffer ByteBuffer, the buffer written to
+	 */
+	public void writeTo(ByteBuffer buffer) {
+		buffer.put(WireFormat.ELEVATOR_STATUS);
+		buffer.putInt(groupId);
+		buffer.putInt(elevatorId);
+		buffer.putInt(floor);
+		WireFormat.putEnum(buffer, direction);
+		WireFormat.putEnum(buffer, state);
+		buffer.putInt(numRequests);
+		buffer.putInt(numPassengers);
+		int numStops = plannedStops == null ? 0 : plannedStops.length;
+		buffer.putInt(numStops);
+		for (int i = 0; i < numStops; i++) {
+			buffer.putInt(plannedStops[i]);
+		}
+	}
+
+	/**
+	 * Overwrite this status with the one at the position of a buffer. The
+	 * planned stops array is reused when the number of stops did not change, so
+	 * the array returned by getPlannedStops before the call may be overwritten.
+	 * 
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @throws IOException if the buffer does not hold a valid status
+	 */
+	public void readFrom(ByteBuffer buffer) throws IOException {
+		try {
+			WireFormat.checkType(buffer, WireFormat.ELEVATOR_STATUS);
+			groupId = buffer.getInt();
+			elevatorId = buffer.getInt();
+			floor = buffer.getInt();
+			direction = WireFormat.getEnum(buffer, WireFormat.DIRECTIONS);
+			state = WireFormat.getEnum(buffer, WireFormat.ELEVATOR_STATES);
+			numRequests = buffer.getInt();
+			numPassengers = buffer.getInt();
+			int numStops = buffer.getInt();
+			if (numStops < 0 || numStops > buffer.remaining() / 4) {
+				throw WireFormat.truncated();
+			}
+			if (plannedStops == null || plannedStops.length != numStops) {
+				plannedStops = new int[numStops];
+			}
+			for (int i = 0; i < numStops; i++) {
+				plannedStops[i] = buffer.getInt();
+			}
+		} catch (BufferUnderflowException e) {
+			throw WireFormat.truncated();
+		}
+	}
+
+	/**
+	 * Decode a new status at the position of a buffer.
+	 * 
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @return ElevatorStatus, the decoded status
+	 * @throws IOException if the buffer does not hold a valid status
+	 */
+	public static ElevatorStatus decode(ByteBuffer buffer) throws IOException {
+		ElevatorStatus status = new ElevatorStatus();
+		status.readFrom(buffer);
+		return status;
+	}
+
 	/**
 	 * Decoding method.
 	 * 
@@ -117,8 +270,7 @@ public class ElevatorStatus implements Serializable {
 	 * @throws ClassNotFoundException
 	 */
 	public static ElevatorStatus decode(byte[] data) throws IOException, ClassNotFoundException {
-		Object decodedObj = SerializableEncoder.decode(data);
-		return (ElevatorStatus) decodedObj;
+		return decode(ByteBuffer.wrap(data));
 	}
 
 	/**
@@ -128,8 +280,9 @@ public class ElevatorStatus implements Serializable {
 	 * @throws IOException
 	 */
 	public byte[] encode() throws IOException {
-		byte[] encodedData = SerializableEncoder.encode(this);
-		return encodedData;
+		ByteBuffer buffer = ByteBuffer.allocate(getEncodedSize());
+		writeTo(buffer);
+		return buffer.array();
 	}
 
 	/**
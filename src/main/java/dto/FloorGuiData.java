@@ -11,6 +11,7 @@ import java.io.Serializable;
 public class FloorGuiData implements Serializable {
 
 	private static final long serialVersionUID = 1L;
+	private int groupId;
 	private int floorNum;
 	private boolean upButtonLamp;
 	private boolean downButtonLamp;
@@ -21,11 +22,33 @@ public class FloorGuiData implements Serializable {
 	 * @param floor, the Floor object
 	 */
 	public FloorGuiData(int floorNum, boolean upButtonLamp, boolean downButtonLamp) {
+		this(1, floorNum, upButtonLamp, downButtonLamp);
+	}
+
+	/**
+	 * Constructor for floor GUI data of an elevator group (building).
+	 * 
+	 * @param groupId        int, the group id
+	 * @param floorNum       int, the floor number
+	 * @param upButtonLamp   boolean, the up button lamp status
+	 * @param downButtonLamp boolean, the down button lamp status
+	 */
+	public FloorGuiData(int groupId, int floorNum, boolean upButtonLamp, boolean downButtonLamp) {
+		this.groupId = groupId;
 		this.floorNum = floorNum;
 		this.upButtonLamp = upButtonLamp;
 		this.downButtonLamp = downButtonLamp;
 	}
 
+	/**
+	 * Get the id of the elevator group (building).
+	 * 
+	 * @return groupId int, the group id
+	 */
+	public int getGroupId() {
+		return groupId;
+	}
+
 	/**
 	 * Get the floor number.
 	 * 
@@ -0,0 +1,68 @@
+package main.java.dto;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes any message sent between the subsystems to bytes and back. Requests
+ * and statuses use the binary format of WireFormat, the other DTOs Java
+ * serialization. The two are told apart by the first byte: a serialization
+ * stream always starts with 0xAC.
+ *
+ * @author Zakaria Ismail
+ */
+public class MessageCodec {
+
+	private MessageCodec() {
+	}
+
+	/**
+	 * Encode a message.
+	 *
+	 * @param message Object, an ElevatorStatus, an ElevatorRequest or another
+	 *                Serializable DTO
+	 * @return byte[], the encoded message
+	 * @throws IOException
+	 */
+	public static byte[] encode(Object message) throws IOException {
+		if (message instanceof ElevatorStatus) {
+			return ((ElevatorStatus) message).encode();
+		}
+		if (message instanceof ElevatorRequest) {
+			return ((ElevatorRequest) message).encode();
+		}
+		if (message instanceof Serializable) {
+			return SerializableEncoder.encode((Serializable) message);
+		}
+		throw new IllegalArgumentException("Cannot encode message of " + message.getClass());
+	}
+
+	/**
+	 * Decode the message from the position of a buffer to its limit.
+	 *
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @return Object, the decoded message
+	 * @throws IOException if the buffer does not hold a valid message
+	 */
+	public static Object decode(ByteBuffer buffer) throws IOException {
+		switch (WireFormat.peekType(buffer)) {
+		case WireFormat.ELEVATOR_STATUS:
+			return ElevatorStatus.decode(buffer);
+		case WireFormat.ELEVATOR_REQUEST:
+		case WireFormat.ASSIGNED_ELEVATOR_REQUEST:
+		case WireFormat.REVOKE_ELEVATOR_REQUEST:
+		case WireFormat.PARK_ELEVATOR_REQUEST:
+			return ElevatorRequest.decode(buffer);
+		default:
+			byte[] data = new byte[buffer.remaining()];
+			buffer.get(data);
+			try {
+				return SerializableEncoder.decode(data);
+			} catch (ClassNotFoundException e) {
+				throw new IOException("Unknown message class", e);
+			}
+		}
+	}
+
+}
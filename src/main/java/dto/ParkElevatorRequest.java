@@ -0,0 +1,55 @@
+package main.java.dto;
+
+import java.io.Serializable;
+
+import main.java.elevator.Direction;
+
+/**
+ * This class models the command sent by the scheduler to an idle elevator to
+ * wait at another floor, where calls are expected. The elevator moves there
+ * empty if it is still idle when the command is received, and ignores it
+ * otherwise.
+ * 
+ * @author Bobby Ngo
+ */
+public class ParkElevatorRequest extends AssignedElevatorRequest implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor of an empty command, to be filled by readFrom.
+	 */
+	public ParkElevatorRequest() {
+	}
+
+	/**
+	 * Constructor method for the parking command.
+	 * 
+	 * @param elevatorId int, the id of the idle elevator
+	 * @param floor      int, the floor to wait at
+	 * @param time       long, the time of the command in ms
+	 */
+	public ParkElevatorRequest(int elevatorId, int floor, long time) {
+		super(elevatorId, new ElevatorRequest(time, floor, Direction.IDLE, floor, null));
+	}
+
+	/**
+	 * Getter for the floor to wait at.
+	 * 
+	 * @return int, the parking floor
+	 */
+	public int getParkingFloor() {
+		return getDestinationFloor();
+	}
+
+	@Override
+	protected byte getMessageType() {
+		return WireFormat.PARK_ELEVATOR_REQUEST;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("PARK %d at floor %d", getElevatorId(), getParkingFloor());
+	}
+
+}
@@ -0,0 +1,42 @@
+package main.java.dto;
+
+import java.io.Serializable;
+
+/**
+ * This class models the revocation of an assigned elevator request, sent by
+ * the scheduler to the assigned elevator when a better elevator is available.
+ * The elevator returns the request to the scheduler for reassignment if its
+ * passenger has not boarded yet, and ignores the revocation otherwise.
+ * 
+ * @author Bobby Ngo
+ */
+public class RevokeElevatorRequest extends AssignedElevatorRequest implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor of an empty revocation, to be filled by readFrom.
+	 */
+	public RevokeElevatorRequest() {
+	}
+
+	/**
+	 * Constructor method for the revocation of an assigned request.
+	 * 
+	 * @param assignedRequest AssignedElevatorRequest, the assigned request revoked
+	 */
+	public RevokeElevatorRequest(AssignedElevatorRequest assignedRequest) {
+		super(assignedRequest.getElevatorId(), assignedRequest);
+	}
+
+	@Override
+	protected byte getMessageType() {
+		return WireFormat.REVOKE_ELEVATOR_REQUEST;
+	}
+
+	@Override
+	public String toString() {
+		return "REVOKE " + super.toString();
+	}
+
+}
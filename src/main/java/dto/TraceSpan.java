@@ -0,0 +1,11 @@
+package main.java.dto;
+
+/**
+ * The points of the journey of a request stamped on the ElevatorRequest by
+ * each subsystem, in the order they are reached.
+ * 
+ * @author Patrick Liu
+ */
+public enum TraceSpan {
+	FLOOR_SENT, SCHEDULER_RECEIVED, ASSIGNED, CAR_RECEIVED, BOARDED, ALIGHTED, FLOOR_COMPLETED
+}
@@ -0,0 +1,143 @@
+package main.java.dto;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+import main.java.elevator.Direction;
+import main.java.elevator.ElevatorError;
+import main.java.elevator.state.ElevatorStateEnum;
+
+/**
+ * Constants and helpers of the binary wire format of the DTOs exchanged on the
+ * hot paths between the subsystems. Every message starts with a type byte and
+ * is followed by the fields of the DTO in a fixed order, big endian. Enums are
+ * written as their ordinal on one byte, -1 for null, and nullable integers as
+ * Integer.MIN_VALUE.
+ *
+ * @author Zakaria Ismail
+ */
+final class WireFormat {
+	static final byte ELEVATOR_STATUS = 1;
+	static final byte ELEVATOR_REQUEST = 2;
+	static final byte ASSIGNED_ELEVATOR_REQUEST = 3;
+	static final byte REVOKE_ELEVATOR_REQUEST = 4;
+	static final byte PARK_ELEVATOR_REQUEST = 5;
+	static final int NULL_INT = Integer.MIN_VALUE;
+	static final long NULL_LONG = Long.MIN_VALUE;
+
+	// cached, values() copies the array on every call
+	static final Direction[] DIRECTIONS = Direction.values();
+	static final ElevatorError[] ELEVATOR_ERRORS = ElevatorError.values();
+	static final ElevatorStateEnum[] ELEVATOR_STATES = ElevatorStateEnum.values();
+	static final TraceSpan[] TRACE_SPANS = TraceSpan.values();
+
+	private WireFormat() {
+	}
+
+	/**
+	 * Write an enum as its ordinal.
+	 *
+	 * @param buffer ByteBuffer, the buffer written to
+	 * @param value  Enum, the value, can be null
+	 */
+	static void putEnum(ByteBuffer buffer, Enum<?> value) {
+		buffer.put(value == null ? -1 : (byte) value.ordinal());
+	}
+
+	/**
+	 * Read an enum written by putEnum.
+	 *
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @param values E[], the values of the enum
+	 * @return E, the value, null if -1 was written
+	 * @throws IOException if the ordinal is out of range
+	 */
+	static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) throws IOException {
+		int ordinal = buffer.get();
+		if (ordinal == -1) {
+			return null;
+		}
+		if (ordinal < 0 || ordinal >= values.length) {
+			throw new StreamCorruptedException("Invalid ordinal " + ordinal);
+		}
+		return values[ordinal];
+	}
+
+	/**
+	 * Read and check an ordinal written by putEnum, without looking up the
+	 * value.
+	 * 
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @param values E[], the values of the enum
+	 * @return byte, the ordinal, -1 if null was written
+	 * @throws IOException if the ordinal is out of range
+	 */
+	static <E extends Enum<E>> byte getOrdinal(ByteBuffer buffer, E[] values) throws IOException {
+		byte ordinal = buffer.get();
+		if (ordinal < -1 || ordinal >= values.length) {
+			throw new StreamCorruptedException("Invalid ordinal " + ordinal);
+		}
+		return ordinal;
+	}
+
+	/**
+	 * Write a nullable integer.
+	 *
+	 * @param buffer ByteBuffer, the buffer written to
+	 * @param value  Integer, the value, can be null
+	 */
+	static void putInteger(ByteBuffer buffer, Integer value) {
+		buffer.putInt(value == null ? NULL_INT : value);
+	}
+
+	/**
+	 * Read a nullable integer written by putInteger. Small values come from the
+	 * Integer cache and do not allocate.
+	 *
+	 * @param buffer ByteBuffer, the buffer read from
+	 * @return Integer, the value, can be null
+	 */
+	static Integer getInteger(ByteBuffer buffer) {
+		int value = buffer.getInt();
+		return value == NULL_INT ? null : Integer.valueOf(value);
+	}
+
+	/**
+	 * Read and check the type byte of a message.
+	 *
+	 * @param buffer   ByteBuffer, the buffer read from
+	 * @param expected byte, the expected type
+	 * @throws IOException if the message is of another type
+	 */
+	static void checkType(ByteBuffer buffer, byte expected) throws IOException {
+		byte type = buffer.get();
+		if (type != expected) {
+			throw new StreamCorruptedException("Expected message type " + expected + " but got " + type);
+		}
+	}
+
+	/**
+	 * Peek at the type byte of a message without consuming it.
+	 *
+	 * @param buffer ByteBuffer, the buffer holding the message
+	 * @return byte, the type of the message
+	 * @throws IOException if the buffer is empty
+	 */
+	static byte peekType(ByteBuffer buffer) throws IOException {
+		if (!buffer.hasRemaining()) {
+			throw new StreamCorruptedException("Empty message");
+		}
+		return buffer.get(buffer.position());
+	}
+
+	/**
+	 * Exception for a message shorter than its fields.
+	 *
+	 * @return IOException, the exception to throw
+	 */
+	static IOException truncated() {
+		return new StreamCorruptedException("Truncated message");
+	}
+
+}
@@ -3,16 +3,22 @@ package main.java.elevator;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Timer;
 import java.util.TimerTask;
 
 import main.java.SimulatorConfiguration;
+import main.java.ZoneLayout;
 import main.java.dto.ElevatorRequest;
+import main.java.dto.ParkElevatorRequest;
+import main.java.dto.RevokeElevatorRequest;
+import main.java.dto.TraceSpan;
 import main.java.elevator.state.ElevatorState;
-import main.java.elevator.state.TimeoutEvent;
+import main.java.elevator.state.ElevatorStateEnum;
+import main.java.elevator.state.ElevatorStateTable;
+import main.java.elevator.state.StateTimeoutTask;
 import main.java.gui.LogConsole;
+import main.java.metrics.LatencyHistogram;
+import main.java.metrics.MetricsRegistry;
 
 /**
  * Entity class for Elevator.
@@ -23,15 +29,31 @@ public class ElevatorContext {
 	private int id;
 	private List<ElevatorRequest> externalRequests;
 	private List<ElevatorRequest> internalRequests;
+	// one instance of every state
+	private final ElevatorStateTable states;
+	// requests and timeouts, processed one at a time
+	private final ElevatorMailbox mailbox;
 	private ElevatorState currentState;
 	private int currentFloor;
 	private Motor motor;
 	private Direction direction;
 	private Door door;
-	private HashMap<Integer, Boolean> elevatorButtonBoard = new HashMap<>();
-	private Timer timer;
+	private StopPlanner stopPlanner;
+	// passengers on board, at most CAR_CAPACITY
+	private int numPassengers;
+	// floors the elevator stops at
+	private ZoneLayout zones;
+	private TimerTask timerTask;
 	private ElevatorSubsystem elevatorSubsystem;
+	// registry of the subsystem, per run in a simulation
+	private MetricsRegistry metrics;
 	private LogConsole logConsole;
+	private LatencyHistogram waitTimes;
+	private LatencyHistogram rideTimes;
+	// time spent with a direction other than IDLE, in ms
+	private long startTime;
+	private long busyTime;
+	private long busySince;
 
 	/**
 	 * Constructor for Elevator Context
@@ -42,16 +64,26 @@ public class ElevatorContext {
 	public ElevatorContext(ElevatorSubsystem subsystem, int id) {
 		this.elevatorSubsystem = subsystem;
 		this.id = id;
+		states = new ElevatorStateTable(this);
+		mailbox = new ElevatorMailbox(this::process, subsystem.getCarExecutor());
 		currentFloor = 1;
 		externalRequests = Collections.synchronizedList(new ArrayList<ElevatorRequest>());
 		internalRequests = Collections.synchronizedList(new ArrayList<ElevatorRequest>());
+		metrics = subsystem.getMetrics();
+		waitTimes = metrics.histogram(String.format("elevator.car%d.wait_time_ms", id));
+		rideTimes = metrics.histogram(String.format("elevator.car%d.ride_time_ms", id));
+		metrics.gauge(String.format("elevator.car%d.utilization_pct", id), () -> getUtilization());
+		metrics.gauge(String.format("elevator.car%d.mailbox_size", id), () -> mailbox.size());
+		metrics.gauge(String.format("elevator.car%d.passengers", id), () -> numPassengers);
+		startTime = elevatorSubsystem.currentTimeMillis();
 		setDoors(Door.OPEN);
 		setDirection(Direction.IDLE);
 		setMotor(Motor.IDLE);
-		for (int i = 1; i <= elevatorSubsystem.getConfig().NUM_FLOORS; i++) {
-			elevatorButtonBoard.put(i, false);
+		stopPlanner = new StopPlanner(elevatorSubsystem.getConfig().NUM_FLOORS);
+		zones = elevatorSubsystem.getConfig().ELEVATOR_ZONES;
+		if (!elevatorSubsystem.getConfig().HEADLESS) {
+			logConsole = new LogConsole(String.format("Elevator#%d", id));
 		}
-		logConsole = new LogConsole(String.format("Elevator#%d", id));
 	}
 
 	/**
@@ -69,46 +101,145 @@ public class ElevatorContext {
 	 * @param request ElevatorRequest, the elevator request object
 	 */
 	public void addExternalRequest(ElevatorRequest request) {
-		externalRequests.add(request);
+		synchronized (externalRequests) {
+			externalRequests.add(request);
+			stopPlanner.addPickup(request);
+		}
 	}
 
 	/**
-	 * Handle the request state upon receive.
+	 * Post a request received to the mailbox of the elevator, can be called from
+	 * any thread.
 	 * 
 	 * @param request ElevatorRequest, the elevator request object
 	 */
 	public void onRequestReceived(ElevatorRequest request) {
+		mailbox.post(request);
+	}
+
+	/**
+	 * Post an expired state timeout to the mailbox of the elevator, can be called
+	 * from any thread.
+	 * 
+	 * @param task StateTimeoutTask, the expired timeout task
+	 */
+	public void onTimeout(StateTimeoutTask task) {
+		mailbox.post(task);
+	}
+
+	/**
+	 * Process a message of the mailbox. Only called by the mailbox, one message
+	 * at a time.
+	 * 
+	 * @param message Object, an ElevatorRequest, a RevokeElevatorRequest, a
+	 *                ParkElevatorRequest or a StateTimeoutTask
+	 */
+	private void process(Object message) {
+		if (message instanceof RevokeElevatorRequest) {
+			handleRevokeReceived((RevokeElevatorRequest) message);
+		} else if (message instanceof ParkElevatorRequest) {
+			handleParkReceived((ParkElevatorRequest) message);
+		} else if (message instanceof ElevatorRequest) {
+			handleRequestReceived((ElevatorRequest) message);
+		} else if (message instanceof StateTimeoutTask) {
+			handleTimeout((StateTimeoutTask) message);
+		} else {
+			throw new IllegalArgumentException("Unknown message " + message);
+		}
+	}
+
+	/**
+	 * Handle the request state upon receive. A request from a floor outside the
+	 * zone of the elevator is returned to the scheduler for reassignment.
+	 * 
+	 * @param request ElevatorRequest, the elevator request object
+	 */
+	private void handleRequestReceived(ElevatorRequest request) {
+		if (!zones.serves(id, request.getSourceFloor())) {
+			printLog(String.format("REQUEST_OUTSIDE_ZONE -- Elevator#%d :: %s", id, request));
+			metrics.counter("elevator.requests_outside_zone").increment();
+			elevatorSubsystem.returnElevatorRequests(Collections.singletonList(request));
+			return;
+		}
 		addExternalRequest(request);
-		synchronized (currentState) {
-			printLog(String.format("REQUEST_RECEIVED -- Elevator#%d", id));
-			printLog(String.format("Elevator#%d will handle request going %s from floor %d to floor %d at %s", id,
-					request.getDirection(), request.getSourceFloor(), request.getDestinationFloor(),
-					request.getTimestamp()));
-			currentState = currentState.handleRequestReceived(request);
-			printLog(this.toString());
-			notifyArrivalSensor();
+		printLog(String.format("REQUEST_RECEIVED -- Elevator#%d", id));
+		printLog(String.format("Elevator#%d will handle request going %s from floor %d to floor %d at %s", id,
+				request.getDirection(), request.getSourceFloor(), request.getDestinationFloor(),
+				request.getTimestamp()));
+		currentState = currentState.handleRequestReceived(request);
+		printLog(this.toString());
+		notifyArrivalSensor();
+	}
+
+	/**
+	 * Handle the revocation of an assigned request. A request whose passenger has
+	 * not boarded yet is dropped and returned to the scheduler for reassignment,
+	 * a boarded one stays with the elevator.
+	 * 
+	 * @param revoke RevokeElevatorRequest, the revocation
+	 */
+	private void handleRevokeReceived(RevokeElevatorRequest revoke) {
+		ElevatorRequest revoked = null;
+		synchronized (externalRequests) {
+			for (ElevatorRequest request : externalRequests) {
+				if (request.getRequestId() == revoke.getRequestId()) {
+					revoked = request;
+					break;
+				}
+			}
+			if (revoked == null) {
+				printLog(String.format("REVOKE_IGNORED -- Elevator#%d :: %s", id, revoke));
+				return;
+			}
+			externalRequests.remove(revoked);
+			stopPlanner.removePickup(revoked);
 		}
+		printLog(String.format("REQUEST_REVOKED -- Elevator#%d :: %s", id, revoked));
+		metrics.counter("elevator.requests_revoked").increment();
+		elevatorSubsystem.returnElevatorRequests(Collections.singletonList(revoked));
+		printLog(this.toString());
+		notifyArrivalSensor();
+	}
+
+	/**
+	 * Handle a parking command, an idle elevator moves empty to the floor where
+	 * calls are expected, if the floor is in its zone.
+	 * 
+	 * @param park ParkElevatorRequest, the parking command
+	 */
+	private void handleParkReceived(ParkElevatorRequest park) {
+		printLog(String.format("PARK_RECEIVED -- Elevator#%d :: %s", id, park));
+		if (!zones.serves(id, park.getParkingFloor())) {
+			return;
+		}
+		currentState = currentState.handleParkReceived(park.getParkingFloor());
+		printLog(this.toString());
+		notifyArrivalSensor();
 	}
 
 	/**
 	 * Handle a timeout the event.
 	 * 
-	 * @param event TimeoutEvent, the timeout event
+	 * @param task StateTimeoutTask, the expired timeout task
 	 */
-	public void onTimeout(TimeoutEvent event) {
-		synchronized (currentState) {
-			// System.out.println(String.format("TIMEOUT_EVENT -- Elevator#%d", id));
-			currentState = currentState.handleTimeout();
-			printLog(this.toString());
-			notifyArrivalSensor();
+	private void handleTimeout(StateTimeoutTask task) {
+		if (task != timerTask) {
+			// killed after it expired, while waiting in the mailbox
+			return;
 		}
+		currentState = currentState.handleTimeout();
+		printLog(this.toString());
+		notifyArrivalSensor();
 	}
 
 	/**
 	 * Loading passengers method when passengers are loaded, press button external
-	 * requests at current floor are moved to internal requests
+	 * requests at current floor are moved to internal requests. The passengers
+	 * who do not fit in the car are left behind, their requests are returned to
+	 * the scheduler for another car.
 	 */
 	public void loadPassengers() {
+		List<ElevatorRequest> leftBehind = new ArrayList<>();
 		synchronized (externalRequests) {
 			ElevatorRequest req;
 			List<ElevatorRequest> toRemove = new ArrayList<>();
@@ -116,12 +247,17 @@ public class ElevatorContext {
 				req = externalRequests.get(i);
 				if (req.getSourceFloor() == currentFloor && req.getDirection() == direction) {
 					toRemove.add(req);
-					internalRequests.add(req);
-					pressElevatorButton(req.getDestinationFloor());
+					stopPlanner.removePickup(req);
+					if (isFull()) {
+						leftBehind.add(req);
+						continue;
+					}
+					board(req);
 				}
 			}
 			externalRequests.removeAll(toRemove);
 		}
+		leaveBehind(leftBehind);
 	}
 
 	/**
@@ -137,14 +273,49 @@ public class ElevatorContext {
 		if (request.getSourceFloor() == currentFloor
 				&& (request.getDirection() == direction || direction == Direction.IDLE)) {
 			// FIXME: direction == IDLE added here. hopefully this doesnt cause issues...
-			externalRequests.remove(request); // already sync'd
-			internalRequests.add(request);
-			pressElevatorButton(request.getDestinationFloor());
+			synchronized (externalRequests) {
+				if (externalRequests.remove(request)) {
+					stopPlanner.removePickup(request);
+				}
+			}
+			if (isFull()) {
+				leaveBehind(Collections.singletonList(request));
+				return false;
+			}
+			board(request);
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Board the passenger of a request.
+	 * 
+	 * @param request ElevatorRequest, the request of the passenger
+	 */
+	private void board(ElevatorRequest request) {
+		internalRequests.add(request);
+		numPassengers++;
+		recordBoarding(request);
+		pressElevatorButton(request.getDestinationFloor());
+	}
+
+	/**
+	 * Return the requests of the passengers who did not fit in the car to the
+	 * scheduler.
+	 * 
+	 * @param requests List, the requests left behind
+	 */
+	private void leaveBehind(List<ElevatorRequest> requests) {
+		if (requests.isEmpty()) {
+			return;
+		}
+		printLog(String.format("CAR_FULL -- Elevator#%d leaves %d passengers at floor %d", id, requests.size(),
+				currentFloor));
+		metrics.counter("elevator.passengers_left_behind").add(requests.size());
+		elevatorSubsystem.returnElevatorRequests(requests);
+	}
+
 	/**
 	 * Unload passenger method.
 	 */
@@ -155,6 +326,8 @@ public class ElevatorContext {
 			req = internalRequests.get(i);
 			if (req.getDestinationFloor() == currentFloor) {
 				toRemove.add(req);
+				numPassengers--;
+				recordAlighting(req);
 				printLog(String.format("REQUEST_COMPLETED -- %s", req));
 				elevatorSubsystem.sendCompletedElevatorRequest(req);
 			}
@@ -163,13 +336,58 @@ public class ElevatorContext {
 		clearElevatorButton(currentFloor);
 	}
 
+	/**
+	 * Record the wait time of a boarding passenger.
+	 * 
+	 * @param request ElevatorRequest, the boarded request
+	 */
+	private void recordBoarding(ElevatorRequest request) {
+		request.stamp(TraceSpan.BOARDED, elevatorSubsystem.currentTimeMillis());
+		long waitTime = request.getSpan(TraceSpan.BOARDED) - request.getTimeMillis();
+		waitTimes.record(waitTime);
+		metrics.histogram("elevator.wait_time_ms").record(waitTime);
+	}
+
+	/**
+	 * Record the ride time of an alighting passenger.
+	 * 
+	 * @param request ElevatorRequest, the completed request
+	 */
+	private void recordAlighting(ElevatorRequest request) {
+		request.stamp(TraceSpan.ALIGHTED, elevatorSubsystem.currentTimeMillis());
+		long rideTime = request.getSpan(TraceSpan.ALIGHTED) - request.getSpan(TraceSpan.BOARDED);
+		rideTimes.record(rideTime);
+		metrics.histogram("elevator.ride_time_ms").record(rideTime);
+	}
+
+	/**
+	 * Get the share of time the car spent moving or serving requests.
+	 * 
+	 * @return long, the utilization in percent
+	 */
+	public synchronized long getUtilization() {
+		long now = elevatorSubsystem.currentTimeMillis();
+		long busy = busyTime + (direction != null && direction != Direction.IDLE ? now - busySince : 0);
+		return now > startTime ? 100 * busy / (now - startTime) : 0;
+	}
+
 	/**
 	 * Update the lamp to true when the floor button is pressed.
 	 * 
 	 * @param floor int, the elevator floor number
 	 */
 	private void pressElevatorButton(int floor) {
-		elevatorButtonBoard.put(floor, true);
+		stopPlanner.addDropoff(floor);
+	}
+
+	/**
+	 * Plan an empty stop at a floor, for a parking move. The stop is cleared like
+	 * a dropoff when the elevator arrives.
+	 * 
+	 * @param floor int, the floor to park at
+	 */
+	public void addParkingStop(int floor) {
+		stopPlanner.addDropoff(floor);
 	}
 
 	/**
@@ -178,7 +396,7 @@ public class ElevatorContext {
 	 * @param floor int, the elevator floor number
 	 */
 	private void clearElevatorButton(int floor) {
-		elevatorButtonBoard.put(floor, false);
+		stopPlanner.clearDropoff(floor);
 	}
 
 	/**
@@ -188,14 +406,14 @@ public class ElevatorContext {
 	 * @param delay int, the time delay
 	 */
 	public void setTimer(TimerTask task, int delay) {
-		if (timer != null) {
+		if (timerTask != null) {
 			// a timer is already set... call killTimer() first
 			return;
 		}
 
 		if (!elevatorSubsystem.getConfig().TEST_MODE) {
-			timer = new Timer();
-			timer.schedule(task, delay);
+			timerTask = task;
+			elevatorSubsystem.scheduleTimeout(task, delay);
 		}
 	}
 
@@ -203,9 +421,9 @@ public class ElevatorContext {
 	 * Kill timer method.
 	 */
 	public void killTimer() {
-		if (timer != null) {
-			timer.cancel();
-			timer = null;
+		if (timerTask != null) {
+			elevatorSubsystem.cancelTimeout(timerTask);
+			timerTask = null;
 		}
 	}
 
@@ -214,7 +432,14 @@ public class ElevatorContext {
 	 * 
 	 * @param d Direction, the direction
 	 */
-	public void setDirection(Direction d) {
+	public synchronized void setDirection(Direction d) {
+		boolean wasBusy = direction != null && direction != Direction.IDLE;
+		boolean isBusy = d != Direction.IDLE;
+		if (!wasBusy && isBusy) {
+			busySince = elevatorSubsystem.currentTimeMillis();
+		} else if (wasBusy && !isBusy) {
+			busyTime += elevatorSubsystem.currentTimeMillis() - busySince;
+		}
 		direction = d;
 	}
 
@@ -323,6 +548,24 @@ public class ElevatorContext {
 		return internalRequests.size() + externalRequests.size();
 	}
 
+	/**
+	 * Getter for the number of passengers on board.
+	 * 
+	 * @return int, the number of passengers
+	 */
+	public int getNumPassengers() {
+		return numPassengers;
+	}
+
+	/**
+	 * Check whether the car holds CAR_CAPACITY passengers.
+	 * 
+	 * @return boolean, true if no passenger can board
+	 */
+	public boolean isFull() {
+		return numPassengers >= elevatorSubsystem.getConfig().CAR_CAPACITY;
+	}
+
 	/**
 	 * Getter for external requests.
 	 * 
@@ -342,28 +585,21 @@ public class ElevatorContext {
 	}
 
 	/**
-	 * Get the Elevator Lamp Light status.
+	 * Getter for the stop planner.
 	 * 
-	 * @param floor Integer, the button number
-	 * @return boolean, true when lamp is on, false when lamp is off
+	 * @return StopPlanner, the planned stops of the elevator
 	 */
-	private boolean getElevatorLampStatus(Integer floor) {
-		return elevatorButtonBoard.get(floor);
+	public StopPlanner getStopPlanner() {
+		return stopPlanner;
 	}
 
 	/**
-	 * Method that getting all the selected floors in the elevator.
+	 * Get the planned stop sequence of the elevator in LOOK order.
 	 * 
-	 * @return ArrayList, list containing the all the selected floors
+	 * @return int[], the planned floors to stop at
 	 */
-	private ArrayList<Integer> getAllSelectedFloors() {
-		ArrayList<Integer> allSelectedFloors = new ArrayList<>();
-		for (Integer floorNumber : elevatorButtonBoard.keySet()) {
-			if (elevatorButtonBoard.get(floorNumber)) {
-				allSelectedFloors.add(floorNumber);
-			}
-		}
-		return allSelectedFloors;
+	public int[] getPlannedStops() {
+		return stopPlanner.getPlannedStops(currentFloor, direction);
 	}
 
 	/**
@@ -420,46 +656,18 @@ public class ElevatorContext {
 	 */
 	private boolean shouldContinueSweepingUp() {
 		// check internal (using button board) and external
-		ArrayList<Integer> selectedFloors = getAllSelectedFloors();
-
-		for (int selectedFloor : selectedFloors) {
-			if (selectedFloor > currentFloor) {
-				return true;
-			}
-		}
-
-		synchronized (externalRequests) {
-			for (ElevatorRequest pendingReq : externalRequests) {
-				if (pendingReq.getSourceFloor() > currentFloor && pendingReq.getDirection() == Direction.UP) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return stopPlanner.existsDropoffAbove(currentFloor)
+				|| stopPlanner.existsPickupAbove(currentFloor, Direction.UP);
 	}
 
 	/**
-	 * Handle the continuation of the elevator sweeping up.
+	 * Handle the continuation of the elevator sweeping down.
 	 * 
 	 * @return boolean, true if the elevator continues sweeping
 	 */
 	private boolean shouldContinueSweepingDown() {
-		ArrayList<Integer> selectedFloors = getAllSelectedFloors();
-
-		for (int selectedFloor : selectedFloors) {
-			if (selectedFloor < currentFloor) {
-				return true;
-			}
-		}
-
-		synchronized (externalRequests) {
-			for (ElevatorRequest pendingReq : externalRequests) {
-				if (pendingReq.getSourceFloor() < currentFloor && pendingReq.getDirection() == Direction.DOWN) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return stopPlanner.existsDropoffBelow(currentFloor)
+				|| stopPlanner.existsPickupBelow(currentFloor, Direction.DOWN);
 	}
 
 	/**
@@ -537,41 +745,36 @@ public class ElevatorContext {
 		// top-most request source?
 		// FIXME: consider stopping when you are at either lowest floor going down or
 		// highest floor going up -> TEST THIS
-		if (getElevatorLampStatus(currentFloor)) {
+		if (stopPlanner.hasDropoff(currentFloor)) {
 			return true;
 		}
+		// express run past the floors outside the zone, only a passenger going to
+		// one of them, on a trip between zones, stops the car there
+		if (!zones.serves(id, currentFloor)) {
+			return false;
+		}
+		// a full car passes the hall calls
+		if (isFull()) {
+			return false;
+		}
 
-		synchronized (externalRequests) {
-			boolean interceptElevator = false;
-			boolean existsAboveReq = existsSweepingExternalRequestsAbove();
-			boolean existsBelowReq = existsSweepingExternalRequestsBelow();
-			for (ElevatorRequest pendingReq : externalRequests) {
-				if (pendingReq.getSourceFloor() == currentFloor
-						&& (pendingReq.getDirection() == direction || direction == Direction.IDLE)) {
-					// there exists a pending req that is "on the way" - continue sweeping
-					// FIXME: is it correct to add a Direction.IDLE condition?
-					return true;
-				}
-				if (internalRequests.size() == 0 && pendingReq.getSourceFloor() == currentFloor) {
-					// no one is in the car and there is a request at this floor
-					if (!existsAboveReq && direction == Direction.UP
-							|| !existsBelowReq && direction == Direction.DOWN) {
-						// if there are no jobs to do in the direction that you are going, then you
-						// might
-						// as well pick them up
-						interceptElevator = true;
-					}
-				}
-			}
-			if (interceptElevator) {
-				return true;
-			}
+		if (stopPlanner.hasPickup(currentFloor, direction)) {
+			// there exists a pending req that is "on the way" - continue sweeping
+			// FIXME: is it correct to add a Direction.IDLE condition?
+			return true;
+		}
+		if (internalRequests.size() == 0 && stopPlanner.hasPickup(currentFloor, Direction.IDLE)) {
+			// no one is in the car and there is a request at this floor
+			// if there are no jobs to do in the direction that you are going, then you
+			// might as well pick them up
+			return !existsSweepingExternalRequestsAbove() && direction == Direction.UP
+					|| !existsSweepingExternalRequestsBelow() && direction == Direction.DOWN;
 		}
 		return false;
 	}
 
 	public boolean shouldElevatorStop(ElevatorRequest request) {
-		if (request.getSourceFloor() == currentFloor
+		if (!isFull() && request.getSourceFloor() == currentFloor
 				&& (request.getDirection() == direction || direction == Direction.IDLE)) {
 			return true;
 		}
@@ -584,14 +787,7 @@ public class ElevatorContext {
 	 * @return boolean, true if there are floor request from above
 	 */
 	private boolean existsSweepingExternalRequestsAbove() {
-		synchronized (externalRequests) {
-			for (ElevatorRequest req : externalRequests) {
-				if (req.getSourceFloor() > currentFloor && req.getDirection() == Direction.UP) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return stopPlanner.existsPickupAbove(currentFloor, Direction.UP);
 	}
 
 	/**
@@ -600,14 +796,7 @@ public class ElevatorContext {
 	 * @return boolean, true if there are floor request from below
 	 */
 	private boolean existsSweepingExternalRequestsBelow() {
-		synchronized (externalRequests) {
-			for (ElevatorRequest req : externalRequests) {
-				if (req.getSourceFloor() < currentFloor && req.getDirection() == Direction.DOWN) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return stopPlanner.existsPickupBelow(currentFloor, Direction.DOWN);
 	}
 
 	/**
@@ -679,25 +868,11 @@ public class ElevatorContext {
 	}
 
 	private boolean existsHomingExternalRequestsAbove() {
-		synchronized (externalRequests) {
-			for (ElevatorRequest req : externalRequests) {
-				if (req.getSourceFloor() > currentFloor && req.getDirection() == Direction.DOWN) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return stopPlanner.existsPickupAbove(currentFloor, Direction.DOWN);
 	}
 
 	private boolean existsHomingExternalRequestsBelow() {
-		synchronized (externalRequests) {
-			for (ElevatorRequest req : externalRequests) {
-				if (req.getSourceFloor() < currentFloor && req.getDirection() == Direction.UP) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return stopPlanner.existsPickupBelow(currentFloor, Direction.UP);
 	}
 
 	/**
@@ -716,6 +891,7 @@ public class ElevatorContext {
 			printLog("ELEVATOR_FAULT: returning externalRequests to scheduler");
 			elevatorSubsystem.returnElevatorRequests(externalRequests);
 			externalRequests.removeAll(externalRequests);
+			stopPlanner.clearPickups();
 		}
 	}
 	
@@ -731,6 +907,7 @@ public class ElevatorContext {
 				elevatorSubsystem.sendCompletedElevatorRequest(req);
 			}
 			internalRequests.removeAll(internalRequests);
+			numPassengers = 0;
 		}
 	}
 
@@ -743,6 +920,16 @@ public class ElevatorContext {
 		return currentState;
 	}
 
+	/**
+	 * Get the instance of a state of the elevator.
+	 * 
+	 * @param stateEnum ElevatorStateEnum, the state
+	 * @return ElevatorState, the state instance
+	 */
+	public ElevatorState getState(ElevatorStateEnum stateEnum) {
+		return states.get(stateEnum);
+	}
+
 	/**
 	 * Get the door.
 	 * 
@@ -767,7 +954,10 @@ public class ElevatorContext {
 	 * @param message String, the string to be displayed
 	 */
 	private void printLog(String message) {
-		Timestamp currentTime = new Timestamp(System.currentTimeMillis());
+		if (logConsole == null) {
+			return;
+		}
+		Timestamp currentTime = new Timestamp(elevatorSubsystem.currentTimeMillis());
 		String output = String.format("[%s] : %s\n", currentTime, message);
 		// System.out.println(output);
 		logConsole.appendLog(output);
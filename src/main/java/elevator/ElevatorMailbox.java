@@ -0,0 +1,90 @@
+package main.java.elevator;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Mailbox of one car. Any thread can post a message; the messages are
+ * processed by the car one at a time, in posting order, on the executor of the
+ * subsystem. At most one drain of a mailbox is scheduled at any time, so the
+ * car is never entered by two threads at once and needs no lock.
+ *
+ * @author Zakaria Ismail
+ */
+public final class ElevatorMailbox implements Runnable {
+	// messages processed per drain before the worker is handed to another car
+	private static final int BATCH_SIZE = 64;
+
+	private final Consumer<Object> handler;
+	private final Executor executor;
+	private final Queue<Object> messages;
+	private final AtomicBoolean scheduled;
+
+	/**
+	 * Constructor for the mailbox.
+	 *
+	 * @param handler  Consumer, the car processing the messages
+	 * @param executor Executor, the executor running the drains
+	 */
+	public ElevatorMailbox(Consumer<Object> handler, Executor executor) {
+		this.handler = handler;
+		this.executor = executor;
+		this.messages = new ConcurrentLinkedQueue<>();
+		this.scheduled = new AtomicBoolean();
+	}
+
+	/**
+	 * Post a message to the car.
+	 *
+	 * @param message Object, the message
+	 */
+	public void post(Object message) {
+		messages.add(message);
+		schedule();
+	}
+
+	/**
+	 * Schedule a drain unless one is already scheduled or running.
+	 */
+	private void schedule() {
+		if (scheduled.compareAndSet(false, true)) {
+			executor.execute(this);
+		}
+	}
+
+	/**
+	 * Drain a batch of messages.
+	 *
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		Object message;
+		for (int i = 0; i < BATCH_SIZE && (message = messages.poll()) != null; i++) {
+			try {
+				handler.accept(message);
+			} catch (RuntimeException e) {
+				// the worker is shared by every car of the subsystem
+				e.printStackTrace();
+			}
+		}
+		scheduled.set(false);
+		// a message posted after the last poll would otherwise wait for the next post
+		if (!messages.isEmpty()) {
+			schedule();
+		}
+	}
+
+	/**
+	 * Getter for the number of messages waiting.
+	 *
+	 * @return int, the number of messages
+	 */
+	public int size() {
+		return messages.size();
+	}
+
+}
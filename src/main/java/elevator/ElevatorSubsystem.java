@@ -1,16 +1,29 @@
 package main.java.elevator;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import main.java.ConfigurationWatcher;
+import main.java.ElevatorTopology;
 import main.java.SimulatorConfiguration;
 import main.java.UDPClient;
 import main.java.dto.AssignedElevatorRequest;
 import main.java.dto.ElevatorGuiData;
 import main.java.dto.ElevatorRequest;
 import main.java.dto.ElevatorStatus;
+import main.java.dto.ParkElevatorRequest;
+import main.java.dto.RevokeElevatorRequest;
+import main.java.dto.TraceSpan;
+import main.java.metrics.MetricsRegistry;
+import main.java.transport.Endpoint;
+import main.java.transport.Transport;
 
 /**
  * Controller. Routes requests to respective elevators. Handles communication
@@ -22,22 +35,51 @@ public class ElevatorSubsystem implements Runnable {
 
 	private HashMap<Integer, ElevatorContext> elevators;
 	private SimulatorConfiguration simulatorConfiguration;
+	private ElevatorTopology.Node node;
 	private Thread requestListenerThread;
-	private UDPClient udpRequestReceiver;
+	private Transport transport;
+	private Endpoint<AssignedElevatorRequest> requestEndpoint;
+	private Timer timeoutTimer;
+	private ExecutorService carWorkers;
+	private MetricsRegistry metrics;
 
 	/**
-	 * Constructor for Elevator Subsystem
+	 * Constructor for Elevator Subsystem hosting the cars of the first node.
 	 * 
 	 * @param config SimulatorConfiguration, the simulator configurations
 	 */
 	public ElevatorSubsystem(SimulatorConfiguration config) {
+		this(config, 0);
+	}
+
+	/**
+	 * Constructor for Elevator Subsystem hosting the cars of a topology node.
+	 * 
+	 * @param config    SimulatorConfiguration, the simulator configurations
+	 * @param nodeIndex int, the index of the node in the elevator topology
+	 */
+	public ElevatorSubsystem(SimulatorConfiguration config, int nodeIndex) {
+		this(config, nodeIndex, MetricsRegistry.getDefault());
+	}
+
+	/**
+	 * Constructor for Elevator Subsystem hosting the cars of a topology node and
+	 * recording their metrics into a registry.
+	 * 
+	 * @param config    SimulatorConfiguration, the simulator configurations
+	 * @param nodeIndex int, the index of the node in the elevator topology
+	 * @param metrics   MetricsRegistry, the registry of the cars
+	 */
+	public ElevatorSubsystem(SimulatorConfiguration config, int nodeIndex, MetricsRegistry metrics) {
 		ElevatorContext elevator;
 
+		this.metrics = metrics;
 		elevators = new HashMap<>();
 		simulatorConfiguration = config;
-		udpRequestReceiver = new UDPClient(config.ELEVATOR_SUBSYSTEM_REQ_PORT);
+		transport = Transport.forConfiguration(config);
+		node = config.ELEVATOR_TOPOLOGY.getNode(nodeIndex);
 
-		for (int i = 1; i <= config.NUM_ELEVATORS; i++) {
+		for (int i = node.getFirstElevatorId(); i <= node.getLastElevatorId(); i++) {
 			elevator = new ElevatorContext(this, i);
 			elevator.startElevator();
 			elevators.put(i, elevator);
@@ -48,6 +90,9 @@ public class ElevatorSubsystem implements Runnable {
 	 * Start the requestListenerThread to listen to the requests from the Scheduler
 	 */
 	public void run() {
+		// the node port is only bound when the subsystem runs, replays and
+		// simulations drive the subsystem in-process
+		requestEndpoint = transport.bind(node.getPort(), AssignedElevatorRequest.class);
 		// Start request fetching
 		requestListenerThread = new Thread(new RequestListenerTask(this));
 		requestListenerThread.start();
@@ -62,6 +107,84 @@ public class ElevatorSubsystem implements Runnable {
 		return simulatorConfiguration;
 	}
 
+	/**
+	 * Getter for an elevator hosted by this subsystem.
+	 * 
+	 * @param elevatorId int, the elevator id
+	 * @return ElevatorContext, the elevator, null if not hosted by this subsystem
+	 */
+	public ElevatorContext getElevator(int elevatorId) {
+		return elevators.get(elevatorId);
+	}
+
+	/**
+	 * Getter for the registry the cars record their metrics into.
+	 * 
+	 * @return MetricsRegistry, the metrics registry
+	 */
+	public MetricsRegistry getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Getter for the current time of the cars.
+	 * 
+	 * @return long, the epoch time in ms
+	 */
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Schedule the state timeout of a car. The timeouts of every car run on one
+	 * timer thread, started on first use.
+	 * 
+	 * @param task  TimerTask, the timeout task
+	 * @param delay int, the delay in ms
+	 */
+	public synchronized void scheduleTimeout(TimerTask task, int delay) {
+		if (timeoutTimer == null) {
+			timeoutTimer = new Timer("ElevatorTimeouts", true);
+		}
+		timeoutTimer.schedule(task, delay);
+	}
+
+	/**
+	 * Getter for the executor draining the mailboxes of the cars. The cars share
+	 * ELEVATOR_WORKER_THREADS daemon threads, started on first use.
+	 * 
+	 * @return Executor, the executor of the cars
+	 */
+	public synchronized Executor getCarExecutor() {
+		if (carWorkers == null) {
+			AtomicInteger threadCount = new AtomicInteger();
+			carWorkers = Executors.newFixedThreadPool(simulatorConfiguration.ELEVATOR_WORKER_THREADS, task -> {
+				Thread thread = new Thread(task, "ElevatorWorker-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return carWorkers;
+	}
+
+	/**
+	 * Cancel the state timeout of a car.
+	 * 
+	 * @param task TimerTask, the timeout task
+	 */
+	public void cancelTimeout(TimerTask task) {
+		task.cancel();
+	}
+
+	/**
+	 * Getter for the topology node hosted by this subsystem.
+	 * 
+	 * @return ElevatorTopology.Node, the node of this subsystem
+	 */
+	public ElevatorTopology.Node getNode() {
+		return node;
+	}
+
 	/**
 	 * Receiving request method.
 	 * 
@@ -71,24 +194,37 @@ public class ElevatorSubsystem implements Runnable {
 	public void receiveElevatorRequest() throws ClassNotFoundException, IOException {
 		// Called by receiving listener thread raise all exceptions to the calling
 		// thread
-		DatagramPacket receivePacket;
-		AssignedElevatorRequest assignedRequest;
-		Thread requestHandler;
-
-		receivePacket = udpRequestReceiver.receiveMessage();
-		assignedRequest = AssignedElevatorRequest.decode(UDPClient.readPacketData(receivePacket));
-		requestHandler = new Thread(new Runnable() {
-			@Override
-			public void run() {
-				routeElevatorRequest(assignedRequest);
-			}
-		});
-		requestHandler.start();
-		return;
+		handleElevatorRequest(requestEndpoint.receive());
 	}
 
 	/**
-	 * Update the request to the Elevator context.
+	 * Handle an encoded assigned request, replayed from a traffic capture.
+	 * 
+	 * @param data byte[], the encoded assigned elevator request
+	 * @throws ClassNotFoundException
+	 * @throws IOException
+	 */
+	public void handleElevatorRequest(byte[] data) throws ClassNotFoundException, IOException {
+		handleElevatorRequest(AssignedElevatorRequest.decode(data));
+	}
+
+	/**
+	 * Handle an assigned request, a revocation or a parking command received from
+	 * the Scheduler.
+	 * 
+	 * @param assignedRequest AssignedElevatorRequest, the assigned elevator request
+	 */
+	public void handleElevatorRequest(AssignedElevatorRequest assignedRequest) {
+		if (!(assignedRequest instanceof RevokeElevatorRequest) && !(assignedRequest instanceof ParkElevatorRequest)) {
+			assignedRequest.stamp(TraceSpan.CAR_RECEIVED);
+			metrics.histogram("elevator.hop.call_to_car_ms")
+					.record(currentTimeMillis() - assignedRequest.getTimeMillis());
+		}
+		routeElevatorRequest(assignedRequest);
+	}
+
+	/**
+	 * Post the request to the mailbox of its Elevator context.
 	 * 
 	 * @param request AssignedElevatorRequest, the assigned elevator request object
 	 */
@@ -108,25 +244,23 @@ public class ElevatorSubsystem implements Runnable {
 	 */
 	public void sendCompletedElevatorRequest(ElevatorRequest request) {
 		// send elevator request to be called by context
-		UDPClient messageClient = new UDPClient();
 		try {
-			messageClient.sendMessage(request.encode(), simulatorConfiguration.SCHEDULER_HOST,
+			transport.send(request, simulatorConfiguration.SCHEDULER_HOST,
 					simulatorConfiguration.SCHEDULER_COMPLETED_REQ_PORT);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		messageClient.close();
 	}
 
 	/**
-	 * Notify the elevator context of updates.
+	 * Notify the elevator context of updates. Called by the car, the snapshots
+	 * are taken and sent in order on its worker.
 	 * 
 	 * @param ctx ElevatorContext, the context of the elevator
 	 */
 	public void notifyContextUpdate(ElevatorContext ctx) {
-		new Thread(() -> sendArrivalNotification(new ElevatorStatus(ctx))).start();
-		new Thread(() -> sendGuiNotification(new ElevatorGuiData(ctx))).start();
-		return;
+		sendArrivalNotification(new ElevatorStatus(ctx));
+		sendGuiNotification(new ElevatorGuiData(ctx));
 	}
 
 	/**
@@ -136,14 +270,12 @@ public class ElevatorSubsystem implements Runnable {
 	 */
 	private void sendArrivalNotification(ElevatorStatus status) {
 		// send arrival notification
-		UDPClient messageClient = new UDPClient();
 		try {
-			messageClient.sendMessage(status.encode(), simulatorConfiguration.SCHEDULER_HOST,
+			transport.send(status, simulatorConfiguration.SCHEDULER_HOST,
 					simulatorConfiguration.SCHEDULER_ARRIVAL_REQ_PORT);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		messageClient.close();
 	}
 
 	/**
@@ -152,14 +284,11 @@ public class ElevatorSubsystem implements Runnable {
 	 * @param data ElevatorGuiData, data for the elevator GUI
 	 */
 	private void sendGuiNotification(ElevatorGuiData data) {
-		UDPClient messageClient = new UDPClient();
 		try {
-			messageClient.sendMessage(data.encode(), simulatorConfiguration.GUI_HOST,
-					simulatorConfiguration.GUI_ELEVATOR_DTO_PORT);
+			transport.send(data, simulatorConfiguration.GUI_HOST, simulatorConfiguration.GUI_ELEVATOR_DTO_PORT);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		messageClient.close();
 	}
 
 	/**
@@ -168,34 +297,43 @@ public class ElevatorSubsystem implements Runnable {
 	 * @param requests List, the list of elevator requests
 	 */
 	public void returnElevatorRequests(List<ElevatorRequest> requests) {
-		UDPClient messageClient = new UDPClient();
-
 		ElevatorRequest request;
 		for (int i=0; i<requests.size(); i++) {
 			request = (ElevatorRequest)requests.get(i);
 			System.out.println("Elevator returning: " + request);
 			try {
-				messageClient.sendMessage(request.encode(), simulatorConfiguration.SCHEDULER_HOST,
+				transport.send(request, simulatorConfiguration.SCHEDULER_HOST,
 						simulatorConfiguration.SCHEDULER_PENDING_REQ_PORT);
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
 		}
-		messageClient.close();
 	}
 
 	/**
 	 * Main method.
 	 * 
-	 * @param args, default parameters
+	 * @param args, optional index of the elevator topology node to host
 	 */
 	public static void main(String[] args) {
 		SimulatorConfiguration configuration;
 		ElevatorSubsystem subsystem;
 		Thread subsystemThread;
+		int nodeIndex = args.length > 0 ? Integer.parseInt(args[0]) : 0;
 
-		configuration = new SimulatorConfiguration("./src/main/resources/config.properties");
-		subsystem = new ElevatorSubsystem(configuration);
+		configuration = new SimulatorConfiguration("./src/main/resources/config.properties", "elevator");
+		UDPClient.setMaxDatagramSize(configuration.MAX_DATAGRAM_SIZE);
+		if (configuration.CAPTURE_PATH != null) {
+			UDPClient.startCapture(configuration.CAPTURE_PATH);
+		}
+		MetricsRegistry.getDefault()
+				.expose(configuration.METRICS_PORT > 0 ? configuration.METRICS_PORT + 3 + nodeIndex : 0);
+		try {
+			ConfigurationWatcher.getDefault().watch(configuration);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		subsystem = new ElevatorSubsystem(configuration, nodeIndex);
 		subsystemThread = new Thread(subsystem);
 		subsystemThread.start();
 	}
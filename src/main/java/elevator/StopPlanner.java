@@ -0,0 +1,321 @@
+package main.java.elevator;
+
+import java.util.Arrays;
+
+import main.java.dto.ElevatorRequest;
+
+/**
+ * Incremental stop planner for a single elevator car. Keeps the dropoff floors
+ * (elevator button board) and the pickup floors (external requests, split by
+ * direction) indexed by floor, together with the lowest and highest floor of
+ * each category. The extremes are updated on insert/remove so that the
+ * "stop here?", "continue sweeping?" and "reverse?" questions asked by the
+ * state machine are answered in constant time instead of rescanning the
+ * request lists.
+ *
+ * @author Zakaria Ismail
+ */
+public class StopPlanner {
+	private final int numFloors;
+	// floor indexed, index 0 unused
+	private final boolean[] dropoffs;
+	private final int[] upPickups;
+	private final int[] downPickups;
+	// extremes of each category, min = numFloors + 1 and max = 0 when empty
+	private int dropoffMin, dropoffMax;
+	private int upPickupMin, upPickupMax;
+	private int downPickupMin, downPickupMax;
+	private int numDropoffs;
+	// scratch buffer of getPlannedStops, a floor is listed at most twice
+	private final int[] route;
+
+	/**
+	 * Constructor for the stop planner.
+	 *
+	 * @param numFloors int, the number of floors served by the car
+	 */
+	public StopPlanner(int numFloors) {
+		this.numFloors = numFloors;
+		dropoffs = new boolean[numFloors + 1];
+		upPickups = new int[numFloors + 1];
+		downPickups = new int[numFloors + 1];
+		route = new int[2 * numFloors];
+		dropoffMin = upPickupMin = downPickupMin = numFloors + 1;
+		dropoffMax = upPickupMax = downPickupMax = 0;
+	}
+
+	/**
+	 * Mark a floor as a dropoff stop (elevator button pressed).
+	 *
+	 * @param floor int, the floor number
+	 */
+	public synchronized void addDropoff(int floor) {
+		if (dropoffs[floor]) {
+			return;
+		}
+		dropoffs[floor] = true;
+		numDropoffs++;
+		dropoffMin = Math.min(dropoffMin, floor);
+		dropoffMax = Math.max(dropoffMax, floor);
+	}
+
+	/**
+	 * Clear the dropoff stop at a floor (elevator button lamp switched off).
+	 *
+	 * @param floor int, the floor number
+	 */
+	public synchronized void clearDropoff(int floor) {
+		if (!dropoffs[floor]) {
+			return;
+		}
+		dropoffs[floor] = false;
+		numDropoffs--;
+		if (numDropoffs == 0) {
+			dropoffMin = numFloors + 1;
+			dropoffMax = 0;
+			return;
+		}
+		if (floor == dropoffMin) {
+			while (!dropoffs[dropoffMin]) {
+				dropoffMin++;
+			}
+		}
+		if (floor == dropoffMax) {
+			while (!dropoffs[dropoffMax]) {
+				dropoffMax--;
+			}
+		}
+	}
+
+	/**
+	 * Add the source floor of an external request as a pickup stop.
+	 *
+	 * @param request ElevatorRequest, the external request
+	 */
+	public synchronized void addPickup(ElevatorRequest request) {
+		int floor = request.getSourceFloor();
+		if (request.getDirection() == Direction.UP) {
+			upPickups[floor]++;
+			upPickupMin = Math.min(upPickupMin, floor);
+			upPickupMax = Math.max(upPickupMax, floor);
+		} else if (request.getDirection() == Direction.DOWN) {
+			downPickups[floor]++;
+			downPickupMin = Math.min(downPickupMin, floor);
+			downPickupMax = Math.max(downPickupMax, floor);
+		}
+	}
+
+	/**
+	 * Remove the pickup stop of an external request that was boarded or returned.
+	 *
+	 * @param request ElevatorRequest, the external request
+	 */
+	public synchronized void removePickup(ElevatorRequest request) {
+		int floor = request.getSourceFloor();
+		if (request.getDirection() == Direction.UP && upPickups[floor] > 0) {
+			if (--upPickups[floor] == 0) {
+				while (upPickupMin <= upPickupMax && upPickups[upPickupMin] == 0)
+					upPickupMin++;
+				while (upPickupMax >= upPickupMin && upPickups[upPickupMax] == 0)
+					upPickupMax--;
+				if (upPickupMin > upPickupMax) {
+					upPickupMin = numFloors + 1;
+					upPickupMax = 0;
+				}
+			}
+		} else if (request.getDirection() == Direction.DOWN && downPickups[floor] > 0) {
+			if (--downPickups[floor] == 0) {
+				while (downPickupMin <= downPickupMax && downPickups[downPickupMin] == 0)
+					downPickupMin++;
+				while (downPickupMax >= downPickupMin && downPickups[downPickupMax] == 0)
+					downPickupMax--;
+				if (downPickupMin > downPickupMax) {
+					downPickupMin = numFloors + 1;
+					downPickupMax = 0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove every pickup stop, used when all external requests are returned.
+	 */
+	public synchronized void clearPickups() {
+		Arrays.fill(upPickups, 0);
+		Arrays.fill(downPickups, 0);
+		upPickupMin = downPickupMin = numFloors + 1;
+		upPickupMax = downPickupMax = 0;
+	}
+
+	/**
+	 * Check whether no stop is planned at all.
+	 *
+	 * @return boolean, true if there is no dropoff and no pickup
+	 */
+	public synchronized boolean isEmpty() {
+		return numDropoffs == 0 && upPickupMax == 0 && downPickupMax == 0;
+	}
+
+	/**
+	 * Check whether a dropoff is planned at a floor.
+	 *
+	 * @param floor int, the floor number
+	 * @return boolean, true if the elevator button of the floor is lit
+	 */
+	public synchronized boolean hasDropoff(int floor) {
+		return dropoffs[floor];
+	}
+
+	/**
+	 * Check whether a pickup in the given direction is planned at a floor. A
+	 * direction of IDLE matches pickups in either direction.
+	 *
+	 * @param floor     int, the floor number
+	 * @param direction Direction, the direction of the pickup
+	 * @return boolean, true if there is a pickup
+	 */
+	public synchronized boolean hasPickup(int floor, Direction direction) {
+		switch (direction) {
+		case UP:
+			return upPickups[floor] > 0;
+		case DOWN:
+			return downPickups[floor] > 0;
+		default:
+			return upPickups[floor] > 0 || downPickups[floor] > 0;
+		}
+	}
+
+	/**
+	 * Check whether a dropoff is planned above a floor.
+	 *
+	 * @param floor int, the reference floor
+	 * @return boolean, true if there is a dropoff above the floor
+	 */
+	public synchronized boolean existsDropoffAbove(int floor) {
+		return dropoffMax > floor;
+	}
+
+	/**
+	 * Check whether a dropoff is planned below a floor.
+	 *
+	 * @param floor int, the reference floor
+	 * @return boolean, true if there is a dropoff below the floor
+	 */
+	public synchronized boolean existsDropoffBelow(int floor) {
+		return dropoffMin < floor;
+	}
+
+	/**
+	 * Check whether a pickup in the given direction is planned above a floor.
+	 *
+	 * @param floor     int, the reference floor
+	 * @param direction Direction, the direction of the pickup
+	 * @return boolean, true if there is a pickup in that direction above the floor
+	 */
+	public synchronized boolean existsPickupAbove(int floor, Direction direction) {
+		return direction == Direction.UP ? upPickupMax > floor : downPickupMax > floor;
+	}
+
+	/**
+	 * Check whether a pickup in the given direction is planned below a floor.
+	 *
+	 * @param floor     int, the reference floor
+	 * @param direction Direction, the direction of the pickup
+	 * @return boolean, true if there is a pickup in that direction below the floor
+	 */
+	public synchronized boolean existsPickupBelow(int floor, Direction direction) {
+		return direction == Direction.UP ? upPickupMin < floor : downPickupMin < floor;
+	}
+
+	/**
+	 * Get the next stop in LOOK order, the first entry of getPlannedStops. The
+	 * reverse and return sweeps start at an extreme, only the current sweep scans
+	 * the floors up to its nearest stop.
+	 *
+	 * @param currentFloor int, the current floor of the car
+	 * @param direction    Direction, the current direction of the car
+	 * @return int, the next floor to stop at, or -1 if nothing is planned
+	 */
+	public synchronized int getNextStop(int currentFloor, Direction direction) {
+		if (direction == Direction.DOWN) {
+			if (dropoffMin <= currentFloor || downPickupMin <= currentFloor) {
+				int limit = Math.min(dropoffMin, downPickupMin);
+				if (dropoffMax <= currentFloor)
+					limit = Math.max(limit, dropoffMax);
+				if (downPickupMax <= currentFloor)
+					limit = Math.max(limit, downPickupMax);
+				for (int f = currentFloor; f > limit; f--) {
+					if (dropoffs[f] || downPickups[f] > 0)
+						return f;
+				}
+				return limit;
+			}
+			// every dropoff is above the car now
+			int lowest = Math.min(dropoffMin, upPickupMin);
+			if (lowest <= numFloors)
+				return lowest;
+			return downPickupMax > 0 ? downPickupMax : -1;
+		}
+		if (dropoffMax >= currentFloor || upPickupMax >= currentFloor) {
+			int limit = Math.max(dropoffMax, upPickupMax);
+			if (dropoffMin >= currentFloor)
+				limit = Math.min(limit, dropoffMin);
+			if (upPickupMin >= currentFloor)
+				limit = Math.min(limit, upPickupMin);
+			for (int f = currentFloor; f < limit; f++) {
+				if (dropoffs[f] || upPickups[f] > 0)
+					return f;
+			}
+			return limit;
+		}
+		// every dropoff is below the car now
+		int highest = Math.max(dropoffMax, downPickupMax);
+		if (highest > 0)
+			return highest;
+		return upPickupMin <= numFloors ? upPickupMin : -1;
+	}
+
+	/**
+	 * Get the ordered stop sequence in LOOK order: sweep in the current direction
+	 * serving dropoffs and same-direction pickups, reverse serving dropoffs and
+	 * opposite-direction pickups, then sweep back toward the current floor for the
+	 * remaining pickups. An idle car plans as if it was going up. A floor may
+	 * appear twice when it is visited in both directions.
+	 *
+	 * @param currentFloor int, the current floor of the car
+	 * @param direction    Direction, the current direction of the car
+	 * @return int[], the planned stops
+	 */
+	public synchronized int[] getPlannedStops(int currentFloor, Direction direction) {
+		int n = 0;
+		if (direction == Direction.DOWN) {
+			for (int f = currentFloor; f >= 1; f--) {
+				if (dropoffs[f] || downPickups[f] > 0)
+					route[n++] = f;
+			}
+			for (int f = 1; f <= numFloors; f++) {
+				if ((f > currentFloor && dropoffs[f]) || upPickups[f] > 0)
+					route[n++] = f;
+			}
+			for (int f = numFloors; f > currentFloor; f--) {
+				if (downPickups[f] > 0)
+					route[n++] = f;
+			}
+		} else {
+			for (int f = currentFloor; f <= numFloors; f++) {
+				if (dropoffs[f] || upPickups[f] > 0)
+					route[n++] = f;
+			}
+			for (int f = numFloors; f >= 1; f--) {
+				if ((f < currentFloor && dropoffs[f]) || downPickups[f] > 0)
+					route[n++] = f;
+			}
+			for (int f = 1; f < currentFloor; f++) {
+				if (upPickups[f] > 0)
+					route[n++] = f;
+			}
+		}
+		return Arrays.copyOf(route, n);
+	}
+
+}
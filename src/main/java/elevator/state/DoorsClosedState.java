@@ -19,8 +19,16 @@ public class DoorsClosedState extends IdleMotorState {
 	 */
 	public DoorsClosedState(ElevatorContext ctx) {
 		super(ctx);
-		StateTimeoutTask stt = new StateTimeoutTask(ctx, TimeoutEvent.MOTOR_THROTTLE);
-		ctx.setTimer(stt, ctx.getConfig().DOORS_CLOSE_TIME);
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
+		startTimer(TimeoutEvent.MOTOR_THROTTLE, ctx.getConfig().DOORS_CLOSE_TIME);
 		ctx.setDoors(Door.CLOSED);
 	}
 
@@ -37,8 +45,7 @@ public class DoorsClosedState extends IdleMotorState {
 		// jump to DoorsOpen
 		ElevatorContext ctx = this.getContext();
 		if (ctx.shouldElevatorStop(request)) {
-			ctx.killTimer();
-			return new DoorsOpenState(ctx);
+			return transitionTo(ElevatorStateEnum.DOORS_OPEN);
 		}
 		return this;
 	}
@@ -52,23 +59,22 @@ public class DoorsClosedState extends IdleMotorState {
 	public ElevatorState handleTimeout() {
 		ElevatorContext ctx = this.getContext();
 		Direction nextDirection;
-		ctx.killTimer();
 
 		nextDirection = ctx.calculateNextDirection();
 		ctx.setDirection(nextDirection);
 
 		if (ctx.shouldElevatorStop()) {
-			return new StoppedState(ctx);
+			return transitionTo(ElevatorStateEnum.STOPPED);
 		}
 
 		switch (ctx.getDirection()) {
 		case UP:
-			return new MovingUpState(ctx);
+			return transitionTo(ElevatorStateEnum.MOVING_UP);
 		case DOWN:
-			return new MovingDownState(ctx);
+			return transitionTo(ElevatorStateEnum.MOVING_DOWN);
 		default:
 		}
-		return new IdleState(ctx);
+		return transitionTo(ElevatorStateEnum.IDLE);
 	}
 
 	/**
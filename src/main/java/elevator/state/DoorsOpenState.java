@@ -18,12 +18,21 @@ public class DoorsOpenState extends IdleMotorState {
 	 */
 	public DoorsOpenState(ElevatorContext ctx) {
 		super(ctx);
-		StateTimeoutTask stt = new StateTimeoutTask(ctx, TimeoutEvent.DOORS_CLOSE);
-		ctx.setTimer(stt, ctx.getConfig().LOADING_TIME);
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
+		startTimer(TimeoutEvent.DOORS_CLOSE, ctx.getConfig().LOADING_TIME);
 		ctx.setDoors(Door.OPEN);
-		
-		ctx.loadPassengers();
+
+		// the passengers leaving free their room first
 		ctx.unloadPassengers();
+		ctx.loadPassengers();
 	}
 
 	/**
@@ -48,21 +57,20 @@ public class DoorsOpenState extends IdleMotorState {
 		ElevatorContext ctx = this.getContext();
 		Direction nextDirection = ctx.calculateNextDirection();
 		Direction nextHomingDirection = ctx.calculateNextHomingDirection();
-		ctx.killTimer();
 		
 		if (nextDirection == Direction.IDLE) {
 			if (nextHomingDirection != Direction.IDLE) {
 				ctx.setDirection(nextHomingDirection);
-				return new HomingDoorsClosedState(ctx);
+				return transitionTo(ElevatorStateEnum.HOMING_DOORS_CLOSED);
 			}
-			return new IdleState(ctx);
+			return transitionTo(ElevatorStateEnum.IDLE);
 		}
 		if (ctx.getDirection() != nextDirection) {
 			// no more requests in current direction, go opposite & load passengers
 			ctx.setDirection(nextDirection);
-			return new DoorsOpenState(ctx);
+			return transitionTo(ElevatorStateEnum.DOORS_OPEN);
 		}
-		return new DoorsClosedState(ctx); // elevator continues in current direction
+		return transitionTo(ElevatorStateEnum.DOORS_CLOSED); // elevator continues in current direction
 	}
 
 	/**
@@ -17,8 +17,16 @@ public class DoorsStuckState extends IdleMotorState {
 	 */
 	public DoorsStuckState(ElevatorContext ctx) {
 		super(ctx);
-		StateTimeoutTask stt = new StateTimeoutTask(ctx, TimeoutEvent.DOORS_UNSTUCK);
-		ctx.setTimer(stt, ctx.getConfig().DOORS_OBSTRUCTED_TIME);
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
+		startTimer(TimeoutEvent.DOORS_UNSTUCK, ctx.getConfig().DOORS_OBSTRUCTED_TIME);
 		ctx.returnExternalRequests();
 	}
 
@@ -41,9 +49,7 @@ public class DoorsStuckState extends IdleMotorState {
 	 */
 	@Override
 	public ElevatorState handleTimeout() {
-		ElevatorContext ctx = this.getContext();
-		ctx.killTimer();
-		return new DoorsOpenState(ctx);
+		return transitionTo(ElevatorStateEnum.DOORS_OPEN);
 	}
 	
 	/**
@@ -4,7 +4,10 @@ import main.java.dto.ElevatorRequest;
 import main.java.elevator.ElevatorContext;
 
 /**
- * Abstract for Elevator state.
+ * Abstract for Elevator state. Each car holds one instance of every state in
+ * its ElevatorStateTable, the handlers transition between these instances and
+ * the side effects of a state are done by its entry and exit actions, so that
+ * a transition does not allocate.
  * 
  * @author Zakaria Ismail
  */
@@ -27,7 +30,20 @@ public abstract class ElevatorState {
 	 * @return ElevatorState, the state of the elevator
 	 */
 	public static ElevatorState start(ElevatorContext ctx) {
-		return new IdleState(ctx);
+		return enter(ctx, ElevatorStateEnum.IDLE);
+	}
+
+	/**
+	 * Enter a state of an elevator without leaving its current state.
+	 * 
+	 * @param ctx       ElevatorContext, the elevator context
+	 * @param stateEnum ElevatorStateEnum, the state entered
+	 * @return ElevatorState, the state of the elevator
+	 */
+	public static ElevatorState enter(ElevatorContext ctx, ElevatorStateEnum stateEnum) {
+		ElevatorState state = ctx.getState(stateEnum);
+		state.onEntry();
+		return state;
 	}
 
 	/**
@@ -39,6 +55,42 @@ public abstract class ElevatorState {
 		return context;
 	}
 
+	/**
+	 * Leave this state for another, or for itself again.
+	 * 
+	 * @param stateEnum ElevatorStateEnum, the next state
+	 * @return ElevatorState, the state of the elevator
+	 */
+	protected final ElevatorState transitionTo(ElevatorStateEnum stateEnum) {
+		ElevatorState next = context.getState(stateEnum);
+		onExit();
+		next.onEntry();
+		return next;
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	protected void onEntry() {
+	}
+
+	/**
+	 * Exit action of the state, cancels its timeout.
+	 */
+	protected void onExit() {
+		context.killTimer();
+	}
+
+	/**
+	 * Start the timeout of the state.
+	 * 
+	 * @param event TimeoutEvent, the timeout event
+	 * @param delay int, the time delay
+	 */
+	protected void startTimer(TimeoutEvent event, int delay) {
+		context.setTimer(new StateTimeoutTask(context, event), delay);
+	}
+
 	/**
 	 * Handle the request received
 	 * 
@@ -46,6 +98,17 @@ public abstract class ElevatorState {
 	 */
 	public abstract ElevatorState handleRequestReceived(ElevatorRequest request);
 
+	/**
+	 * Handle a parking command received. Only an idle elevator moves, the
+	 * command is ignored in every other state.
+	 * 
+	 * @param floor int, the floor to wait at
+	 * @return ElevatorState, the state of the elevator
+	 */
+	public ElevatorState handleParkReceived(int floor) {
+		return this;
+	}
+
 	/**
 	 * Handle the Timeout event.
 	 * 
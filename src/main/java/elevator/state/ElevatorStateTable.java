@@ -0,0 +1,70 @@
+package main.java.elevator.state;
+
+import main.java.elevator.ElevatorContext;
+
+/**
+ * The states of one car, created once and indexed by ElevatorStateEnum.
+ * 
+ * @author Zakaria Ismail
+ */
+public final class ElevatorStateTable {
+	private final ElevatorState[] states;
+
+	/**
+	 * Constructor for the state table.
+	 * 
+	 * @param ctx ElevatorContext, the context of the elevator
+	 */
+	public ElevatorStateTable(ElevatorContext ctx) {
+		ElevatorStateEnum[] stateEnums = ElevatorStateEnum.values();
+		states = new ElevatorState[stateEnums.length];
+		for (ElevatorStateEnum stateEnum : stateEnums) {
+			states[stateEnum.ordinal()] = create(ctx, stateEnum);
+		}
+	}
+
+	/**
+	 * Create the instance of a state.
+	 * 
+	 * @param ctx       ElevatorContext, the context of the elevator
+	 * @param stateEnum ElevatorStateEnum, the state
+	 * @return ElevatorState, the state instance
+	 */
+	private static ElevatorState create(ElevatorContext ctx, ElevatorStateEnum stateEnum) {
+		switch (stateEnum) {
+		case DOORS_OPEN:
+			return new DoorsOpenState(ctx);
+		case DOORS_CLOSED:
+			return new DoorsClosedState(ctx);
+		case HOMING_DOORS_CLOSED:
+			return new HomingDoorsClosedState(ctx);
+		case IDLE:
+			return new IdleState(ctx);
+		case MOVING_DOWN:
+			return new MovingDownState(ctx);
+		case MOVING_UP:
+			return new MovingUpState(ctx);
+		case STOPPED:
+			return new StoppedState(ctx);
+		case HOMING:
+			return new HomingState(ctx);
+		case DOORS_STUCK:
+			return new DoorsStuckState(ctx);
+		case ELEVATOR_STUCK:
+			return new ElevatorStuckState(ctx);
+		default:
+			throw new IllegalArgumentException("Unknown state " + stateEnum);
+		}
+	}
+
+	/**
+	 * Get the instance of a state.
+	 * 
+	 * @param stateEnum ElevatorStateEnum, the state
+	 * @return ElevatorState, the state instance
+	 */
+	public ElevatorState get(ElevatorStateEnum stateEnum) {
+		return states[stateEnum.ordinal()];
+	}
+
+}
@@ -18,6 +18,15 @@ public class ElevatorStuckState extends IdleMotorState {
 	 */
 	public ElevatorStuckState(ElevatorContext ctx) {
 		super(ctx);
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
 		ctx.setDirection(Direction.IDLE);
 		ctx.returnExternalRequests();
 		ctx.returnInternalRequests();
@@ -15,8 +15,16 @@ public class HomingDoorsClosedState extends IdleMotorState {
 
 	public HomingDoorsClosedState(ElevatorContext ctx) {
 		super(ctx);
-		StateTimeoutTask stt = new StateTimeoutTask(ctx, TimeoutEvent.MOTOR_THROTTLE);
-		ctx.setTimer(stt, ctx.getConfig().DOORS_CLOSE_TIME);
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
+		startTimer(TimeoutEvent.MOTOR_THROTTLE, ctx.getConfig().DOORS_CLOSE_TIME);
 		ctx.setDoors(Door.CLOSED);
 	}
 
@@ -27,9 +35,7 @@ public class HomingDoorsClosedState extends IdleMotorState {
 
 	@Override
 	public ElevatorState handleTimeout() {
-		ElevatorContext ctx = this.getContext();
-		ctx.killTimer();
-		return new HomingState(ctx);
+		return transitionTo(ElevatorStateEnum.HOMING);
 	}
 
 	@Override
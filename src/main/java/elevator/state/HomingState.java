@@ -15,17 +15,23 @@ public class HomingState extends ElevatorState {
 
 	public HomingState(ElevatorContext ctx) {
 		super(ctx);
-		StateTimeoutTask stt = new StateTimeoutTask(ctx, TimeoutEvent.MOTOR_STOP);
-		ctx.setTimer(stt, ctx.getConfig().MOVING_TIME);
-		
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
+		startTimer(TimeoutEvent.MOTOR_STOP, ctx.getConfig().MOVING_TIME);
+
 		switch (ctx.getDirection()) {
 		case UP: ctx.setMotor(Motor.THROTTLE_DOWN); break;
 		case DOWN: ctx.setMotor(Motor.THROTTLE_UP); break;
 		default:
 			System.out.println("PANIC! THIS SHOULDN'T HAPPEN!");
 		}
-		
-		
 	}
 
 	@Override
@@ -37,25 +43,24 @@ public class HomingState extends ElevatorState {
 	public ElevatorState handleTimeout() {
 		//
 		ElevatorContext ctx = this.getContext();
-		ctx.killTimer();
 		switch(ctx.getMotor()) {
 		case THROTTLE_UP: 
 			if (!ctx.incrementCurrentFloor()) {
-				return new StoppedState(ctx);
+				return transitionTo(ElevatorStateEnum.STOPPED);
 			}
 			break;
 		case THROTTLE_DOWN: 
 			if (!ctx.decrementCurrentFloor()) {
-				return new StoppedState(ctx);
+				return transitionTo(ElevatorStateEnum.STOPPED);
 			}
 			break;
 		default:
 		}
 		
 		if (ctx.shouldElevatorHome()) {
-			return new HomingState(ctx);
+			return transitionTo(ElevatorStateEnum.HOMING);
 		}
-		return new StoppedState(ctx);
+		return transitionTo(ElevatorStateEnum.STOPPED);
 	}
 
 	@Override
@@ -17,7 +17,15 @@ public abstract class IdleMotorState extends ElevatorState {
 	 */
 	public IdleMotorState(ElevatorContext ctx) {
 		super(ctx);
-		ctx.setMotor(Motor.IDLE);
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		super.onEntry();
+		getContext().setMotor(Motor.IDLE);
 	}
 
 }
@@ -19,7 +19,15 @@ public class IdleState extends IdleMotorState {
 	 */
 	public IdleState(ElevatorContext ctx) {
 		super(ctx);
+	}
 
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
 		ctx.setDoors(Door.OPEN);
 		ctx.setDirection(Direction.IDLE);
 	}
@@ -35,19 +43,36 @@ public class IdleState extends IdleMotorState {
 		if (ctx.loadPassengers(request)) {
 			// request is at current floor, service it
 			ctx.setDirection(request.getDirection());
-			return new DoorsClosedState(ctx);
+			return transitionTo(ElevatorStateEnum.DOORS_CLOSED);
 		}
 		if (ctx.shouldElevatorSweep(request)) {
 			ctx.setDirection(request.getDirection());
-			return new DoorsClosedState(ctx);
+			return transitionTo(ElevatorStateEnum.DOORS_CLOSED);
 		}
 		if (ctx.shouldElevatorHome(request)) {
 			ctx.setDirection(request.getDirection());
-			return new HomingDoorsClosedState(ctx);
+			return transitionTo(ElevatorStateEnum.HOMING_DOORS_CLOSED);
 		}
 		return this;
 	}
 
+	/**
+	 * Handle a parking command received, move empty to the floor.
+	 * 
+	 * @param floor int, the floor to wait at
+	 * @return ElevatorState, the state of the elevator
+	 */
+	@Override
+	public ElevatorState handleParkReceived(int floor) {
+		ElevatorContext ctx = this.getContext();
+		if (floor == ctx.getCurrentFloor()) {
+			return this;
+		}
+		ctx.addParkingStop(floor);
+		ctx.setDirection(floor > ctx.getCurrentFloor() ? Direction.UP : Direction.DOWN);
+		return transitionTo(ElevatorStateEnum.DOORS_CLOSED);
+	}
+
 	/**
 	 * Handle the Timeout event.
 	 * 
@@ -19,6 +19,15 @@ public class MovingDownState extends MovingState {
 	 */
 	public MovingDownState(ElevatorContext ctx) {
 		super(ctx);
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
 		ctx.setMotor(Motor.THROTTLE_DOWN);
 		ctx.setDirection(Direction.DOWN);
 	}
@@ -32,8 +41,7 @@ public class MovingDownState extends MovingState {
 	public ElevatorState handleRequestReceived(ElevatorRequest request) {
 		ElevatorContext ctx = this.getContext();
 		if (ctx.shouldElevatorStop(request)) {
-			ctx.killTimer();
-			return new StoppedState(ctx);
+			return transitionTo(ElevatorStateEnum.STOPPED);
 		}
 		return this;
 	}
@@ -46,14 +54,14 @@ public class MovingDownState extends MovingState {
 	@Override
 	public ElevatorState handleTimeout() {
 		ElevatorContext ctx = this.getContext();
-		ctx.killTimer();
 		if (!ctx.decrementCurrentFloor()) {
-			return new StoppedState(ctx);
+			return transitionTo(ElevatorStateEnum.STOPPED);
 		}
-		if (ctx.shouldElevatorStop()) {
-			return new StoppedState(ctx);
+		// stop at the next floor when nothing is left to serve, after a revocation
+		if (ctx.shouldElevatorStop() || ctx.getStopPlanner().isEmpty()) {
+			return transitionTo(ElevatorStateEnum.STOPPED);
 		}
-		return new MovingDownState(ctx);
+		return transitionTo(ElevatorStateEnum.MOVING_DOWN);
 	}
 
 	/**
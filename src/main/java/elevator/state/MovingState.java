@@ -17,8 +17,16 @@ public abstract class MovingState extends ElevatorState {
 	 */
 	public MovingState(ElevatorContext ctx) {
 		super(ctx);
-		StateTimeoutTask stt = new StateTimeoutTask(ctx, TimeoutEvent.MOTOR_STOP);
-		ctx.setTimer(stt, ctx.getConfig().MOVING_TIME);
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
+		startTimer(TimeoutEvent.MOTOR_STOP, ctx.getConfig().MOVING_TIME);
 		ctx.setDoors(Door.CLOSED);
 	}
 
@@ -25,13 +25,27 @@ public class StateTimeoutTask extends TimerTask {
 	}
 
 	/**
-	 * Run method.
+	 * Getter for the timeout event.
+	 * 
+	 * @return TimeoutEvent, the timeout event object
+	 */
+	public TimeoutEvent getEvent() {
+		return event;
+	}
+
+	/**
+	 * Run method, posts the timeout to the car.
 	 * 
 	 * @see java.lang.Runnable#run()
 	 */
 	@Override
 	public void run() {
-		context.onTimeout(event);
+		try {
+			context.onTimeout(this);
+		} catch (RuntimeException e) {
+			// the timer thread is shared by every car of the subsystem
+			e.printStackTrace();
+		}
 	}
 
 }
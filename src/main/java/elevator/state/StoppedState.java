@@ -18,8 +18,16 @@ public class StoppedState extends IdleMotorState {
 	 */
 	public StoppedState(ElevatorContext ctx) {
 		super(ctx);
-		StateTimeoutTask stt = new StateTimeoutTask(ctx, TimeoutEvent.DOORS_OPEN);
-		ctx.setTimer(stt, ctx.getConfig().DOORS_OPEN_TIME);
+	}
+
+	/**
+	 * Entry action of the state.
+	 */
+	@Override
+	protected void onEntry() {
+		ElevatorContext ctx = this.getContext();
+		super.onEntry();
+		startTimer(TimeoutEvent.DOORS_OPEN, ctx.getConfig().DOORS_OPEN_TIME);
 	}
 
 	/**
@@ -41,17 +49,16 @@ public class StoppedState extends IdleMotorState {
 	public ElevatorState handleTimeout() {
 		ElevatorContext ctx = this.getContext();
 		ElevatorError error;
-		ctx.killTimer();
 		error = ctx.isAtErrorFloor();
 		if (error != null) {
 			switch (error) {
 			case ELEVATOR_STUCK:
-				return new ElevatorStuckState(ctx);
+				return transitionTo(ElevatorStateEnum.ELEVATOR_STUCK);
 			case DOORS_STUCK:
-				return new DoorsStuckState(ctx);
+				return transitionTo(ElevatorStateEnum.DOORS_STUCK);
 			}
 		}
-		return new DoorsOpenState(ctx);
+		return transitionTo(ElevatorStateEnum.DOORS_OPEN);
 	}
 
 	/**
@@ -11,16 +11,17 @@ import main.java.elevator.Direction;
  */
 public class Floor {
 	private int floorNum;
-	private FloorComponents components;
+	private FloorState components;
 
 	/**
 	 * Constructor of the Floor class.
 	 * 
-	 * @param floorNum int, the number of floors
+	 * @param components FloorState, the components of every floor of the building
+	 * @param floorNum   int, the floor number
 	 */
-	public Floor(int floorNum) {
+	public Floor(FloorState components, int floorNum) {
 		this.floorNum = floorNum;
-		this.components = new FloorComponents();
+		this.components = components;
 	}
 
 	/**
@@ -30,7 +31,7 @@ public class Floor {
 	 *               false: off)
 	 */
 	public void setFloorUpLamp(boolean status) {
-		components.updateButtonDirectionStatus(Direction.UP, status);
+		components.setButtonLamp(floorNum, Direction.UP, status);
 	}
 
 	/**
@@ -40,7 +41,7 @@ public class Floor {
 	 *               false: off)
 	 */
 	public void setFloorDownLamp(boolean status) {
-		components.updateButtonDirectionStatus(Direction.DOWN, status);
+		components.setButtonLamp(floorNum, Direction.DOWN, status);
 	}
 
 	/**
@@ -49,7 +50,7 @@ public class Floor {
 	 * @return the boolean of whether the lamp is on or off (true: on / false: off)
 	 */
 	public boolean getFloorUpLamp() {
-		return components.getButtonLampStatus(Direction.UP);
+		return components.getButtonLamp(floorNum, Direction.UP);
 	}
 
 	/**
@@ -58,7 +59,7 @@ public class Floor {
 	 * @return the boolean of whether the lamp is on or off (true: on / false: off)
 	 */
 	public boolean getFloorDownLamp() {
-		return components.getButtonLampStatus(Direction.DOWN);
+		return components.getButtonLamp(floorNum, Direction.DOWN);
 	}
 
 	/**
@@ -69,17 +70,18 @@ public class Floor {
 	 *                 or not (false)
 	 */
 	public void setFloorSensor(int sensorId, boolean status) {
-		components.updateArrivalSensor(sensorId, status);
+		components.setArrivalSensor(floorNum, sensorId, status);
 	}
 
 	/**
-	 * Updates the direction lamp for an elevator shaft
+	 * Updates the direction lamp for an elevator shaft, the lamps of a shaft show
+	 * the same direction on every floor
 	 * 
 	 * @param elevatorId the int of the elevator id
 	 * @param direction  the Direction enum to change the lamp's status to
 	 */
 	public void setElevatorDirectionLamp(int elevatorId, Direction direction) {
-		components.updateDirectionLamp(elevatorId, direction);
+		components.setDirectionLamp(elevatorId, direction);
 	}
 
 	/**
@@ -88,7 +90,7 @@ public class Floor {
 	 * @return the boolean of whether the button is on (true) or off (false)
 	 */
 	public boolean getUpButtonLamp() {
-		return components.getButtonLampStatus(Direction.UP);
+		return components.getButtonLamp(floorNum, Direction.UP);
 	}
 
 	/**
@@ -97,7 +99,7 @@ public class Floor {
 	 * @return the boolean of whether the button is on (true) or off (false)
 	 */
 	public boolean getDownButtonLamp() {
-		return components.getButtonLampStatus(Direction.DOWN);
+		return components.getButtonLamp(floorNum, Direction.DOWN);
 	}
 
 	/**
@@ -114,6 +116,6 @@ public class Floor {
 	 */
 	@Override
 	public String toString() {
-		return "Floor " + floorNum + "\n" + components.toString();
+		return "Floor " + floorNum + "\n" + components.toString(floorNum);
 	}
 }
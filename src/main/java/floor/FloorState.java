@@ -0,0 +1,235 @@
+package main.java.floor;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import main.java.SimulatorConfiguration;
+import main.java.elevator.Direction;
+
+/**
+ * Compact store of the components of every floor of a building: the up and
+ * down button lamps of each floor, and the arrival sensor and direction lamp of
+ * each elevator shaft on each floor. Button lamps are bits indexed by floor. A
+ * car triggers the arrival sensor of a single floor and its direction lamp
+ * shows the same direction on every floor, so both are stored once per car and
+ * an arrival updates O(1) cells whatever the number of floors.
+ * 
+ * @author Hussein El Mokdad
+ */
+public class FloorState {
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final int numFloors;
+	private final int numElevators;
+	// index: floor - 1
+	private final BitSet upLamps;
+	private final BitSet downLamps;
+	// index: elevator id - 1, floor detected by the arrival sensors, 0 if none
+	private final int[] carFloors;
+	// index: elevator id - 1, direction shown by the direction lamps
+	private final byte[] carDirections;
+
+	/**
+	 * Constructor for the floor state of a building.
+	 * 
+	 * @param config SimulatorConfiguration, the configuration of the building
+	 */
+	public FloorState(SimulatorConfiguration config) {
+		this(config.NUM_FLOORS, config.NUM_ELEVATORS);
+	}
+
+	/**
+	 * Constructor for the floor state of a building.
+	 * 
+	 * @param numFloors    int, the number of floors
+	 * @param numElevators int, the number of cars
+	 */
+	public FloorState(int numFloors, int numElevators) {
+		this.numFloors = numFloors;
+		this.numElevators = numElevators;
+		upLamps = new BitSet(numFloors);
+		downLamps = new BitSet(numFloors);
+		carFloors = new int[numElevators];
+		carDirections = new byte[numElevators];
+		Arrays.fill(carDirections, (byte) Direction.IDLE.ordinal());
+	}
+
+	/**
+	 * Getter for the number of floors.
+	 * 
+	 * @return int, the number of floors
+	 */
+	public int getNumFloors() {
+		return numFloors;
+	}
+
+	/**
+	 * Getter for the number of cars.
+	 * 
+	 * @return int, the number of cars
+	 */
+	public int getNumElevators() {
+		return numElevators;
+	}
+
+	/**
+	 * Get the status of the up or down button lamp of a floor.
+	 * 
+	 * @param floor     int, the floor number
+	 * @param direction Direction, the direction of the button
+	 * @return boolean, true if the lamp is on
+	 */
+	public synchronized boolean getButtonLamp(int floor, Direction direction) {
+		return lamps(direction).get(floorIndex(floor));
+	}
+
+	/**
+	 * Turn the up or down button lamp of a floor on or off.
+	 * 
+	 * @param floor     int, the floor number
+	 * @param direction Direction, the direction of the button
+	 * @param status    boolean, true to turn the lamp on
+	 */
+	public synchronized void setButtonLamp(int floor, Direction direction, boolean status) {
+		lamps(direction).set(floorIndex(floor), status);
+	}
+
+	/**
+	 * Get the arrival sensor of an elevator shaft on a floor.
+	 * 
+	 * @param floor      int, the floor number
+	 * @param elevatorId int, the elevator id
+	 * @return boolean, true if the sensor detects the car
+	 */
+	public synchronized boolean getArrivalSensor(int floor, int elevatorId) {
+		return carFloors[carIndex(elevatorId)] == floor;
+	}
+
+	/**
+	 * Update the arrival sensor of an elevator shaft on a floor.
+	 * 
+	 * @param floor      int, the floor number
+	 * @param elevatorId int, the elevator id
+	 * @param status     boolean, true if the sensor detects the car
+	 */
+	public synchronized void setArrivalSensor(int floor, int elevatorId, boolean status) {
+		floorIndex(floor);
+		int car = carIndex(elevatorId);
+		if (status) {
+			// the sensor of the previous floor of the car is cleared
+			carFloors[car] = floor;
+		} else if (carFloors[car] == floor) {
+			carFloors[car] = 0;
+		}
+	}
+
+	/**
+	 * Get the direction lamp of an elevator shaft on a floor.
+	 * 
+	 * @param floor      int, the floor number
+	 * @param elevatorId int, the elevator id
+	 * @return Direction, the direction shown by the lamp
+	 */
+	public synchronized Direction getDirectionLamp(int floor, int elevatorId) {
+		floorIndex(floor);
+		return DIRECTIONS[carDirections[carIndex(elevatorId)]];
+	}
+
+	/**
+	 * Update the direction lamps of an elevator shaft on every floor.
+	 * 
+	 * @param elevatorId int, the elevator id
+	 * @param direction  Direction, the direction shown by the lamps
+	 */
+	public synchronized void setDirectionLamp(int elevatorId, Direction direction) {
+		carDirections[carIndex(elevatorId)] = (byte) direction.ordinal();
+	}
+
+	/**
+	 * Update the arrival sensors and direction lamps of a car from an arrival
+	 * notification.
+	 * 
+	 * @param elevatorId int, the elevator id
+	 * @param floor      int, the floor the car is at
+	 * @param direction  Direction, the direction of the car
+	 */
+	public synchronized void updateCar(int elevatorId, int floor, Direction direction) {
+		floorIndex(floor);
+		int car = carIndex(elevatorId);
+		carFloors[car] = floor;
+		carDirections[car] = (byte) direction.ordinal();
+	}
+
+	/**
+	 * Get the floor detected by the arrival sensors of a car.
+	 * 
+	 * @param elevatorId int, the elevator id
+	 * @return int, the floor of the car, 0 if not detected yet
+	 */
+	public synchronized int getCarFloor(int elevatorId) {
+		return carFloors[carIndex(elevatorId)];
+	}
+
+	/**
+	 * Describe the components of a floor.
+	 * 
+	 * @param floor int, the floor number
+	 * @return String, the lamps and sensors of the floor
+	 */
+	public synchronized String toString(int floor) {
+		StringBuilder directionLampsStr = new StringBuilder("{");
+		StringBuilder floorSensorsStr = new StringBuilder("{");
+		for (int i = 1; i <= numElevators; i++) {
+			directionLampsStr.append("Elevator# ").append(i).append(" direction lamp: ")
+					.append(getDirectionLamp(floor, i)).append(", ");
+			floorSensorsStr.append("Elevator# ").append(i).append(" arrival sensor: ")
+					.append(getArrivalSensor(floor, i)).append(", ");
+		}
+		return "{Up Button Lamp: " + getButtonLamp(floor, Direction.UP) + ", Down Button Lamp: "
+				+ getButtonLamp(floor, Direction.DOWN) + "} \n" + directionLampsStr + "} \n" + floorSensorsStr + "}";
+	}
+
+	/**
+	 * Get the button lamps of a direction.
+	 * 
+	 * @param direction Direction, UP or DOWN
+	 * @return BitSet, the lamps indexed by floor
+	 */
+	private BitSet lamps(Direction direction) {
+		switch (direction) {
+		case UP:
+			return upLamps;
+		case DOWN:
+			return downLamps;
+		default:
+			throw new IllegalArgumentException("No button lamp for direction " + direction);
+		}
+	}
+
+	/**
+	 * Get the index of a floor.
+	 * 
+	 * @param floor int, the floor number
+	 * @return int, the index of the floor
+	 */
+	private int floorIndex(int floor) {
+		if (floor < 1 || floor > numFloors) {
+			throw new IllegalArgumentException("Invalid floor " + floor);
+		}
+		return floor - 1;
+	}
+
+	/**
+	 * Get the index of a car.
+	 * 
+	 * @param elevatorId int, the elevator id
+	 * @return int, the index of the car
+	 */
+	private int carIndex(int elevatorId) {
+		if (elevatorId < 1 || elevatorId > numElevators) {
+			throw new IllegalArgumentException("Invalid elevator " + elevatorId);
+		}
+		return elevatorId - 1;
+	}
+
+}
@@ -3,13 +3,13 @@ package main.java.floor;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.net.DatagramPacket;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,10 +20,15 @@ import main.java.UDPClient;
 import main.java.dto.ElevatorRequest;
 import main.java.dto.ElevatorStatus;
 import main.java.dto.FloorGuiData;
+import main.java.dto.TraceSpan;
 import main.java.elevator.Direction;
 import main.java.elevator.state.ElevatorStateEnum;
 import main.java.floor.parser.Parser;
 import main.java.gui.LogConsole;
+import main.java.metrics.JourneyExporter;
+import main.java.metrics.MetricsRegistry;
+import main.java.transport.Endpoint;
+import main.java.transport.Transport;
 import main.resources.GenerateEvents;
 
 /**
@@ -37,11 +42,16 @@ public class FloorSubsystem implements Runnable {
 	private final Logger logger = Logger.getLogger(this.getClass().getName());
 	private SimulatorConfiguration simulatorConfiguration;
 	private Parser parser;
-	private UDPClient udpArrivalRequestsReceiver;
-	private UDPClient udpCompletedRequestsReceiver;
+	private Transport transport;
+	private Endpoint<ElevatorStatus> arrivalRequestsEndpoint;
+	private Endpoint<ElevatorRequest> completedRequestsEndpoint;
+	private FloorState floorState;
 	private Floor[] floorArr;
 	private int numOfFloors;
 	private LogConsole logConsole;
+	// requests sent and not completed yet, key: request id
+	private ConcurrentHashMap<Long, ElevatorRequest> inFlightRequests;
+	private JourneyExporter journeyExporter;
 
 	/**
 	 * Constructor for the FloorSubsystem class.
@@ -50,8 +60,11 @@ public class FloorSubsystem implements Runnable {
 	 */
 	public FloorSubsystem(SimulatorConfiguration config) {
 		simulatorConfiguration = config;
-		udpArrivalRequestsReceiver = new UDPClient(simulatorConfiguration.FLOOR_SUBSYSTEM_ARRIVAL_REQ_PORT);
-		udpCompletedRequestsReceiver = new UDPClient(simulatorConfiguration.FLOOR_SUBSYSTEM_COMPLETED_REQ_PORT);
+		transport = Transport.forConfiguration(config);
+		arrivalRequestsEndpoint = transport.bind(simulatorConfiguration.FLOOR_SUBSYSTEM_ARRIVAL_REQ_PORT,
+				ElevatorStatus.class);
+		completedRequestsEndpoint = transport.bind(simulatorConfiguration.FLOOR_SUBSYSTEM_COMPLETED_REQ_PORT,
+				ElevatorRequest.class);
 		numOfFloors = simulatorConfiguration.NUM_FLOORS;
 		logger.setLevel(Level.INFO);
 		try {
@@ -60,11 +73,22 @@ public class FloorSubsystem implements Runnable {
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
 		}
+		floorState = new FloorState(simulatorConfiguration);
 		floorArr = new Floor[numOfFloors];
 		for (int i = 0; i < numOfFloors; i++) {
-			floorArr[i] = new Floor(i + 1);
+			floorArr[i] = new Floor(floorState, i + 1);
 		}
 		logConsole = new LogConsole(this.getClass().getSimpleName());
+		inFlightRequests = new ConcurrentHashMap<>();
+		MetricsRegistry.getDefault().gauge("floor.in_flight_requests", () -> inFlightRequests.size());
+		MetricsRegistry.getDefault().gauge("floor.oldest_in_flight_ms", () -> getOldestInFlightAge());
+		if (simulatorConfiguration.JOURNEY_EXPORT_PATH != null) {
+			try {
+				journeyExporter = new JourneyExporter(simulatorConfiguration.JOURNEY_EXPORT_PATH);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 	}
 
 	/**
@@ -122,29 +146,37 @@ public class FloorSubsystem implements Runnable {
 		if (!elevatorRequests.isEmpty()) {
 			Timer requestsTimer = new Timer();
 			for (ElevatorRequest req : elevatorRequests) {
-				byte[] data = req.encode();
+				req.setGroupId(simulatorConfiguration.GROUP_ID);
 				requestsTimer.schedule(new TimerTask() {
 					@Override
 					public void run() {
-						UDPClient udpSendReq = new UDPClient();
 						try {
-							udpSendReq.sendMessage(data, simulatorConfiguration.SCHEDULER_HOST,
+							req.stamp(TraceSpan.FLOOR_SENT);
+							inFlightRequests.put(req.getRequestId(), req);
+							transport.send(req, simulatorConfiguration.SCHEDULER_HOST,
 									simulatorConfiguration.SCHEDULER_PENDING_REQ_PORT);
-							ElevatorRequest elevatorRequest = ElevatorRequest.decode(data);
-							Floor floor = floorArr[elevatorRequest.getSourceFloor() - 1];
+							MetricsRegistry.getDefault().counter("floor.requests_sent").increment();
+							// lateness of the request timer
+							MetricsRegistry.getDefault().histogram("floor.send_delay_ms")
+									.record(System.currentTimeMillis() - req.getTimeMillis());
+							Floor floor = floorArr[req.getSourceFloor() - 1];
 							// If the lamp associated with that direction is off, turn it on
-							if (elevatorRequest.getDirection() == Direction.UP && floor.getFloorUpLamp() == false) {
+							if (req.getDirection() == Direction.UP && floor.getFloorUpLamp() == false) {
 								floor.setFloorUpLamp(true);
-							} else if (elevatorRequest.getDirection() == Direction.DOWN
+							} else if (req.getDirection() == Direction.DOWN
 									&& floor.getFloorDownLamp() == false) {
 								floor.setFloorDownLamp(true);
+							} else {
+								// the hall call is already lit, the scheduler merges the request into it;
+								// it is still sent as the car needs the destination of the passenger
+								MetricsRegistry.getDefault().counter("floor.hall_calls_repeated").increment();
 							}
 							printLog(String.format("REQUEST_SENT              -- %s", req.toString()));
 							printLog(floor.toString());
 							printLog("--------------------------------------------------");
-							sendGuiNotification(new FloorGuiData(floor.getFloorNum(), floor.getUpButtonLamp(),
-									floor.getDownButtonLamp()));
-						} catch (ClassNotFoundException | IOException e) {
+							sendGuiNotification(new FloorGuiData(simulatorConfiguration.GROUP_ID, floor.getFloorNum(),
+									floor.getUpButtonLamp(), floor.getDownButtonLamp()));
+						} catch (IOException e) {
 							e.printStackTrace();
 						}
 					}
@@ -161,8 +193,7 @@ public class FloorSubsystem implements Runnable {
 	 * @throws IOException
 	 */
 	private void listenToArrivalRequests() throws ClassNotFoundException, IOException {
-		DatagramPacket receivedReqPacket = udpArrivalRequestsReceiver.receiveMessage();
-		ElevatorStatus elevatorStatus = ElevatorStatus.decode(receivedReqPacket.getData());
+		ElevatorStatus elevatorStatus = arrivalRequestsEndpoint.receive();
 
 		int elevatorNum = elevatorStatus.getElevatorId();
 		int floorNum = elevatorStatus.getFloor();
@@ -170,11 +201,8 @@ public class FloorSubsystem implements Runnable {
 		ElevatorStateEnum elevatorState = elevatorStatus.getState();
 		Direction elevatorDirection = elevatorStatus.getDirection();
 		int elevatorId = elevatorStatus.getElevatorId();
-		// Sets the sensors of the same shaft to false on all floors
-		updateAllSensorsStatus(elevatorId);
-		floor.setFloorSensor(elevatorId, true);
-
-		updateAllElevatorLamps(elevatorId, elevatorDirection);
+		// moves the sensor of the shaft to the new floor and updates its lamps
+		floorState.updateCar(elevatorId, floorNum, elevatorDirection);
 
 		if (elevatorState == ElevatorStateEnum.DOORS_CLOSED || elevatorState == ElevatorStateEnum.HOMING_DOORS_CLOSED) {
 			printLog(String.format("ARRIVAL_NOTIFICATION -- Elevator %d :: Floor %d", elevatorNum, floorNum));
@@ -185,44 +213,62 @@ public class FloorSubsystem implements Runnable {
 			printLog(floor.toString());
 			printLog("--------------------------------------------------");
 		}
-		sendGuiNotification(new FloorGuiData(floor.getFloorNum(), floor.getUpButtonLamp(), floor.getDownButtonLamp()));
+		sendGuiNotification(new FloorGuiData(simulatorConfiguration.GROUP_ID, floor.getFloorNum(),
+				floor.getUpButtonLamp(), floor.getDownButtonLamp()));
 	}
 
 	/**
-	 * Updates the direction lamp for an elevator shaft on all the floors
+	 * Listens to completed requests from the scheduler.
 	 * 
-	 * @param elevatorId the int of the elevator id
-	 * @param direction  the Direction enum to change the lamp's status to
+	 * @throws ClassNotFoundException
+	 * @throws IOException
 	 */
-	private void updateAllElevatorLamps(int elevatorId, Direction elevatorDirection) {
-		for (int i = 0; i < floorArr.length; i++) {
-			floorArr[i].setElevatorDirectionLamp(elevatorId, elevatorDirection);
+	private void listenToCompletedRequests() throws ClassNotFoundException, IOException {
+		ElevatorRequest elevatorRequest = completedRequestsEndpoint.receive();
+		elevatorRequest.stamp(TraceSpan.FLOOR_COMPLETED);
+		inFlightRequests.remove(elevatorRequest.getRequestId());
+		if (journeyExporter != null) {
+			journeyExporter.export(elevatorRequest);
 		}
+		printLog(String.format("REQUEST_COMPLETED -- %s", elevatorRequest.toString()));
+		MetricsRegistry.getDefault().counter("floor.requests_completed").increment();
+		MetricsRegistry.getDefault().histogram("floor.journey_time_ms")
+				.record(System.currentTimeMillis() - elevatorRequest.getTimeMillis());
+		printLog(floorArr[elevatorRequest.getDestinationFloor() - 1].toString());
+		printLog("--------------------------------------------------");
 	}
 
 	/**
-	 * Sets the sensor status of a sensor id to false on all floors
+	 * Get the age of the oldest request sent and not completed yet, to spot
+	 * starved calls.
 	 * 
-	 * @param sensorId the int of the sensor ID (equal to the elevator ID)
+	 * @return long, the age in ms since the call, 0 if nothing is in flight
 	 */
-	private void updateAllSensorsStatus(int sensorId) {
-		for (int i = 0; i < floorArr.length; i++) {
-			floorArr[i].setFloorSensor(sensorId, false);
+	public long getOldestInFlightAge() {
+		long now = System.currentTimeMillis();
+		long oldest = 0;
+		for (ElevatorRequest request : inFlightRequests.values()) {
+			oldest = Math.max(oldest, now - request.getTimeMillis());
 		}
+		return oldest;
 	}
 
 	/**
-	 * Listens to completed requests from the scheduler.
+	 * Getter for the lamps and sensors of every floor.
 	 * 
-	 * @throws ClassNotFoundException
-	 * @throws IOException
+	 * @return FloorState, the floor state of the building
 	 */
-	private void listenToCompletedRequests() throws ClassNotFoundException, IOException {
-		DatagramPacket receivedReqPacket = udpCompletedRequestsReceiver.receiveMessage();
-		ElevatorRequest elevatorRequest = ElevatorRequest.decode(receivedReqPacket.getData());
-		printLog(String.format("REQUEST_COMPLETED -- %s", elevatorRequest.toString()));
-		printLog(floorArr[elevatorRequest.getDestinationFloor() - 1].toString());
-		printLog("--------------------------------------------------");
+	public FloorState getFloorState() {
+		return floorState;
+	}
+
+	/**
+	 * Getter for the requests sent and not completed yet.
+	 * 
+	 * @return ConcurrentHashMap, key: request id, value: the request
+	 */
+	public ConcurrentHashMap<Long, ElevatorRequest> getInFlightRequests() {
+		return inFlightRequests;
 	}
 
 	/**
@@ -249,14 +295,11 @@ public class FloorSubsystem implements Runnable {
 	 * @param data FloorGuiData, data for the floor GUI
 	 */
 	private void sendGuiNotification(FloorGuiData data) {
-		UDPClient messageClient = new UDPClient();
 		try {
-			messageClient.sendMessage(data.encode(), simulatorConfiguration.GUI_HOST,
-					simulatorConfiguration.GUI_FLOOR_DTO_PORT);
+			transport.send(data, simulatorConfiguration.GUI_HOST, simulatorConfiguration.GUI_FLOOR_DTO_PORT);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		messageClient.close();
 	}
 
 	/**
@@ -297,7 +340,12 @@ public class FloorSubsystem implements Runnable {
 		FloorSubsystem floorSubsystem;
 		Thread floorSubsystemThread;
 
-		configuration = new SimulatorConfiguration("./src/main/resources/config.properties");
+		configuration = new SimulatorConfiguration("./src/main/resources/config.properties", "floor");
+		UDPClient.setMaxDatagramSize(configuration.MAX_DATAGRAM_SIZE);
+		if (configuration.CAPTURE_PATH != null) {
+			UDPClient.startCapture(configuration.CAPTURE_PATH);
+		}
+		MetricsRegistry.getDefault().expose(configuration.METRICS_PORT > 0 ? configuration.METRICS_PORT + 2 : 0);
 		floorSubsystem = new FloorSubsystem(configuration);
 		floorSubsystemThread = new Thread(floorSubsystem);
 		floorSubsystemThread.start();
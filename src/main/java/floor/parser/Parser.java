@@ -138,7 +138,7 @@ public class Parser {
 
 		for (int i = 0; i < length; i++) {
 			for (int j = 1; j < (length - i); j++) {
-				if (requestList.get(j - 1).getTimestamp().compareTo(requestList.get(j).getTimestamp()) > 0) {
+				if (requestList.get(j - 1).getTimeMillis() > requestList.get(j).getTimeMillis()) {
 					temp = requestList.get(j - 1);
 					requestList.set(j - 1, requestList.get(j));
 					requestList.set(j, temp);
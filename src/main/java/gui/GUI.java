@@ -9,7 +9,6 @@ import java.awt.GridLayout;
 import java.awt.Insets;
 import java.awt.Toolkit;
 import java.io.IOException;
-import java.net.DatagramPacket;
 import java.util.TreeSet;
 
 import javax.swing.ImageIcon;
@@ -28,6 +27,8 @@ import main.java.dto.ElevatorGuiData;
 import main.java.dto.FloorGuiData;
 import main.java.elevator.Motor;
 import main.java.elevator.state.ElevatorStateEnum;
+import main.java.transport.Endpoint;
+import main.java.transport.Transport;
 
 /**
  * Graphical user interface for the elevator control system and simulation.
@@ -37,13 +38,13 @@ import main.java.elevator.state.ElevatorStateEnum;
 public class GUI extends JFrame implements Runnable {
 
 	private static final long serialVersionUID = 1L;
-	private static int elevatorNum;
-	private static int floorNum;
+	private final int elevatorNum;
+	private final int floorNum;
 	private JLabel[][] floors;
 	private JLabel[][] floorTitles;
 	private JLabel[][] elevInfos;
-	private UDPClient floorDtoSocket;
-	private UDPClient elevatorDtoSocket;
+	private Endpoint<FloorGuiData> floorDtoEndpoint;
+	private Endpoint<ElevatorGuiData> elevatorDtoEndpoint;
 
 	/**
 	 * Constructor for the graphical user interface.
@@ -53,9 +54,10 @@ public class GUI extends JFrame implements Runnable {
 	public GUI(SimulatorConfiguration config) {
 		elevatorNum = config.NUM_ELEVATORS;
 		floorNum = config.NUM_FLOORS;
-		// initialize sockets
-		floorDtoSocket = new UDPClient(config.GUI_FLOOR_DTO_PORT);
-		elevatorDtoSocket = new UDPClient(config.GUI_ELEVATOR_DTO_PORT);
+		// initialize endpoints
+		Transport transport = Transport.forConfiguration(config);
+		floorDtoEndpoint = transport.bind(config.GUI_FLOOR_DTO_PORT, FloorGuiData.class);
+		elevatorDtoEndpoint = transport.bind(config.GUI_ELEVATOR_DTO_PORT, ElevatorGuiData.class);
 	}
 
 	/**
@@ -381,16 +383,14 @@ public class GUI extends JFrame implements Runnable {
 	 * Listener for floor data.
 	 */
 	private void listenForFloorData() {
-		DatagramPacket packet;
 		FloorGuiData data;
 
 		while (true) {
 			data = null;
-			packet = floorDtoSocket.receiveMessage();
 			try {
-				data = FloorGuiData.decode(UDPClient.readPacketData(packet));
-			} catch (ClassNotFoundException | IOException e) {
-				floorDtoSocket.close();
+				data = floorDtoEndpoint.receive();
+			} catch (IOException e) {
+				floorDtoEndpoint.close();
 				e.printStackTrace();
 				System.exit(1);
 			}
@@ -402,16 +402,14 @@ public class GUI extends JFrame implements Runnable {
 	 * Listener for elevator data.
 	 */
 	private void listenForElevatorData() {
-		DatagramPacket packet;
 		ElevatorGuiData data;
 
 		while (true) {
 			data = null;
-			packet = elevatorDtoSocket.receiveMessage();
 			try {
-				data = ElevatorGuiData.decode(UDPClient.readPacketData(packet));
-			} catch (ClassNotFoundException | IOException e) {
-				elevatorDtoSocket.close();
+				data = elevatorDtoEndpoint.receive();
+			} catch (IOException e) {
+				elevatorDtoEndpoint.close();
 				e.printStackTrace();
 				System.exit(1);
 			}
@@ -438,7 +436,10 @@ public class GUI extends JFrame implements Runnable {
 	 * @param args, default parameter
 	 */
 	public static void main(String[] args) {
-		GUI gui = new GUI(new SimulatorConfiguration("./src/main/resources/config.properties"));
+		SimulatorConfiguration configuration = new SimulatorConfiguration("./src/main/resources/config.properties",
+				"gui");
+		UDPClient.setMaxDatagramSize(configuration.MAX_DATAGRAM_SIZE);
+		GUI gui = new GUI(configuration);
 		new Thread(gui).start();
 	}
 	
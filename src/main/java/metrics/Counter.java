@@ -0,0 +1,38 @@
+package main.java.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter, safe to increment from many threads without contention.
+ *
+ * @author Trong Nguyen
+ */
+public class Counter {
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * Increment the counter by one.
+	 */
+	public void increment() {
+		count.increment();
+	}
+
+	/**
+	 * Increment the counter.
+	 *
+	 * @param n long, the amount to add
+	 */
+	public void add(long n) {
+		count.add(n);
+	}
+
+	/**
+	 * Getter for the count.
+	 *
+	 * @return long, the current count
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+}
@@ -0,0 +1,17 @@
+package main.java.metrics;
+
+/**
+ * Gauge sampled when the metrics are read, e.g. a queue depth.
+ *
+ * @author Trong Nguyen
+ */
+public interface Gauge {
+
+	/**
+	 * Sample the gauge.
+	 *
+	 * @return long, the current value
+	 */
+	long getValue();
+
+}
@@ -0,0 +1,84 @@
+package main.java.metrics;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import main.java.dto.AssignedElevatorRequest;
+import main.java.dto.ElevatorRequest;
+import main.java.dto.TraceSpan;
+
+/**
+ * Writes one CSV line per completed passenger journey with the trace spans
+ * stamped by the subsystems and the derived wait, ride and total times. The
+ * call time is the timestamp of the request, every time is in epoch ms and a
+ * span that was not reached is written as 0 and a time that cannot be derived
+ * as -1.
+ *
+ * @author Patrick Liu
+ */
+public class JourneyExporter {
+	public static final String HEADER = "request_id,group_id,elevator_id,source_floor,direction,destination_floor,"
+			+ "call,floor_sent,scheduler_received,assigned,car_received,boarded,alighted,floor_completed,"
+			+ "wait_ms,ride_ms,total_ms";
+
+	private final BufferedWriter writer;
+
+	/**
+	 * Constructor for the journey exporter, truncating the export file.
+	 *
+	 * @param exportPath String, the path of the CSV file
+	 * @throws IOException
+	 */
+	public JourneyExporter(String exportPath) throws IOException {
+		writer = new BufferedWriter(new FileWriter(exportPath));
+		writer.write(HEADER);
+		writer.newLine();
+		writer.flush();
+	}
+
+	/**
+	 * Export the journey of a completed request.
+	 *
+	 * @param request ElevatorRequest, the completed request
+	 */
+	public synchronized void export(ElevatorRequest request) {
+		long call = request.getTimeMillis();
+		long boarded = request.getSpan(TraceSpan.BOARDED);
+		long alighted = request.getSpan(TraceSpan.ALIGHTED);
+		long completed = request.getSpan(TraceSpan.FLOOR_COMPLETED);
+		int elevatorId = request instanceof AssignedElevatorRequest
+				? ((AssignedElevatorRequest) request).getElevatorId()
+				: 0;
+
+		StringBuilder line = new StringBuilder();
+		line.append(request.getRequestId()).append(',').append(request.getGroupId()).append(',').append(elevatorId)
+				.append(',').append(request.getSourceFloor()).append(',').append(request.getDirection()).append(',')
+				.append(request.getDestinationFloor()).append(',').append(call);
+		for (TraceSpan span : TraceSpan.values()) {
+			line.append(',').append(request.getSpan(span));
+		}
+		line.append(',').append(boarded > 0 ? boarded - call : -1);
+		line.append(',').append(boarded > 0 && alighted > 0 ? alighted - boarded : -1);
+		line.append(',').append(completed > 0 ? completed - call : -1);
+		try {
+			writer.write(line.toString());
+			writer.newLine();
+			writer.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Close the export file.
+	 */
+	public synchronized void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -0,0 +1,374 @@
+package main.java.metrics;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import main.java.SimulatorConfiguration;
+import main.java.TrafficRecorder;
+import main.java.dto.ElevatorStatus;
+import main.java.elevator.Direction;
+import main.java.elevator.state.ElevatorStateEnum;
+
+/**
+ * Offline analyzer of a simulation run. Streams over the journey CSV written by
+ * the JourneyExporter for the passenger KPIs (wait, ride and total time
+ * percentiles, handling capacity per 5 minutes) and over a traffic capture for
+ * the energy proxy of every car (floors traveled, reversals, door cycles), read
+ * from the arrival notifications received by the scheduler. Memory stays
+ * bounded: values go into fixed size histograms and per-car/per-window
+ * counters.
+ *
+ * Usage: KpiAnalyzer strategy:journeys.csv[:capture] ...
+ *
+ * @author Trong Nguyen
+ */
+public class KpiAnalyzer {
+	public static final long WINDOW_MS = 5 * 60 * 1000;
+
+	private final String strategy;
+	private final LatencyHistogram waitTimes = new LatencyHistogram();
+	private final LatencyHistogram rideTimes = new LatencyHistogram();
+	private final LatencyHistogram totalTimes = new LatencyHistogram();
+	// every journey, with or without the times derived from its trace
+	private long passengers;
+	// key: 5 minute window index, value: passengers delivered in the window
+	private final Map<Long, Integer> deliveredPerWindow = new HashMap<>();
+	// key: elevator id
+	private final Map<Integer, CarKpi> cars = new TreeMap<>();
+
+	/**
+	 * Constructor for the KPI analyzer of a run.
+	 *
+	 * @param strategy String, the name of the dispatch strategy of the run
+	 */
+	public KpiAnalyzer(String strategy) {
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Analyze a journey CSV file.
+	 *
+	 * @param journeysPath String, the path of the CSV file
+	 * @throws IOException
+	 */
+	public void analyzeJourneys(String journeysPath) throws IOException {
+		try (Reader reader = new FileReader(journeysPath)) {
+			analyzeJourneys(reader);
+		}
+	}
+
+	/**
+	 * Analyze journeys in the JourneyExporter CSV format, one line at a time.
+	 *
+	 * @param reader Reader, the CSV content
+	 * @throws IOException
+	 */
+	public void analyzeJourneys(Reader reader) throws IOException {
+		BufferedReader in = new BufferedReader(reader);
+		String line = in.readLine();
+		if (line == null) {
+			return;
+		}
+		Map<String, Integer> columns = new HashMap<>();
+		String[] header = line.split(",");
+		for (int i = 0; i < header.length; i++) {
+			columns.put(header[i], i);
+		}
+		int elevatorColumn = columns.get("elevator_id");
+		int waitColumn = columns.get("wait_ms");
+		int rideColumn = columns.get("ride_ms");
+		int totalColumn = columns.get("total_ms");
+		int completedColumn = columns.get("floor_completed");
+
+		while ((line = in.readLine()) != null) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			String[] fields = line.split(",");
+			addJourney(Integer.parseInt(fields[elevatorColumn]), Long.parseLong(fields[waitColumn]),
+					Long.parseLong(fields[rideColumn]), Long.parseLong(fields[totalColumn]),
+					Long.parseLong(fields[completedColumn]));
+		}
+	}
+
+	/**
+	 * Account a completed passenger journey. A time that could not be derived is
+	 * given as -1.
+	 *
+	 * @param elevatorId int, the elevator that served the passenger
+	 * @param wait       long, the wait time in ms
+	 * @param ride       long, the ride time in ms
+	 * @param total      long, the total journey time in ms
+	 * @param completed  long, the time the journey completed at in ms
+	 */
+	public void addJourney(int elevatorId, long wait, long ride, long total, long completed) {
+		CarKpi car = getCar(elevatorId);
+		passengers++;
+		car.passengers++;
+		if (wait >= 0) {
+			waitTimes.record(wait);
+			car.waitTimes.record(wait);
+		}
+		if (ride >= 0) {
+			rideTimes.record(ride);
+		}
+		if (total >= 0) {
+			totalTimes.record(total);
+		}
+		if (completed > 0) {
+			deliveredPerWindow.merge(completed / WINDOW_MS, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * Analyze the arrival notifications of a traffic capture.
+	 *
+	 * @param capturePath String, the path of the capture file
+	 * @param arrivalPort int, the port the scheduler receives arrival
+	 *                    notifications on
+	 * @throws IOException
+	 */
+	public void analyzeCapture(String capturePath, int arrivalPort) throws IOException {
+		try (DataInputStream in = TrafficRecorder.openCapture(capturePath)) {
+			TrafficRecorder.Record record;
+			// the status is not kept, every notification is decoded in the same instance
+			ElevatorStatus status = new ElevatorStatus();
+			while ((record = TrafficRecorder.readRecord(in)) != null) {
+				if (record.getPort() != arrivalPort) {
+					continue;
+				}
+				try {
+					status.readFrom(ByteBuffer.wrap(record.getData()));
+					addStatus(status);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Account an arrival notification in the energy proxy of its car.
+	 *
+	 * @param status ElevatorStatus, the status of the car
+	 */
+	public void addStatus(ElevatorStatus status) {
+		CarKpi car = getCar(status.getElevatorId());
+		if (car.lastFloor > 0) {
+			car.floorsTraveled += Math.abs(status.getFloor() - car.lastFloor);
+		}
+		car.lastFloor = status.getFloor();
+		Direction direction = status.getDirection();
+		if (direction != Direction.IDLE) {
+			if (car.lastDirection != null && car.lastDirection != direction) {
+				car.reversals++;
+			}
+			car.lastDirection = direction;
+		}
+		if (status.getState() == ElevatorStateEnum.DOORS_OPEN && car.lastState != ElevatorStateEnum.DOORS_OPEN) {
+			car.doorCycles++;
+		}
+		car.lastState = status.getState();
+	}
+
+	/**
+	 * Get the KPIs of a car, creating them on first use.
+	 *
+	 * @param elevatorId int, the elevator id
+	 * @return CarKpi, the KPIs of the car
+	 */
+	public CarKpi getCar(int elevatorId) {
+		return cars.computeIfAbsent(elevatorId, id -> new CarKpi());
+	}
+
+	/**
+	 * Getter for the passengers delivered, including the journeys without a wait
+	 * time.
+	 *
+	 * @return long, the number of passengers
+	 */
+	public long getPassengers() {
+		return passengers;
+	}
+
+	/**
+	 * Getter for the wait times.
+	 *
+	 * @return LatencyHistogram, the wait times in ms
+	 */
+	public LatencyHistogram getWaitTimes() {
+		return waitTimes;
+	}
+
+	/**
+	 * Getter for the ride times.
+	 *
+	 * @return LatencyHistogram, the ride times in ms
+	 */
+	public LatencyHistogram getRideTimes() {
+		return rideTimes;
+	}
+
+	/**
+	 * Getter for the total journey times.
+	 *
+	 * @return LatencyHistogram, the total times in ms
+	 */
+	public LatencyHistogram getTotalTimes() {
+		return totalTimes;
+	}
+
+	/**
+	 * Getter for the KPIs of every car.
+	 *
+	 * @return Map, the KPIs keyed by elevator id
+	 */
+	public Map<Integer, CarKpi> getCars() {
+		return cars;
+	}
+
+	/**
+	 * Get the handling capacity, the most passengers delivered in a 5 minute
+	 * window.
+	 *
+	 * @return int, the peak passengers per 5 minutes
+	 */
+	public int getPeakHandlingCapacity() {
+		int peak = 0;
+		for (int delivered : deliveredPerWindow.values()) {
+			peak = Math.max(peak, delivered);
+		}
+		return peak;
+	}
+
+	/**
+	 * Get the mean passengers delivered per active 5 minute window.
+	 *
+	 * @return double, the mean passengers per 5 minutes
+	 */
+	public double getMeanHandlingCapacity() {
+		long delivered = 0;
+		for (int count : deliveredPerWindow.values()) {
+			delivered += count;
+		}
+		return deliveredPerWindow.isEmpty() ? 0 : (double) delivered / deliveredPerWindow.size();
+	}
+
+	/**
+	 * Build the text report of the run.
+	 *
+	 * @return String, the report
+	 */
+	public String getReport() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("strategy %s%n", strategy));
+		report.append(String.format("passengers %d%n", passengers));
+		appendTimes(report, "wait_ms", waitTimes);
+		appendTimes(report, "ride_ms", rideTimes);
+		appendTimes(report, "total_ms", totalTimes);
+		report.append(String.format("handling_capacity_per_5min peak=%d mean=%.1f%n", getPeakHandlingCapacity(),
+				getMeanHandlingCapacity()));
+		for (Map.Entry<Integer, CarKpi> entry : cars.entrySet()) {
+			CarKpi car = entry.getValue();
+			report.append(String.format(
+					"car%d passengers=%d mean_wait_ms=%.1f floors_traveled=%d reversals=%d door_cycles=%d%n",
+					entry.getKey(), car.passengers, car.waitTimes.getMean(), car.floorsTraveled, car.reversals,
+					car.doorCycles));
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Append the mean and percentiles of a histogram to a report.
+	 *
+	 * @param report    StringBuilder, the report
+	 * @param name      String, the name of the times
+	 * @param histogram LatencyHistogram, the times
+	 */
+	private static void appendTimes(StringBuilder report, String name, LatencyHistogram histogram) {
+		report.append(String.format("%s mean=%.1f p50=%d p95=%d p99=%d max=%d%n", name, histogram.getMean(),
+				histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(95),
+				histogram.getValueAtPercentile(99), histogram.getMax()));
+	}
+
+	/**
+	 * KPIs of a single car.
+	 */
+	public static class CarKpi {
+		private final LatencyHistogram waitTimes = new LatencyHistogram();
+		private long passengers;
+		private long floorsTraveled;
+		private long reversals;
+		private long doorCycles;
+		private int lastFloor;
+		private Direction lastDirection;
+		private ElevatorStateEnum lastState;
+
+		/**
+		 * Getter for the passengers delivered.
+		 *
+		 * @return long, the number of passengers
+		 */
+		public long getPassengers() {
+			return passengers;
+		}
+
+		/**
+		 * Getter for the floors traveled.
+		 *
+		 * @return long, the number of floors traveled
+		 */
+		public long getFloorsTraveled() {
+			return floorsTraveled;
+		}
+
+		/**
+		 * Getter for the direction reversals.
+		 *
+		 * @return long, the number of reversals
+		 */
+		public long getReversals() {
+			return reversals;
+		}
+
+		/**
+		 * Getter for the door cycles.
+		 *
+		 * @return long, the number of door openings
+		 */
+		public long getDoorCycles() {
+			return doorCycles;
+		}
+	}
+
+	/**
+	 * Main method, analyzing every run given as strategy:journeys.csv[:capture].
+	 *
+	 * @param args String[], the runs to analyze
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("Usage: KpiAnalyzer strategy:journeys.csv[:capture] ...");
+			System.exit(1);
+		}
+		SimulatorConfiguration configuration = new SimulatorConfiguration("./src/main/resources/config.properties");
+		for (String run : args) {
+			String[] parts = run.split(":");
+			KpiAnalyzer analyzer = new KpiAnalyzer(parts[0]);
+			analyzer.analyzeJourneys(parts[1]);
+			if (parts.length > 2) {
+				analyzer.analyzeCapture(parts[2], configuration.SCHEDULER_ARRIVAL_REQ_PORT);
+			}
+			System.out.println(analyzer.getReport());
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+package main.java.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HdrHistogram-style log-linear buckets.
+ * Values below 64 are counted exactly; above that every power of two is split
+ * into 32 linear sub-buckets, so a reported percentile is within about 3% of
+ * the recorded value over the whole range of a long with a fixed footprint.
+ *
+ * @author Trong Nguyen
+ */
+public class LatencyHistogram {
+	private static final int LINEAR_BUCKETS = 64;
+	private static final int LINEAR_BITS = 6;
+	private static final int SUB_BUCKETS = 32;
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int NUM_BUCKETS = LINEAR_BUCKETS + (63 - LINEAR_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+	private final LongAdder totalCount = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Record a value, negative values are recorded as 0.
+	 *
+	 * @param value long, the value to record
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(bucketIndex(value));
+		totalCount.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Getter for the number of recorded values.
+	 *
+	 * @return long, the number of values
+	 */
+	public long getCount() {
+		return totalCount.sum();
+	}
+
+	/**
+	 * Getter for the sum of the recorded values.
+	 *
+	 * @return long, the sum of the values
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * Getter for the largest recorded value.
+	 *
+	 * @return long, the maximum value
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Getter for the mean of the recorded values.
+	 *
+	 * @return double, the mean, 0 if nothing was recorded
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) getSum() / count;
+	}
+
+	/**
+	 * Get the value at a percentile, reported as the highest value equivalent to
+	 * the bucket holding the percentile.
+	 *
+	 * @param percentile double, the percentile between 0 and 100
+	 * @return long, the value at the percentile, 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long cumulative = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			cumulative += counts.get(i);
+			if (cumulative >= target) {
+				return Math.min(highestEquivalentValue(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Clear every recorded value.
+	 */
+	public void reset() {
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		totalCount.reset();
+		sum.reset();
+		max.reset();
+	}
+
+	/**
+	 * Get the bucket of a value.
+	 *
+	 * @param value long, a non negative value
+	 * @return int, the bucket index
+	 */
+	static int bucketIndex(long value) {
+		if (value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		int msb = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return LINEAR_BUCKETS + (msb - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Get the highest value counted by a bucket.
+	 *
+	 * @param index int, the bucket index
+	 * @return long, the highest value of the bucket
+	 */
+	static long highestEquivalentValue(int index) {
+		if (index < LINEAR_BUCKETS) {
+			return index;
+		}
+		int msb = (index - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+		long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+		long lowest = (1L << msb) | (subBucket << (msb - SUB_BUCKET_BITS));
+		return lowest + (1L << (msb - SUB_BUCKET_BITS)) - 1;
+	}
+
+}
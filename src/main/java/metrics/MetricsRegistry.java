@@ -0,0 +1,150 @@
+package main.java.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Registry of the counters, gauges and latency histograms of a process. Every
+ * subsystem records into the default registry under its own name prefix
+ * (floor., scheduler., elevator.), and the registry is exposed as an MXBean
+ * and, when a port is configured, as a plain text page on a local HTTP
+ * endpoint. A simulation run records into a registry of its own.
+ *
+ * @author Trong Nguyen
+ */
+public class MetricsRegistry implements MetricsRegistryMXBean {
+	private static final double[] PERCENTILES = { 50, 95, 99 };
+	private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+	private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+	private boolean exposed;
+
+	/**
+	 * Get the registry shared by the subsystems of this process.
+	 *
+	 * @return MetricsRegistry, the default registry
+	 */
+	public static MetricsRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Get or create a counter.
+	 *
+	 * @param name String, the metric name
+	 * @return Counter, the counter
+	 */
+	public Counter counter(String name) {
+		return counters.computeIfAbsent(name, key -> new Counter());
+	}
+
+	/**
+	 * Get or create a latency histogram.
+	 *
+	 * @param name String, the metric name
+	 * @return LatencyHistogram, the histogram
+	 */
+	public LatencyHistogram histogram(String name) {
+		return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+	}
+
+	/**
+	 * Register a gauge, replacing any gauge of the same name.
+	 *
+	 * @param name  String, the metric name
+	 * @param gauge Gauge, the gauge
+	 */
+	public void gauge(String name, Gauge gauge) {
+		gauges.put(name, gauge);
+	}
+
+	@Override
+	public Map<String, Double> getMetrics() {
+		Map<String, Double> metrics = new TreeMap<>();
+		for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+			metrics.put(entry.getKey(), (double) entry.getValue().getCount());
+		}
+		for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+			metrics.put(entry.getKey(), (double) entry.getValue().getValue());
+		}
+		for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+			LatencyHistogram histogram = entry.getValue();
+			metrics.put(entry.getKey() + ".count", (double) histogram.getCount());
+			metrics.put(entry.getKey() + ".mean", histogram.getMean());
+			for (double percentile : PERCENTILES) {
+				metrics.put(String.format("%s.p%d", entry.getKey(), (int) percentile),
+						(double) histogram.getValueAtPercentile(percentile));
+			}
+			metrics.put(entry.getKey() + ".max", (double) histogram.getMax());
+		}
+		return metrics;
+	}
+
+	@Override
+	public String getReport() {
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<String, Double> entry : getMetrics().entrySet()) {
+			double value = entry.getValue();
+			report.append(entry.getKey().replace('.', '_')).append(' ');
+			if (value == Math.rint(value)) {
+				report.append((long) value);
+			} else {
+				report.append(String.format("%.3f", value));
+			}
+			report.append('\n');
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Register the registry as an MXBean and, if the port is positive, serve the
+	 * text report on http://127.0.0.1:port/metrics. Only the first call has an
+	 * effect.
+	 *
+	 * @param httpPort int, the port of the HTTP endpoint, 0 to disable it
+	 */
+	public synchronized void expose(int httpPort) {
+		if (exposed) {
+			return;
+		}
+		exposed = true;
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+					new ObjectName("main.java.metrics:type=MetricsRegistry"));
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+		if (httpPort <= 0) {
+			return;
+		}
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", httpPort), 0);
+			server.createContext("/metrics", exchange -> {
+				byte[] body = getReport().getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			server.start();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package main.java.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics registry.
+ *
+ * @author Trong Nguyen
+ */
+public interface MetricsRegistryMXBean {
+
+	/**
+	 * Get every metric as a flat map. Histograms are flattened into their count,
+	 * mean, percentiles and maximum.
+	 *
+	 * @return Map, key: metric name, value: metric value
+	 */
+	Map<String, Double> getMetrics();
+
+	/**
+	 * Get the metrics in the text format served over HTTP.
+	 *
+	 * @return String, the text report
+	 */
+	String getReport();
+
+}
@@ -0,0 +1,9 @@
+/**
+ * This package contains the metrics registry (counters, gauges and latency
+ * histograms) shared by the subsystems of the Elevator Control System &
+ * Simulator, and its JMX and HTTP exporters.
+ * 
+ * @version 1.0, 02/04/23
+ * @since 1.0, 02/04/23
+ */
+package main.java.metrics;
@@ -0,0 +1,135 @@
+package main.java.scheduler;
+
+import java.util.Arrays;
+
+import main.java.elevator.Direction;
+
+/**
+ * Call rates of every floor and direction, learned from the requests received
+ * and bucketed by time-of-day window (UTC). The count of a window is an
+ * exponentially weighted moving average over the days: the first call of a
+ * window on a new day halves what was learned on the previous days, so the
+ * forecast follows a changing building in a few days. Recording a call and
+ * reading a forecast are O(1) and O(floors), nothing is recomputed in the
+ * background. The forecast is not thread safe, the SchedulerContext guards it
+ * with its own lock.
+ *
+ * @author Bobby Ngo
+ */
+public class DemandForecast {
+	public static final long DAY = 24 * 60 * 60 * 1000L;
+	// weight kept by the previous days when a window starts a new day
+	private static final double DAY_DECAY = 0.5;
+
+	private final int numFloors;
+	private final long windowLength;
+	// index: window, floor * 2 for up calls, floor * 2 + 1 for down calls
+	private final double[][] counts;
+	// day of the last call of each window, -1 if none
+	private final long[] days;
+
+	/**
+	 * Constructor for the forecast of a building.
+	 *
+	 * @param numFloors    int, the number of floors
+	 * @param windowLength long, the length of a time-of-day window in ms
+	 */
+	public DemandForecast(int numFloors, long windowLength) {
+		if (windowLength <= 0 || windowLength > DAY) {
+			throw new IllegalArgumentException("Invalid window length " + windowLength);
+		}
+		this.numFloors = numFloors;
+		this.windowLength = windowLength;
+		int numWindows = (int) ((DAY + windowLength - 1) / windowLength);
+		counts = new double[numWindows][2 * (numFloors + 1)];
+		days = new long[numWindows];
+		Arrays.fill(days, -1);
+	}
+
+	/**
+	 * Record a call.
+	 *
+	 * @param floor     int, the source floor of the call
+	 * @param direction Direction, the direction of the call, UP or DOWN
+	 * @param time      long, the time of the call in ms
+	 */
+	public void record(int floor, Direction direction, long time) {
+		if (floor < 1 || floor > numFloors || (direction != Direction.UP && direction != Direction.DOWN)) {
+			return;
+		}
+		int window = getWindow(time);
+		long day = Math.floorDiv(time, DAY);
+		if (days[window] != day) {
+			if (days[window] >= 0) {
+				double[] windowCounts = counts[window];
+				for (int i = 0; i < windowCounts.length; i++) {
+					windowCounts[i] *= DAY_DECAY;
+				}
+			}
+			days[window] = day;
+		}
+		counts[window][floor * 2 + (direction == Direction.DOWN ? 1 : 0)]++;
+	}
+
+	/**
+	 * Get the expected number of calls of a floor and direction in the window of
+	 * a time.
+	 *
+	 * @param floor     int, the floor
+	 * @param direction Direction, the direction of the calls, UP or DOWN
+	 * @param time      long, the time in ms
+	 * @return double, the expected number of calls
+	 */
+	public double getRate(int floor, Direction direction, long time) {
+		if (floor < 1 || floor > numFloors) {
+			throw new IllegalArgumentException("Invalid floor " + floor);
+		}
+		return counts[getWindow(time)][floor * 2 + (direction == Direction.DOWN ? 1 : 0)];
+	}
+
+	/**
+	 * Get the floors with the most expected calls in the window of a time, both
+	 * directions together.
+	 *
+	 * @param time  long, the time in ms
+	 * @param count int, the maximum number of floors
+	 * @return int[], the floors with expected calls, busiest first
+	 */
+	public int[] getBusiestFloors(long time, int count) {
+		double[] windowCounts = counts[getWindow(time)];
+		int[] floors = new int[Math.min(count, numFloors)];
+		double[] rates = new double[floors.length];
+		int n = 0;
+		for (int floor = 1; floor <= numFloors; floor++) {
+			double rate = windowCounts[floor * 2] + windowCounts[floor * 2 + 1];
+			if (rate <= 0) {
+				continue;
+			}
+			// insertion into the top count floors
+			int i = n < floors.length ? n++ : floors.length;
+			while (i > 0 && rates[i - 1] < rate) {
+				if (i < floors.length) {
+					floors[i] = floors[i - 1];
+					rates[i] = rates[i - 1];
+				}
+				i--;
+			}
+			if (i < floors.length) {
+				floors[i] = floor;
+				rates[i] = rate;
+			}
+		}
+		return Arrays.copyOf(floors, n);
+	}
+
+	/**
+	 * Get the time-of-day window of a time.
+	 *
+	 * @param time long, the time in ms
+	 * @return int, the index of the window
+	 */
+	private int getWindow(long time) {
+		return (int) (Math.floorMod(time, DAY) / windowLength);
+	}
+
+}
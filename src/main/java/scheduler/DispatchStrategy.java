@@ -0,0 +1,49 @@
+package main.java.scheduler;
+
+/**
+ * Dispatch strategies of the scheduler, selected by the DISPATCH_STRATEGY
+ * configuration property.
+ * 
+ * @author Bobby Ngo
+ */
+public enum DispatchStrategy {
+	// closest idle car, else closest car moving towards the call
+	CLOSEST_CAR("closest-car");
+
+	private final String name;
+
+	/**
+	 * Constructor for the dispatch strategy.
+	 * 
+	 * @param name String, the name used in the configuration
+	 */
+	private DispatchStrategy(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Get the strategy of a configuration name.
+	 * 
+	 * @param name String, the name used in the configuration
+	 * @return DispatchStrategy, the strategy
+	 */
+	public static DispatchStrategy fromName(String name) {
+		for (DispatchStrategy strategy : values()) {
+			if (strategy.name.equals(name)) {
+				return strategy;
+			}
+		}
+		throw new IllegalArgumentException("Unknown dispatch strategy " + name);
+	}
+
+	/**
+	 * Overriding toString method.
+	 * 
+	 * @return String, the name used in the configuration
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -0,0 +1,294 @@
+package main.java.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import main.java.dto.ElevatorStatus;
+import main.java.elevator.Direction;
+import main.java.elevator.state.ElevatorStateEnum;
+
+/**
+ * Last known state of the cars of an elevator group, one row per car held in
+ * primitive arrays. A status received from a car is copied into its row in
+ * place and bumps the version of the row, so a copy of the table tells which
+ * cars changed since it was taken. The table is not thread safe, the
+ * SchedulerContext guards it with its own lock.
+ *
+ * @author Bobby Ngo
+ */
+public class FleetState {
+	// cached, values() copies the array on every call
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private static final ElevatorStateEnum[] STATES = ElevatorStateEnum.values();
+	private static final int[] NO_STOPS = new int[0];
+
+	private int size;
+	private int[] elevatorIds;
+	private int[] floors;
+	private byte[] directions;
+	private byte[] states;
+	// number of requests of the car
+	private int[] loads;
+	// passengers on board of the car
+	private int[] numPassengers;
+	private int[][] plannedStops;
+	private long[] versions;
+
+	/**
+	 * Constructor for the fleet state of the cars 1 to numElevators, idle at the
+	 * first floor.
+	 *
+	 * @param numElevators int, the number of cars
+	 */
+	public FleetState(int numElevators) {
+		elevatorIds = new int[numElevators];
+		floors = new int[numElevators];
+		directions = new byte[numElevators];
+		states = new byte[numElevators];
+		loads = new int[numElevators];
+		numPassengers = new int[numElevators];
+		plannedStops = new int[numElevators][];
+		versions = new long[numElevators];
+		for (int i = 1; i <= numElevators; i++) {
+			add(new ElevatorStatus(i));
+		}
+	}
+
+	/**
+	 * Copy constructor.
+	 *
+	 * @param other FleetState, the table copied
+	 */
+	private FleetState(FleetState other) {
+		size = other.size;
+		elevatorIds = Arrays.copyOf(other.elevatorIds, size);
+		floors = Arrays.copyOf(other.floors, size);
+		directions = Arrays.copyOf(other.directions, size);
+		states = Arrays.copyOf(other.states, size);
+		loads = Arrays.copyOf(other.loads, size);
+		numPassengers = Arrays.copyOf(other.numPassengers, size);
+		// the stops of a row are overwritten in place by update
+		plannedStops = new int[size][];
+		for (int i = 0; i < size; i++) {
+			plannedStops[i] = other.plannedStops[i].clone();
+		}
+		versions = Arrays.copyOf(other.versions, size);
+	}
+
+	/**
+	 * Copy the table.
+	 *
+	 * @return FleetState, the copy
+	 */
+	public FleetState copy() {
+		return new FleetState(this);
+	}
+
+	/**
+	 * Append a row for a car.
+	 *
+	 * @param status ElevatorStatus, the status of the car
+	 */
+	public void add(ElevatorStatus status) {
+		if (size == elevatorIds.length) {
+			int capacity = Math.max(4, size * 2);
+			elevatorIds = Arrays.copyOf(elevatorIds, capacity);
+			floors = Arrays.copyOf(floors, capacity);
+			directions = Arrays.copyOf(directions, capacity);
+			states = Arrays.copyOf(states, capacity);
+			loads = Arrays.copyOf(loads, capacity);
+			numPassengers = Arrays.copyOf(numPassengers, capacity);
+			plannedStops = Arrays.copyOf(plannedStops, capacity);
+			versions = Arrays.copyOf(versions, capacity);
+		}
+		plannedStops[size] = NO_STOPS;
+		update(size++, status);
+	}
+
+	/**
+	 * Copy the status of a car into its row.
+	 *
+	 * @param index  int, the row of the car
+	 * @param status ElevatorStatus, the status of the car
+	 */
+	public void update(int index, ElevatorStatus status) {
+		checkIndex(index);
+		elevatorIds[index] = status.getElevatorId();
+		floors[index] = status.getFloor();
+		directions[index] = toByte(status.getDirection());
+		states[index] = toByte(status.getState());
+		loads[index] = status.getNumRequests();
+		numPassengers[index] = status.getNumPassengers();
+		int[] stops = status.getPlannedStops() == null ? NO_STOPS : status.getPlannedStops();
+		if (plannedStops[index].length == stops.length) {
+			System.arraycopy(stops, 0, plannedStops[index], 0, stops.length);
+		} else {
+			plannedStops[index] = stops.length == 0 ? NO_STOPS : stops.clone();
+		}
+		versions[index]++;
+	}
+
+	/**
+	 * Setter for the direction of a car, until its next status is received.
+	 *
+	 * @param index     int, the row of the car
+	 * @param direction Direction, the direction
+	 */
+	public void setDirection(int index, Direction direction) {
+		checkIndex(index);
+		directions[index] = toByte(direction);
+		versions[index]++;
+	}
+
+	/**
+	 * Getter for the number of cars.
+	 *
+	 * @return int, the number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Getter for the id of a car.
+	 *
+	 * @param index int, the row of the car
+	 * @return int, the elevator id
+	 */
+	public int getElevatorId(int index) {
+		checkIndex(index);
+		return elevatorIds[index];
+	}
+
+	/**
+	 * Getter for the floor of a car.
+	 *
+	 * @param index int, the row of the car
+	 * @return int, the floor
+	 */
+	public int getFloor(int index) {
+		checkIndex(index);
+		return floors[index];
+	}
+
+	/**
+	 * Getter for the direction of a car.
+	 *
+	 * @param index int, the row of the car
+	 * @return Direction, the direction, null if unknown
+	 */
+	public Direction getDirection(int index) {
+		checkIndex(index);
+		return directions[index] < 0 ? null : DIRECTIONS[directions[index]];
+	}
+
+	/**
+	 * Getter for the state of a car.
+	 *
+	 * @param index int, the row of the car
+	 * @return ElevatorStateEnum, the state, null if unknown
+	 */
+	public ElevatorStateEnum getState(int index) {
+		checkIndex(index);
+		return states[index] < 0 ? null : STATES[states[index]];
+	}
+
+	/**
+	 * Getter for the number of requests of a car.
+	 *
+	 * @param index int, the row of the car
+	 * @return int, the number of requests
+	 */
+	public int getLoad(int index) {
+		checkIndex(index);
+		return loads[index];
+	}
+
+	/**
+	 * Getter for the number of passengers on board of a car.
+	 *
+	 * @param index int, the row of the car
+	 * @return int, the number of passengers
+	 */
+	public int getNumPassengers(int index) {
+		checkIndex(index);
+		return numPassengers[index];
+	}
+
+	/**
+	 * Getter for the planned stops of a car, in the order the car will visit
+	 * them. The array is owned by the table and may be overwritten by the next
+	 * update of the car.
+	 *
+	 * @param index int, the row of the car
+	 * @return int[], the planned stops
+	 */
+	public int[] getPlannedStops(int index) {
+		checkIndex(index);
+		return plannedStops[index];
+	}
+
+	/**
+	 * Getter for the version of the row of a car, bumped on every change.
+	 *
+	 * @param index int, the row of the car
+	 * @return long, the version
+	 */
+	public long getVersion(int index) {
+		checkIndex(index);
+		return versions[index];
+	}
+
+	/**
+	 * Create the status of a car from its row.
+	 *
+	 * @param index   int, the row of the car
+	 * @param groupId int, the id of the elevator group
+	 * @return ElevatorStatus, the status of the car
+	 */
+	public ElevatorStatus toStatus(int index, int groupId) {
+		ElevatorStatus status = new ElevatorStatus(getElevatorId(index), floors[index], getDirection(index),
+				loads[index], getState(index));
+		status.setGroupId(groupId);
+		status.setNumPassengers(numPassengers[index]);
+		status.setPlannedStops(plannedStops[index].clone());
+		return status;
+	}
+
+	/**
+	 * Create the status of every car.
+	 *
+	 * @param groupId int, the id of the elevator group
+	 * @return List, the status of every car by row
+	 */
+	public List<ElevatorStatus> toStatusList(int groupId) {
+		List<ElevatorStatus> statusList = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			statusList.add(toStatus(i, groupId));
+		}
+		return statusList;
+	}
+
+	/**
+	 * Check that a row exists.
+	 *
+	 * @param index int, the row
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Invalid car index " + index + ", size " + size);
+		}
+	}
+
+	/**
+	 * Encode an enum as its ordinal.
+	 *
+	 * @param value Enum, the value, can be null
+	 * @return byte, the ordinal, -1 for null
+	 */
+	private static byte toByte(Enum<?> value) {
+		return value == null ? -1 : (byte) value.ordinal();
+	}
+
+}
@@ -0,0 +1,128 @@
+package main.java.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import main.java.dto.ElevatorRequest;
+import main.java.elevator.Direction;
+
+/**
+ * Open hall calls of an elevator group, one per floor and direction. The first
+ * request of a hall call is its dispatch unit, the only one the scheduler has
+ * to assign; the requests received while the call is still waiting for a car
+ * are merged behind it and assigned to the same car, so every passenger is
+ * still carried and completed on its own. A merged request the car cannot
+ * take, as a trip to another zone or a passenger over its capacity, is
+ * registered again once the call is closed. The registry is not thread safe, the
+ * SchedulerContext guards it with the lock of its pending requests.
+ *
+ * @author Bobby Ngo
+ */
+public class HallCallRegistry {
+	// key: hall call key of the floor and direction, value: the passengers, the
+	// dispatch unit first
+	private final Map<Integer, List<ElevatorRequest>> hallCalls;
+	// number of passengers merged behind a dispatch unit
+	private int mergedCount;
+
+	/**
+	 * Constructor for an empty registry.
+	 */
+	public HallCallRegistry() {
+		hallCalls = new HashMap<>();
+	}
+
+	/**
+	 * Register a request in the hall call of its floor and direction.
+	 *
+	 * @param request ElevatorRequest, the request received
+	 * @return boolean, true if the request opens a hall call and has to be
+	 *         dispatched, false if it is merged into an open hall call
+	 */
+	public boolean register(ElevatorRequest request) {
+		int key = getKey(request);
+		if (key < 0) {
+			// a call without a direction is never merged
+			return true;
+		}
+		List<ElevatorRequest> passengers = hallCalls.get(key);
+		if (passengers == null) {
+			passengers = new ArrayList<>(1);
+			passengers.add(request);
+			hallCalls.put(key, passengers);
+			return true;
+		}
+		passengers.add(request);
+		mergedCount++;
+		return false;
+	}
+
+	/**
+	 * Close the hall call of a dispatch unit once it is assigned to a car. The
+	 * next request for the floor and direction opens a new hall call.
+	 *
+	 * @param request ElevatorRequest, the dispatch unit assigned
+	 * @return List, the requests merged behind the dispatch unit in arrival
+	 *         order, empty if none
+	 */
+	public List<ElevatorRequest> close(ElevatorRequest request) {
+		int key = getKey(request);
+		List<ElevatorRequest> passengers = key < 0 ? null : hallCalls.get(key);
+		if (passengers == null || passengers.get(0).getRequestId() != request.getRequestId()) {
+			return Collections.emptyList();
+		}
+		hallCalls.remove(key);
+		mergedCount -= passengers.size() - 1;
+		return passengers.subList(1, passengers.size());
+	}
+
+	/**
+	 * Getter for the number of open hall calls.
+	 *
+	 * @return int, the number of hall calls
+	 */
+	public int size() {
+		return hallCalls.size();
+	}
+
+	/**
+	 * Getter for the number of requests merged behind a dispatch unit.
+	 *
+	 * @return int, the number of merged requests
+	 */
+	public int getMergedCount() {
+		return mergedCount;
+	}
+
+	/**
+	 * Getter for the requests merged behind a dispatch unit.
+	 *
+	 * @return List, the merged requests of every hall call
+	 */
+	public List<ElevatorRequest> getMergedRequests() {
+		List<ElevatorRequest> merged = new ArrayList<>(mergedCount);
+		for (List<ElevatorRequest> passengers : hallCalls.values()) {
+			merged.addAll(passengers.subList(1, passengers.size()));
+		}
+		return merged;
+	}
+
+	/**
+	 * Get the key of the hall call of a request.
+	 *
+	 * @param request ElevatorRequest, the request
+	 * @return int, the key, -1 if the request has no floor or direction
+	 */
+	private static int getKey(ElevatorRequest request) {
+		Integer sourceFloor = request.getSourceFloor();
+		Direction direction = request.getDirection();
+		if (sourceFloor == null || (direction != Direction.UP && direction != Direction.DOWN)) {
+			return -1;
+		}
+		return sourceFloor * 2 + (direction == Direction.DOWN ? 1 : 0);
+	}
+
+}
@@ -1,17 +1,30 @@
 package main.java.scheduler;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
 
+import main.java.SimulatorConfiguration;
+import main.java.ZoneLayout;
 import main.java.dto.AssignedElevatorRequest;
 import main.java.dto.ElevatorRequest;
 import main.java.dto.ElevatorStatus;
+import main.java.dto.ParkElevatorRequest;
+import main.java.dto.RevokeElevatorRequest;
+import main.java.dto.TraceSpan;
 import main.java.elevator.Direction;
 import main.java.elevator.state.ElevatorStateEnum;
+import main.java.metrics.MetricsRegistry;
 import main.java.scheduler.state.SchedulerState;
 
 /**
@@ -22,40 +35,171 @@ import main.java.scheduler.state.SchedulerState;
  * @author Bobby Ngo, Patrick Liu
  */
 public class SchedulerContext {
+	// oldest call first: every call ages at the same rate, so the order by call
+	// time is also the order by wait time
+	private static final Comparator<ElevatorRequest> PENDING_ORDER = Comparator
+			.comparingLong(ElevatorRequest::getTimeMillis).thenComparingLong(ElevatorRequest::getRequestId);
 
 	private SchedulerSubsystem schedulerSubsystem;
+	// registry of the subsystem, per run in a simulation
+	private MetricsRegistry metrics;
+	// configuration of the elevator group (building) served by this context
+	private SimulatorConfiguration simulatorConfiguration;
 
-	// storing all the elevators that are available
-	private List<ElevatorStatus> availableElevatorStatus;
-	// pending elevators requests
-	private List<ElevatorRequest> pendingElevatorRequests;
+	// last known state of every elevator, also the lock of the table
+	private FleetState fleet;
+	// pending dispatch units, oldest call first, also the lock of the hall calls
+	private NavigableSet<ElevatorRequest> pendingElevatorRequests;
+	// open hall calls, with the requests merged behind each dispatch unit
+	private HallCallRegistry hallCalls;
+	// assigned requests not completed yet, key: request id, also the lock of the
+	// revoked request ids
+	private Map<Long, AssignedElevatorRequest> assignedElevatorRequests;
+	// assigned requests revoked, until their elevator returns them
+	private Set<Long> revokedRequestIds;
+	private long lastReassignTime;
+	// call rates learned from the requests received, null when parking is
+	// disabled, also its own lock
+	private DemandForecast demandForecast;
+	// floor each parked elevator is heading to, key: elevator id, until it is
+	// idle again or given a request
+	private Map<Integer, Integer> parkingFloors;
 	// elevator requests that completed
 	private List<ElevatorRequest> completedElevatorRequests;
 	private Map<Integer,Integer> sameSrcUpCache; // key: srcFloor, value: elevator id, cache for up reqs
 	private Map<Integer,Integer> sameSrcDownCache; // key: srcFloor, value: elevator id, cache for down reqs
 	private SchedulerState currentState;
+	// optional event journal, null when journaling is disabled
+	private SchedulerJournal journal;
+	private int eventsSinceSnapshot;
 
 	/**
-	 * Constructor for Scheduler Context.
+	 * Constructor for Scheduler Context serving the group of the subsystem
+	 * configuration.
 	 * 
 	 * @param schedulerSubsystem SchedulerSubsystem, the elevator subsystem
 	 */
 	public SchedulerContext(SchedulerSubsystem schedulerSubsystem) {
+		this(schedulerSubsystem, schedulerSubsystem.getSimulatorConfiguration());
+	}
+
+	/**
+	 * Constructor for Scheduler Context.
+	 * 
+	 * @param schedulerSubsystem SchedulerSubsystem, the elevator subsystem
+	 * @param groupConfiguration SimulatorConfiguration, the configuration of the
+	 *                           elevator group served by this context
+	 */
+	public SchedulerContext(SchedulerSubsystem schedulerSubsystem, SimulatorConfiguration groupConfiguration) {
 		this.schedulerSubsystem = schedulerSubsystem;
+		this.simulatorConfiguration = groupConfiguration;
+		this.metrics = schedulerSubsystem.getMetrics();
 		// ensure that 4 scheduler threads use the same instance of these 3 array list
-		availableElevatorStatus = Collections.synchronizedList(new ArrayList<>());
-		pendingElevatorRequests = Collections.synchronizedList(new ArrayList<>());
+		fleet = new FleetState(simulatorConfiguration.NUM_ELEVATORS);
+		pendingElevatorRequests = Collections.synchronizedNavigableSet(new TreeSet<>(PENDING_ORDER));
+		hallCalls = new HallCallRegistry();
+		assignedElevatorRequests = Collections.synchronizedMap(new LinkedHashMap<>());
+		revokedRequestIds = new HashSet<>();
 		completedElevatorRequests = Collections.synchronizedList(new ArrayList<>());
 		
 		sameSrcUpCache = Collections.synchronizedMap(new HashMap<Integer,Integer>());
 		sameSrcDownCache = Collections.synchronizedMap(new HashMap<Integer,Integer>());
+		parkingFloors = Collections.synchronizedMap(new HashMap<Integer, Integer>());
+		if (simulatorConfiguration.PARKING_WINDOW > 0) {
+			demandForecast = new DemandForecast(simulatorConfiguration.NUM_FLOORS,
+					simulatorConfiguration.PARKING_WINDOW);
+		}
 
-		for (int i = 1; i <= schedulerSubsystem.getSimulatorConfiguration().NUM_ELEVATORS; i++) {
-			availableElevatorStatus.add(new ElevatorStatus(i));
+		if (simulatorConfiguration.JOURNAL_DIR != null) {
+			openJournal();
 		}
+		metrics.gauge(
+				String.format("scheduler.group%d.pending_requests", simulatorConfiguration.GROUP_ID),
+				() -> pendingElevatorRequests.size());
+		metrics.gauge(
+				String.format("scheduler.group%d.pending_passengers", simulatorConfiguration.GROUP_ID),
+				() -> getPendingPassengerCount());
+		metrics.gauge(
+				String.format("scheduler.group%d.completed_requests", simulatorConfiguration.GROUP_ID),
+				() -> completedElevatorRequests.size());
 		currentState = SchedulerState.start(this);
 	}
 
+	/**
+	 * Open the event journal of the group, rebuild the context from it and start
+	 * a new snapshot generation.
+	 */
+	private void openJournal() {
+		try {
+			journal = new SchedulerJournal(simulatorConfiguration.JOURNAL_DIR, simulatorConfiguration.GROUP_ID,
+					simulatorConfiguration.JOURNAL_SIZE);
+			SchedulerSnapshot recovered = journal.recover();
+			if (recovered != null) {
+				for (ElevatorStatus status : recovered.getElevatorStatus()) {
+					int index = status.getElevatorId() - 1;
+					if (index >= 0 && index < fleet.size()) {
+						fleet.update(index, status);
+					}
+				}
+				for (ElevatorRequest request : recovered.getPendingElevatorRequests()) {
+					if (hallCalls.register(request)) {
+						pendingElevatorRequests.add(request);
+					}
+				}
+				completedElevatorRequests.addAll(recovered.getCompletedElevatorRequests());
+			}
+			journal.start();
+			journal.snapshot(takeSnapshot());
+		} catch (IOException | ClassNotFoundException e) {
+			e.printStackTrace();
+			journal = null;
+		}
+	}
+
+	/**
+	 * Take a snapshot of the context.
+	 * 
+	 * @return SchedulerSnapshot, a copy of the state of the context
+	 */
+	public SchedulerSnapshot takeSnapshot() {
+		List<ElevatorStatus> elevatorStatus = getAvailableElevatorStatus();
+		synchronized (pendingElevatorRequests) {
+			// the dispatch units first, so that recovery merges the other requests
+			// behind them again
+			List<ElevatorRequest> pendingRequests = new ArrayList<>(pendingElevatorRequests);
+			pendingRequests.addAll(hallCalls.getMergedRequests());
+			synchronized (completedElevatorRequests) {
+				return new SchedulerSnapshot(elevatorStatus, pendingRequests, completedElevatorRequests);
+			}
+		}
+	}
+
+	/**
+	 * Journal an event, taking a snapshot every JOURNAL_SNAPSHOT_INTERVAL events.
+	 * 
+	 * @param type  SchedulerJournal.EventType, the type of the event
+	 * @param event Serializable, the DTO of the event
+	 */
+	private void journal(SchedulerJournal.EventType type, Serializable event) {
+		if (journal == null) {
+			return;
+		}
+		journal.append(type, event);
+		if (++eventsSinceSnapshot >= simulatorConfiguration.JOURNAL_SNAPSHOT_INTERVAL) {
+			eventsSinceSnapshot = 0;
+			journal.snapshot(takeSnapshot());
+		}
+	}
+
+	/**
+	 * Resume the requests recovered from the journal, if any.
+	 */
+	public void resumeRecoveredRequests() {
+		if (!pendingElevatorRequests.isEmpty() || !completedElevatorRequests.isEmpty()) {
+			onRequestReceived();
+		}
+	}
+
 	/**
 	 * Finds the closest elevator to the requested floor.
 	 * 
@@ -66,7 +210,7 @@ public class SchedulerContext {
 	public ElevatorStatus findTheClosestElevatorToRequestFloor(List<ElevatorStatus> elevators, int sourceFloor) {
 		ElevatorStatus chosenElevatorStatus = null;
 		// init the min value to the total floors
-		int closestElevator = schedulerSubsystem.getSimulatorConfiguration().NUM_FLOORS;
+		int closestElevator = simulatorConfiguration.NUM_FLOORS;
 
 		// find the smallest distance between the floor that the elevator locates and
 		// the floor that request elevator
@@ -82,148 +226,488 @@ public class SchedulerContext {
 	}
 
 	/**
-	 * Find the available idle elevator.
+	 * Find the available idle elevator closest to the source floor of a request,
+	 * among the elevators whose zone serves it.
 	 * 
 	 * @param request ElevatorRequest, the elevator request object
-	 * @return ElevatorStatus, the status of the elevator
+	 * @return int, the index of the elevator in the fleet, -1 if none
 	 */
-	private ElevatorStatus findTheAvailableIdleElevator(ElevatorRequest request) {
-		ArrayList<ElevatorStatus> idleElevatorStatus = new ArrayList<>();
-		for (ElevatorStatus status : availableElevatorStatus) {
-			if (status.getDirection() == Direction.IDLE && 
-					status.getState() != ElevatorStateEnum.ELEVATOR_STUCK &&
-					status.getState() != ElevatorStateEnum.DOORS_STUCK &&
-					status.getState() != ElevatorStateEnum.HOMING_DOORS_CLOSED) {
-				idleElevatorStatus.add(status);
+	private int findTheAvailableIdleElevator(ElevatorRequest request) {
+		int chosenIndex = -1;
+		// init the min value to the total floors
+		int closestElevator = simulatorConfiguration.NUM_FLOORS;
+		int sourceFloor = request.getSourceFloor();
+
+		synchronized (fleet) {
+			for (int i = 0; i < fleet.size(); i++) {
+				if (isAvailableIdleElevator(fleet, i) && canServe(fleet.getElevatorId(i), request)) {
+					int distance = Math.abs(fleet.getFloor(i) - sourceFloor);
+					if (closestElevator > distance) {
+						closestElevator = distance;
+						chosenIndex = i;
+					}
+				}
 			}
 		}
-		ElevatorStatus chosenElevatorStatus = null;
-		chosenElevatorStatus = findTheClosestElevatorToRequestFloor(idleElevatorStatus, request.getSourceFloor());
-		if (chosenElevatorStatus != null) {
-			// temporarily update the chosen elevator with the request's direction
-			ElevatorStatus tempUpdatedStatus = new ElevatorStatus(chosenElevatorStatus.getElevatorId(),
-					chosenElevatorStatus.getFloor(), chosenElevatorStatus.getDirection(), 
-					chosenElevatorStatus.getNumRequests(), chosenElevatorStatus.getState());
-			int elevatorIndex = chosenElevatorStatus.getElevatorId() - 1;
-			tempUpdatedStatus.setDirection(request.getDirection());
-			availableElevatorStatus.set(elevatorIndex, tempUpdatedStatus);
+		return chosenIndex;
+	}
+
+	/**
+	 * Check whether an elevator of a fleet state is idle and not stuck.
+	 * 
+	 * @param fleet FleetState, the fleet state
+	 * @param index int, the index of the elevator in the fleet
+	 * @return boolean, true if the elevator can take a new request
+	 */
+	private static boolean isAvailableIdleElevator(FleetState fleet, int index) {
+		ElevatorStateEnum state = fleet.getState(index);
+		return fleet.getDirection(index) == Direction.IDLE && state != ElevatorStateEnum.ELEVATOR_STUCK
+				&& state != ElevatorStateEnum.DOORS_STUCK && state != ElevatorStateEnum.HOMING_DOORS_CLOSED;
+	}
+
+	/**
+	 * Reserve an idle elevator for a request by setting its direction to the
+	 * direction of the request until its next status is received.
+	 * 
+	 * @param index   int, the index of the elevator in the fleet
+	 * @param request ElevatorRequest, the elevator request object
+	 */
+	private void reserveIdleElevator(int index, ElevatorRequest request) {
+		synchronized (fleet) {
+			fleet.setDirection(index, request.getDirection());
 		}
-		return chosenElevatorStatus;
 	}
 
 	/**
 	 * Method for finding all the elevators that are moving and make sure that its
-	 * current distance is closest the most to the floor requesting the request.
+	 * current distance is closest the most to the floor requesting the request,
+	 * among the elevators whose zone serves it. A full elevator passes the hall
+	 * calls and is skipped.
 	 * 
-	 * @param direction             Direction, the direction of the elevator
-	 * @param newRequestSourceFloor int, the new request source floor number
-	 * @return ElevatorStatus, the status if the elevator
+	 * @param request ElevatorRequest, the elevator request object
+	 * @return int, the index of the elevator in the fleet, -1 if none
 	 */
-	private ElevatorStatus findTheAvailableMovingElevator(Direction direction, int newRequestSourceFloor) {
-		// checked the available is empty already so no need to check again
-		ElevatorStatus chosenElevatorStatus = null;
-		ArrayList<ElevatorStatus> movingUpElevatorStatus = new ArrayList<>();
-		ArrayList<ElevatorStatus> movingDownElevatorStatus = new ArrayList<>();
-		for (ElevatorStatus status : availableElevatorStatus) {
-			if (status.getState() != ElevatorStateEnum.DOORS_STUCK
-					&& status.getState() != ElevatorStateEnum.ELEVATOR_STUCK
-					&& status.getState() != ElevatorStateEnum.HOMING) {
-				// 1st priority: Elevator that is moving up and current floor <= source floor
-				if (status.getDirection() == direction && direction == Direction.UP
-						&& status.getFloor() <= newRequestSourceFloor) {
-					movingUpElevatorStatus.add(status);
+	private int findTheAvailableMovingElevator(ElevatorRequest request) {
+		int chosenIndex = -1;
+		int closestElevator = simulatorConfiguration.NUM_FLOORS;
+		Direction direction = request.getDirection();
+		int newRequestSourceFloor = request.getSourceFloor();
+
+		if (direction != Direction.UP && direction != Direction.DOWN) {
+			return chosenIndex;
+		}
+		synchronized (fleet) {
+			for (int i = 0; i < fleet.size(); i++) {
+				ElevatorStateEnum state = fleet.getState(i);
+				int floor = fleet.getFloor(i);
+				if (state == ElevatorStateEnum.DOORS_STUCK || state == ElevatorStateEnum.ELEVATOR_STUCK
+						|| state == ElevatorStateEnum.HOMING || fleet.getDirection(i) != direction
+						|| !canServe(fleet.getElevatorId(i), request) || isFull(fleet, i)) {
+					continue;
 				}
-				// 2nd priority: Elevator that is moving down and current floor >= source floor
-				else if (status.getDirection() == direction && direction == Direction.DOWN
-						&& status.getFloor() >= newRequestSourceFloor) {
-					movingDownElevatorStatus.add(status);
-					// chosenElevatorStatus = status;
+				// moving up and current floor <= source floor, or moving down and current
+				// floor >= source floor
+				if (direction == Direction.UP ? floor <= newRequestSourceFloor : floor >= newRequestSourceFloor) {
+					int distance = Math.abs(floor - newRequestSourceFloor);
+					if (closestElevator > distance) {
+						closestElevator = distance;
+						chosenIndex = i;
+					}
 				}
 			}
 		}
-		// Find the closest distance of the elevator that is moving up and its current
-		// floor is closest to the floor that request the elevator
-		if (direction == Direction.UP) {
-			chosenElevatorStatus = findTheClosestElevatorToRequestFloor(movingUpElevatorStatus, newRequestSourceFloor);
-		} else if (direction == Direction.DOWN) {
-			// Find the closest distance of the elevator that is moving down and its current
-			// floor is closest to the floor that request the elevator
-			chosenElevatorStatus = findTheClosestElevatorToRequestFloor(movingDownElevatorStatus,
-					newRequestSourceFloor);
-		}
-		return chosenElevatorStatus;
+		return chosenIndex;
 	}
 
 	/**
-	 * Method for finding the best elevator following by the priority
+	 * Method for finding the best elevator following by the priority, for the
+	 * next pending hall call. A call waiting longer than MAX_WAIT_TIME is given
+	 * the closest idle elevator first. Otherwise the priority of a call is its
+	 * wait time, plus MATCH_BONUS_TIME if an elevator moving towards it can take
+	 * it on its way, so that no call is passed over forever by newer calls
+	 * matching moving elevators. Every request merged into the hall call is
+	 * assigned to the same elevator, up to the room left in the car, except those
+	 * outside its zone. The requests left open the hall call again.
 	 * 
-	 * @return AssignedElevatorRequest, the assigned elevator request
+	 * @return List, the assigned elevator requests, the dispatch unit first, empty
+	 *         if none could be assigned
 	 */
-	public synchronized AssignedElevatorRequest findBestElevatorToAssignRequest() {
-		AssignedElevatorRequest assignedElevatorRequest = null;
-		if (availableElevatorStatus.size() == 0) {
-			//System.out.println(this.getClass().getSimpleName() + ": There are no available elevators.");
-		}
+	public synchronized List<AssignedElevatorRequest> findBestElevatorToAssignRequest() {
+		List<AssignedElevatorRequest> assignedRequests = new ArrayList<>(1);
 		if (pendingElevatorRequests.size() == 0) {
-			//System.out.println(this.getClass().getSimpleName() + ": There are no elevator requests.");
-		} else {
-			ElevatorStatus chosenElevatorStatus = null;
+			return assignedRequests;
+		}
+		long now = schedulerSubsystem.currentTimeMillis();
+		long maxWaitTime = simulatorConfiguration.MAX_WAIT_TIME;
+		long matchBonusTime = simulatorConfiguration.MATCH_BONUS_TIME;
 
-			synchronized (pendingElevatorRequests) {
-				ElevatorRequest request = null, selectedRequest = null;
-				// Find the moving elevators
-				for (int i = 0; i < pendingElevatorRequests.size(); i++) {
-					request = pendingElevatorRequests.get(i);
-					// use cache here; if there is cache hit, then set the elevator
-					// status here and then break out of the loop
-					chosenElevatorStatus = getSameSrcCacheElevator(request);
-					if (chosenElevatorStatus != null) {
-						selectedRequest = request;
-						assignedElevatorRequest = new AssignedElevatorRequest(chosenElevatorStatus.getElevatorId(), 
-								selectedRequest);
+		synchronized (pendingElevatorRequests) {
+			ElevatorRequest selectedRequest = null;
+			int chosenIndex = -1;
+			boolean idle = false, cacheHit = false;
+
+			// overdue calls, oldest first
+			for (ElevatorRequest request : pendingElevatorRequests) {
+				if (now - request.getTimeMillis() < maxWaitTime) {
+					break;
+				}
+				chosenIndex = findTheAvailableIdleElevator(request);
+				if (chosenIndex >= 0) {
+					selectedRequest = request;
+					idle = true;
+					break;
+				}
+			}
+
+			if (selectedRequest == null) {
+				long bestPriority = Long.MIN_VALUE;
+				for (ElevatorRequest request : pendingElevatorRequests) {
+					long waitTime = now - request.getTimeMillis();
+					// the calls left are newer, none of them can do better
+					if (waitTime + matchBonusTime <= bestPriority) {
 						break;
 					}
-					
-					chosenElevatorStatus = findTheAvailableMovingElevator(request.getDirection(),
-							request.getSourceFloor());
-
-					if (chosenElevatorStatus != null) {
-						assignedElevatorRequest = new AssignedElevatorRequest(chosenElevatorStatus.getElevatorId(),
-								request);
-						// set cache here
-						setSameSrcCache(assignedElevatorRequest);
+					// use cache here, else the moving elevators
+					int index = getSameSrcCacheElevator(request);
+					boolean hit = index >= 0;
+					if (!hit) {
+						index = findTheAvailableMovingElevator(request);
+					}
+					long priority = waitTime + matchBonusTime;
+					boolean idleMatch = false;
+					if (index < 0) {
+						// the idle elevators, without head start
+						if (waitTime <= bestPriority) {
+							continue;
+						}
+						index = findTheAvailableIdleElevator(request);
+						priority = waitTime;
+						idleMatch = true;
+					}
+					if (index >= 0 && priority > bestPriority) {
+						bestPriority = priority;
 						selectedRequest = request;
-						assignedElevatorRequest = new AssignedElevatorRequest(chosenElevatorStatus.getElevatorId(), 
-								selectedRequest);
-						break;
+						chosenIndex = index;
+						idle = idleMatch;
+						cacheHit = hit;
 					}
 				}
-				// Find the idle elevators
-				if (chosenElevatorStatus == null) {
-					for (int i = 0; i < pendingElevatorRequests.size(); i++) {
-						request = pendingElevatorRequests.get(i);
-
-						chosenElevatorStatus = findTheAvailableIdleElevator(request);
-
-						if (chosenElevatorStatus != null) {
-							assignedElevatorRequest = new AssignedElevatorRequest(chosenElevatorStatus.getElevatorId(),
-									request);
-							// set cache here
-							setSameSrcCache(assignedElevatorRequest);
-							selectedRequest = request;
-							break;
-						}
+			}
+
+			if (selectedRequest != null) {
+				if (idle) {
+					reserveIdleElevator(chosenIndex, selectedRequest);
+				}
+				AssignedElevatorRequest assignedElevatorRequest = new AssignedElevatorRequest(
+						getElevatorId(chosenIndex), selectedRequest);
+				if (!cacheHit) {
+					// set cache here
+					setSameSrcCache(assignedElevatorRequest);
+				}
+				pendingElevatorRequests.remove(selectedRequest);
+				assignedRequests.add(assignedElevatorRequest);
+				// room left once the dispatch unit boards
+				int room = simulatorConfiguration.CAR_CAPACITY - fleet.getNumPassengers(chosenIndex) - 1;
+				for (ElevatorRequest mergedRequest : hallCalls.close(selectedRequest)) {
+					if (room > 0 && canServe(assignedElevatorRequest.getElevatorId(), mergedRequest)) {
+						assignedRequests.add(
+								new AssignedElevatorRequest(assignedElevatorRequest.getElevatorId(), mergedRequest));
+						room--;
+					} else if (hallCalls.register(mergedRequest)) {
+						// left for another car, with its call time
+						pendingElevatorRequests.add(mergedRequest);
 					}
 				}
-								
-				if (selectedRequest != null && assignedElevatorRequest != null) {
-					pendingElevatorRequests.remove(selectedRequest);
+				// a parked elevator given a request is no longer heading to its floor
+				parkingFloors.remove(assignedElevatorRequest.getElevatorId());
+				for (AssignedElevatorRequest assigned : assignedRequests) {
+					assignedElevatorRequests.put(assigned.getRequestId(), assigned);
+					assigned.stamp(TraceSpan.ASSIGNED);
+					journal(SchedulerJournal.EventType.REQUEST_ASSIGNED, assigned);
+					metrics.counter("scheduler.requests_assigned").increment();
+					metrics.histogram("scheduler.hop.call_to_assignment_ms")
+							.record(schedulerSubsystem.currentTimeMillis() - assigned.getTimeMillis());
 				}
 			}
 		}
-		return assignedElevatorRequest;
+		return assignedRequests;
 	}
 	
+	/**
+	 * Find the assigned requests to reassign, at most once every
+	 * REASSIGN_INTERVAL. A request is revoked from its elevator when the pickup
+	 * is still planned by the elevator and an idle elevator would reach the
+	 * source floor more than REASSIGN_THRESHOLD sooner. The requests of the
+	 * elevator for the same floor and direction, a merged hall call, are revoked
+	 * with it. The elevator returns a revoked request as a pending request unless
+	 * its passenger boarded in the meantime.
+	 * 
+	 * @return List, the revocations to send, empty if none
+	 */
+	public synchronized List<RevokeElevatorRequest> findRequestsToReassign() {
+		List<RevokeElevatorRequest> revokes = new ArrayList<>();
+		long now = schedulerSubsystem.currentTimeMillis();
+		int interval = simulatorConfiguration.REASSIGN_INTERVAL;
+		if (interval == 0 || now - lastReassignTime < interval || assignedElevatorRequests.isEmpty()) {
+			return revokes;
+		}
+		lastReassignTime = now;
+		long threshold = simulatorConfiguration.REASSIGN_THRESHOLD;
+		long movingTime = simulatorConfiguration.MOVING_TIME;
+		FleetState snapshot = getFleetSnapshot();
+		// an idle elevator is offered to one request per pass
+		boolean[] offered = new boolean[snapshot.size()];
+
+		synchronized (assignedElevatorRequests) {
+			for (AssignedElevatorRequest assigned : assignedElevatorRequests.values()) {
+				int index = assigned.getElevatorId() - 1;
+				int sourceFloor = assigned.getSourceFloor();
+				if (revokedRequestIds.contains(assigned.getRequestId()) || index < 0 || index >= snapshot.size()
+						|| snapshot.getElevatorId(index) != assigned.getElevatorId()
+						|| !isPlannedStop(snapshot.getPlannedStops(index), sourceFloor)) {
+					continue;
+				}
+				long bestArrivalTime = estimateArrivalTime(snapshot, index, sourceFloor) - threshold;
+				int bestIndex = -1;
+				for (int i = 0; i < snapshot.size(); i++) {
+					long arrivalTime = Math.abs(snapshot.getFloor(i) - sourceFloor) * movingTime;
+					if (!offered[i] && i != index && isAvailableIdleElevator(snapshot, i)
+							&& canServe(snapshot.getElevatorId(i), assigned) && arrivalTime < bestArrivalTime) {
+						bestArrivalTime = arrivalTime;
+						bestIndex = i;
+					}
+				}
+				if (bestIndex >= 0) {
+					offered[bestIndex] = true;
+					// the returned requests must not be sent back to the same elevator
+					(assigned.getDirection() == Direction.UP ? sameSrcUpCache : sameSrcDownCache)
+							.remove(sourceFloor, assigned.getElevatorId());
+					// the hall call is returned whole, to be merged again
+					for (AssignedElevatorRequest sameCall : assignedElevatorRequests.values()) {
+						if (sameCall.getElevatorId() == assigned.getElevatorId()
+								&& sameCall.getSourceFloor() == sourceFloor
+								&& sameCall.getDirection() == assigned.getDirection()
+								&& revokedRequestIds.add(sameCall.getRequestId())) {
+							revokes.add(new RevokeElevatorRequest(sameCall));
+						}
+					}
+				}
+			}
+		}
+		if (!revokes.isEmpty()) {
+			metrics.counter("scheduler.requests_revoked").add(revokes.size());
+		}
+		return revokes;
+	}
+
+	/**
+	 * Send the revocations of the assigned requests to reassign.
+	 */
+	public void reassignRequests() {
+		for (RevokeElevatorRequest revoke : findRequestsToReassign()) {
+			try {
+				schedulerSubsystem.sendPendingRequest(revoke);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Estimate the time an elevator takes to reach a floor, serving its planned
+	 * stops in order on the way.
+	 * 
+	 * @param fleet FleetState, the fleet state
+	 * @param index int, the index of the elevator in the fleet
+	 * @param floor int, the floor to reach
+	 * @return long, the estimated time in ms
+	 */
+	private long estimateArrivalTime(FleetState fleet, int index, int floor) {
+		long movingTime = simulatorConfiguration.MOVING_TIME;
+		long stopTime = simulatorConfiguration.DOORS_OPEN_TIME + simulatorConfiguration.LOADING_TIME
+				+ simulatorConfiguration.DOORS_CLOSE_TIME;
+		long arrivalTime = 0;
+		int position = fleet.getFloor(index);
+		for (int stop : fleet.getPlannedStops(index)) {
+			arrivalTime += Math.abs(stop - position) * movingTime;
+			if (stop == floor) {
+				return arrivalTime;
+			}
+			arrivalTime += stopTime;
+			position = stop;
+		}
+		return arrivalTime + Math.abs(floor - position) * movingTime;
+	}
+
+	/**
+	 * Check whether an elevator of a fleet state holds CAR_CAPACITY passengers.
+	 * 
+	 * @param fleet FleetState, the fleet state
+	 * @param index int, the index of the elevator in the fleet
+	 * @return boolean, true if no passenger can board
+	 */
+	private boolean isFull(FleetState fleet, int index) {
+		return fleet.getNumPassengers(index) >= simulatorConfiguration.CAR_CAPACITY;
+	}
+
+	/**
+	 * Check whether the zone of an elevator serves a request.
+	 * 
+	 * @param elevatorId int, the elevator id
+	 * @param request    ElevatorRequest, the elevator request object
+	 * @return boolean, true if the elevator can be given the request
+	 */
+	private boolean canServe(int elevatorId, ElevatorRequest request) {
+		return simulatorConfiguration.ELEVATOR_ZONES.canServe(elevatorId, request.getSourceFloor(),
+				request.getDestinationFloor());
+	}
+
+	/**
+	 * Check whether a floor is a planned stop.
+	 * 
+	 * @param plannedStops int[], the planned stops of an elevator
+	 * @param floor        int, the floor
+	 * @return boolean, true if the elevator plans to stop at the floor
+	 */
+	private static boolean isPlannedStop(int[] plannedStops, int floor) {
+		for (int stop : plannedStops) {
+			if (stop == floor) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Find the idle elevators to park near the expected calls. Nothing is parked
+	 * while a caller waits, pending or assigned and not picked up yet. Otherwise
+	 * the idle elevators are matched to the busiest floors of the current
+	 * time-of-day window, busiest first: an elevator already idle at or heading
+	 * to a busy floor covers it, and the closest elevator left is sent to each
+	 * busy floor not covered, within its zone. A parked elevator is reserved until its next status
+	 * is received.
+	 * 
+	 * @return List, the parking commands to send, empty if none
+	 */
+	public synchronized List<ParkElevatorRequest> findElevatorsToPark() {
+		List<ParkElevatorRequest> parks = new ArrayList<>();
+		if (demandForecast == null || !pendingElevatorRequests.isEmpty()) {
+			return parks;
+		}
+		long now = schedulerSubsystem.currentTimeMillis();
+		FleetState snapshot = getFleetSnapshot();
+		if (hasWaitingCaller(snapshot)) {
+			return parks;
+		}
+		boolean[] free = new boolean[snapshot.size()];
+		int numFree = 0;
+		for (int i = 0; i < snapshot.size(); i++) {
+			if (snapshot.getState(i) == ElevatorStateEnum.IDLE && isAvailableIdleElevator(snapshot, i)) {
+				free[i] = true;
+				numFree++;
+			}
+		}
+		if (numFree == 0) {
+			return parks;
+		}
+		int[] floors;
+		synchronized (demandForecast) {
+			floors = demandForecast.getBusiestFloors(now, numFree);
+		}
+
+		ZoneLayout zones = simulatorConfiguration.ELEVATOR_ZONES;
+		boolean[] covered = new boolean[floors.length];
+		for (int f = 0; f < floors.length; f++) {
+			covered[f] = parkingFloors.containsValue(floors[f]);
+			for (int i = 0; i < snapshot.size() && !covered[f]; i++) {
+				if (free[i] && snapshot.getFloor(i) == floors[f] && zones.serves(snapshot.getElevatorId(i), floors[f])) {
+					free[i] = false;
+					covered[f] = true;
+					break;
+				}
+			}
+		}
+		for (int f = 0; f < floors.length; f++) {
+			if (covered[f]) {
+				continue;
+			}
+			int chosenIndex = -1;
+			int closestElevator = Integer.MAX_VALUE;
+			for (int i = 0; i < snapshot.size(); i++) {
+				int distance = Math.abs(snapshot.getFloor(i) - floors[f]);
+				if (free[i] && distance < closestElevator && zones.serves(snapshot.getElevatorId(i), floors[f])) {
+					closestElevator = distance;
+					chosenIndex = i;
+				}
+			}
+			if (chosenIndex < 0) {
+				break;
+			}
+			free[chosenIndex] = false;
+			// reserved until the next status, like an idle elevator given a request
+			synchronized (fleet) {
+				fleet.setDirection(chosenIndex,
+						floors[f] > snapshot.getFloor(chosenIndex) ? Direction.UP : Direction.DOWN);
+			}
+			ParkElevatorRequest park = new ParkElevatorRequest(snapshot.getElevatorId(chosenIndex), floors[f], now);
+			park.setGroupId(simulatorConfiguration.GROUP_ID);
+			parkingFloors.put(park.getElevatorId(), floors[f]);
+			parks.add(park);
+		}
+		if (!parks.isEmpty()) {
+			metrics.counter("scheduler.elevators_parked").add(parks.size());
+		}
+		return parks;
+	}
+
+	/**
+	 * Send the parking commands of the idle elevators to park.
+	 */
+	public void parkIdleElevators() {
+		for (ParkElevatorRequest park : findElevatorsToPark()) {
+			try {
+				schedulerSubsystem.sendPendingRequest(park);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Check whether an assigned request still waits for its elevator, that is its
+	 * pickup is still planned by the elevator.
+	 * 
+	 * @param fleet FleetState, the fleet state
+	 * @return boolean, true if a caller waits for an assigned elevator
+	 */
+	private boolean hasWaitingCaller(FleetState fleet) {
+		synchronized (assignedElevatorRequests) {
+			for (AssignedElevatorRequest assigned : assignedElevatorRequests.values()) {
+				int index = assigned.getElevatorId() - 1;
+				if (index >= 0 && index < fleet.size() && isPlannedStop(fleet.getPlannedStops(index),
+						assigned.getSourceFloor())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Record a new call in the demand forecast, if parking is enabled.
+	 * 
+	 * @param elevatorRequest ElevatorRequest, the elevator request object
+	 */
+	private void recordDemand(ElevatorRequest elevatorRequest) {
+		if (demandForecast == null) {
+			return;
+		}
+		synchronized (demandForecast) {
+			demandForecast.record(elevatorRequest.getSourceFloor(), elevatorRequest.getDirection(),
+					elevatorRequest.getTimeMillis());
+		}
+	}
+
 	/**
 	 * Set cached elevator for source destination
 	 * @param assignedElevatorRequest	ElevatorRequest, request to use
@@ -237,24 +721,43 @@ public class SchedulerContext {
 	}
 	
 	/**
-	 * Get cached elevator for source destination
+	 * Get cached elevator for source destination, a miss if its zone does not
+	 * serve the request or it is full
 	 * @param request	ElevatorRequest, request to use
-	 * @return
+	 * @return int, the index of the elevator in the fleet, -1 on a cache miss
 	 */
-	private ElevatorStatus getSameSrcCacheElevator(ElevatorRequest request) {
-		ElevatorStatus chosenElevatorStatus = null;
+	private int getSameSrcCacheElevator(ElevatorRequest request) {
+		int elevatorIndex = -1;
 		if (request.getDirection() == Direction.UP && sameSrcUpCache.get(request.getSourceFloor()) != null) {
 			// refer to sameSrcUpCache
 			// cache hit!
-			int elevatorIndex = sameSrcUpCache.get(request.getSourceFloor()) - 1;
-			chosenElevatorStatus = availableElevatorStatus.get(elevatorIndex);
+			elevatorIndex = sameSrcUpCache.get(request.getSourceFloor()) - 1;
 		} else if (request.getDirection() == Direction.DOWN && sameSrcDownCache.get(request.getSourceFloor()) != null) {
 			// refer to sameSrcDownCache
 			// cache hit!
-			int elevatorIndex = sameSrcDownCache.get(request.getSourceFloor()) - 1;
-			chosenElevatorStatus = availableElevatorStatus.get(elevatorIndex);
+			elevatorIndex = sameSrcDownCache.get(request.getSourceFloor()) - 1;
+		}
+		if (elevatorIndex >= 0 && !canServe(elevatorIndex + 1, request)) {
+			elevatorIndex = -1;
+		}
+		synchronized (fleet) {
+			if (elevatorIndex >= 0 && elevatorIndex < fleet.size() && isFull(fleet, elevatorIndex)) {
+				elevatorIndex = -1;
+			}
+		}
+		return elevatorIndex;
+	}
+
+	/**
+	 * Get the id of an elevator of the fleet.
+	 * 
+	 * @param index int, the index of the elevator in the fleet
+	 * @return int, the elevator id
+	 */
+	private int getElevatorId(int index) {
+		synchronized (fleet) {
+			return fleet.getElevatorId(index);
 		}
-		return chosenElevatorStatus;
 	}
 
 	/**
@@ -263,23 +766,24 @@ public class SchedulerContext {
 	 * @throws IOException
 	 */
 	public void assignNextBestElevatorRequest() throws IOException {
-		AssignedElevatorRequest request = this.findBestElevatorToAssignRequest();
-		if (request != null) {
+		for (AssignedElevatorRequest request : this.findBestElevatorToAssignRequest()) {
 			schedulerSubsystem.sendPendingRequest(request);
 		}
 	}
 
 	/**
-	 * Adding method for availableElevatorStatus list.
+	 * Adding method for an elevator of the fleet state.
 	 * 
 	 * @param elevatorStatus ElevatorStatus, the elevator status
 	 */
 	public void addAvailableElevatorStatus(ElevatorStatus elevatorStatus) {
-		availableElevatorStatus.add(elevatorStatus);
+		synchronized (fleet) {
+			fleet.add(elevatorStatus);
+		}
 	}
 
 	/**
-	 * Method for modifying the availableElevatorStatus list
+	 * Method for modifying an elevator of the fleet state, in place
 	 * 
 	 * @param index          int, the index of the elevator map
 	 * @param elevatorStatus ElevatorStatus, the status of the elevator
@@ -290,7 +794,14 @@ public class SchedulerContext {
 		ElevatorStateEnum elevatorState = elevatorStatus.getState();
 		Direction elevatorDirection = elevatorStatus.getDirection();
 		
-		availableElevatorStatus.set(index, elevatorStatus);
+		synchronized (fleet) {
+			fleet.update(index, elevatorStatus);
+		}
+		journal(SchedulerJournal.EventType.STATUS_UPDATED, elevatorStatus);
+		if (elevatorDirection == Direction.IDLE) {
+			// arrived at its parking floor, or ignored the command
+			parkingFloors.remove(elevatorId);
+		}
 		
 		// clear cache when elevator arrives at a floor w/ its doors open
 		// doors open -> DOORS_OPEN
@@ -307,7 +818,7 @@ public class SchedulerContext {
 		// clear elevator from cache if it is at DOOR_STUCK/ELEVATOR_STUCK state
 		Integer upCacheValue, downCacheValue;
 		if (elevatorState == ElevatorStateEnum.ELEVATOR_STUCK || elevatorState == ElevatorStateEnum.DOORS_STUCK) {
-			for (Integer floor=1; floor<schedulerSubsystem.getSimulatorConfiguration().NUM_FLOORS; floor++) {
+			for (Integer floor=1; floor<simulatorConfiguration.NUM_FLOORS; floor++) {
 				upCacheValue = sameSrcUpCache.get(floor);
 				downCacheValue = sameSrcDownCache.get(floor);
 				if (upCacheValue != null && upCacheValue == elevatorId) {
@@ -319,15 +830,32 @@ public class SchedulerContext {
 			}
 		}
 		
+		// an elevator becoming idle may serve an assigned request sooner, or wait
+		// near the expected calls
+		reassignRequests();
+		parkIdleElevators();
 	}
 
 	/**
-	 * Adding method for pendingElevatorRequests list.
+	 * Adding method for pendingElevatorRequests list. A request for a floor and
+	 * direction already waiting for a car is merged into that hall call instead.
 	 * 
 	 * @param elevatorRequest ElevatorRequest, the elevator request object
 	 */
 	public void addPendingElevatorRequests(ElevatorRequest elevatorRequest) {
-			pendingElevatorRequests.add(elevatorRequest);
+			// a request returned by an elevator is no longer assigned, and is not a
+			// new call for the forecast
+			if (!forgetAssignment(elevatorRequest)) {
+				recordDemand(elevatorRequest);
+			}
+			synchronized (pendingElevatorRequests) {
+				if (hallCalls.register(elevatorRequest)) {
+					pendingElevatorRequests.add(elevatorRequest);
+				} else {
+					metrics.counter("scheduler.hall_calls_merged").increment();
+				}
+			}
+			journal(SchedulerJournal.EventType.REQUEST_RECEIVED, elevatorRequest);
 			onRequestReceived();
 	}
 
@@ -337,10 +865,25 @@ public class SchedulerContext {
 	 * @param elevatorRequest ElevatorRequest, the elevator request object
 	 */
 	public void addCompletedElevatorRequests(ElevatorRequest elevatorRequest) {
+			forgetAssignment(elevatorRequest);
 			completedElevatorRequests.add(elevatorRequest);
+			journal(SchedulerJournal.EventType.REQUEST_COMPLETED, elevatorRequest);
 			onRequestReceived();
 	}
 
+	/**
+	 * Forget the assignment of a request returned or completed by its elevator.
+	 * 
+	 * @param elevatorRequest ElevatorRequest, the elevator request object
+	 * @return boolean, true if the request was assigned
+	 */
+	private boolean forgetAssignment(ElevatorRequest elevatorRequest) {
+		synchronized (assignedElevatorRequests) {
+			revokedRequestIds.remove(elevatorRequest.getRequestId());
+			return assignedElevatorRequests.remove(elevatorRequest.getRequestId()) != null;
+		}
+	}
+
 	/**
 	 * Method for handling on request received.
 	 */
@@ -377,26 +920,56 @@ public class SchedulerContext {
 		ElevatorRequest nextCompletedRequest;
 		if (completedElevatorRequests.size() > 0) {
 			nextCompletedRequest = completedElevatorRequests.remove(0);
+			journal(SchedulerJournal.EventType.COMPLETED_SENT, nextCompletedRequest);
 			schedulerSubsystem.sendCompletedElevatorRequest(nextCompletedRequest);
 		}
 	}
 
 	/**
-	 * Getter for availableElevatorStatus.
+	 * Getter for the status of every elevator, created from the fleet state.
 	 * 
-	 * @return availableElevatorStatus List, all available elevators status
+	 * @return List, all available elevators status by index
 	 */
 	public List<ElevatorStatus> getAvailableElevatorStatus() {
-		return availableElevatorStatus;
+		synchronized (fleet) {
+			return fleet.toStatusList(simulatorConfiguration.GROUP_ID);
+		}
+	}
+
+	/**
+	 * Get a copy of the fleet state, to scan the elevators without holding the
+	 * lock of the context.
+	 * 
+	 * @return FleetState, the copy of the fleet state
+	 */
+	public FleetState getFleetSnapshot() {
+		synchronized (fleet) {
+			return fleet.copy();
+		}
 	}
 
 	/**
-	 * Getter for pendingElevatorRequests
+	 * Getter for pendingElevatorRequests, returns a copy oldest call first. Only
+	 * the dispatch unit of each hall call is pending, the requests merged behind
+	 * it are not.
 	 * 
 	 * @return pendingElevatorRequests List, list of pending elevator requests
 	 */
 	public List<ElevatorRequest> getPendingElevatorRequests() {
-		return pendingElevatorRequests;
+		synchronized (pendingElevatorRequests) {
+			return new ArrayList<>(pendingElevatorRequests);
+		}
+	}
+
+	/**
+	 * Get the number of requests waiting for a car, merged or not.
+	 * 
+	 * @return int, the number of pending requests
+	 */
+	public int getPendingPassengerCount() {
+		synchronized (pendingElevatorRequests) {
+			return pendingElevatorRequests.size() + hallCalls.getMergedCount();
+		}
 	}
 
 	/**
@@ -408,6 +981,24 @@ public class SchedulerContext {
 		return completedElevatorRequests;
 	}
 
+	/**
+	 * Getter for the id of the elevator group served by this context.
+	 * 
+	 * @return int, the group id
+	 */
+	public int getGroupId() {
+		return simulatorConfiguration.GROUP_ID;
+	}
+
+	/**
+	 * Getter for the configuration of the elevator group served by this context.
+	 * 
+	 * @return SimulatorConfiguration, the group configuration
+	 */
+	public SimulatorConfiguration getSimulatorConfiguration() {
+		return simulatorConfiguration;
+	}
+
 	/**
 	 * Get the current scheduler state.
 	 * 
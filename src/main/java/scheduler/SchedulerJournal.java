@@ -0,0 +1,270 @@
+package main.java.scheduler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+import main.java.dto.MessageCodec;
+import main.java.dto.SerializableEncoder;
+
+/**
+ * Append-only, memory-mapped journal of the events of a SchedulerContext
+ * (requests received, assigned and completed, elevator status updates) with
+ * periodic snapshots of the whole context.
+ *
+ * Events are queued by the scheduler threads and written by a single writer
+ * thread which drains everything queued so far, appends it to the mapped file
+ * and forces it once per batch (group commit), so journaling never blocks the
+ * dispatch path.
+ *
+ * Each record is laid out as [length][generation][type][crc][payload], the
+ * payload of a request or status event being in the binary format of
+ * WireFormat. Taking a snapshot bumps the generation and rewinds the journal,
+ * so records left over from a previous generation are ignored on recovery
+ * without having to clear the file. The header is written after the payload so that a record torn by a
+ * crash is never replayed.
+ *
+ * @author Bobby Ngo
+ */
+public class SchedulerJournal implements Runnable {
+	private static final int HEADER_SIZE = 13;
+
+	/**
+	 * The type of a journal event.
+	 */
+	public enum EventType {
+		REQUEST_RECEIVED, REQUEST_ASSIGNED, REQUEST_COMPLETED, COMPLETED_SENT, STATUS_UPDATED
+	}
+
+	private final Path journalPath;
+	private final Path snapshotPath;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int position;
+	private int generation;
+	private final BlockingQueue<Entry> queue;
+	private Thread writerThread;
+
+	/**
+	 * Constructor for the scheduler journal. Opens (or creates) the journal and
+	 * snapshot files of an elevator group.
+	 *
+	 * @param directory   String, the directory holding the journal files
+	 * @param groupId     int, the id of the elevator group
+	 * @param initialSize int, the initial size of the mapped journal in bytes
+	 * @throws IOException
+	 */
+	public SchedulerJournal(String directory, int groupId, int initialSize) throws IOException {
+		Path dir = Paths.get(directory);
+		Files.createDirectories(dir);
+		journalPath = dir.resolve(String.format("scheduler-group-%d.journal", groupId));
+		snapshotPath = dir.resolve(String.format("scheduler-group-%d.snapshot", groupId));
+		channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(initialSize, channel.size()));
+		queue = new LinkedBlockingQueue<>();
+	}
+
+	/**
+	 * Rebuild the state of the scheduler from the last snapshot and the events
+	 * journaled after it. Must be called before start().
+	 *
+	 * @return SchedulerSnapshot, the recovered state, or null if nothing was
+	 *         journaled
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	public SchedulerSnapshot recover() throws IOException, ClassNotFoundException {
+		SchedulerSnapshot snapshot = null;
+		generation = 0;
+		if (Files.exists(snapshotPath)) {
+			ByteBuffer snapshotData = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+			generation = snapshotData.getInt();
+			byte[] data = new byte[snapshotData.getInt()];
+			snapshotData.get(data);
+			snapshot = (SchedulerSnapshot) SerializableEncoder.decode(data);
+		}
+
+		position = 0;
+		CRC32 crc = new CRC32();
+		while (position + HEADER_SIZE <= buffer.capacity()) {
+			int length = buffer.getInt(position);
+			if (length <= 0 || buffer.getInt(position + 4) != generation
+					|| position + HEADER_SIZE + length > buffer.capacity()) {
+				break;
+			}
+			EventType type = EventType.values()[buffer.get(position + 8)];
+			byte[] data = new byte[length];
+			buffer.get(position + HEADER_SIZE, data);
+			crc.reset();
+			crc.update(data);
+			if ((int) crc.getValue() != buffer.getInt(position + 9)) {
+				break;
+			}
+			if (snapshot == null) {
+				snapshot = new SchedulerSnapshot();
+			}
+			snapshot.apply(type, MessageCodec.decode(ByteBuffer.wrap(data)));
+			position += HEADER_SIZE + length;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Start the writer thread.
+	 */
+	public void start() {
+		writerThread = new Thread(this, "SchedulerJournal-" + journalPath.getFileName());
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Queue an event to be journaled.
+	 *
+	 * @param type  EventType, the type of the event
+	 * @param event Serializable, the DTO of the event
+	 */
+	public void append(EventType type, Serializable event) {
+		queue.offer(new Entry(type, event));
+	}
+
+	/**
+	 * Queue a snapshot of the scheduler. Every event queued after the snapshot is
+	 * journaled on top of it.
+	 *
+	 * @param snapshot SchedulerSnapshot, the state of the scheduler
+	 */
+	public void snapshot(SchedulerSnapshot snapshot) {
+		queue.offer(new Entry(null, snapshot));
+	}
+
+	/**
+	 * Write everything queued so far and stop the writer thread.
+	 *
+	 * @throws InterruptedException
+	 * @throws IOException
+	 */
+	public void close() throws InterruptedException, IOException {
+		if (writerThread != null) {
+			queue.offer(new Entry(null, null));
+			writerThread.join();
+		}
+		channel.close();
+	}
+
+	/**
+	 * Writer loop, group committing the queued events.
+	 */
+	@Override
+	public void run() {
+		List<Entry> batch = new ArrayList<>();
+		boolean running = true;
+		while (running) {
+			try {
+				batch.add(queue.take());
+				queue.drainTo(batch);
+				for (Entry entry : batch) {
+					if (entry.event == null) {
+						running = false;
+					} else if (entry.type == null) {
+						writeSnapshot((SchedulerSnapshot) entry.event);
+					} else {
+						writeRecord(entry.type, MessageCodec.encode(entry.event));
+					}
+				}
+				buffer.force();
+			} catch (InterruptedException e) {
+				running = false;
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Append a record to the mapped journal, growing the mapping if needed.
+	 *
+	 * @param type EventType, the type of the event
+	 * @param data byte[], the encoded event
+	 * @throws IOException
+	 */
+	private void writeRecord(EventType type, byte[] data) throws IOException {
+		int recordSize = HEADER_SIZE + data.length;
+		if (position + recordSize > buffer.capacity()) {
+			buffer.force();
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					Math.max(2L * buffer.capacity(), position + recordSize));
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		buffer.put(position + HEADER_SIZE, data);
+		buffer.putInt(position + 4, generation);
+		buffer.put(position + 8, (byte) type.ordinal());
+		buffer.putInt(position + 9, (int) crc.getValue());
+		// the length is written last, a record is valid only once it is set
+		buffer.putInt(position, data.length);
+		position += recordSize;
+	}
+
+	/**
+	 * Atomically replace the snapshot file and rewind the journal.
+	 *
+	 * @param snapshot SchedulerSnapshot, the state of the scheduler
+	 * @throws IOException
+	 */
+	private void writeSnapshot(SchedulerSnapshot snapshot) throws IOException {
+		byte[] data = SerializableEncoder.encode(snapshot);
+		ByteArrayOutputStream byteStream = new ByteArrayOutputStream(data.length + 8);
+		DataOutputStream out = new DataOutputStream(byteStream);
+		out.writeInt(generation + 1);
+		out.writeInt(data.length);
+		out.write(data);
+		out.close();
+
+		Path tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+		try (FileChannel snapshotChannel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			snapshotChannel.write(ByteBuffer.wrap(byteStream.toByteArray()));
+			snapshotChannel.force(true);
+		}
+		Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		generation++;
+		position = 0;
+	}
+
+	/**
+	 * An event or snapshot waiting to be written. A null event stops the writer.
+	 */
+	private static class Entry {
+		private final EventType type;
+		private final Serializable event;
+
+		/**
+		 * Constructor for a journal entry.
+		 *
+		 * @param type  EventType, the type of the event, null for a snapshot
+		 * @param event Serializable, the event or snapshot
+		 */
+		private Entry(EventType type, Serializable event) {
+			this.type = type;
+			this.event = event;
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package main.java.scheduler;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import main.java.dto.AssignedElevatorRequest;
+import main.java.dto.ElevatorRequest;
+import main.java.dto.ElevatorStatus;
+
+/**
+ * Point-in-time copy of the state of a SchedulerContext. Snapshots are written
+ * by the SchedulerJournal and rebuilt on recovery by replaying the journal
+ * events recorded after the snapshot.
+ *
+ * @author Bobby Ngo
+ */
+public class SchedulerSnapshot implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private List<ElevatorStatus> elevatorStatus;
+	// key: request id
+	private Map<Long, ElevatorRequest> pendingElevatorRequests;
+	private List<ElevatorRequest> completedElevatorRequests;
+
+	/**
+	 * Constructor for an empty snapshot.
+	 */
+	public SchedulerSnapshot() {
+		this(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+	}
+
+	/**
+	 * Constructor for the scheduler snapshot. The lists are copied.
+	 *
+	 * @param elevatorStatus            List, the status of every elevator
+	 * @param pendingElevatorRequests   Collection, the requests not yet assigned
+	 * @param completedElevatorRequests List, the completed requests not yet sent
+	 *                                  to the floor
+	 */
+	public SchedulerSnapshot(List<ElevatorStatus> elevatorStatus, Collection<ElevatorRequest> pendingElevatorRequests,
+			List<ElevatorRequest> completedElevatorRequests) {
+		this.elevatorStatus = new ArrayList<>(elevatorStatus);
+		this.pendingElevatorRequests = new LinkedHashMap<>();
+		for (ElevatorRequest request : pendingElevatorRequests) {
+			this.pendingElevatorRequests.put(request.getRequestId(), request);
+		}
+		this.completedElevatorRequests = new ArrayList<>(completedElevatorRequests);
+	}
+
+	/**
+	 * Apply a journal event to the snapshot.
+	 *
+	 * @param type  SchedulerJournal.EventType, the type of the event
+	 * @param event Object, the DTO recorded with the event
+	 */
+	public void apply(SchedulerJournal.EventType type, Object event) {
+		switch (type) {
+		case REQUEST_RECEIVED:
+			ElevatorRequest request = (ElevatorRequest) event;
+			pendingElevatorRequests.put(request.getRequestId(), request);
+			break;
+		case REQUEST_ASSIGNED:
+			pendingElevatorRequests.remove(((AssignedElevatorRequest) event).getRequestId());
+			break;
+		case REQUEST_COMPLETED:
+			completedElevatorRequests.add((ElevatorRequest) event);
+			break;
+		case COMPLETED_SENT:
+			removeRequest(completedElevatorRequests, (ElevatorRequest) event);
+			break;
+		case STATUS_UPDATED:
+			ElevatorStatus status = (ElevatorStatus) event;
+			int index = status.getElevatorId() - 1;
+			if (index >= 0 && index < elevatorStatus.size()) {
+				elevatorStatus.set(index, status);
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Remove the first request of a list with the id of another request.
+	 *
+	 * @param requests List, the list of requests
+	 * @param request  ElevatorRequest, the request to remove
+	 */
+	private static void removeRequest(List<ElevatorRequest> requests, ElevatorRequest request) {
+		for (int i = 0; i < requests.size(); i++) {
+			if (requests.get(i).getRequestId() == request.getRequestId()) {
+				requests.remove(i);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Getter for the elevator status.
+	 *
+	 * @return List, the status of every elevator
+	 */
+	public List<ElevatorStatus> getElevatorStatus() {
+		return elevatorStatus;
+	}
+
+	/**
+	 * Getter for the pending elevator requests.
+	 *
+	 * @return List, the requests not yet assigned, in arrival order
+	 */
+	public List<ElevatorRequest> getPendingElevatorRequests() {
+		return new ArrayList<>(pendingElevatorRequests.values());
+	}
+
+	/**
+	 * Getter for the completed elevator requests.
+	 *
+	 * @return List, the completed requests not yet sent to the floor
+	 */
+	public List<ElevatorRequest> getCompletedElevatorRequests() {
+		return completedElevatorRequests;
+	}
+
+}
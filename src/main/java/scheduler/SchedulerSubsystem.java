@@ -1,30 +1,47 @@
 package main.java.scheduler;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
 import java.net.UnknownHostException;
 import java.sql.Timestamp;
 import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import main.java.ConfigurationWatcher;
+import main.java.ElevatorTopology;
 import main.java.SimulatorConfiguration;
 import main.java.UDPClient;
 import main.java.dto.AssignedElevatorRequest;
 import main.java.dto.ElevatorRequest;
 import main.java.dto.ElevatorStatus;
+import main.java.dto.TraceSpan;
 import main.java.gui.LogConsole;
+import main.java.metrics.MetricsRegistry;
+import main.java.transport.Endpoint;
+import main.java.transport.Transport;
 
 /**
- * Representing the Scheduler Subsystem.
+ * Representing the Scheduler Subsystem. A single scheduler process can serve
+ * several independent elevator groups (buildings), each with its own
+ * SchedulerContext. Every group is pinned to one worker thread so that the
+ * messages of a group are handled in order and groups never contend.
  * 
  * @author Bobby Ngo, Patrick Liu
  */
 public class SchedulerSubsystem implements Runnable {
-	private SchedulerContext schedulerContext;
+	// key: group id, value: context/configuration of the group
+	private Map<Integer, SchedulerContext> schedulerContexts;
+	private Map<Integer, SimulatorConfiguration> groupConfigurations;
+	private ExecutorService[] groupWorkers;
 	private SimulatorConfiguration simulatorConfiguration;
-	// 3 sockets and 3 threads for listening to the request
-	private UDPClient pendingRequestSocket;
-	private UDPClient arrivalRequestSocket;
-	private UDPClient completedRequestSocket;
+	private Transport transport;
+	private MetricsRegistry metrics;
+	// 3 endpoints and 3 threads for listening to the request
+	private Endpoint<ElevatorRequest> pendingRequestEndpoint;
+	private Endpoint<ElevatorStatus> arrivalRequestEndpoint;
+	private Endpoint<ElevatorRequest> completedRequestEndpoint;
 	// private Thread floorRequestListenerThread;
 	private Thread pendingRequestListenerThread;
 	private Thread arrivalRequestListenerThread;
@@ -43,8 +60,14 @@ public class SchedulerSubsystem implements Runnable {
 	 */
 	public static void main(String[] args)
 			throws ParseException, InterruptedException, UnknownHostException, IOException {
-		SimulatorConfiguration sc = new SimulatorConfiguration("./src/main/resources/config.properties");
+		SimulatorConfiguration sc = new SimulatorConfiguration("./src/main/resources/config.properties", "scheduler");
+		UDPClient.setMaxDatagramSize(sc.MAX_DATAGRAM_SIZE);
+		if (sc.CAPTURE_PATH != null) {
+			UDPClient.startCapture(sc.CAPTURE_PATH);
+		}
+		MetricsRegistry.getDefault().expose(sc.METRICS_PORT > 0 ? sc.METRICS_PORT + 1 : 0);
 		SchedulerSubsystem s = new SchedulerSubsystem(sc);
+		s.watchConfigurations();
 		Thread sThread = new Thread(s);
 		sThread.start();
 	}
@@ -55,19 +78,53 @@ public class SchedulerSubsystem implements Runnable {
 	 * @param config SimulatorConfiguration, the configurations parameters
 	 */
 	public SchedulerSubsystem(SimulatorConfiguration config) {
+		this(config, MetricsRegistry.getDefault());
+	}
+
+	/**
+	 * Constructor for the scheduler subsystem recording the metrics of its groups
+	 * into a registry.
+	 * 
+	 * @param config  SimulatorConfiguration, the configurations parameters
+	 * @param metrics MetricsRegistry, the registry of the groups
+	 */
+	public SchedulerSubsystem(SimulatorConfiguration config, MetricsRegistry metrics) {
+		this.metrics = metrics;
 		simulatorConfiguration = config;
-		schedulerContext = new SchedulerContext(this);
-		// Registering the listening port for the socket
-		pendingRequestSocket = new UDPClient(config.SCHEDULER_PENDING_REQ_PORT);
-		arrivalRequestSocket = new UDPClient(config.SCHEDULER_ARRIVAL_REQ_PORT);
-		completedRequestSocket = new UDPClient(config.SCHEDULER_COMPLETED_REQ_PORT);
-		logConsole = new LogConsole(this.getClass().getSimpleName());
+		transport = Transport.forConfiguration(config);
+		schedulerContexts = new HashMap<>();
+		groupConfigurations = new HashMap<>();
+		groupWorkers = new ExecutorService[Math.max(1, config.SCHEDULER_WORKER_THREADS)];
+		for (int i = 0; i < groupWorkers.length; i++) {
+			String name = "SchedulerWorker-" + (i + 1);
+			// daemon threads, a subsystem driven in-process does not keep the JVM alive
+			groupWorkers[i] = Executors.newSingleThreadExecutor(task -> {
+				Thread thread = new Thread(task, name);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		addGroup(config);
+		for (String groupConfigPath : config.SCHEDULER_GROUP_CONFIGS) {
+			addGroup(new SimulatorConfiguration(groupConfigPath, config.getSection()));
+		}
+		if (!config.HEADLESS) {
+			logConsole = new LogConsole(this.getClass().getSimpleName());
+		}
 	}
 
 	/**
 	 * Starting threads with following sequence of steps.
 	 */
 	public void run() {
+		// Registering the listening port for the socket, replays and simulations
+		// drive the subsystem in-process without binding
+		pendingRequestEndpoint = transport.bind(simulatorConfiguration.SCHEDULER_PENDING_REQ_PORT,
+				ElevatorRequest.class);
+		arrivalRequestEndpoint = transport.bind(simulatorConfiguration.SCHEDULER_ARRIVAL_REQ_PORT,
+				ElevatorStatus.class);
+		completedRequestEndpoint = transport.bind(simulatorConfiguration.SCHEDULER_COMPLETED_REQ_PORT,
+				ElevatorRequest.class);
 		pendingRequestListenerThread = new Thread(new Runnable() {
 
 			@Override
@@ -115,6 +172,56 @@ public class SchedulerSubsystem implements Runnable {
 		this.completedRequestListenerThread.start();
 	}
 
+	/**
+	 * Reload the timing and dispatch parameters of every group when its config
+	 * file changes.
+	 * 
+	 * @throws IOException
+	 */
+	public void watchConfigurations() throws IOException {
+		for (SimulatorConfiguration groupConfiguration : groupConfigurations.values()) {
+			ConfigurationWatcher.getDefault().watch(groupConfiguration);
+		}
+	}
+
+	/**
+	 * Register an elevator group served by this scheduler.
+	 * 
+	 * @param groupConfiguration SimulatorConfiguration, the configuration of the
+	 *                           group
+	 */
+	private void addGroup(SimulatorConfiguration groupConfiguration) {
+		if (groupConfigurations.containsKey(groupConfiguration.GROUP_ID)) {
+			throw new IllegalArgumentException("Duplicate elevator group " + groupConfiguration.GROUP_ID);
+		}
+		groupConfigurations.put(groupConfiguration.GROUP_ID, groupConfiguration);
+		SchedulerContext schedulerContext = new SchedulerContext(this, groupConfiguration);
+		schedulerContexts.put(groupConfiguration.GROUP_ID, schedulerContext);
+		// requests recovered from the journal are resumed once the group is registered
+		dispatch(groupConfiguration.GROUP_ID, new Runnable() {
+			@Override
+			public void run() {
+				schedulerContext.resumeRecoveredRequests();
+			}
+		});
+	}
+
+	/**
+	 * Run a task on the worker thread owning an elevator group. Tasks of the same
+	 * group run in submission order; tasks of unknown groups are dropped.
+	 * 
+	 * @param groupId int, the group id
+	 * @param task    Runnable, the task to run
+	 */
+	protected void dispatch(int groupId, Runnable task) {
+		if (!schedulerContexts.containsKey(groupId)) {
+			printLog(String.format("UNKNOWN_GROUP -- dropping message for group %d", groupId));
+			metrics.counter("scheduler.unknown_group_messages").increment();
+			return;
+		}
+		groupWorkers[Math.floorMod(groupId, groupWorkers.length)].execute(task);
+	}
+
 	/**
 	 * Receiving pending request from Floor method.
 	 * 
@@ -122,17 +229,36 @@ public class SchedulerSubsystem implements Runnable {
 	 * @throws IOException
 	 */
 	public void receivePendingRequest() throws ClassNotFoundException, IOException {
-		Thread task;
-		DatagramPacket packetFromFloor = pendingRequestSocket.receiveMessage();
-		byte[] floorRequestData = UDPClient.readPacketData(packetFromFloor);
-		ElevatorRequest floorRequest = ElevatorRequest.decode(floorRequestData);
-		task = new Thread(new Runnable() {
+		handlePendingRequest(pendingRequestEndpoint.receive());
+	}
+
+	/**
+	 * Handle an encoded pending request, replayed from a traffic capture.
+	 * 
+	 * @param floorRequestData byte[], the encoded elevator request
+	 * @throws ClassNotFoundException
+	 * @throws IOException
+	 */
+	public void handlePendingRequest(byte[] floorRequestData) throws ClassNotFoundException, IOException {
+		handlePendingRequest(ElevatorRequest.decode(floorRequestData));
+	}
+
+	/**
+	 * Handle a pending request received from the Floor.
+	 * 
+	 * @param floorRequest ElevatorRequest, the elevator request
+	 */
+	public void handlePendingRequest(ElevatorRequest floorRequest) {
+		floorRequest.stamp(TraceSpan.SCHEDULER_RECEIVED);
+		metrics.counter("scheduler.requests_received").increment();
+		metrics.histogram("scheduler.hop.floor_to_scheduler_ms")
+				.record(currentTimeMillis() - floorRequest.getTimeMillis());
+		dispatch(floorRequest.getGroupId(), new Runnable() {
 			@Override
 			public void run() {
-				schedulerContext.addPendingElevatorRequests(floorRequest);
+				getSchedulerContext(floorRequest.getGroupId()).addPendingElevatorRequests(floorRequest);
 			}
 		});
-		task.start();
 	}
 
 	/**
@@ -142,28 +268,24 @@ public class SchedulerSubsystem implements Runnable {
 	 * @throws IOException
 	 */
 	public void sendPendingRequest(AssignedElevatorRequest assignedRequest) throws IOException {
-		Thread task;
-
-		task = new Thread(new Runnable() {
+		if (assignedRequest == null) {
+			return;
+		}
+		dispatch(assignedRequest.getGroupId(), new Runnable() {
 			@Override
 			public void run() {
-				if (assignedRequest != null) {
-					byte[] data;
-					try {
-						data = assignedRequest.encode();
-						UDPClient socket = new UDPClient();
-						socket.sendMessage(data, simulatorConfiguration.ELEVATOR_SUBSYSTEM_HOST,
-								simulatorConfiguration.ELEVATOR_SUBSYSTEM_REQ_PORT);
-						socket.close();
-					} catch (IOException e) {
-						e.printStackTrace();
-					}
-					printLog(String.format("SENT_ASSIGNED           -- %s", assignedRequest));
-					schedulerContext.onRequestSent();
+				try {
+					// route to the node hosting the assigned elevator
+					ElevatorTopology.Node node = getGroupConfiguration(assignedRequest.getGroupId()).ELEVATOR_TOPOLOGY
+							.getNodeForElevator(assignedRequest.getElevatorId());
+					transport.send(assignedRequest, node.getHost(), node.getPort());
+				} catch (IOException e) {
+					e.printStackTrace();
 				}
+				printLog(String.format("SENT_ASSIGNED           -- %s", assignedRequest));
+				getSchedulerContext(assignedRequest.getGroupId()).onRequestSent();
 			}
 		});
-		task.start();
 	}
 
 	/**
@@ -173,14 +295,31 @@ public class SchedulerSubsystem implements Runnable {
 	 * @throws IOException
 	 */
 	public void receiveArrivalNotification() throws ClassNotFoundException, IOException {
-		Thread task;
-		DatagramPacket packetFromElevator = arrivalRequestSocket.receiveMessage();
-		byte[] arrivalNotificationData = UDPClient.readPacketData(packetFromElevator);
-		ElevatorStatus arrivalNotification = ElevatorStatus.decode(arrivalNotificationData);
+		handleArrivalNotification(arrivalRequestEndpoint.receive());
+	}
 
-		task = new Thread(new Runnable() {
+	/**
+	 * Handle an encoded arrival notification, replayed from a traffic capture.
+	 * 
+	 * @param arrivalNotificationData byte[], the encoded elevator status
+	 * @throws ClassNotFoundException
+	 * @throws IOException
+	 */
+	public void handleArrivalNotification(byte[] arrivalNotificationData) throws ClassNotFoundException, IOException {
+		handleArrivalNotification(ElevatorStatus.decode(arrivalNotificationData));
+	}
+
+	/**
+	 * Handle an arrival notification received from the elevator.
+	 * 
+	 * @param arrivalNotification ElevatorStatus, the elevator status
+	 */
+	public void handleArrivalNotification(ElevatorStatus arrivalNotification) {
+
+		dispatch(arrivalNotification.getGroupId(), new Runnable() {
 			@Override
 			public void run() {
+				SchedulerContext schedulerContext = getSchedulerContext(arrivalNotification.getGroupId());
 				schedulerContext.modifyAvailableElevatorStatus(arrivalNotification.getElevatorId() - 1,
 						arrivalNotification);
 				schedulerContext.onRequestReceived();
@@ -191,7 +330,6 @@ public class SchedulerSubsystem implements Runnable {
 				}
 			}
 		});
-		task.start();
 	}
 
 	/**
@@ -201,12 +339,9 @@ public class SchedulerSubsystem implements Runnable {
 	 * @throws IOException
 	 */
 	private void sendArrivalNotification(ElevatorStatus arrivalNotification) throws IOException {
-		byte[] data = arrivalNotification.encode();
-
-		UDPClient socket = new UDPClient();
-		socket.sendMessage(data, simulatorConfiguration.FLOOR_SUBSYSTEM_HOST,
-				simulatorConfiguration.FLOOR_SUBSYSTEM_ARRIVAL_REQ_PORT);
-		socket.close();
+		SimulatorConfiguration groupConfiguration = getGroupConfiguration(arrivalNotification.getGroupId());
+		transport.send(arrivalNotification, groupConfiguration.FLOOR_SUBSYSTEM_HOST,
+				groupConfiguration.FLOOR_SUBSYSTEM_ARRIVAL_REQ_PORT);
 	}
 
 	/**
@@ -216,11 +351,34 @@ public class SchedulerSubsystem implements Runnable {
 	 * @throws IOException
 	 */
 	public void receiveCompletedElevatorRequest() throws ClassNotFoundException, IOException {
-		DatagramPacket packetFromElevator = completedRequestSocket.receiveMessage();
-		byte[] completedRequestData = UDPClient.readPacketData(packetFromElevator);
-		ElevatorRequest completedRequest = ElevatorRequest.decode(completedRequestData);
+		handleCompletedElevatorRequest(completedRequestEndpoint.receive());
+	}
+
+	/**
+	 * Handle an encoded completed request, replayed from a traffic capture.
+	 * 
+	 * @param completedRequestData byte[], the encoded elevator request
+	 * @throws ClassNotFoundException
+	 * @throws IOException
+	 */
+	public void handleCompletedElevatorRequest(byte[] completedRequestData)
+			throws ClassNotFoundException, IOException {
+		handleCompletedElevatorRequest(ElevatorRequest.decode(completedRequestData));
+	}
+
+	/**
+	 * Handle a completed request received from the elevator.
+	 * 
+	 * @param completedRequest ElevatorRequest, the elevator request
+	 */
+	public void handleCompletedElevatorRequest(ElevatorRequest completedRequest) {
 		printLog(String.format("RECEIVE_COMPLETED -- %s", completedRequest));
-		schedulerContext.addCompletedElevatorRequests(completedRequest);
+		dispatch(completedRequest.getGroupId(), new Runnable() {
+			@Override
+			public void run() {
+				getSchedulerContext(completedRequest.getGroupId()).addCompletedElevatorRequests(completedRequest);
+			}
+		});
 	}
 
 	/**
@@ -230,24 +388,58 @@ public class SchedulerSubsystem implements Runnable {
 	 * @throws IOException
 	 */
 	public void sendCompletedElevatorRequest(ElevatorRequest completedRequest) throws IOException {
-		Thread task;
-		task = new Thread(new Runnable() {
+		dispatch(completedRequest.getGroupId(), new Runnable() {
 			@Override
 			public void run() {
-				byte[] data;
+				SimulatorConfiguration groupConfiguration = getGroupConfiguration(completedRequest.getGroupId());
 				try {
-					UDPClient socket = new UDPClient();
-					data = completedRequest.encode();
-					socket.sendMessage(data, simulatorConfiguration.FLOOR_SUBSYSTEM_HOST,
-							simulatorConfiguration.FLOOR_SUBSYSTEM_COMPLETED_REQ_PORT);
-					socket.close();
+					transport.send(completedRequest, groupConfiguration.FLOOR_SUBSYSTEM_HOST,
+							groupConfiguration.FLOOR_SUBSYSTEM_COMPLETED_REQ_PORT);
 				} catch (IOException e) {
 					e.printStackTrace();
 				}
-				schedulerContext.onRequestSent();
+				getSchedulerContext(completedRequest.getGroupId()).onRequestSent();
 			}
 		});
-		task.start();
+	}
+
+	/**
+	 * Get the registry the groups record their metrics into.
+	 * 
+	 * @return MetricsRegistry, the metrics registry
+	 */
+	public MetricsRegistry getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Get the current time of the scheduler, the clock the call times of the
+	 * requests are read against.
+	 * 
+	 * @return long, the time in ms
+	 */
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Getter for the scheduler context of an elevator group.
+	 * 
+	 * @param groupId int, the group id
+	 * @return SchedulerContext, the context of the group
+	 */
+	public SchedulerContext getSchedulerContext(int groupId) {
+		return schedulerContexts.get(groupId);
+	}
+
+	/**
+	 * Getter for the configuration of an elevator group.
+	 * 
+	 * @param groupId int, the group id
+	 * @return SimulatorConfiguration, the configuration of the group
+	 */
+	public SimulatorConfiguration getGroupConfiguration(int groupId) {
+		return groupConfigurations.get(groupId);
 	}
 
 	/**
@@ -291,7 +483,10 @@ public class SchedulerSubsystem implements Runnable {
 	 * 
 	 * @param message String, the string to be displayed
 	 */
-	private void printLog(String message) {
+	protected void printLog(String message) {
+		if (logConsole == null) {
+			return;
+		}
 		Timestamp currentTime = new Timestamp(System.currentTimeMillis());
 		String output = String.format("[%s] : %s\n", currentTime, message);
 		//System.out.println(output);
@@ -0,0 +1,188 @@
+package main.java.simulation;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import main.java.SimulatorConfiguration;
+
+/**
+ * Runs every combination of dispatch strategy, car count, traffic profile and
+ * seed as an isolated Simulation, in parallel across the cores with a
+ * ForkJoinPool, and writes the KPIs of every run to a CSV file. Runs are in
+ * process: no port is bound and no window is opened.
+ *
+ * Usage: ParameterSweep output.csv strategies carCounts profiles seeds
+ * [passengers] [durationMinutes], lists being comma separated, e.g.
+ * ParameterSweep sweep.csv closest-car 1,2,4 UNIFORM,UP_PEAK 10 200 30
+ * 
+ * @author Bobby Ngo
+ */
+public class ParameterSweep {
+	private final Properties baseProperties;
+	private final int passengers;
+	private final long duration;
+
+	/**
+	 * Constructor for the parameter sweep.
+	 * 
+	 * @param baseProperties Properties, the configuration every scenario
+	 *                       overrides
+	 * @param passengers     int, the number of requests of each run
+	 * @param duration       long, the time span of the calls of each run in ms
+	 */
+	public ParameterSweep(Properties baseProperties, int passengers, long duration) {
+		this.baseProperties = baseProperties;
+		this.passengers = passengers;
+		this.duration = duration;
+	}
+
+	/**
+	 * Build the cross product of the sweep parameters.
+	 * 
+	 * @param strategies String[], the dispatch strategies
+	 * @param carCounts  int[], the numbers of cars
+	 * @param profiles   TrafficProfile[], the traffic profiles
+	 * @param seeds      long[], the seeds
+	 * @return List, the scenarios
+	 */
+	public static List<Scenario> crossProduct(String[] strategies, int[] carCounts, TrafficProfile[] profiles,
+			long[] seeds) {
+		List<Scenario> scenarios = new ArrayList<>();
+		for (String strategy : strategies) {
+			for (int carCount : carCounts) {
+				for (TrafficProfile profile : profiles) {
+					for (long seed : seeds) {
+						scenarios.add(new Scenario(strategy, carCount, profile, seed));
+					}
+				}
+			}
+		}
+		return scenarios;
+	}
+
+	/**
+	 * Run the scenarios in parallel.
+	 * 
+	 * @param scenarios   List, the scenarios
+	 * @param parallelism int, the number of worker threads
+	 * @return List, the results in scenario order
+	 */
+	public List<ScenarioResult> run(List<Scenario> scenarios, int parallelism) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.invoke(new SweepTask(scenarios, 0, scenarios.size()));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Write the results to a CSV file.
+	 * 
+	 * @param results    List, the results
+	 * @param outputPath String, the path of the CSV file
+	 * @throws IOException
+	 */
+	public static void writeCsv(List<ScenarioResult> results, String outputPath) throws IOException {
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath))) {
+			writer.write(ScenarioResult.HEADER);
+			writer.newLine();
+			for (ScenarioResult result : results) {
+				writer.write(result.toCsvLine());
+				writer.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Task running a range of scenarios, split in halves down to single runs.
+	 */
+	private class SweepTask extends RecursiveTask<List<ScenarioResult>> {
+		private static final long serialVersionUID = 1L;
+		private final List<Scenario> scenarios;
+		private final int from;
+		private final int to;
+
+		/**
+		 * Constructor for the task.
+		 * 
+		 * @param scenarios List, the scenarios
+		 * @param from      int, the first scenario index, inclusive
+		 * @param to        int, the last scenario index, exclusive
+		 */
+		SweepTask(List<Scenario> scenarios, int from, int to) {
+			this.scenarios = scenarios;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Run the range of scenarios.
+		 * 
+		 * @return List, the results in scenario order
+		 */
+		@Override
+		protected List<ScenarioResult> compute() {
+			List<ScenarioResult> results = new ArrayList<>();
+			if (to - from == 1) {
+				results.add(new Simulation(baseProperties, scenarios.get(from), passengers, duration).run());
+				return results;
+			}
+			if (to == from) {
+				return results;
+			}
+			int middle = (from + to) >>> 1;
+			SweepTask left = new SweepTask(scenarios, from, middle);
+			left.fork();
+			List<ScenarioResult> right = new SweepTask(scenarios, middle, to).compute();
+			results.addAll(left.join());
+			results.addAll(right);
+			return results;
+		}
+	}
+
+	/**
+	 * Main method.
+	 * 
+	 * @param args String[], the sweep parameters
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 5) {
+			System.out.println("Usage: ParameterSweep output.csv strategies carCounts profiles seeds"
+					+ " [passengers] [durationMinutes]");
+			System.exit(1);
+		}
+		String[] strategies = args[1].split(",");
+		String[] carCountArgs = args[2].split(",");
+		int[] carCounts = new int[carCountArgs.length];
+		for (int i = 0; i < carCounts.length; i++) {
+			carCounts[i] = Integer.parseInt(carCountArgs[i].trim());
+		}
+		String[] profileArgs = args[3].split(",");
+		TrafficProfile[] profiles = new TrafficProfile[profileArgs.length];
+		for (int i = 0; i < profiles.length; i++) {
+			profiles[i] = TrafficProfile.valueOf(profileArgs[i].trim());
+		}
+		long[] seeds = new long[Integer.parseInt(args[4])];
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = i + 1;
+		}
+		int passengers = args.length > 5 ? Integer.parseInt(args[5]) : 200;
+		long duration = (args.length > 6 ? Long.parseLong(args[6]) : 30) * 60 * 1000;
+
+		ParameterSweep sweep = new ParameterSweep(
+				SimulatorConfiguration.loadProperties("./src/main/resources/config.properties"), passengers, duration);
+		List<Scenario> scenarios = crossProduct(strategies, carCounts, profiles, seeds);
+		List<ScenarioResult> results = sweep.run(scenarios, Runtime.getRuntime().availableProcessors());
+		writeCsv(results, args[0]);
+		System.out.println(String.format("%d scenarios written to %s", results.size(), args[0]));
+	}
+
+}
@@ -0,0 +1,78 @@
+package main.java.simulation;
+
+/**
+ * Parameters of one simulated run of a parameter sweep.
+ * 
+ * @author Bobby Ngo
+ */
+public class Scenario {
+	private final String strategy;
+	private final int numElevators;
+	private final TrafficProfile profile;
+	private final long seed;
+
+	/**
+	 * Constructor for the scenario.
+	 * 
+	 * @param strategy     String, the dispatch strategy
+	 * @param numElevators int, the number of cars
+	 * @param profile      TrafficProfile, the passenger traffic
+	 * @param seed         long, the seed of the generated traffic
+	 */
+	public Scenario(String strategy, int numElevators, TrafficProfile profile, long seed) {
+		if (numElevators < 1) {
+			throw new IllegalArgumentException("A scenario needs at least one car");
+		}
+		this.strategy = strategy;
+		this.numElevators = numElevators;
+		this.profile = profile;
+		this.seed = seed;
+	}
+
+	/**
+	 * Getter for the dispatch strategy.
+	 * 
+	 * @return String, the dispatch strategy
+	 */
+	public String getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Getter for the number of cars.
+	 * 
+	 * @return int, the number of cars
+	 */
+	public int getNumElevators() {
+		return numElevators;
+	}
+
+	/**
+	 * Getter for the traffic profile.
+	 * 
+	 * @return TrafficProfile, the passenger traffic
+	 */
+	public TrafficProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * Getter for the seed.
+	 * 
+	 * @return long, the seed of the generated traffic
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Overriding toString method.
+	 * 
+	 * @return String
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s/%d cars/%s/seed %d", strategy, numElevators, profile, seed);
+	}
+
+}
@@ -0,0 +1,117 @@
+package main.java.simulation;
+
+import java.util.Locale;
+
+import main.java.metrics.KpiAnalyzer;
+import main.java.metrics.LatencyHistogram;
+
+/**
+ * KPIs of a simulated run, written as one line of the sweep CSV.
+ * 
+ * @author Bobby Ngo
+ */
+public class ScenarioResult {
+	public static final String HEADER = "strategy,num_elevators,profile,seed,passengers,completed,"
+			+ "wait_mean_ms,wait_p50_ms,wait_p95_ms,wait_p99_ms,wait_max_ms,ride_mean_ms,ride_p95_ms,"
+			+ "total_mean_ms,total_p95_ms,handling_capacity_per_5min,floors_traveled,reversals,door_cycles,"
+			+ "simulated_ms,wall_ms";
+
+	private final Scenario scenario;
+	private final KpiAnalyzer analyzer;
+	private final int passengers;
+	private final int completed;
+	private final long simulatedTime;
+	private final long wallTime;
+
+	/**
+	 * Constructor for the result of a run.
+	 * 
+	 * @param scenario      Scenario, the simulated scenario
+	 * @param analyzer      KpiAnalyzer, the KPIs of the run
+	 * @param passengers    int, the number of generated requests
+	 * @param completed     int, the number of completed requests
+	 * @param simulatedTime long, the virtual time at the end of the run in ms
+	 * @param wallTime      long, the time taken by the run in ms
+	 */
+	public ScenarioResult(Scenario scenario, KpiAnalyzer analyzer, int passengers, int completed, long simulatedTime,
+			long wallTime) {
+		this.scenario = scenario;
+		this.analyzer = analyzer;
+		this.passengers = passengers;
+		this.completed = completed;
+		this.simulatedTime = simulatedTime;
+		this.wallTime = wallTime;
+	}
+
+	/**
+	 * Getter for the scenario.
+	 * 
+	 * @return Scenario, the simulated scenario
+	 */
+	public Scenario getScenario() {
+		return scenario;
+	}
+
+	/**
+	 * Getter for the KPIs.
+	 * 
+	 * @return KpiAnalyzer, the KPIs of the run
+	 */
+	public KpiAnalyzer getAnalyzer() {
+		return analyzer;
+	}
+
+	/**
+	 * Getter for the number of generated requests.
+	 * 
+	 * @return int, the number of passengers
+	 */
+	public int getPassengers() {
+		return passengers;
+	}
+
+	/**
+	 * Getter for the number of completed requests.
+	 * 
+	 * @return int, the number of passengers delivered
+	 */
+	public int getCompleted() {
+		return completed;
+	}
+
+	/**
+	 * Getter for the virtual time at the end of the run.
+	 * 
+	 * @return long, the time in ms
+	 */
+	public long getSimulatedTime() {
+		return simulatedTime;
+	}
+
+	/**
+	 * Format the result as a CSV line in the HEADER column order.
+	 * 
+	 * @return String, the CSV line
+	 */
+	public String toCsvLine() {
+		LatencyHistogram waitTimes = analyzer.getWaitTimes();
+		LatencyHistogram rideTimes = analyzer.getRideTimes();
+		LatencyHistogram totalTimes = analyzer.getTotalTimes();
+		long floorsTraveled = 0;
+		long reversals = 0;
+		long doorCycles = 0;
+		for (KpiAnalyzer.CarKpi car : analyzer.getCars().values()) {
+			floorsTraveled += car.getFloorsTraveled();
+			reversals += car.getReversals();
+			doorCycles += car.getDoorCycles();
+		}
+		return String.format(Locale.ROOT, "%s,%d,%s,%d,%d,%d,%.1f,%d,%d,%d,%d,%.1f,%d,%.1f,%d,%d,%d,%d,%d,%d,%d",
+				scenario.getStrategy(), scenario.getNumElevators(), scenario.getProfile(), scenario.getSeed(),
+				passengers, completed, waitTimes.getMean(), waitTimes.getValueAtPercentile(50),
+				waitTimes.getValueAtPercentile(95), waitTimes.getValueAtPercentile(99), waitTimes.getMax(),
+				rideTimes.getMean(), rideTimes.getValueAtPercentile(95), totalTimes.getMean(),
+				totalTimes.getValueAtPercentile(95), analyzer.getPeakHandlingCapacity(), floorsTraveled, reversals,
+				doorCycles, simulatedTime, wallTime);
+	}
+
+}
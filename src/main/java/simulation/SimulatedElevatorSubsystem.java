@@ -0,0 +1,112 @@
+package main.java.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+
+import main.java.SimulatorConfiguration;
+import main.java.dto.ElevatorRequest;
+import main.java.dto.ElevatorStatus;
+import main.java.elevator.ElevatorContext;
+import main.java.elevator.ElevatorSubsystem;
+
+/**
+ * ElevatorSubsystem of a simulation, hosting every car of the group. Timeouts
+ * run on the virtual clock and messages are delivered through the simulation
+ * instead of UDP.
+ * 
+ * @author Bobby Ngo
+ */
+public class SimulatedElevatorSubsystem extends ElevatorSubsystem {
+	// null while the cars are started by the super constructor
+	private final Simulation simulation;
+
+	/**
+	 * Constructor for the simulated elevator subsystem.
+	 * 
+	 * @param config     SimulatorConfiguration, the configuration of the run
+	 * @param simulation Simulation, the simulation of the run
+	 */
+	public SimulatedElevatorSubsystem(SimulatorConfiguration config, Simulation simulation) {
+		super(config, 0, simulation.getMetrics());
+		this.simulation = simulation;
+	}
+
+	/**
+	 * Getter for the virtual time, the cars are started at time 0.
+	 * 
+	 * @return long, the time in ms from the start of the run
+	 */
+	@Override
+	public long currentTimeMillis() {
+		return simulation == null ? 0 : simulation.getTime();
+	}
+
+	/**
+	 * Schedule the state timeout of a car on the virtual clock.
+	 * 
+	 * @param task  TimerTask, the timeout task
+	 * @param delay int, the delay in ms
+	 */
+	@Override
+	public void scheduleTimeout(TimerTask task, int delay) {
+		simulation.scheduleTimeout(task, delay);
+	}
+
+	/**
+	 * Getter for the executor of the cars. The mailboxes are drained on the
+	 * thread of the simulation, as soon as a message is posted.
+	 * 
+	 * @return Executor, the executor of the cars
+	 */
+	@Override
+	public Executor getCarExecutor() {
+		return Runnable::run;
+	}
+
+	/**
+	 * Cancel the state timeout of a car.
+	 * 
+	 * @param task TimerTask, the timeout task
+	 */
+	@Override
+	public void cancelTimeout(TimerTask task) {
+		simulation.cancelTimeout(task);
+	}
+
+	/**
+	 * Send the status of a car to the scheduler. The initial status sent while
+	 * the cars start is already known to the scheduler and is not sent.
+	 * 
+	 * @param ctx ElevatorContext, the context of the elevator
+	 */
+	@Override
+	public void notifyContextUpdate(ElevatorContext ctx) {
+		if (simulation != null) {
+			simulation.sendArrivalNotification(new ElevatorStatus(ctx));
+		}
+	}
+
+	/**
+	 * Send a completed request to the scheduler.
+	 * 
+	 * @param request ElevatorRequest, the elevator request object
+	 */
+	@Override
+	public void sendCompletedElevatorRequest(ElevatorRequest request) {
+		simulation.sendElevatorCompletedRequest(request);
+	}
+
+	/**
+	 * Return the requests of a faulty car to the scheduler.
+	 * 
+	 * @param requests List, the list of elevator requests
+	 */
+	@Override
+	public void returnElevatorRequests(List<ElevatorRequest> requests) {
+		// the car clears its list once returned
+		simulation.returnElevatorRequests(new ArrayList<>(requests));
+	}
+
+}
@@ -0,0 +1,78 @@
+package main.java.simulation;
+
+import main.java.SimulatorConfiguration;
+import main.java.dto.AssignedElevatorRequest;
+import main.java.dto.ElevatorRequest;
+import main.java.scheduler.SchedulerSubsystem;
+
+/**
+ * SchedulerSubsystem of a simulation. Group tasks run on the virtual clock of
+ * the simulation instead of the group worker threads and messages are
+ * delivered through the simulation instead of UDP.
+ * 
+ * @author Bobby Ngo
+ */
+public class SimulatedSchedulerSubsystem extends SchedulerSubsystem {
+	// null while the groups are registered by the super constructor
+	private final Simulation simulation;
+
+	/**
+	 * Constructor for the simulated scheduler subsystem.
+	 * 
+	 * @param config     SimulatorConfiguration, the configuration of the run
+	 * @param simulation Simulation, the simulation of the run
+	 */
+	public SimulatedSchedulerSubsystem(SimulatorConfiguration config, Simulation simulation) {
+		super(config, simulation.getMetrics());
+		this.simulation = simulation;
+	}
+
+	/**
+	 * Run a group task at the current virtual time. Tasks scheduled while the
+	 * groups are registered resume journal recovery, which simulations do not
+	 * use, and are dropped.
+	 * 
+	 * @param groupId int, the group id
+	 * @param task    Runnable, the task to run
+	 */
+	@Override
+	protected void dispatch(int groupId, Runnable task) {
+		if (simulation != null) {
+			simulation.schedule(0, task);
+		}
+	}
+
+	/**
+	 * Get the virtual time of the simulation.
+	 * 
+	 * @return long, the time in ms from the start of the run
+	 */
+	@Override
+	public long currentTimeMillis() {
+		return simulation == null ? 0 : simulation.getTime();
+	}
+
+	/**
+	 * Send an assigned request to its car.
+	 * 
+	 * @param assignedRequest AssignedElevatorRequest, an assigned elevator request
+	 *                        object
+	 */
+	@Override
+	public void sendPendingRequest(AssignedElevatorRequest assignedRequest) {
+		if (assignedRequest != null) {
+			simulation.sendPendingRequest(assignedRequest);
+		}
+	}
+
+	/**
+	 * Send a completed request to the floor.
+	 * 
+	 * @param completedRequest ElevatorRequest, elevator request object
+	 */
+	@Override
+	public void sendCompletedElevatorRequest(ElevatorRequest completedRequest) {
+		simulation.sendSchedulerCompletedRequest(completedRequest);
+	}
+
+}
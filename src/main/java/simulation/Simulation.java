@@ -0,0 +1,279 @@
+package main.java.simulation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TimerTask;
+
+import main.java.SimulatorConfiguration;
+import main.java.dto.AssignedElevatorRequest;
+import main.java.dto.ElevatorRequest;
+import main.java.dto.ElevatorStatus;
+import main.java.dto.TraceSpan;
+import main.java.metrics.KpiAnalyzer;
+import main.java.metrics.MetricsRegistry;
+import main.java.scheduler.SchedulerContext;
+
+/**
+ * Discrete event simulation of one scenario. The SchedulerContext and the
+ * ElevatorContexts run unchanged on a virtual clock: messages between the
+ * subsystems and the state timeouts of the cars are events of a priority queue
+ * processed on the calling thread, without sockets, timers or log windows. A
+ * run shares no state with the other runs of the process, its metrics are
+ * recorded into its own registry, so runs can execute in parallel.
+ * 
+ * @author Bobby Ngo
+ */
+public class Simulation {
+	// time given to the cars to serve the last calls, in ms
+	public static final long MAX_DRAIN_TIME = 60 * 60 * 1000;
+
+	private final Scenario scenario;
+	private final SimulatorConfiguration configuration;
+	private final List<ElevatorRequest> requests;
+	private final long duration;
+	private final PriorityQueue<Event> events;
+	// pending state timeouts of the cars
+	private final Map<TimerTask, Event> timeouts;
+	private final KpiAnalyzer analyzer;
+	private final MetricsRegistry metrics;
+	private SimulatedSchedulerSubsystem scheduler;
+	private SimulatedElevatorSubsystem elevatorSubsystem;
+	private long time;
+	private long sequence;
+	private int completed;
+
+	/**
+	 * Constructor for the simulation of a scenario.
+	 * 
+	 * @param baseProperties Properties, the configuration the scenario overrides
+	 * @param scenario       Scenario, the scenario to simulate
+	 * @param passengers     int, the number of generated requests
+	 * @param duration       long, the time span of the calls in ms
+	 */
+	public Simulation(Properties baseProperties, Scenario scenario, int passengers, long duration) {
+		Properties properties = new Properties();
+		properties.putAll(baseProperties);
+		properties.setProperty("NUM_ELEVATORS", String.valueOf(scenario.getNumElevators()));
+		properties.setProperty("DISPATCH_STRATEGY", scenario.getStrategy());
+		properties.setProperty("HEADLESS", "true");
+		properties.setProperty("TEST_MODE", "false");
+		// a run is isolated from the deployment: single node, no journal or exports
+		properties.remove("ELEVATOR_NODES");
+		properties.remove("SCHEDULER_GROUP_CONFIGS");
+		properties.remove("JOURNAL_DIR");
+		properties.remove("CAPTURE_PATH");
+		properties.remove("JOURNEY_EXPORT_PATH");
+
+		this.scenario = scenario;
+		this.configuration = new SimulatorConfiguration(properties);
+		this.duration = duration;
+		this.events = new PriorityQueue<>();
+		this.timeouts = new HashMap<>();
+		this.analyzer = new KpiAnalyzer(scenario.getStrategy());
+		this.metrics = new MetricsRegistry();
+		this.requests = scenario.getProfile().generate(configuration.NUM_FLOORS, passengers, duration,
+				new Random(scenario.getSeed()));
+		for (ElevatorRequest request : requests) {
+			request.setGroupId(configuration.GROUP_ID);
+		}
+	}
+
+	/**
+	 * Run the scenario until every request is completed or the drain time is
+	 * over.
+	 * 
+	 * @return ScenarioResult, the KPIs of the run
+	 */
+	public ScenarioResult run() {
+		long startNanos = System.nanoTime();
+		scheduler = new SimulatedSchedulerSubsystem(configuration, this);
+		elevatorSubsystem = new SimulatedElevatorSubsystem(configuration, this);
+		SchedulerContext schedulerContext = scheduler.getSchedulerContext(configuration.GROUP_ID);
+
+		for (ElevatorRequest request : requests) {
+			schedule(request.getTimeMillis() - time, () -> {
+				request.stamp(TraceSpan.SCHEDULER_RECEIVED, time);
+				schedulerContext.addPendingElevatorRequests(request);
+			});
+		}
+		while (completed < requests.size() && !events.isEmpty()) {
+			Event event = events.poll();
+			if (event.cancelled) {
+				continue;
+			}
+			if (event.time > duration + MAX_DRAIN_TIME) {
+				break;
+			}
+			time = event.time;
+			if (event.action instanceof TimerTask) {
+				timeouts.remove(event.action);
+			}
+			event.action.run();
+		}
+		return new ScenarioResult(scenario, analyzer, requests.size(), completed, time,
+				(System.nanoTime() - startNanos) / 1000000);
+	}
+
+	/**
+	 * Getter for the virtual time.
+	 * 
+	 * @return long, the time in ms from the start of the run
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Getter for the registry the subsystems of the run record their metrics
+	 * into, timed on the virtual clock.
+	 * 
+	 * @return MetricsRegistry, the metrics registry of the run
+	 */
+	public MetricsRegistry getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Schedule an action on the virtual clock. Actions due at the same time run
+	 * in scheduling order.
+	 * 
+	 * @param delay  long, the delay in ms
+	 * @param action Runnable, the action
+	 * @return Event, the scheduled event
+	 */
+	Event schedule(long delay, Runnable action) {
+		Event event = new Event(time + Math.max(0, delay), sequence++, action);
+		events.add(event);
+		return event;
+	}
+
+	/**
+	 * Schedule the state timeout of a car.
+	 * 
+	 * @param task  TimerTask, the timeout task
+	 * @param delay long, the delay in ms
+	 */
+	void scheduleTimeout(TimerTask task, long delay) {
+		timeouts.put(task, schedule(delay, task));
+	}
+
+	/**
+	 * Cancel the state timeout of a car.
+	 * 
+	 * @param task TimerTask, the timeout task
+	 */
+	void cancelTimeout(TimerTask task) {
+		Event event = timeouts.remove(task);
+		if (event != null) {
+			event.cancelled = true;
+		}
+	}
+
+	/**
+	 * Deliver the status of a car to the scheduler.
+	 * 
+	 * @param status ElevatorStatus, the status of the car
+	 */
+	void sendArrivalNotification(ElevatorStatus status) {
+		schedule(0, () -> {
+			analyzer.addStatus(status);
+			SchedulerContext schedulerContext = scheduler.getSchedulerContext(status.getGroupId());
+			schedulerContext.modifyAvailableElevatorStatus(status.getElevatorId() - 1, status);
+			schedulerContext.onRequestReceived();
+		});
+	}
+
+	/**
+	 * Deliver a request completed by a car to the scheduler.
+	 * 
+	 * @param request ElevatorRequest, the completed request
+	 */
+	void sendElevatorCompletedRequest(ElevatorRequest request) {
+		schedule(0, () -> scheduler.getSchedulerContext(request.getGroupId()).addCompletedElevatorRequests(request));
+	}
+
+	/**
+	 * Return the requests of a faulty car to the scheduler.
+	 * 
+	 * @param returned List, the returned requests
+	 */
+	void returnElevatorRequests(List<ElevatorRequest> returned) {
+		for (ElevatorRequest request : returned) {
+			schedule(0, () -> scheduler.getSchedulerContext(request.getGroupId()).addPendingElevatorRequests(request));
+		}
+	}
+
+	/**
+	 * Deliver an assigned request to its car.
+	 * 
+	 * @param assignedRequest AssignedElevatorRequest, the assigned request
+	 */
+	void sendPendingRequest(AssignedElevatorRequest assignedRequest) {
+		schedule(0, () -> {
+			assignedRequest.stamp(TraceSpan.CAR_RECEIVED, time);
+			elevatorSubsystem.getElevator(assignedRequest.getElevatorId()).onRequestReceived(assignedRequest);
+			scheduler.getSchedulerContext(assignedRequest.getGroupId()).onRequestSent();
+		});
+	}
+
+	/**
+	 * Deliver a completed request to the floor, ending the journey of the
+	 * passenger.
+	 * 
+	 * @param request ElevatorRequest, the completed request
+	 */
+	void sendSchedulerCompletedRequest(ElevatorRequest request) {
+		schedule(0, () -> {
+			request.stamp(TraceSpan.FLOOR_COMPLETED, time);
+			long call = request.getTimeMillis();
+			long boarded = request.getSpan(TraceSpan.BOARDED);
+			long alighted = request.getSpan(TraceSpan.ALIGHTED);
+			int elevatorId = request instanceof AssignedElevatorRequest
+					? ((AssignedElevatorRequest) request).getElevatorId()
+					: 0;
+			analyzer.addJourney(elevatorId, boarded - call, alighted - boarded, time - call, time);
+			completed++;
+			scheduler.getSchedulerContext(request.getGroupId()).onRequestSent();
+		});
+	}
+
+	/**
+	 * Event of the virtual clock.
+	 */
+	static class Event implements Comparable<Event> {
+		private final long time;
+		private final long sequence;
+		private final Runnable action;
+		private boolean cancelled;
+
+		/**
+		 * Constructor for the event.
+		 * 
+		 * @param time     long, the due time in ms
+		 * @param sequence long, the scheduling order
+		 * @param action   Runnable, the action
+		 */
+		Event(long time, long sequence, Runnable action) {
+			this.time = time;
+			this.sequence = sequence;
+			this.action = action;
+		}
+
+		/**
+		 * Order events by due time, then by scheduling order.
+		 * 
+		 * @param other Event, the other event
+		 * @return int, the comparison result
+		 */
+		@Override
+		public int compareTo(Event other) {
+			int byTime = Long.compare(time, other.time);
+			return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+		}
+	}
+
+}
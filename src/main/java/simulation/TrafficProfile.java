@@ -0,0 +1,68 @@
+package main.java.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import main.java.dto.ElevatorRequest;
+import main.java.elevator.Direction;
+
+/**
+ * Passenger traffic profiles generating the hall calls of a simulated run.
+ * 
+ * @author Bobby Ngo
+ */
+public enum TrafficProfile {
+	// source and destination floors uniformly distributed
+	UNIFORM,
+	// most passengers travel up from the lobby
+	UP_PEAK,
+	// most passengers travel down to the lobby
+	DOWN_PEAK;
+
+	// share of the peak passengers in the peak profiles
+	private static final double PEAK_SHARE = 0.85;
+
+	/**
+	 * Generate the requests of a run, sorted by call time. Call times are virtual
+	 * times in ms from the start of the run.
+	 * 
+	 * @param numFloors  int, the number of floors
+	 * @param passengers int, the number of requests
+	 * @param duration   long, the time span of the calls in ms
+	 * @param random     Random, the seeded generator of the run
+	 * @return List, the elevator requests
+	 */
+	public List<ElevatorRequest> generate(int numFloors, int passengers, long duration, Random random) {
+		long[] callTimes = new long[passengers];
+		for (int i = 0; i < passengers; i++) {
+			callTimes[i] = (long) (random.nextDouble() * duration);
+		}
+		Arrays.sort(callTimes);
+
+		List<ElevatorRequest> requests = new ArrayList<>(passengers);
+		for (long callTime : callTimes) {
+			int source;
+			int destination;
+			boolean peak = random.nextDouble() < PEAK_SHARE;
+			if (this == UP_PEAK && peak) {
+				source = 1;
+				destination = 2 + random.nextInt(numFloors - 1);
+			} else if (this == DOWN_PEAK && peak) {
+				source = 2 + random.nextInt(numFloors - 1);
+				destination = 1;
+			} else {
+				source = 1 + random.nextInt(numFloors);
+				destination = 1 + random.nextInt(numFloors - 1);
+				if (destination >= source) {
+					destination++;
+				}
+			}
+			requests.add(new ElevatorRequest(callTime, source,
+					destination > source ? Direction.UP : Direction.DOWN, destination, null));
+		}
+		return requests;
+	}
+
+}
@@ -0,0 +1,10 @@
+/**
+ * This package contains the in-process simulation of the Elevator Control
+ * System & Simulator: a discrete event simulation of the scheduler and the
+ * elevator cars on a virtual clock, and the parameter sweep runner executing
+ * many isolated scenarios in parallel.
+ * 
+ * @version 1.0, 02/04/23
+ * @since 1.0, 02/04/23
+ */
+package main.java.simulation;
@@ -0,0 +1,30 @@
+package main.java.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The receiving side of a port bound on a Transport. An endpoint is read by a
+ * single listener thread.
+ *
+ * @param <T> the type of the messages received
+ * @author Zakaria Ismail
+ */
+public interface Endpoint<T> extends Closeable {
+
+	/**
+	 * Wait for the next message sent to the port.
+	 *
+	 * @return T, the message, owned by the caller
+	 * @throws IOException if the message cannot be read or is not of the type of
+	 *                     the endpoint
+	 */
+	T receive() throws IOException;
+
+	/**
+	 * Unbind the port.
+	 */
+	@Override
+	void close();
+
+}
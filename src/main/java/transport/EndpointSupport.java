@@ -0,0 +1,34 @@
+package main.java.transport;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+/**
+ * Helpers shared by the endpoints of the transports.
+ *
+ * @author Zakaria Ismail
+ */
+final class EndpointSupport {
+
+	private EndpointSupport() {
+	}
+
+	/**
+	 * Check the type of a received message.
+	 *
+	 * @param <T>     the type of the messages of the endpoint
+	 * @param message Object, the received message
+	 * @param type    Class, the type of the messages of the endpoint
+	 * @param port    int, the port of the endpoint
+	 * @return T, the message
+	 * @throws IOException if the message is of another type
+	 */
+	static <T> T cast(Object message, Class<T> type, int port) throws IOException {
+		if (!type.isInstance(message)) {
+			throw new StreamCorruptedException(String.format("Unexpected %s on port %d, expected %s",
+					message == null ? "null" : message.getClass().getSimpleName(), port, type.getSimpleName()));
+		}
+		return type.cast(message);
+	}
+
+}
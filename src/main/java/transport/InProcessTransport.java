@@ -0,0 +1,114 @@
+package main.java.transport;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transport handing the DTOs to the endpoints of the same JVM through lock-free
+ * queues, without encoding them. The host of a destination is ignored, every
+ * port is local. Messages sent to a port before it is bound wait in its queue.
+ *
+ * @author Zakaria Ismail
+ */
+public class InProcessTransport implements Transport {
+	private static InProcessTransport defaultTransport;
+	// key: port
+	private final ConcurrentHashMap<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+	/**
+	 * Get the in-process transport of this JVM.
+	 *
+	 * @return InProcessTransport, the transport
+	 */
+	public static synchronized InProcessTransport getDefault() {
+		if (defaultTransport == null) {
+			defaultTransport = new InProcessTransport();
+		}
+		return defaultTransport;
+	}
+
+	@Override
+	public <T> Endpoint<T> bind(int port, Class<T> type) {
+		Mailbox mailbox = mailboxes.computeIfAbsent(port, p -> new Mailbox());
+		synchronized (mailbox) {
+			if (mailbox.bound) {
+				throw new IllegalStateException("Port " + port + " is already bound");
+			}
+			mailbox.bound = true;
+		}
+		return new Endpoint<T>() {
+			@Override
+			public T receive() throws IOException {
+				return EndpointSupport.cast(mailbox.take(), type, port);
+			}
+
+			@Override
+			public void close() {
+				mailboxes.remove(port, mailbox);
+				mailbox.close();
+			}
+		};
+	}
+
+	@Override
+	public void send(Object message, String host, int port) {
+		mailboxes.computeIfAbsent(port, p -> new Mailbox()).put(message);
+	}
+
+	/**
+	 * Queue of the messages of a port, with many producers and the single
+	 * listener thread of the endpoint as consumer.
+	 */
+	private static class Mailbox {
+		private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+		private volatile Thread consumer;
+		private volatile boolean closed;
+		private boolean bound;
+
+		/**
+		 * Add a message and wake the consumer up.
+		 *
+		 * @param message Object, the message
+		 */
+		private void put(Object message) {
+			queue.offer(message);
+			Thread waiting = consumer;
+			if (waiting != null) {
+				LockSupport.unpark(waiting);
+			}
+		}
+
+		/**
+		 * Wait for the next message.
+		 *
+		 * @return Object, the message
+		 * @throws IOException if the endpoint was closed
+		 */
+		private Object take() throws IOException {
+			consumer = Thread.currentThread();
+			Object message;
+			// a put after the poll unparks the consumer, so the park returns
+			while ((message = queue.poll()) == null) {
+				if (closed) {
+					throw new IOException("Endpoint closed");
+				}
+				LockSupport.park(this);
+			}
+			return message;
+		}
+
+		/**
+		 * Close the mailbox and wake the consumer up.
+		 */
+		private void close() {
+			closed = true;
+			Thread waiting = consumer;
+			if (waiting != null) {
+				LockSupport.unpark(waiting);
+			}
+		}
+	}
+
+}
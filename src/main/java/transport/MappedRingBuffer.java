@@ -0,0 +1,190 @@
+package main.java.transport;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+
+/**
+ * Ring buffer of messages in a memory-mapped file, with many producers in any
+ * process of the host and a single consumer. A producer claims the space of a
+ * record by a compare-and-set of the tail, writes the payload and publishes
+ * the record by writing its length last. The consumer reads a record once its
+ * length is published, zeroes it and releases the space by moving the head. A
+ * record that does not fit before the end of the ring is preceded by a padding
+ * record, written as a negative length, and starts over at the beginning. A
+ * record takes at most half the ring, so that it fits an empty ring wherever
+ * the tail is, padding included.
+ *
+ * Messages left in the ring when the consumer stops are read when it binds the
+ * port again, delete the ring file to start clean.
+ *
+ * @author Zakaria Ismail
+ */
+final class MappedRingBuffer {
+	private static final int MAGIC = 0x45435252; // "ECRR"
+	private static final int MAGIC_OFFSET = 0;
+	private static final int CAPACITY_OFFSET = 4;
+	// the counters are on their own cache lines, producers and consumer race
+	private static final int TAIL_OFFSET = 64;
+	private static final int HEAD_OFFSET = 128;
+	private static final int DATA_OFFSET = 192;
+	private static final int RECORD_HEADER_SIZE = 4;
+	private static final int ALIGNMENT = 8;
+	private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+	private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.nativeOrder());
+
+	private final MappedByteBuffer buffer;
+	private final int capacity;
+	private final int mask;
+	// consumer side only
+	private final ByteBuffer view;
+	private int recordLength;
+
+	/**
+	 * Constructor mapping the ring file, created with the given capacity if it
+	 * does not exist yet. An existing ring keeps its capacity.
+	 *
+	 * @param path     Path, the ring file
+	 * @param capacity int, the capacity of the ring in bytes, a power of two
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the capacity is not a power of two or
+	 *                                  the file is not a ring
+	 */
+	MappedRingBuffer(Path path, int capacity) throws IOException {
+		if (capacity < ALIGNMENT || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Ring capacity " + capacity + " is not a power of two");
+		}
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+				FileChannel channel = file.getChannel()) {
+			// the first process maps and formats the file, the others wait for it
+			FileLock lock = channel.lock();
+			try {
+				if (file.length() < DATA_OFFSET) {
+					file.setLength(DATA_OFFSET + (long) capacity);
+					buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET + (long) capacity);
+					INT.setVolatile(buffer, CAPACITY_OFFSET, capacity);
+					INT.setVolatile(buffer, MAGIC_OFFSET, MAGIC);
+				} else {
+					buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+					if ((int) INT.getVolatile(buffer, MAGIC_OFFSET) != MAGIC) {
+						throw new IllegalArgumentException(path + " is not a ring buffer");
+					}
+					capacity = (int) INT.getVolatile(buffer, CAPACITY_OFFSET);
+				}
+			} finally {
+				lock.release();
+			}
+		}
+		this.capacity = capacity;
+		mask = capacity - 1;
+		view = buffer.duplicate();
+	}
+
+	/**
+	 * Add a message to the ring.
+	 *
+	 * @param data byte[], the message, not empty
+	 * @return boolean, false if the ring is full
+	 * @throws IllegalArgumentException if the message is empty or its record
+	 *                                  takes more than half the ring
+	 */
+	boolean offer(byte[] data) {
+		int length = align(RECORD_HEADER_SIZE + data.length);
+		if (data.length == 0 || length > capacity / 2) {
+			throw new IllegalArgumentException("Message of " + data.length + " bytes does not fit in the ring");
+		}
+		long tail;
+		int index;
+		int required;
+		do {
+			long head = (long) LONG.getVolatile(buffer, HEAD_OFFSET);
+			tail = (long) LONG.getVolatile(buffer, TAIL_OFFSET);
+			index = (int) (tail & mask);
+			int toEnd = capacity - index;
+			required = length <= toEnd ? length : toEnd + length;
+			if (tail + required - head > capacity) {
+				return false;
+			}
+		} while (!LONG.compareAndSet(buffer, TAIL_OFFSET, tail, tail + required));
+
+		if (required != length) {
+			INT.setRelease(buffer, DATA_OFFSET + index, index - capacity);
+			index = 0;
+		}
+		int position = DATA_OFFSET + index;
+		for (int i = 0; i < data.length; i++) {
+			buffer.put(position + RECORD_HEADER_SIZE + i, data[i]);
+		}
+		INT.setRelease(buffer, position, data.length);
+		return true;
+	}
+
+	/**
+	 * Get the next published message without consuming it. Must be followed by
+	 * release once the message is read.
+	 *
+	 * @return ByteBuffer, a view positioned at the message with its limit at the
+	 *         end, reused by every call, null if no message is published
+	 */
+	ByteBuffer peek() {
+		while (true) {
+			long head = (long) LONG.getVolatile(buffer, HEAD_OFFSET);
+			int position = DATA_OFFSET + (int) (head & mask);
+			int length = (int) INT.getAcquire(buffer, position);
+			if (length == 0) {
+				return null;
+			}
+			if (length < 0) {
+				// padding up to the end of the ring
+				advance(head, position, -length);
+				continue;
+			}
+			recordLength = align(RECORD_HEADER_SIZE + length);
+			view.limit(position + RECORD_HEADER_SIZE + length);
+			view.position(position + RECORD_HEADER_SIZE);
+			return view;
+		}
+	}
+
+	/**
+	 * Consume the message returned by the last peek.
+	 */
+	void release() {
+		long head = (long) LONG.getVolatile(buffer, HEAD_OFFSET);
+		advance(head, DATA_OFFSET + (int) (head & mask), recordLength);
+	}
+
+	/**
+	 * Zero a record and move the head past it, zeroed space reads as not
+	 * published to the next consumer.
+	 *
+	 * @param head     long, the head
+	 * @param position int, the position of the record
+	 * @param length   int, the length of the record
+	 */
+	private void advance(long head, int position, int length) {
+		for (int i = 0; i < length; i += ALIGNMENT) {
+			buffer.putLong(position + i, 0);
+		}
+		LONG.setRelease(buffer, HEAD_OFFSET, head + length);
+	}
+
+	/**
+	 * Round a length up to the record alignment.
+	 *
+	 * @param length int, the length
+	 * @return int, the aligned length
+	 */
+	private static int align(int length) {
+		return (length + ALIGNMENT - 1) & -ALIGNMENT;
+	}
+
+}
@@ -0,0 +1,121 @@
+package main.java.transport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+import main.java.dto.MessageCodec;
+
+/**
+ * Transport for subsystems in separate JVMs of the same host, through one
+ * memory-mapped ring buffer file per port in a shared directory. The messages
+ * are encoded with the MessageCodec and decoded straight from the mapped file.
+ * The host of a destination is ignored, every port is on this host. A message
+ * sent to a full ring is dropped, like a datagram. A message may take at most
+ * half a ring.
+ *
+ * @author Zakaria Ismail
+ */
+public class SharedMemoryTransport implements Transport {
+	// spins before the receiver falls back to parking between polls
+	private static final int MAX_SPINS = 10000;
+	private static final long PARK_NANOS = 50000;
+	// key: directory
+	private static final Map<Path, SharedMemoryTransport> transports = new HashMap<>();
+
+	private final Path directory;
+	private final int ringSize;
+	// key: port
+	private final ConcurrentHashMap<Integer, MappedRingBuffer> rings = new ConcurrentHashMap<>();
+	private final Set<Integer> boundPorts = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Constructor for the shared memory transport.
+	 *
+	 * @param directory Path, the directory of the ring files
+	 * @param ringSize  int, the capacity of a new ring in bytes, a power of two
+	 */
+	private SharedMemoryTransport(Path directory, int ringSize) {
+		this.directory = directory;
+		this.ringSize = ringSize;
+	}
+
+	/**
+	 * Get the shared memory transport of this process for a directory.
+	 *
+	 * @param directory String, the directory of the ring files
+	 * @param ringSize  int, the capacity of a new ring in bytes, a power of two
+	 * @return SharedMemoryTransport, the transport
+	 */
+	public static synchronized SharedMemoryTransport getDefault(String directory, int ringSize) {
+		Path path = Paths.get(directory).toAbsolutePath().normalize();
+		return transports.computeIfAbsent(path, p -> new SharedMemoryTransport(p, ringSize));
+	}
+
+	/**
+	 * Get the ring of a port, mapping it on first use.
+	 *
+	 * @param port int, the port number
+	 * @return MappedRingBuffer, the ring
+	 * @throws UncheckedIOException if the ring file cannot be mapped
+	 */
+	private MappedRingBuffer getRing(int port) {
+		return rings.computeIfAbsent(port, p -> {
+			try {
+				Files.createDirectories(directory);
+				return new MappedRingBuffer(directory.resolve("port-" + p + ".ring"), ringSize);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	@Override
+	public <T> Endpoint<T> bind(int port, Class<T> type) {
+		if (!boundPorts.add(port)) {
+			throw new IllegalStateException("Port " + port + " is already bound");
+		}
+		MappedRingBuffer ring = getRing(port);
+		return new Endpoint<T>() {
+			@Override
+			public T receive() throws IOException {
+				int spins = 0;
+				ByteBuffer data;
+				while ((data = ring.peek()) == null) {
+					if (spins < MAX_SPINS) {
+						spins++;
+						Thread.onSpinWait();
+					} else {
+						LockSupport.parkNanos(PARK_NANOS);
+					}
+				}
+				try {
+					return EndpointSupport.cast(MessageCodec.decode(data), type, port);
+				} finally {
+					ring.release();
+				}
+			}
+
+			@Override
+			public void close() {
+				boundPorts.remove(port);
+			}
+		};
+	}
+
+	@Override
+	public void send(Object message, String host, int port) throws IOException {
+		if (!getRing(port).offer(MessageCodec.encode(message))) {
+			System.out.println(String.format("Dropping message to port %d, ring full", port));
+		}
+	}
+
+}
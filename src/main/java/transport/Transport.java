@@ -0,0 +1,55 @@
+package main.java.transport;
+
+import java.io.IOException;
+
+import main.java.SimulatorConfiguration;
+
+/**
+ * Carries the messages between the subsystems. A subsystem binds an endpoint
+ * on each port it listens to and sends DTOs to the host and port of its peers.
+ * A message is handed over on send: the sender must not modify it afterwards,
+ * since an in-process transport delivers the same instance.
+ *
+ * @author Zakaria Ismail
+ */
+public interface Transport {
+
+	/**
+	 * Bind an endpoint receiving the messages sent to a port.
+	 *
+	 * @param <T>  the type of the messages
+	 * @param port int, the port number
+	 * @param type Class, the type of the messages
+	 * @return Endpoint, the bound endpoint
+	 */
+	<T> Endpoint<T> bind(int port, Class<T> type);
+
+	/**
+	 * Send a message to the endpoint bound to a port of a host.
+	 *
+	 * @param message Object, the DTO sent
+	 * @param host    String, the destination host
+	 * @param port    int, the destination port number
+	 * @throws IOException
+	 */
+	void send(Object message, String host, int port) throws IOException;
+
+	/**
+	 * Get the process wide transport selected by the TRANSPORT property of a
+	 * configuration.
+	 *
+	 * @param config SimulatorConfiguration, the configuration
+	 * @return Transport, the transport
+	 */
+	static Transport forConfiguration(SimulatorConfiguration config) {
+		switch (config.TRANSPORT) {
+		case IN_PROCESS:
+			return InProcessTransport.getDefault();
+		case SHARED_MEMORY:
+			return SharedMemoryTransport.getDefault(config.TRANSPORT_DIR, config.TRANSPORT_RING_SIZE);
+		default:
+			return UdpTransport.getDefault();
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package main.java.transport;
+
+/**
+ * Transports between the subsystems, selected by the TRANSPORT configuration
+ * property.
+ *
+ * @author Zakaria Ismail
+ */
+public enum TransportType {
+	// datagrams, subsystems on any host
+	UDP("udp"),
+	// lock-free queues, every subsystem in one JVM
+	IN_PROCESS("in-process"),
+	// memory-mapped ring buffers, subsystems in separate JVMs of one host
+	SHARED_MEMORY("shared-memory");
+
+	private final String name;
+
+	/**
+	 * Constructor for the transport type.
+	 *
+	 * @param name String, the name used in the configuration
+	 */
+	private TransportType(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Get the transport type of a configuration name.
+	 *
+	 * @param name String, the name used in the configuration
+	 * @return TransportType, the transport type
+	 */
+	public static TransportType fromName(String name) {
+		for (TransportType type : values()) {
+			if (type.name.equals(name)) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("Unknown transport " + name);
+	}
+
+	/**
+	 * Overriding toString method.
+	 *
+	 * @return String, the name used in the configuration
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -0,0 +1,53 @@
+package main.java.transport;
+
+import java.io.IOException;
+
+import main.java.UDPClient;
+import main.java.dto.MessageCodec;
+
+/**
+ * Transport sending every message as UDP datagrams through the UDPClient. The
+ * messages are encoded with the MessageCodec and decoded from the reused
+ * receive buffer of the endpoint.
+ *
+ * @author Zakaria Ismail
+ */
+public class UdpTransport implements Transport {
+	private static UdpTransport defaultTransport;
+	// DatagramSocket.send is thread safe, one socket serves every sender
+	private final UDPClient sender = new UDPClient();
+
+	/**
+	 * Get the UDP transport of this process.
+	 *
+	 * @return UdpTransport, the transport
+	 */
+	public static synchronized UdpTransport getDefault() {
+		if (defaultTransport == null) {
+			defaultTransport = new UdpTransport();
+		}
+		return defaultTransport;
+	}
+
+	@Override
+	public <T> Endpoint<T> bind(int port, Class<T> type) {
+		UDPClient receiver = new UDPClient(port);
+		return new Endpoint<T>() {
+			@Override
+			public T receive() throws IOException {
+				return EndpointSupport.cast(MessageCodec.decode(receiver.receive()), type, port);
+			}
+
+			@Override
+			public void close() {
+				receiver.close();
+			}
+		};
+	}
+
+	@Override
+	public void send(Object message, String host, int port) throws IOException {
+		sender.sendMessage(MessageCodec.encode(message), host, port);
+	}
+
+}
@@ -0,0 +1,10 @@
+/**
+ * This package contains the transports carrying the messages between the
+ * subsystems of the Elevator Control System & Simulator: UDP datagrams, lock-free
+ * in-process queues and memory-mapped ring buffers for separate JVMs of one
+ * host.
+ * 
+ * @version 1.0, 02/04/23
+ * @since 1.0, 02/04/23
+ */
+package main.java.transport;
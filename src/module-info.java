@@ -8,4 +8,9 @@ module elevatorControlSystemAndSimulator {
 	requires java.sql;
 	requires junit;
 	requires java.desktop;
+	requires java.management;
+	requires jdk.httpserver;
+
+	// the metrics MXBean is introspected by JMX
+	exports main.java.metrics to java.management;
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package test.java;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import main.java.ElevatorTopology;
+
+/**
+ * ElevatorTopologyTest tests and validates the parsing of the elevator
+ * topology.
+ *
+ * @author Zakaria Ismail
+ */
+public class ElevatorTopologyTest {
+
+	/**
+	 * Test that elevators are routed to the node hosting them.
+	 */
+	@Test
+	public void testParse() {
+		ElevatorTopology topology = ElevatorTopology.parse("127.0.0.1:5101:1-2, 127.0.0.1:5102:3-4", 4);
+		assertEquals(2, topology.getNumNodes());
+		assertEquals(5101, topology.getNodeForElevator(2).getPort());
+		assertEquals(5102, topology.getNodeForElevator(3).getPort());
+		assertEquals(3, topology.getNode(1).getFirstElevatorId());
+	}
+
+	/**
+	 * Test the default single node topology.
+	 */
+	@Test
+	public void testSingleNode() {
+		ElevatorTopology topology = new ElevatorTopology("127.0.0.1", 5101, 4);
+		assertEquals(1, topology.getNumNodes());
+		assertEquals(topology.getNode(0), topology.getNodeForElevator(4));
+	}
+
+	/**
+	 * Test that an elevator without a node is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingElevator() {
+		ElevatorTopology.parse("127.0.0.1:5101:1-2", 4);
+	}
+
+	/**
+	 * Test that overlapping ranges are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOverlappingNodes() {
+		ElevatorTopology.parse("127.0.0.1:5101:1-3,127.0.0.1:5102:3-4", 4);
+	}
+
+}
@@ -0,0 +1,121 @@
+package test.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import main.java.ConfigurationWatcher;
+import main.java.SimulatorConfiguration;
+import main.java.scheduler.DispatchStrategy;
+
+/**
+ * SimulatorConfigurationTest tests the validation, sections and reload of the
+ * configuration.
+ *
+ * @author Zakaria Ismail
+ */
+public class SimulatorConfigurationTest {
+	private static final String CONFIG_PATH = "./src/test/resources/config.properties";
+
+	/**
+	 * Test the defaults and the section overrides.
+	 */
+	@Test
+	public void testDefaultsAndSections() {
+		Properties properties = SimulatorConfiguration.loadProperties(CONFIG_PATH);
+		properties.setProperty("elevator.MOVING_TIME", "123");
+
+		SimulatorConfiguration shared = new SimulatorConfiguration(properties);
+		SimulatorConfiguration elevator = shared.forSection("elevator");
+
+		assertEquals(DispatchStrategy.CLOSEST_CAR, shared.DISPATCH_STRATEGY);
+		assertEquals(0, shared.METRICS_PORT);
+		assertFalse(shared.HEADLESS);
+		assertEquals(123, elevator.MOVING_TIME);
+		assertTrue(shared.MOVING_TIME != 123);
+		assertEquals(shared.NUM_FLOORS, elevator.NUM_FLOORS);
+	}
+
+	/**
+	 * Test that invalid values are rejected with the name of the property.
+	 */
+	@Test
+	public void testValidation() {
+		assertInvalid("MOVING_TIME", "fast");
+		assertInvalid("MOVING_TIME", "-1");
+		assertInvalid("SCHEDULER_PENDING_REQ_PORT", "70000");
+		assertInvalid("HEADLESS", "yes");
+		assertInvalid("DISPATCH_STRATEGY", "random");
+		assertInvalid("NUM_FLOORS", "");
+	}
+
+	/**
+	 * Test that a reload applies the reloadable parameters of a valid file only.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testReload() throws IOException {
+		File file = File.createTempFile("config", ".properties");
+		file.deleteOnExit();
+		Properties properties = SimulatorConfiguration.loadProperties(CONFIG_PATH);
+		store(properties, file);
+		SimulatorConfiguration configuration = new SimulatorConfiguration(file.getPath());
+		int port = configuration.SCHEDULER_PENDING_REQ_PORT;
+		ConfigurationWatcher watcher = new ConfigurationWatcher();
+		watcher.watch(configuration);
+
+		properties.setProperty("LOADING_TIME", "4321");
+		properties.setProperty("SCHEDULER_PENDING_REQ_PORT", String.valueOf(port + 1));
+		store(properties, file);
+		assertTrue(watcher.reload(file.toPath().toAbsolutePath().normalize()));
+		assertEquals(4321, configuration.LOADING_TIME);
+		assertEquals(port, configuration.SCHEDULER_PENDING_REQ_PORT);
+
+		properties.setProperty("LOADING_TIME", "oops");
+		store(properties, file);
+		assertFalse(watcher.reload(file.toPath().toAbsolutePath().normalize()));
+		assertEquals(4321, configuration.LOADING_TIME);
+		watcher.close();
+	}
+
+	/**
+	 * Assert that a configuration with an invalid property is rejected.
+	 *
+	 * @param key   String, the property name
+	 * @param value String, the invalid value
+	 */
+	private void assertInvalid(String key, String value) {
+		Properties properties = SimulatorConfiguration.loadProperties(CONFIG_PATH);
+		properties.setProperty(key, value);
+		try {
+			new SimulatorConfiguration(properties);
+			fail(key + "=" + value + " was accepted");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(key) || e.getMessage().contains(value));
+		}
+	}
+
+	/**
+	 * Write properties to a file.
+	 *
+	 * @param properties Properties, the properties
+	 * @param file       File, the file
+	 * @throws IOException
+	 */
+	private void store(Properties properties, File file) throws IOException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			properties.store(out, null);
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+package test.java;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import main.java.TrafficRecorder;
+import main.java.TrafficReplayer;
+
+/**
+ * TrafficReplayerTest tests recording a traffic capture and replaying it into
+ * port handlers.
+ *
+ * @author Zakaria Ismail
+ */
+public class TrafficReplayerTest {
+
+	/**
+	 * Test that the recorded datagrams are replayed in order into the handler of
+	 * their port, skipping the ports without a handler.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testRecordAndReplay() throws Exception {
+		File capture = File.createTempFile("traffic", ".capture");
+		capture.deleteOnExit();
+		TrafficRecorder recorder = new TrafficRecorder(capture.getPath());
+		byte[] buffer = { 9, 1, 2, 3, 9 };
+		recorder.record(4001, buffer, 1, 3);
+		recorder.record(7000, new byte[] { 4 }, 0, 1);
+		recorder.record(4004, new byte[] { 5, 6 }, 0, 2);
+		recorder.close();
+
+		List<byte[]> pending = new ArrayList<>();
+		List<byte[]> arrivals = new ArrayList<>();
+		Map<Integer, TrafficReplayer.PacketHandler> handlers = new HashMap<>();
+		handlers.put(4001, pending::add);
+		handlers.put(4004, arrivals::add);
+
+		int replayed = new TrafficReplayer(capture.getPath()).replay(handlers, 0);
+		assertEquals(2, replayed);
+		assertEquals(1, pending.size());
+		assertArrayEquals(new byte[] { 1, 2, 3 }, pending.get(0));
+		assertArrayEquals(new byte[] { 5, 6 }, arrivals.get(0));
+	}
+
+}
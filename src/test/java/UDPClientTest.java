@@ -0,0 +1,116 @@
+package test.java;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import main.java.UDPClient;
+
+/**
+ * UDPClientTest tests the framing and fragmentation of the messages sent over
+ * UDP.
+ *
+ * @author Zakaria Ismail
+ */
+public class UDPClientTest {
+
+	/**
+	 * Restore the default max datagram size after every test.
+	 */
+	@After
+	public void tearDown() {
+		UDPClient.setMaxDatagramSize(UDPClient.DEFAULT_DATAGRAM_SIZE);
+	}
+
+	/**
+	 * Test that a message larger than a datagram is fragmented and reassembled,
+	 * and that a small message is received in place.
+	 */
+	@Test
+	public void testFragmentation() {
+		UDPClient.setMaxDatagramSize(64);
+		UDPClient receiver = new UDPClient(0);
+		UDPClient sender = new UDPClient();
+		try {
+			byte[] large = new byte[5000];
+			for (int i = 0; i < large.length; i++) {
+				large[i] = (byte) i;
+			}
+			sender.sendMessage(large, InetAddress.getLoopbackAddress(), receiver.getPort());
+			DatagramPacket packet = receiver.receiveMessage();
+			assertArrayEquals(large, UDPClient.readPacketData(packet));
+
+			sender.sendMessage(new byte[] { 1, 2, 3 }, InetAddress.getLoopbackAddress(), receiver.getPort());
+			ByteBuffer buffer = receiver.receive();
+			assertEquals(3, buffer.remaining());
+			assertEquals(1, buffer.get());
+			assertEquals(3, buffer.get(buffer.limit() - 1));
+		} finally {
+			sender.close();
+			receiver.close();
+		}
+	}
+
+	/**
+	 * Test that a datagram carrying fewer bytes than its header announces and a
+	 * message whose fragments do not add up to its length are dropped.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testTruncatedMessagesAreDropped() throws IOException {
+		UDPClient receiver = new UDPClient(0);
+		UDPClient sender = new UDPClient();
+		try (DatagramSocket socket = new DatagramSocket()) {
+			// one fragment of 3 bytes announcing 10
+			socket.send(frame(1, 1, 0, 10, 0, 3, receiver.getPort()));
+			// two fragments of 3 bytes announcing 10
+			socket.send(frame(2, 2, 0, 10, 0, 3, receiver.getPort()));
+			socket.send(frame(2, 2, 1, 10, 3, 3, receiver.getPort()));
+
+			sender.sendMessage(new byte[] { 7, 8 }, InetAddress.getLoopbackAddress(), receiver.getPort());
+			assertArrayEquals(new byte[] { 7, 8 }, UDPClient.readPacketData(receiver.receiveMessage()));
+		} finally {
+			sender.close();
+			receiver.close();
+		}
+	}
+
+	/**
+	 * Build a datagram with a frame header and a zero payload, sent to the
+	 * loopback address.
+	 *
+	 * @param messageId     int, the message id
+	 * @param numFragments  int, the number of fragments of the message
+	 * @param index         int, the index of the fragment
+	 * @param messageLength int, the length of the message
+	 * @param offset        int, the offset of the fragment in the message
+	 * @param length        int, the length of the payload
+	 * @param port          int, the destination port
+	 * @return DatagramPacket, the datagram
+	 */
+	private DatagramPacket frame(int messageId, int numFragments, int index, int messageLength, int offset,
+			int length, int port) {
+		ByteBuffer frame = ByteBuffer.allocate(UDPClient.HEADER_SIZE + length);
+		frame.putInt(messageId).putShort((short) numFragments).putShort((short) index).putInt(messageLength)
+				.putInt(offset);
+		return new DatagramPacket(frame.array(), frame.capacity(), InetAddress.getLoopbackAddress(), port);
+	}
+
+	/**
+	 * Test that a max datagram size that cannot hold the header is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidMaxDatagramSize() {
+		UDPClient.setMaxDatagramSize(UDPClient.HEADER_SIZE);
+	}
+
+}
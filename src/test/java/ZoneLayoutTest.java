@@ -0,0 +1,68 @@
+package test.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.java.ZoneLayout;
+
+/**
+ * ZoneLayoutTest tests and validates the parsing of the elevator zones.
+ *
+ * @author Zakaria Ismail
+ */
+public class ZoneLayoutTest {
+
+	/**
+	 * Test that a car stops at the floors of its zone only, and that a car in no
+	 * zone serves every floor.
+	 */
+	@Test
+	public void testParse() {
+		ZoneLayout zones = ZoneLayout.parse("1-2:1-11, 3:1+12-22", 4, 22);
+		assertTrue(zones.isZoned());
+		assertTrue(zones.serves(2, 11));
+		assertFalse(zones.serves(2, 12));
+		assertTrue(zones.serves(3, 1));
+		assertFalse(zones.serves(3, 5));
+		assertTrue(zones.serves(4, 5));
+		assertEquals(4, zones.getNumServingElevators(1));
+		assertEquals(2, zones.getNumServingElevators(20));
+	}
+
+	/**
+	 * Test that a request is given to a car serving both its floors, or to a car
+	 * serving its source floor when no car serves both.
+	 */
+	@Test
+	public void testCanServe() {
+		ZoneLayout zones = ZoneLayout.parse("1-2:1-11,3-4:1+12-22", 4, 22);
+		assertTrue(zones.canServe(1, 1, 8));
+		assertFalse(zones.canServe(3, 1, 8));
+		assertTrue(zones.canServe(3, 1, 15));
+		assertFalse(zones.canServe(1, 1, 15));
+		// between zones
+		assertTrue(zones.canServe(1, 5, 15));
+		assertFalse(zones.canServe(3, 5, 15));
+		assertTrue(new ZoneLayout(4, 22).canServe(3, 5, 15));
+	}
+
+	/**
+	 * Test that a floor without a car is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnservedFloor() {
+		ZoneLayout.parse("1-2:1-11,3-4:1+13-22", 4, 22);
+	}
+
+	/**
+	 * Test that a car in two zones is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOverlappingZones() {
+		ZoneLayout.parse("1-3:1-11,3-4:1+12-22", 4, 22);
+	}
+
+}
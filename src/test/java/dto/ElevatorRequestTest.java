@@ -3,6 +3,7 @@ package test.java.dto;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -10,8 +11,15 @@ import java.text.SimpleDateFormat;
 import org.junit.Before;
 import org.junit.Test;
 
+import main.java.dto.AssignedElevatorRequest;
 import main.java.dto.ElevatorRequest;
+import main.java.dto.ElevatorStatus;
+import main.java.dto.ParkElevatorRequest;
+import main.java.dto.RevokeElevatorRequest;
+import main.java.dto.TraceSpan;
 import main.java.elevator.Direction;
+import main.java.elevator.ElevatorError;
+import main.java.elevator.state.ElevatorStateEnum;
 
 /**
  * ElevatorRequestTest tests and validates methods in the data transfer object
@@ -83,6 +91,102 @@ public class ElevatorRequestTest {
 		assertEquals(true, elevatorRequest2.equals(elevatorRequest));
 	}
 	
+	/**
+	 * testRequestIdAndTrace validates that the request id and trace spans are
+	 * unique per request and kept by assigned copies across encoding
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	@Test
+	public void testRequestIdAndTrace() throws IOException, ClassNotFoundException {
+		ElevatorRequest elevatorRequest2 = new ElevatorRequest(timestamp, 1, Direction.UP, 5, null);
+		assertNotEquals(elevatorRequest.getRequestId(), elevatorRequest2.getRequestId());
+		assertEquals(elevatorRequest.hashCode(), elevatorRequest2.hashCode());
+
+		elevatorRequest.stamp(TraceSpan.FLOOR_SENT);
+		AssignedElevatorRequest assigned = new AssignedElevatorRequest(2, elevatorRequest);
+		assigned.stamp(TraceSpan.ASSIGNED);
+		ElevatorRequest decoded = ElevatorRequest.decode(assigned.encode());
+		assertEquals(elevatorRequest.getRequestId(), decoded.getRequestId());
+		assertEquals(elevatorRequest.getSpan(TraceSpan.FLOOR_SENT), decoded.getSpan(TraceSpan.FLOOR_SENT));
+		assertTrue(decoded.getSpan(TraceSpan.ASSIGNED) > 0);
+		assertEquals(0, elevatorRequest.getSpan(TraceSpan.ASSIGNED));
+	}
+	
+	/**
+	 * testWireFormat validates that requests and statuses decode in place from a
+	 * reused buffer and that a truncated message is rejected
+	 * @throws IOException
+	 */
+	@Test
+	public void testWireFormat() throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1000);
+		ElevatorRequest faulty = new ElevatorRequest(timestamp, 3, Direction.DOWN, 1, ElevatorError.DOORS_STUCK);
+		faulty.writeTo(buffer);
+		buffer.flip();
+		ElevatorRequest decoded = ElevatorRequest.decode(buffer);
+		assertEquals(faulty, decoded);
+		assertEquals(faulty.getRequestId(), decoded.getRequestId());
+		assertEquals(ElevatorError.DOORS_STUCK, decoded.getElevatorError());
+		assertFalse(buffer.hasRemaining());
+
+		RevokeElevatorRequest revoke = new RevokeElevatorRequest(new AssignedElevatorRequest(3, faulty));
+		ElevatorRequest decodedRevoke = ElevatorRequest.decode(ByteBuffer.wrap(revoke.encode()));
+		assertTrue(decodedRevoke instanceof RevokeElevatorRequest);
+		assertEquals(3, ((RevokeElevatorRequest) decodedRevoke).getElevatorId());
+		assertEquals(faulty.getRequestId(), decodedRevoke.getRequestId());
+
+		AssignedElevatorRequest decodedPark = AssignedElevatorRequest
+				.decode(ByteBuffer.wrap(new ParkElevatorRequest(2, 7, 0).encode()));
+		assertTrue(decodedPark instanceof ParkElevatorRequest);
+		assertEquals(2, decodedPark.getElevatorId());
+		assertEquals(7, ((ParkElevatorRequest) decodedPark).getParkingFloor());
+
+		ElevatorStatus flyweight = new ElevatorStatus();
+		buffer.clear();
+		ElevatorStatus loaded = new ElevatorStatus(2, 4, Direction.UP, 1, ElevatorStateEnum.MOVING_UP);
+		loaded.setNumPassengers(6);
+		loaded.writeTo(buffer);
+		assertEquals(loaded.getEncodedSize(), buffer.position());
+		buffer.flip();
+		flyweight.readFrom(buffer);
+		assertEquals(2, flyweight.getElevatorId());
+		assertEquals(4, flyweight.getFloor());
+		assertEquals(ElevatorStateEnum.MOVING_UP, flyweight.getState());
+		assertEquals(6, flyweight.getNumPassengers());
+
+		buffer.clear();
+		buffer.put(faulty.encode(), 0, 10);
+		buffer.flip();
+		try {
+			ElevatorRequest.decode(buffer);
+			fail("truncated request decoded");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * testPrimitiveForm validates that a request built from primitive fields
+	 * equals the boxed one and keeps its null fields across encoding
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	@Test
+	public void testPrimitiveForm() throws IOException, ClassNotFoundException {
+		ElevatorRequest primitive = new ElevatorRequest(timestamp.getTime(), 1, Direction.UP, 5, null);
+		assertEquals(elevatorRequest, primitive);
+		assertEquals(timestamp.getTime(), primitive.getTimeMillis());
+		assertEquals(Integer.valueOf(5), primitive.getDestinationFloor());
+		assertEquals(primitive.getEncodedSize(), primitive.encode().length);
+
+		ElevatorRequest empty = ElevatorRequest.decode(new ElevatorRequest().encode());
+		assertNull(empty.getTimestamp());
+		assertNull(empty.getSourceFloor());
+		assertNull(empty.getDirection());
+		assertNull(empty.getElevatorError());
+	}
+
 	/**
 	 * testStringToTimestamp validates that the converted Timestamp from String has
 	 * the correct format and is equal value when compared to the Timestamp object
@@ -0,0 +1,169 @@
+package test.java.elevator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+import main.java.SimulatorConfiguration;
+import main.java.dto.ElevatorRequest;
+import main.java.elevator.Direction;
+import main.java.elevator.ElevatorContext;
+import main.java.elevator.ElevatorSubsystem;
+import main.java.elevator.state.ElevatorState;
+import main.java.elevator.state.ElevatorStateEnum;
+
+/**
+ * ElevatorContextTest tests the zone and capacity rules of the ElevatorContext
+ * class.
+ *
+ * @author Zakaria Ismail
+ */
+public class ElevatorContextTest {
+
+	/**
+	 * Test that a high-rise car returns a request from a low-rise floor and runs
+	 * express past the low-rise floors.
+	 *
+	 * @throws ParseException
+	 */
+	@Test
+	public void testZonedCar() throws ParseException {
+		RecordingElevatorSubsystem subsystem = new RecordingElevatorSubsystem(
+				configuration("ELEVATOR_ZONES", "1-2:1-5,3-4:1+6-10"));
+		ElevatorContext ctx = subsystem.getElevator(3);
+		ElevatorRequest lowRise = new ElevatorRequest("07:01:15.000", 4, Direction.UP, 5);
+		ctx.onRequestReceived(lowRise);
+		assertEquals(1, subsystem.returned.size());
+		assertEquals(lowRise, subsystem.returned.get(0));
+		assertEquals(0, ctx.getNumRequests());
+
+		// a passenger from the lobby to floor 8, and a pickup left at floor 4
+		assertTrue(ctx.loadPassengers(new ElevatorRequest("07:01:15.000", 1, Direction.UP, 8)));
+		ctx.addExternalRequest(new ElevatorRequest("07:01:15.000", 4, Direction.UP, 9));
+		ctx.setDirection(Direction.UP);
+		for (int floor = 2; floor < 8; floor++) {
+			assertTrue(ctx.incrementCurrentFloor());
+			assertFalse(ctx.shouldElevatorStop());
+		}
+		assertTrue(ctx.incrementCurrentFloor());
+		assertTrue(ctx.shouldElevatorStop());
+	}
+
+	/**
+	 * Test that the passengers who do not fit in a full car are returned to the
+	 * scheduler and that the full car passes the hall calls on its way.
+	 *
+	 * @throws ParseException
+	 */
+	@Test
+	public void testFullCar() throws ParseException {
+		RecordingElevatorSubsystem subsystem = new RecordingElevatorSubsystem(configuration("CAR_CAPACITY", "1"));
+		ElevatorContext ctx = subsystem.getElevator(1);
+		ElevatorRequest first = new ElevatorRequest("07:01:15.000", 1, Direction.UP, 5);
+		ElevatorRequest second = new ElevatorRequest("07:01:15.000", 1, Direction.UP, 6);
+		ctx.addExternalRequest(first);
+		ctx.addExternalRequest(second);
+		ctx.setDirection(Direction.UP);
+		ctx.loadPassengers();
+		assertEquals(1, ctx.getNumPassengers());
+		assertTrue(ctx.isFull());
+		assertTrue(ctx.getInternalRequests().contains(first));
+		assertEquals(1, subsystem.returned.size());
+		assertEquals(second, subsystem.returned.get(0));
+
+		ElevatorRequest hallCall = new ElevatorRequest("07:01:15.000", 3, Direction.UP, 7);
+		ctx.addExternalRequest(hallCall);
+		assertTrue(ctx.incrementCurrentFloor());
+		assertTrue(ctx.incrementCurrentFloor());
+		assertFalse(ctx.shouldElevatorStop());
+		assertFalse(ctx.shouldElevatorStop(hallCall));
+	}
+
+	/**
+	 * Test that the passengers alighting free their room before the passengers
+	 * waiting at the floor board.
+	 *
+	 * @throws ParseException
+	 */
+	@Test
+	public void testUnloadBeforeLoad() throws ParseException {
+		RecordingElevatorSubsystem subsystem = new RecordingElevatorSubsystem(configuration("CAR_CAPACITY", "1"));
+		ElevatorContext ctx = subsystem.getElevator(1);
+		assertTrue(ctx.loadPassengers(new ElevatorRequest("07:01:15.000", 1, Direction.UP, 3)));
+		ElevatorRequest waiting = new ElevatorRequest("07:01:15.000", 3, Direction.UP, 7);
+		ctx.addExternalRequest(waiting);
+		ctx.setDirection(Direction.UP);
+		assertTrue(ctx.incrementCurrentFloor());
+		assertTrue(ctx.incrementCurrentFloor());
+		assertTrue(ctx.shouldElevatorStop());
+
+		ElevatorState.enter(ctx, ElevatorStateEnum.DOORS_OPEN);
+		assertEquals(1, ctx.getNumPassengers());
+		assertEquals(1, ctx.getInternalRequests().size());
+		assertTrue(ctx.getInternalRequests().contains(waiting));
+		assertTrue(subsystem.returned.isEmpty());
+	}
+
+	/**
+	 * Get the test configuration with a property set, without log windows.
+	 *
+	 * @param key   String, the property
+	 * @param value String, the value
+	 * @return SimulatorConfiguration, the configuration
+	 */
+	private static SimulatorConfiguration configuration(String key, String value) {
+		Properties properties = SimulatorConfiguration.loadProperties("./src/test/resources/config.properties");
+		properties.setProperty(key, value);
+		properties.setProperty("HEADLESS", "true");
+		return new SimulatorConfiguration(properties);
+	}
+
+	/**
+	 * ElevatorSubsystem processing the messages of its cars on the calling thread
+	 * and keeping the requests they return, without timeouts or status updates.
+	 */
+	private static class RecordingElevatorSubsystem extends ElevatorSubsystem {
+		private final List<ElevatorRequest> returned = new ArrayList<>();
+
+		/**
+		 * Constructor for the recording subsystem.
+		 *
+		 * @param config SimulatorConfiguration, the configuration
+		 */
+		RecordingElevatorSubsystem(SimulatorConfiguration config) {
+			super(config);
+		}
+
+		@Override
+		public Executor getCarExecutor() {
+			return Runnable::run;
+		}
+
+		@Override
+		public void scheduleTimeout(TimerTask task, int delay) {
+		}
+
+		@Override
+		public void notifyContextUpdate(ElevatorContext ctx) {
+		}
+
+		@Override
+		public void sendCompletedElevatorRequest(ElevatorRequest request) {
+		}
+
+		@Override
+		public void returnElevatorRequests(List<ElevatorRequest> requests) {
+			returned.addAll(requests);
+		}
+	}
+
+}
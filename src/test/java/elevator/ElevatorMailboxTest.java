@@ -0,0 +1,184 @@
+package test.java.elevator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import main.java.elevator.ElevatorMailbox;
+
+/**
+ * ElevatorMailboxTest tests the ordering and scheduling of the messages of a
+ * car mailbox on a multi-thread executor.
+ *
+ * @author Zakaria Ismail
+ */
+public class ElevatorMailboxTest {
+	private ExecutorService executor;
+
+	/**
+	 * Set up the testing environment.
+	 */
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	/**
+	 * Stop the workers after every test.
+	 */
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Test that the messages are processed in posting order, across several
+	 * drains.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testMessagesAreProcessedInOrder() throws InterruptedException {
+		List<Object> processed = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch done = new CountDownLatch(1000);
+		ElevatorMailbox mailbox = new ElevatorMailbox(message -> {
+			processed.add(message);
+			done.countDown();
+		}, executor);
+
+		List<Object> posted = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			posted.add(i);
+			mailbox.post(i);
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(posted, processed);
+		assertEquals(0, mailbox.size());
+	}
+
+	/**
+	 * Test that concurrent posts never start a second drain while one is
+	 * running, and that the messages of each poster keep their order.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testOneDrainAtATime() throws InterruptedException {
+		int posters = 8;
+		int messagesPerPoster = 500;
+		AtomicInteger draining = new AtomicInteger();
+		AtomicBoolean overlapped = new AtomicBoolean();
+		int[] lastMessage = new int[posters];
+		AtomicBoolean reordered = new AtomicBoolean();
+		CountDownLatch done = new CountDownLatch(posters * messagesPerPoster);
+		ElevatorMailbox mailbox = new ElevatorMailbox(message -> {
+			if (draining.incrementAndGet() > 1) {
+				overlapped.set(true);
+			}
+			int poster = (Integer) message / messagesPerPoster;
+			int sequence = (Integer) message % messagesPerPoster;
+			// only read and written by the drain
+			if (sequence != lastMessage[poster]++) {
+				reordered.set(true);
+			}
+			draining.decrementAndGet();
+			done.countDown();
+		}, executor);
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService postingThreads = Executors.newFixedThreadPool(posters);
+		for (int p = 0; p < posters; p++) {
+			int poster = p;
+			postingThreads.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < messagesPerPoster; i++) {
+					mailbox.post(poster * messagesPerPoster + i);
+				}
+			});
+		}
+		start.countDown();
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		postingThreads.shutdown();
+		assertFalse(overlapped.get());
+		assertFalse(reordered.get());
+	}
+
+	/**
+	 * Test that a message posted while a drain is ending, after its last poll, is
+	 * still processed without waiting for another post.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testMessagePostedAsDrainEndsIsProcessed() throws InterruptedException {
+		AtomicInteger processed = new AtomicInteger();
+		ElevatorMailbox mailbox = new ElevatorMailbox(message -> {
+			synchronized (processed) {
+				processed.incrementAndGet();
+				processed.notifyAll();
+			}
+		}, executor);
+
+		// each message is posted as the drain of the previous one returns
+		for (int i = 1; i <= 2000; i++) {
+			mailbox.post(i);
+			long deadline = System.currentTimeMillis() + 5000;
+			synchronized (processed) {
+				while (processed.get() < i && System.currentTimeMillis() < deadline) {
+					processed.wait(100);
+				}
+			}
+			assertEquals(i, processed.get());
+		}
+	}
+
+	/**
+	 * Test that a message failing with an exception does not stop the mailbox or
+	 * the worker it shares with another car.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testExceptionDoesNotStallWorker() throws InterruptedException {
+		ExecutorService sharedWorker = Executors.newSingleThreadExecutor();
+		try {
+			CountDownLatch done = new CountDownLatch(2);
+			ElevatorMailbox failing = new ElevatorMailbox(message -> {
+				if ("fail".equals(message)) {
+					throw new IllegalStateException("expected by the test");
+				}
+				done.countDown();
+			}, sharedWorker);
+			ElevatorMailbox other = new ElevatorMailbox(message -> done.countDown(), sharedWorker);
+
+			failing.post("fail");
+			failing.post("next");
+			other.post("other");
+
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+		} finally {
+			sharedWorker.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+package test.java.elevator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import main.java.dto.ElevatorRequest;
+import main.java.elevator.Direction;
+import main.java.elevator.StopPlanner;
+
+/**
+ * StopPlannerTest tests and validates the methods for the StopPlanner class.
+ *
+ * @author Zakaria Ismail
+ */
+public class StopPlannerTest {
+	private StopPlanner planner;
+
+	/**
+	 * Set up the testing environment.
+	 */
+	@Before
+	public void setUp() {
+		planner = new StopPlanner(10);
+	}
+
+	/**
+	 * Test that the dropoff extremes follow inserts and removals.
+	 */
+	@Test
+	public void testDropoffs() {
+		planner.addDropoff(3);
+		planner.addDropoff(8);
+		assertTrue(planner.hasDropoff(3));
+		assertTrue(planner.existsDropoffAbove(5));
+		assertTrue(planner.existsDropoffBelow(5));
+
+		planner.clearDropoff(8);
+		assertFalse(planner.existsDropoffAbove(5));
+		assertTrue(planner.existsDropoffBelow(5));
+
+		planner.clearDropoff(3);
+		assertFalse(planner.existsDropoffBelow(5));
+		assertFalse(planner.hasDropoff(3));
+	}
+
+	/**
+	 * Test that the pickup extremes follow inserts and removals per direction.
+	 *
+	 * @throws ParseException
+	 */
+	@Test
+	public void testPickups() throws ParseException {
+		ElevatorRequest up = new ElevatorRequest("07:01:15.000", 6, Direction.UP, 9);
+		ElevatorRequest up2 = new ElevatorRequest("07:01:16.000", 6, Direction.UP, 10);
+		ElevatorRequest down = new ElevatorRequest("07:01:17.000", 2, Direction.DOWN, 1);
+		planner.addPickup(up);
+		planner.addPickup(up2);
+		planner.addPickup(down);
+
+		assertTrue(planner.hasPickup(6, Direction.UP));
+		assertFalse(planner.hasPickup(6, Direction.DOWN));
+		assertTrue(planner.hasPickup(2, Direction.IDLE));
+		assertTrue(planner.existsPickupAbove(4, Direction.UP));
+		assertFalse(planner.existsPickupAbove(4, Direction.DOWN));
+		assertTrue(planner.existsPickupBelow(4, Direction.DOWN));
+
+		planner.removePickup(up);
+		assertTrue(planner.hasPickup(6, Direction.UP));
+		planner.removePickup(up2);
+		assertFalse(planner.hasPickup(6, Direction.UP));
+		assertFalse(planner.existsPickupAbove(4, Direction.UP));
+
+		planner.clearPickups();
+		assertFalse(planner.existsPickupBelow(4, Direction.DOWN));
+	}
+
+	/**
+	 * Test the LOOK ordering of the planned stops.
+	 *
+	 * @throws ParseException
+	 */
+	@Test
+	public void testPlannedStops() throws ParseException {
+		planner.addDropoff(7);
+		planner.addDropoff(2);
+		planner.addPickup(new ElevatorRequest("07:01:15.000", 9, Direction.DOWN, 1));
+		planner.addPickup(new ElevatorRequest("07:01:15.000", 3, Direction.UP, 4));
+
+		// going up from 5: dropoff 7, reverse at 9, dropoff 2, then up pickup at 3
+		assertArrayEquals(new int[] { 7, 9, 2, 3 }, planner.getPlannedStops(5, Direction.UP));
+		assertEquals(7, planner.getNextStop(5, Direction.UP));
+		// going down from 5: dropoff 2, reverse up for pickup 3 and dropoff 7, then 9
+		assertArrayEquals(new int[] { 2, 3, 7, 9 }, planner.getPlannedStops(5, Direction.DOWN));
+		assertEquals(-1, new StopPlanner(10).getNextStop(5, Direction.IDLE));
+	}
+
+	/**
+	 * Test that the next stop is the first planned stop for random stop sets,
+	 * from every floor and in every direction.
+	 *
+	 * @throws ParseException
+	 */
+	@Test
+	public void testNextStopMatchesPlannedStops() throws ParseException {
+		Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			StopPlanner planner = new StopPlanner(10);
+			for (int i = random.nextInt(5); i > 0; i--) {
+				planner.addDropoff(1 + random.nextInt(10));
+			}
+			for (int i = random.nextInt(5); i > 0; i--) {
+				int floor = 1 + random.nextInt(10);
+				Direction direction = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+				planner.addPickup(new ElevatorRequest("07:01:15.000", floor, direction, direction == Direction.UP ? 10 : 1));
+			}
+			for (int floor = 1; floor <= 10; floor++) {
+				for (Direction direction : Direction.values()) {
+					int[] stops = planner.getPlannedStops(floor, direction);
+					assertEquals(stops.length > 0 ? stops[0] : -1, planner.getNextStop(floor, direction));
+				}
+			}
+		}
+	}
+
+}
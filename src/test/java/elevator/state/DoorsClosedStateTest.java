@@ -45,7 +45,8 @@ public class DoorsClosedStateTest {
 	 */
 	@Before
 	public void setUp() throws Exception {
-		elevatorState = new DoorsClosedState(ElevatorStateTestUtil.initElevatorContext(elevatorSubsystem));
+		elevatorState = ElevatorState.enter(ElevatorStateTestUtil.initElevatorContext(elevatorSubsystem),
+				ElevatorStateEnum.DOORS_CLOSED);
 	}
 	
 	/**
@@ -123,7 +124,7 @@ public class DoorsClosedStateTest {
 	}
 
 	/**
-	 * Test method for {@link main.java.elevator.state.DoorsClosedState#DoorsClosedState(main.java.elevator.ElevatorContext)}.
+	 * Test method for {@link main.java.elevator.state.DoorsClosedState#onEntry()}.
 	 */
 	@Test
 	public void testDoorsClosedState() {
@@ -14,6 +14,7 @@ import main.java.SimulatorConfiguration;
 import main.java.elevator.ElevatorContext;
 import main.java.elevator.ElevatorSubsystem;
 import main.java.elevator.state.ElevatorState;
+import main.java.elevator.state.ElevatorStateEnum;
 import main.java.elevator.state.IdleState;
 
 /**
@@ -53,4 +54,17 @@ public class ElevatorStateTest {
 		assert elevatorState instanceof IdleState;
 	}
 
+	/**
+	 * Test method for {@link main.java.elevator.ElevatorContext#getState(ElevatorStateEnum)}.
+	 */
+	@Test
+	public void testGetState() {
+		ElevatorContext ctx = elevatorState.getContext();
+		assertSame(ctx.getState(ElevatorStateEnum.IDLE), elevatorState);
+		for (ElevatorStateEnum stateEnum : ElevatorStateEnum.values()) {
+			assertEquals(stateEnum, ctx.getState(stateEnum).getElevatorStateEnum());
+			assertSame(ctx, ctx.getState(stateEnum).getContext());
+		}
+	}
+
 }
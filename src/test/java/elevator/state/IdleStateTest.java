@@ -41,7 +41,8 @@ public class IdleStateTest {
 	
 	@Before
 	public void setUp() {
-		elevatorState = new IdleState(ElevatorStateTestUtil.initElevatorContext(elevatorSubsystem));
+		elevatorState = ElevatorState.enter(ElevatorStateTestUtil.initElevatorContext(elevatorSubsystem),
+				ElevatorStateEnum.IDLE);
 	}
 	
 	/**
@@ -88,7 +89,7 @@ public class IdleStateTest {
 	}
 
 	/**
-	 * Test method for {@link main.java.elevator.state.IdleState#IdleState(main.java.elevator.ElevatorContext)}.
+	 * Test method for {@link main.java.elevator.state.IdleState#onEntry()}.
 	 */
 	@Test
 	public void testIdleState() {
@@ -19,6 +19,7 @@ import main.java.elevator.ElevatorContext;
 import main.java.elevator.ElevatorSubsystem;
 import main.java.elevator.Motor;
 import main.java.elevator.state.ElevatorState;
+import main.java.elevator.state.ElevatorStateEnum;
 import main.java.elevator.state.MovingDownState;
 import main.java.elevator.state.StoppedState;
 
@@ -40,7 +41,8 @@ public class MovingDownStateTest {
 	 */
 	@Before
 	public void setUp() throws Exception {
-		elevatorState = new MovingDownState(ElevatorStateTestUtil.initElevatorContext(elevatorSubsystem));
+		elevatorState = ElevatorState.enter(ElevatorStateTestUtil.initElevatorContext(elevatorSubsystem),
+				ElevatorStateEnum.MOVING_DOWN);
 		assertTrue(elevatorState.getContext().incrementCurrentFloor()); // Start elevator @ 2nd floor
 		assertEquals(2, elevatorState.getContext().getCurrentFloor());
 	}
@@ -117,7 +119,7 @@ public class MovingDownStateTest {
 	}
 	
 	/**
-	 * Test method for {@link main.java.elevator.state.MovingDownState#MovingDownState(main.java.elevator.ElevatorContext)}.
+	 * Test method for {@link main.java.elevator.state.MovingDownState#onEntry()}.
 	 */
 	@Test
 	public void testMovingDownState() {
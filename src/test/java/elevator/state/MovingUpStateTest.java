@@ -31,7 +31,8 @@ public class MovingUpStateTest {
 
 	@Before
 	public void setUp() throws Exception {
-		elevatorState = new MovingUpState(ElevatorStateTestUtil.initElevatorContext(elevatorSubsystem));
+		elevatorState = ElevatorState.enter(ElevatorStateTestUtil.initElevatorContext(elevatorSubsystem),
+				ElevatorStateEnum.MOVING_UP);
 	}
 	
 	/**
@@ -131,6 +132,17 @@ public class MovingUpStateTest {
 		assertEquals(3, ctx.getCurrentFloor());
 	}
 
+	@Test
+	public void testHandleTimeoutReusesState() throws ParseException {
+		// Case: passing a floor re-enters the same state instance of the car
+		ElevatorContext ctx = elevatorState.getContext();
+		ctx.addExternalRequest(ElevatorStateTestUtil.initElevatorRequest(3, Direction.UP, 5));
+		assertSame(elevatorState, elevatorState.handleTimeout());
+		assertSame(ctx.getState(ElevatorStateEnum.STOPPED), elevatorState.handleTimeout());
+		assertEquals(3, ctx.getCurrentFloor());
+		assertEquals(Motor.IDLE, ctx.getMotor());
+	}
+
 	@Test
 	public void testToString() {
 		assertEquals("MovingUp", elevatorState.toString());
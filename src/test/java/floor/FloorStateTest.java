@@ -0,0 +1,79 @@
+package test.java.floor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.java.elevator.Direction;
+import main.java.floor.Floor;
+import main.java.floor.FloorState;
+
+/**
+ * FloorStateTest tests the lamps and sensors stored for every floor.
+ * 
+ * @author Hussein El Mokdad
+ */
+public class FloorStateTest {
+
+	/**
+	 * Tests that the components of a floor do not leak into the other floors and
+	 * cars.
+	 */
+	@Test
+	public void testComponentsAreIndexedByFloorAndCar() {
+		FloorState state = new FloorState(5, 3);
+		Floor third = new Floor(state, 3);
+		Floor fourth = new Floor(state, 4);
+
+		assertEquals(Direction.IDLE, state.getDirectionLamp(1, 1));
+		third.setFloorUpLamp(true);
+		third.setFloorSensor(2, true);
+		third.setElevatorDirectionLamp(2, Direction.DOWN);
+
+		assertTrue(third.getUpButtonLamp());
+		assertFalse(third.getDownButtonLamp());
+		assertFalse(fourth.getUpButtonLamp());
+		assertTrue(state.getArrivalSensor(3, 2));
+		assertFalse(state.getArrivalSensor(3, 1));
+		assertFalse(state.getArrivalSensor(4, 2));
+		assertEquals(Direction.DOWN, state.getDirectionLamp(3, 2));
+		assertEquals(Direction.DOWN, state.getDirectionLamp(5, 2));
+		assertEquals(Direction.IDLE, state.getDirectionLamp(3, 3));
+		assertTrue(third.toString().contains("Elevator# 2 arrival sensor: true"));
+	}
+
+	/**
+	 * Tests that an arrival moves the sensor of the car and clears its previous
+	 * floor.
+	 */
+	@Test
+	public void testArrivalMovesSensor() {
+		FloorState state = new FloorState(5, 3);
+		state.updateCar(1, 2, Direction.UP);
+		state.updateCar(1, 3, Direction.UP);
+		state.updateCar(2, 3, Direction.DOWN);
+
+		assertFalse(state.getArrivalSensor(2, 1));
+		assertTrue(state.getArrivalSensor(3, 1));
+		assertTrue(state.getArrivalSensor(3, 2));
+		assertEquals(3, state.getCarFloor(1));
+		assertEquals(Direction.UP, state.getDirectionLamp(1, 1));
+		assertEquals(Direction.DOWN, state.getDirectionLamp(4, 2));
+
+		state.setArrivalSensor(2, 1, false);
+		assertTrue(state.getArrivalSensor(3, 1));
+		state.setArrivalSensor(3, 1, false);
+		assertEquals(0, state.getCarFloor(1));
+	}
+
+	/**
+	 * Tests that floors and cars outside of the building are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidElevator() {
+		new FloorState(5, 3).setArrivalSensor(1, 4, true);
+	}
+
+}
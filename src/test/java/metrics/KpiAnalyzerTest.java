@@ -0,0 +1,66 @@
+package test.java.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import main.java.dto.ElevatorStatus;
+import main.java.elevator.Direction;
+import main.java.elevator.state.ElevatorStateEnum;
+import main.java.metrics.JourneyExporter;
+import main.java.metrics.KpiAnalyzer;
+
+/**
+ * KpiAnalyzerTest tests the KPIs computed from the output of a run.
+ *
+ * @author Trong Nguyen
+ */
+public class KpiAnalyzerTest {
+
+	/**
+	 * Test the passenger KPIs computed from a journey CSV.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testJourneyKpis() throws IOException {
+		String csv = JourneyExporter.HEADER + "\n"
+				+ "1,1,1,2,UP,5,1000,1000,1001,1002,1003,11000,21000,21001,10000,10000,20001\n"
+				+ "2,1,2,7,DOWN,1,2000,2000,2001,2002,2003,32000,42000,42001,30000,10000,40001\n"
+				+ "3,1,1,3,UP,9,400000,0,0,0,0,0,0,400000,-1,-1,0\n";
+		KpiAnalyzer analyzer = new KpiAnalyzer("closest-car");
+		analyzer.analyzeJourneys(new StringReader(csv));
+
+		assertEquals(2, analyzer.getWaitTimes().getCount());
+		// the journey without a boarding time is still a passenger
+		assertEquals(3, analyzer.getPassengers());
+		assertTrue(analyzer.getReport().contains("passengers 3"));
+		assertEquals(20000.0, analyzer.getWaitTimes().getMean(), 0);
+		assertEquals(10000, analyzer.getRideTimes().getMax());
+		assertEquals(2, analyzer.getPeakHandlingCapacity());
+		assertEquals(1.5, analyzer.getMeanHandlingCapacity(), 0);
+		assertEquals(2, analyzer.getCar(1).getPassengers());
+	}
+
+	/**
+	 * Test the energy proxy computed from the arrival notifications of a car.
+	 */
+	@Test
+	public void testEnergyProxy() {
+		KpiAnalyzer analyzer = new KpiAnalyzer("closest-car");
+		analyzer.addStatus(new ElevatorStatus(1, 1, Direction.UP, 1, ElevatorStateEnum.MOVING_UP));
+		analyzer.addStatus(new ElevatorStatus(1, 4, Direction.UP, 1, ElevatorStateEnum.DOORS_OPEN));
+		analyzer.addStatus(new ElevatorStatus(1, 4, Direction.UP, 1, ElevatorStateEnum.DOORS_OPEN));
+		analyzer.addStatus(new ElevatorStatus(1, 4, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		analyzer.addStatus(new ElevatorStatus(1, 2, Direction.DOWN, 1, ElevatorStateEnum.DOORS_OPEN));
+
+		assertEquals(5, analyzer.getCar(1).getFloorsTraveled());
+		assertEquals(1, analyzer.getCar(1).getReversals());
+		assertEquals(2, analyzer.getCar(1).getDoorCycles());
+	}
+
+}
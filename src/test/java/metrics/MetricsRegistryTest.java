@@ -0,0 +1,74 @@
+package test.java.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import main.java.metrics.LatencyHistogram;
+import main.java.metrics.MetricsRegistry;
+
+/**
+ * MetricsRegistryTest tests the latency histogram and the metrics registry.
+ *
+ * @author Trong Nguyen
+ */
+public class MetricsRegistryTest {
+
+	/**
+	 * Test that the percentiles stay within the precision of the buckets.
+	 */
+	@Test
+	public void testHistogramPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 10000; i++) {
+			histogram.record(i);
+		}
+		assertEquals(10000, histogram.getCount());
+		assertEquals(5000.5, histogram.getMean(), 0.001);
+		assertEquals(10000, histogram.getMax());
+		assertWithin(5000, histogram.getValueAtPercentile(50));
+		assertWithin(9500, histogram.getValueAtPercentile(95));
+		assertWithin(9900, histogram.getValueAtPercentile(99));
+		assertEquals(10000, histogram.getValueAtPercentile(100));
+
+		histogram.reset();
+		histogram.record(-5);
+		histogram.record(42);
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(42, histogram.getValueAtPercentile(99));
+	}
+
+	/**
+	 * Test that counters, gauges and histograms are flattened into the report.
+	 */
+	@Test
+	public void testRegistryReport() {
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.counter("test.requests").increment();
+		registry.counter("test.requests").add(2);
+		registry.gauge("test.depth", () -> 7);
+		registry.histogram("test.latency_ms").record(12);
+
+		Map<String, Double> metrics = registry.getMetrics();
+		assertEquals(3.0, metrics.get("test.requests"), 0);
+		assertEquals(7.0, metrics.get("test.depth"), 0);
+		assertEquals(1.0, metrics.get("test.latency_ms.count"), 0);
+		assertEquals(12.0, metrics.get("test.latency_ms.p99"), 0);
+		assertTrue(registry.getReport().contains("test_requests 3\n"));
+	}
+
+	/**
+	 * Assert that a percentile is within 3% above the exact value.
+	 *
+	 * @param expected long, the exact value
+	 * @param actual   long, the reported value
+	 */
+	private void assertWithin(long expected, long actual) {
+		assertTrue(actual + " < " + expected, actual >= expected);
+		assertTrue(actual + " > " + expected, actual <= expected * 1.03);
+	}
+
+}
@@ -0,0 +1,8 @@
+/**
+ * This package contains the unit tests for verifying
+ * and validating the functionality of the metrics registry
+ * in the Elevator Control System & Simulator.
+ * @version 1.0, 02/04/23
+ * @since 1.0, 02/04/23
+ */
+package test.java.metrics;
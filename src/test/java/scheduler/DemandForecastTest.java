@@ -0,0 +1,61 @@
+package test.java.scheduler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import main.java.elevator.Direction;
+import main.java.scheduler.DemandForecast;
+
+/**
+ * DemandForecastTest tests the call rates learned per floor, direction and
+ * time-of-day window.
+ *
+ * @author Bobby Ngo
+ */
+public class DemandForecastTest {
+	private static final long HOUR = 60 * 60 * 1000L;
+
+	/**
+	 * Tests that the calls are counted in the window of their time of day and
+	 * that the busiest floors of a window are returned busiest first.
+	 */
+	@Test
+	public void testBusiestFloors() {
+		DemandForecast forecast = new DemandForecast(10, HOUR);
+		long morning = 8 * HOUR;
+		for (int i = 0; i < 3; i++) {
+			forecast.record(1, Direction.UP, morning + i);
+		}
+		forecast.record(5, Direction.DOWN, morning);
+		forecast.record(5, Direction.UP, morning);
+		forecast.record(7, Direction.DOWN, morning);
+		forecast.record(9, Direction.DOWN, 17 * HOUR);
+		// not a call
+		forecast.record(4, Direction.IDLE, morning);
+
+		assertEquals(3, forecast.getRate(1, Direction.UP, morning + HOUR / 2), 0);
+		assertEquals(0, forecast.getRate(1, Direction.DOWN, morning), 0);
+		assertArrayEquals(new int[] { 1, 5 }, forecast.getBusiestFloors(morning, 2));
+		assertArrayEquals(new int[] { 1, 5, 7 }, forecast.getBusiestFloors(morning, 5));
+		assertArrayEquals(new int[] { 9 }, forecast.getBusiestFloors(17 * HOUR, 5));
+		assertEquals(0, forecast.getBusiestFloors(12 * HOUR, 5).length);
+	}
+
+	/**
+	 * Tests that what was learned on the previous days decays when a window
+	 * starts a new day.
+	 */
+	@Test
+	public void testDailyDecay() {
+		DemandForecast forecast = new DemandForecast(10, HOUR);
+		long morning = 8 * HOUR;
+		for (int i = 0; i < 4; i++) {
+			forecast.record(1, Direction.UP, morning);
+		}
+		forecast.record(3, Direction.UP, morning + DemandForecast.DAY);
+		assertEquals(2, forecast.getRate(1, Direction.UP, morning), 0);
+		assertEquals(1, forecast.getRate(3, Direction.UP, morning), 0);
+	}
+}
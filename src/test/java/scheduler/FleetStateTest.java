@@ -0,0 +1,88 @@
+package test.java.scheduler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import main.java.dto.ElevatorStatus;
+import main.java.elevator.Direction;
+import main.java.elevator.state.ElevatorStateEnum;
+import main.java.scheduler.FleetState;
+
+/**
+ * FleetStateTest tests the table of the last known state of the cars.
+ *
+ * @author Bobby Ngo
+ */
+public class FleetStateTest {
+
+	/**
+	 * Tests that a status is copied into the row of its car and bumps its version
+	 * only.
+	 */
+	@Test
+	public void testUpdateInPlace() {
+		FleetState fleet = new FleetState(3);
+		ElevatorStatus status = new ElevatorStatus(2, 7, Direction.UP, 3, ElevatorStateEnum.MOVING_UP);
+		status.setNumPassengers(2);
+		status.setPlannedStops(new int[] { 8, 10 });
+
+		assertEquals(3, fleet.size());
+		assertEquals(Direction.IDLE, fleet.getDirection(1));
+		long version = fleet.getVersion(1);
+		fleet.update(1, status);
+		int[] stops = fleet.getPlannedStops(1);
+
+		assertEquals(2, fleet.getElevatorId(1));
+		assertEquals(7, fleet.getFloor(1));
+		assertEquals(Direction.UP, fleet.getDirection(1));
+		assertEquals(ElevatorStateEnum.MOVING_UP, fleet.getState(1));
+		assertEquals(3, fleet.getLoad(1));
+		assertEquals(2, fleet.getNumPassengers(1));
+		assertArrayEquals(new int[] { 8, 10 }, stops);
+		assertEquals(version + 1, fleet.getVersion(1));
+		assertEquals(1, fleet.getVersion(0));
+
+		// same number of stops, the row is reused
+		status.setPlannedStops(new int[] { 9, 10 });
+		fleet.update(1, status);
+		assertSame(stops, fleet.getPlannedStops(1));
+		assertArrayEquals(new int[] { 9, 10 }, stops);
+	}
+
+	/**
+	 * Tests that a copy keeps the versions and does not follow the table.
+	 */
+	@Test
+	public void testCopy() {
+		FleetState fleet = new FleetState(2);
+		FleetState copy = fleet.copy();
+
+		fleet.setDirection(0, Direction.DOWN);
+		fleet.add(new ElevatorStatus(3, 5, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+
+		assertEquals(2, copy.size());
+		assertEquals(3, fleet.size());
+		assertEquals(Direction.IDLE, copy.getDirection(0));
+		assertEquals(copy.getVersion(0) + 1, fleet.getVersion(0));
+		assertEquals(copy.getVersion(1), fleet.getVersion(1));
+		assertNotSame(fleet.getPlannedStops(1), copy.getPlannedStops(1));
+
+		ElevatorStatus status = fleet.toStatus(2, 4);
+		assertEquals(4, status.getGroupId());
+		assertEquals(3, status.getElevatorId());
+		assertEquals(5, status.getFloor());
+	}
+
+	/**
+	 * Tests that a row that does not exist is rejected.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testInvalidIndex() {
+		new FleetState(2).getFloor(2);
+	}
+
+}
@@ -0,0 +1,67 @@
+package test.java.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import main.java.dto.ElevatorRequest;
+import main.java.elevator.Direction;
+import main.java.scheduler.HallCallRegistry;
+
+/**
+ * HallCallRegistryTest tests the merging of the requests of a floor and
+ * direction into one hall call.
+ *
+ * @author Bobby Ngo
+ */
+public class HallCallRegistryTest {
+
+	/**
+	 * Tests that the requests of an open hall call are merged behind its dispatch
+	 * unit and released with it.
+	 */
+	@Test
+	public void testMergeAndClose() {
+		HallCallRegistry registry = new HallCallRegistry();
+		ElevatorRequest first = new ElevatorRequest(0, 1, Direction.UP, 5, null);
+		ElevatorRequest second = new ElevatorRequest(10, 1, Direction.UP, 7, null);
+		ElevatorRequest third = new ElevatorRequest(20, 1, Direction.UP, 3, null);
+		ElevatorRequest down = new ElevatorRequest(30, 1, Direction.DOWN, 0, null);
+
+		assertTrue(registry.register(first));
+		assertFalse(registry.register(second));
+		assertFalse(registry.register(third));
+		assertTrue(registry.register(down));
+		assertEquals(2, registry.size());
+		assertEquals(2, registry.getMergedCount());
+		assertEquals(2, registry.getMergedRequests().size());
+
+		// only the dispatch unit closes its hall call
+		assertTrue(registry.close(second).isEmpty());
+		List<ElevatorRequest> merged = registry.close(first);
+		assertEquals(2, merged.size());
+		assertEquals(second.getRequestId(), merged.get(0).getRequestId());
+		assertEquals(third.getRequestId(), merged.get(1).getRequestId());
+		assertEquals(0, registry.getMergedCount());
+		assertEquals(1, registry.size());
+
+		// the next request opens a new hall call
+		assertTrue(registry.register(new ElevatorRequest(40, 1, Direction.UP, 6, null)));
+	}
+
+	/**
+	 * Tests that a request without a direction is never merged.
+	 */
+	@Test
+	public void testNoDirection() {
+		HallCallRegistry registry = new HallCallRegistry();
+		assertTrue(registry.register(new ElevatorRequest(0, 2, Direction.IDLE, 2, null)));
+		assertTrue(registry.register(new ElevatorRequest(0, 2, Direction.IDLE, 2, null)));
+		assertEquals(0, registry.size());
+	}
+
+}
@@ -4,13 +4,17 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.List;
+import java.util.Properties;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import main.java.SimulatorConfiguration;
+import main.java.dto.AssignedElevatorRequest;
 import main.java.dto.ElevatorRequest;
 import main.java.dto.ElevatorStatus;
+import main.java.dto.RevokeElevatorRequest;
 import main.java.elevator.Direction;
 import main.java.elevator.state.ElevatorStateEnum;
 import main.java.scheduler.SchedulerContext;
@@ -44,6 +48,9 @@ public class SchedulerContextTest {
 	 * Test the scheduler addAvailableElevatorRequests method
 	 * Test the scheduler addCompletedElevatorRequests method
 	 * Test findTheClosestElevatorToRequestFloor method
+	 * Test the aging of the pending requests
+	 * Test the reassignment of the assigned requests
+	 * Test the parking of the idle cars near the expected calls
 	 * @throws ParseException 
 	 */
 	@Test
@@ -60,7 +67,8 @@ public class SchedulerContextTest {
 		
 		//Test findTheClosestElevatorToRequestFloor
 		ElevatorStatus result = scheduler.findTheClosestElevatorToRequestFloor(scheduler.getAvailableElevatorStatus(), 5);
-		assertEquals(status10, result);
+		assertEquals(status10.getElevatorId(), result.getElevatorId());
+		assertEquals(status10.getFloor(), result.getFloor());
 		
 		elevatorRequest1 = new ElevatorRequest("00:08:33.0", 3, Direction.UP, 5);
 		scheduler.addCompletedElevatorRequests(elevatorRequest1);
@@ -78,7 +86,8 @@ public class SchedulerContextTest {
 		
 		//Test findTheClosestElevatorToRequestFloor
 		ElevatorStatus result2 = scheduler.findTheClosestElevatorToRequestFloor(scheduler.getAvailableElevatorStatus(), 19);
-		assertEquals(status20, result2);
+		assertEquals(status20.getElevatorId(), result2.getElevatorId());
+		assertEquals(status20.getFloor(), result2.getFloor());
 		
 		scheduler.addCompletedElevatorRequests(elevatorRequest2);
 		
@@ -96,8 +105,198 @@ public class SchedulerContextTest {
 		
 		//Test findTheClosestElevatorToRequestFloor
 		ElevatorStatus result3 = scheduler.findTheClosestElevatorToRequestFloor(scheduler.getAvailableElevatorStatus(), 5);
-		assertEquals(status30, result3);
+		assertEquals(status30.getElevatorId(), result3.getElevatorId());
+		assertEquals(status30.getFloor(), result3.getFloor());
 		
 		scheduler.addCompletedElevatorRequests(elevatorRequest3);
+		
+		// Test that an old call served by an idle car goes before a new call a moving car can take
+		SchedulerContext agingScheduler = new SchedulerContext(schedulerSubsystem);
+		int numElevators = agingScheduler.getAvailableElevatorStatus().size();
+		for (int i = 0; i < numElevators; i++) {
+			agingScheduler.modifyAvailableElevatorStatus(i,
+					new ElevatorStatus(i + 1, 1, Direction.IDLE, 0, ElevatorStateEnum.DOORS_STUCK));
+		}
+		long now = System.currentTimeMillis();
+		ElevatorRequest oldRequest = new ElevatorRequest(now - 40000, 8, Direction.DOWN, 1, null);
+		ElevatorRequest newRequest = new ElevatorRequest(now, 5, Direction.UP, 9, null);
+		agingScheduler.addPendingElevatorRequests(newRequest);
+		agingScheduler.addPendingElevatorRequests(oldRequest);
+		assertEquals(oldRequest, agingScheduler.getPendingElevatorRequests().get(0));
+		
+		agingScheduler.modifyAvailableElevatorStatus(0,
+				new ElevatorStatus(1, 2, Direction.UP, 1, ElevatorStateEnum.MOVING_UP));
+		agingScheduler.modifyAvailableElevatorStatus(1,
+				new ElevatorStatus(2, 1, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		List<AssignedElevatorRequest> assigned = agingScheduler.findBestElevatorToAssignRequest();
+		assertEquals(1, assigned.size());
+		assertEquals(oldRequest.getRequestId(), assigned.get(0).getRequestId());
+		assertEquals(2, assigned.get(0).getElevatorId());
+		
+		assigned = agingScheduler.findBestElevatorToAssignRequest();
+		assertEquals(newRequest.getRequestId(), assigned.get(0).getRequestId());
+		assertEquals(1, assigned.get(0).getElevatorId());
+		
+		// Test that a call is revoked from a car with far planned stops when a car becomes idle next to it
+		SimulatorConfiguration config = schedulerSubsystem.getSimulatorConfiguration();
+		int reassignInterval = config.REASSIGN_INTERVAL;
+		config.REASSIGN_INTERVAL = 0;
+		SchedulerContext reassignScheduler = new SchedulerContext(schedulerSubsystem);
+		for (int i = 1; i < numElevators; i++) {
+			reassignScheduler.modifyAvailableElevatorStatus(i,
+					new ElevatorStatus(i + 1, 1, Direction.IDLE, 0, ElevatorStateEnum.DOORS_STUCK));
+		}
+		ElevatorRequest farRequest = new ElevatorRequest(now, 9, Direction.DOWN, 1, null);
+		reassignScheduler.addPendingElevatorRequests(farRequest);
+		assertEquals(0, reassignScheduler.getPendingElevatorRequests().size());
+		
+		ElevatorStatus sweeping = new ElevatorStatus(1, 2, Direction.UP, 2, ElevatorStateEnum.MOVING_UP);
+		sweeping.setPlannedStops(new int[] { 12, 9 });
+		reassignScheduler.modifyAvailableElevatorStatus(0, sweeping);
+		reassignScheduler.modifyAvailableElevatorStatus(1,
+				new ElevatorStatus(2, 8, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		config.REASSIGN_INTERVAL = 1;
+		List<RevokeElevatorRequest> revokes = reassignScheduler.findRequestsToReassign();
+		config.REASSIGN_INTERVAL = reassignInterval;
+		assertEquals(1, revokes.size());
+		assertEquals(farRequest.getRequestId(), revokes.get(0).getRequestId());
+		assertEquals(1, revokes.get(0).getElevatorId());
+		
+		// Test that once no caller waits, the idle car closest to the busiest floor is parked there, once
+		reassignScheduler.addCompletedElevatorRequests(farRequest);
+		reassignScheduler.modifyAvailableElevatorStatus(0,
+				new ElevatorStatus(1, 1, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		reassignScheduler.modifyAvailableElevatorStatus(1,
+				new ElevatorStatus(2, 8, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		assertEquals(Direction.UP, reassignScheduler.getAvailableElevatorStatus().get(1).getDirection());
+		assertEquals(Direction.IDLE, reassignScheduler.getAvailableElevatorStatus().get(0).getDirection());
+		assertEquals(0, reassignScheduler.findElevatorsToPark().size());
+	}
+
+	/**
+	 * Test that the requests merged into a lobby hall call are only given to a car
+	 * of their zone, the others being dispatched again to a car of their own zone.
+	 * @throws ParseException
+	 */
+	@Test
+	public void testZonedDispatch() throws ParseException {
+		Properties properties = SimulatorConfiguration.loadProperties("./src/test/resources/config.properties");
+		properties.setProperty("ELEVATOR_ZONES", "1-2:1-5,3-4:1+6-10");
+		properties.setProperty("PARKING_WINDOW", "0");
+		properties.setProperty("HEADLESS", "true");
+		SchedulerContext zonedScheduler = new SchedulerContext(
+				new SchedulerSubsystem(new SimulatorConfiguration(properties)));
+		for (int i = 0; i < 4; i++) {
+			zonedScheduler.modifyAvailableElevatorStatus(i,
+					new ElevatorStatus(i + 1, 1, Direction.IDLE, 0, ElevatorStateEnum.DOORS_STUCK));
+		}
+		long now = System.currentTimeMillis();
+		ElevatorRequest highRise = new ElevatorRequest(now, 1, Direction.UP, 8, null);
+		ElevatorRequest lowRise = new ElevatorRequest(now, 1, Direction.UP, 3, null);
+		ElevatorRequest highRise2 = new ElevatorRequest(now, 1, Direction.UP, 10, null);
+		zonedScheduler.addPendingElevatorRequests(highRise);
+		zonedScheduler.addPendingElevatorRequests(lowRise);
+		zonedScheduler.addPendingElevatorRequests(highRise2);
+		assertEquals(1, zonedScheduler.getPendingElevatorRequests().size());
+		assertEquals(3, zonedScheduler.getPendingPassengerCount());
+		
+		// the low-rise car waits at the lobby, the high-rise car is parked above
+		zonedScheduler.modifyAvailableElevatorStatus(0,
+				new ElevatorStatus(1, 1, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		zonedScheduler.modifyAvailableElevatorStatus(2,
+				new ElevatorStatus(3, 6, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		List<AssignedElevatorRequest> assigned = zonedScheduler.findBestElevatorToAssignRequest();
+		assertEquals(2, assigned.size());
+		assertEquals(highRise.getRequestId(), assigned.get(0).getRequestId());
+		assertEquals(3, assigned.get(0).getElevatorId());
+		assertEquals(highRise2.getRequestId(), assigned.get(1).getRequestId());
+		assertEquals(3, assigned.get(1).getElevatorId());
+		assertEquals(lowRise, zonedScheduler.getPendingElevatorRequests().get(0));
+		
+		assigned = zonedScheduler.findBestElevatorToAssignRequest();
+		assertEquals(1, assigned.size());
+		assertEquals(lowRise.getRequestId(), assigned.get(0).getRequestId());
+		assertEquals(1, assigned.get(0).getElevatorId());
+		assertEquals(0, zonedScheduler.getPendingPassengerCount());
+	}
+
+	/**
+	 * Test that the requests merged into a hall call are assigned up to the room
+	 * left in the car, the others being dispatched again.
+	 * @throws ParseException
+	 */
+	@Test
+	public void testCapacityLimitsMergedAssignment() throws ParseException {
+		Properties properties = SimulatorConfiguration.loadProperties("./src/test/resources/config.properties");
+		properties.setProperty("CAR_CAPACITY", "2");
+		properties.setProperty("PARKING_WINDOW", "0");
+		properties.setProperty("HEADLESS", "true");
+		SchedulerContext capacityScheduler = new SchedulerContext(
+				new SchedulerSubsystem(new SimulatorConfiguration(properties)));
+		for (int i = 0; i < 4; i++) {
+			capacityScheduler.modifyAvailableElevatorStatus(i,
+					new ElevatorStatus(i + 1, 1, Direction.IDLE, 0, ElevatorStateEnum.DOORS_STUCK));
+		}
+		long now = System.currentTimeMillis();
+		for (int destination = 4; destination <= 6; destination++) {
+			capacityScheduler.addPendingElevatorRequests(new ElevatorRequest(now, 2, Direction.UP, destination, null));
+		}
+		assertEquals(3, capacityScheduler.getPendingPassengerCount());
+		
+		capacityScheduler.modifyAvailableElevatorStatus(0,
+				new ElevatorStatus(1, 1, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		capacityScheduler.modifyAvailableElevatorStatus(1,
+				new ElevatorStatus(2, 9, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		List<AssignedElevatorRequest> assigned = capacityScheduler.findBestElevatorToAssignRequest();
+		assertEquals(2, assigned.size());
+		assertEquals(1, assigned.get(0).getElevatorId());
+		assertEquals(1, assigned.get(1).getElevatorId());
+		assertEquals(1, capacityScheduler.getPendingPassengerCount());
+		
+		// the car leaves the floor full, the passenger left goes to the other car
+		ElevatorStatus full = new ElevatorStatus(1, 2, Direction.UP, 2, ElevatorStateEnum.MOVING_UP);
+		full.setNumPassengers(2);
+		capacityScheduler.modifyAvailableElevatorStatus(0, full);
+		assigned = capacityScheduler.findBestElevatorToAssignRequest();
+		assertEquals(1, assigned.size());
+		assertEquals(6, assigned.get(0).getDestinationFloor().intValue());
+		assertEquals(2, assigned.get(0).getElevatorId());
+	}
+
+	/**
+	 * Test that the requests of a merged hall call are revoked together when an
+	 * idle car can reach their floor sooner.
+	 * @throws ParseException
+	 */
+	@Test
+	public void testMergedCallIsRevokedWhole() throws ParseException {
+		SimulatorConfiguration config = schedulerSubsystem.getSimulatorConfiguration();
+		int reassignInterval = config.REASSIGN_INTERVAL;
+		config.REASSIGN_INTERVAL = 0;
+		SchedulerContext reassignScheduler = new SchedulerContext(schedulerSubsystem);
+		for (int i = 0; i < 4; i++) {
+			reassignScheduler.modifyAvailableElevatorStatus(i,
+					new ElevatorStatus(i + 1, 1, Direction.IDLE, 0, ElevatorStateEnum.DOORS_STUCK));
+		}
+		long now = System.currentTimeMillis();
+		ElevatorRequest first = new ElevatorRequest(now, 9, Direction.DOWN, 1, null);
+		ElevatorRequest second = new ElevatorRequest(now, 9, Direction.DOWN, 4, null);
+		reassignScheduler.addPendingElevatorRequests(first);
+		reassignScheduler.addPendingElevatorRequests(second);
+		reassignScheduler.modifyAvailableElevatorStatus(0,
+				new ElevatorStatus(1, 1, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		assertEquals(2, reassignScheduler.findBestElevatorToAssignRequest().size());
+		
+		ElevatorStatus sweeping = new ElevatorStatus(1, 2, Direction.UP, 2, ElevatorStateEnum.MOVING_UP);
+		sweeping.setPlannedStops(new int[] { 10, 9 });
+		reassignScheduler.modifyAvailableElevatorStatus(0, sweeping);
+		reassignScheduler.modifyAvailableElevatorStatus(1,
+				new ElevatorStatus(2, 8, Direction.IDLE, 0, ElevatorStateEnum.IDLE));
+		config.REASSIGN_INTERVAL = 1;
+		List<RevokeElevatorRequest> revokes = reassignScheduler.findRequestsToReassign();
+		config.REASSIGN_INTERVAL = reassignInterval;
+		assertEquals(2, revokes.size());
+		assertEquals(first.getRequestId(), revokes.get(0).getRequestId());
+		assertEquals(second.getRequestId(), revokes.get(1).getRequestId());
 	}
 }
@@ -0,0 +1,113 @@
+package test.java.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import main.java.dto.AssignedElevatorRequest;
+import main.java.dto.ElevatorRequest;
+import main.java.dto.ElevatorStatus;
+import main.java.elevator.Direction;
+import main.java.elevator.state.ElevatorStateEnum;
+import main.java.scheduler.SchedulerJournal;
+import main.java.scheduler.SchedulerJournal.EventType;
+import main.java.scheduler.SchedulerSnapshot;
+
+/**
+ * SchedulerJournalTest tests the journaling and recovery of the scheduler
+ * state.
+ *
+ * @author Bobby Ngo
+ */
+public class SchedulerJournalTest {
+	private String directory;
+	private ElevatorRequest request1;
+	private ElevatorRequest request2;
+
+	/**
+	 * Set up the testing environment.
+	 *
+	 * @throws Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		File dir = Files.createTempDirectory("journal").toFile();
+		dir.deleteOnExit();
+		directory = dir.getPath();
+		request1 = new ElevatorRequest("07:01:15.000", 2, Direction.UP, 5);
+		request2 = new ElevatorRequest("07:01:16.000", 8, Direction.DOWN, 1);
+	}
+
+	/**
+	 * Test that the pending requests are rebuilt from the journaled events.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testRecoverEvents() throws Exception {
+		SchedulerJournal journal = new SchedulerJournal(directory, 1, 1024);
+		assertNull(journal.recover());
+		journal.start();
+		journal.snapshot(new SchedulerSnapshot(initialStatus(), new ArrayList<>(), new ArrayList<>()));
+		journal.append(EventType.REQUEST_RECEIVED, request1);
+		journal.append(EventType.REQUEST_RECEIVED, request2);
+		journal.append(EventType.REQUEST_ASSIGNED, new AssignedElevatorRequest(1, request1));
+		journal.append(EventType.STATUS_UPDATED,
+				new ElevatorStatus(2, 6, Direction.UP, 1, ElevatorStateEnum.MOVING_UP));
+		journal.append(EventType.REQUEST_COMPLETED, request1);
+		journal.close();
+
+		SchedulerSnapshot recovered = new SchedulerJournal(directory, 1, 1024).recover();
+		assertEquals(1, recovered.getPendingElevatorRequests().size());
+		assertEquals(request2, recovered.getPendingElevatorRequests().get(0));
+		assertEquals(1, recovered.getCompletedElevatorRequests().size());
+		assertEquals(6, recovered.getElevatorStatus().get(1).getFloor());
+	}
+
+	/**
+	 * Test that events older than the last snapshot are not replayed, including
+	 * when the journal had to grow.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testRecoverAfterSnapshot() throws Exception {
+		SchedulerJournal journal = new SchedulerJournal(directory, 2, 256);
+		journal.recover();
+		journal.start();
+		for (int i = 0; i < 10; i++) {
+			journal.append(EventType.REQUEST_RECEIVED, request1);
+		}
+		List<ElevatorRequest> pending = new ArrayList<>();
+		pending.add(request1);
+		journal.snapshot(new SchedulerSnapshot(initialStatus(), pending, new ArrayList<>()));
+		journal.append(EventType.REQUEST_RECEIVED, request2);
+		journal.append(EventType.COMPLETED_SENT, request1);
+		journal.close();
+
+		SchedulerSnapshot recovered = new SchedulerJournal(directory, 2, 256).recover();
+		assertEquals(2, recovered.getPendingElevatorRequests().size());
+		assertEquals(request1, recovered.getPendingElevatorRequests().get(0));
+		assertEquals(request2, recovered.getPendingElevatorRequests().get(1));
+	}
+
+	/**
+	 * Build the status of two idle elevators.
+	 *
+	 * @return List, the elevator status
+	 */
+	private List<ElevatorStatus> initialStatus() {
+		List<ElevatorStatus> status = new ArrayList<>();
+		status.add(new ElevatorStatus(1));
+		status.add(new ElevatorStatus(2));
+		return status;
+	}
+
+}
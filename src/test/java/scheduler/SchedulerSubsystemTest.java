@@ -0,0 +1,168 @@
+package test.java.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import main.java.SimulatorConfiguration;
+import main.java.dto.AssignedElevatorRequest;
+import main.java.dto.ElevatorRequest;
+import main.java.dto.ElevatorStatus;
+import main.java.elevator.Direction;
+import main.java.elevator.state.ElevatorStateEnum;
+import main.java.metrics.MetricsRegistry;
+import main.java.scheduler.SchedulerSubsystem;
+
+/**
+ * SchedulerSubsystemTest tests the routing of the messages of a scheduler
+ * serving two elevator groups.
+ *
+ * @author Bobby Ngo
+ */
+public class SchedulerSubsystemTest {
+	private RecordingSchedulerSubsystem scheduler;
+	private MetricsRegistry metrics;
+
+	/**
+	 * Set up a scheduler serving the group of the test configuration and a second
+	 * group of two cars.
+	 */
+	@Before
+	public void setUp() {
+		Properties properties = SimulatorConfiguration.loadProperties("./src/test/resources/config.properties");
+		properties.setProperty("SCHEDULER_GROUP_CONFIGS", "./src/test/resources/group2.properties");
+		properties.setProperty("PARKING_WINDOW", "0");
+		properties.setProperty("HEADLESS", "true");
+		metrics = new MetricsRegistry();
+		scheduler = new RecordingSchedulerSubsystem(new SimulatorConfiguration(properties), metrics);
+	}
+
+	/**
+	 * Test that every group of SCHEDULER_GROUP_CONFIGS gets its own context.
+	 */
+	@Test
+	public void testGroupsAreRegistered() {
+		assertNotNull(scheduler.getSchedulerContext(1));
+		assertNotNull(scheduler.getSchedulerContext(2));
+		assertEquals(4, scheduler.getSchedulerContext(1).getAvailableElevatorStatus().size());
+		assertEquals(2, scheduler.getSchedulerContext(2).getAvailableElevatorStatus().size());
+		assertEquals(2, scheduler.getGroupConfiguration(2).GROUP_ID);
+	}
+
+	/**
+	 * Test that the requests and statuses of a group reach the context of the
+	 * group, and that a call is never given to a car of another group.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testGroupsAreIsolated() throws InterruptedException {
+		// every car of group 2 is stuck, the cars of group 1 are idle
+		for (int id = 1; id <= 2; id++) {
+			ElevatorStatus stuck = new ElevatorStatus(id, 1, Direction.IDLE, 0, ElevatorStateEnum.DOORS_STUCK);
+			stuck.setGroupId(2);
+			scheduler.handleArrivalNotification(stuck);
+		}
+		scheduler.awaitGroup(2);
+		assertEquals(ElevatorStateEnum.DOORS_STUCK,
+				scheduler.getSchedulerContext(2).getAvailableElevatorStatus().get(0).getState());
+		assertEquals(ElevatorStateEnum.IDLE,
+				scheduler.getSchedulerContext(1).getAvailableElevatorStatus().get(0).getState());
+
+		ElevatorRequest groupTwoCall = new ElevatorRequest(System.currentTimeMillis(), 3, Direction.UP, 7, null);
+		groupTwoCall.setGroupId(2);
+		scheduler.handlePendingRequest(groupTwoCall);
+		scheduler.awaitGroup(2);
+		assertTrue(scheduler.assigned.isEmpty());
+		assertEquals(1, scheduler.getSchedulerContext(2).getPendingElevatorRequests().size());
+		assertEquals(0, scheduler.getSchedulerContext(1).getPendingElevatorRequests().size());
+
+		ElevatorRequest groupOneCall = new ElevatorRequest(System.currentTimeMillis(), 3, Direction.UP, 7, null);
+		scheduler.handlePendingRequest(groupOneCall);
+		scheduler.awaitGroup(1);
+		assertEquals(1, scheduler.assigned.size());
+		assertEquals(groupOneCall.getRequestId(), scheduler.assigned.get(0).getRequestId());
+		assertEquals(1, scheduler.assigned.get(0).getGroupId());
+		assertEquals(1, scheduler.getSchedulerContext(2).getPendingElevatorRequests().size());
+
+		// a car of group 2 comes back and takes the call of its group
+		ElevatorStatus idle = new ElevatorStatus(2, 1, Direction.IDLE, 0, ElevatorStateEnum.IDLE);
+		idle.setGroupId(2);
+		scheduler.handleArrivalNotification(idle);
+		scheduler.awaitGroup(2);
+		assertEquals(2, scheduler.assigned.size());
+		AssignedElevatorRequest assigned = scheduler.assigned.get(1);
+		assertEquals(groupTwoCall.getRequestId(), assigned.getRequestId());
+		assertEquals(2, assigned.getGroupId());
+		assertEquals(2, assigned.getElevatorId());
+		assertEquals(0, scheduler.getSchedulerContext(2).getPendingElevatorRequests().size());
+	}
+
+	/**
+	 * Test that the messages of a group the scheduler does not serve are dropped.
+	 */
+	@Test
+	public void testUnknownGroupIsDropped() {
+		ElevatorRequest request = new ElevatorRequest(System.currentTimeMillis(), 3, Direction.UP, 7, null);
+		request.setGroupId(3);
+		scheduler.handlePendingRequest(request);
+		ElevatorStatus status = new ElevatorStatus(1, 1, Direction.IDLE, 0, ElevatorStateEnum.IDLE);
+		status.setGroupId(3);
+		scheduler.handleArrivalNotification(status);
+
+		assertNull(scheduler.getSchedulerContext(3));
+		assertEquals(2, metrics.counter("scheduler.unknown_group_messages").getCount());
+		assertEquals(0, scheduler.getSchedulerContext(1).getPendingElevatorRequests().size());
+		assertTrue(scheduler.assigned.isEmpty());
+	}
+
+	/**
+	 * SchedulerSubsystem keeping the requests it assigns instead of sending them.
+	 */
+	private static class RecordingSchedulerSubsystem extends SchedulerSubsystem {
+		private final List<AssignedElevatorRequest> assigned = Collections.synchronizedList(new ArrayList<>());
+
+		/**
+		 * Constructor for the recording subsystem.
+		 *
+		 * @param config  SimulatorConfiguration, the configuration
+		 * @param metrics MetricsRegistry, the registry of the groups
+		 */
+		RecordingSchedulerSubsystem(SimulatorConfiguration config, MetricsRegistry metrics) {
+			super(config, metrics);
+		}
+
+		@Override
+		public void sendPendingRequest(AssignedElevatorRequest assignedRequest) {
+			// assignments only, the revocations and parking commands are not expected
+			if (assignedRequest != null) {
+				assigned.add(assignedRequest);
+			}
+		}
+
+		/**
+		 * Wait for the tasks dispatched to a group to run, the tasks of a group
+		 * running in submission order.
+		 *
+		 * @param groupId int, the group id
+		 * @throws InterruptedException
+		 */
+		void awaitGroup(int groupId) throws InterruptedException {
+			CountDownLatch done = new CountDownLatch(1);
+			dispatch(groupId, done::countDown);
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+}
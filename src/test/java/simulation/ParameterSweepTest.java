@@ -0,0 +1,89 @@
+package test.java.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Test;
+
+import main.java.SimulatorConfiguration;
+import main.java.metrics.MetricsRegistry;
+import main.java.simulation.ParameterSweep;
+import main.java.simulation.Scenario;
+import main.java.simulation.ScenarioResult;
+import main.java.simulation.Simulation;
+import main.java.simulation.TrafficProfile;
+
+/**
+ * ParameterSweepTest tests the simulated runs of a parameter sweep.
+ *
+ * @author Bobby Ngo
+ */
+public class ParameterSweepTest {
+
+	/**
+	 * Test that parallel runs deliver every passenger and that a run only
+	 * depends on its scenario.
+	 */
+	@Test
+	public void testSweepIsDeterministic() {
+		Properties properties = SimulatorConfiguration.loadProperties("./src/test/resources/config.properties");
+		ParameterSweep sweep = new ParameterSweep(properties, 40, 5 * 60 * 1000);
+		List<Scenario> scenarios = ParameterSweep.crossProduct(new String[] { "closest-car" }, new int[] { 1, 3 },
+				TrafficProfile.values(), new long[] { 7, 7 });
+
+		List<ScenarioResult> results = sweep.run(scenarios, 4);
+
+		assertEquals(scenarios.size(), results.size());
+		for (int i = 0; i < results.size(); i++) {
+			ScenarioResult result = results.get(i);
+			assertEquals(scenarios.get(i), result.getScenario());
+			assertEquals(40, result.getCompleted());
+			assertTrue(result.getSimulatedTime() > 0);
+		}
+		// the two runs of a seed are identical, wall time aside
+		for (int i = 0; i < results.size(); i += 2) {
+			assertEquals(stripWallTime(results.get(i)), stripWallTime(results.get(i + 1)));
+		}
+	}
+
+	/**
+	 * Test that a run records its metrics into its own registry, not into the
+	 * registry of the process.
+	 */
+	@Test
+	public void testRunMetricsAreIsolated() {
+		Properties properties = SimulatorConfiguration.loadProperties("./src/test/resources/config.properties");
+		Scenario scenario = new Scenario("closest-car", 2, TrafficProfile.values()[0], 3);
+		Simulation first = new Simulation(properties, scenario, 20, 5 * 60 * 1000);
+		Simulation second = new Simulation(properties, scenario, 20, 5 * 60 * 1000);
+
+		// other tests of the JVM may have registered into the default registry
+		Set<String> defaultMetrics = new HashSet<>(MetricsRegistry.getDefault().getMetrics().keySet());
+		first.run();
+
+		assertNotSame(first.getMetrics(), second.getMetrics());
+		// a reassigned request is counted again
+		assertTrue(first.getMetrics().counter("scheduler.requests_assigned").getCount() >= 20);
+		assertEquals(20, first.getMetrics().histogram("elevator.wait_time_ms").getCount());
+		assertTrue(second.getMetrics().getMetrics().isEmpty());
+		assertEquals(defaultMetrics, MetricsRegistry.getDefault().getMetrics().keySet());
+	}
+
+	/**
+	 * Get the CSV line of a result without the wall time column.
+	 *
+	 * @param result ScenarioResult, the result
+	 * @return String, the CSV line without the last column
+	 */
+	private String stripWallTime(ScenarioResult result) {
+		String line = result.toCsvLine();
+		return line.substring(0, line.lastIndexOf(','));
+	}
+
+}
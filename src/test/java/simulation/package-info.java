@@ -0,0 +1,8 @@
+/**
+ * This package contains the tests of the in-process simulation of the
+ * Elevator Control System & Simulator.
+ * 
+ * @version 1.0, 02/04/23
+ * @since 1.0, 02/04/23
+ */
+package test.java.simulation;
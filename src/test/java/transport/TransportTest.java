@@ -0,0 +1,146 @@
+package test.java.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+import main.java.dto.AssignedElevatorRequest;
+import main.java.dto.ElevatorRequest;
+import main.java.dto.ElevatorStatus;
+import main.java.elevator.Direction;
+import main.java.elevator.state.ElevatorStateEnum;
+import main.java.transport.Endpoint;
+import main.java.transport.InProcessTransport;
+import main.java.transport.SharedMemoryTransport;
+import main.java.transport.Transport;
+
+/**
+ * TransportTest tests the in-process and shared memory transports.
+ *
+ * @author Zakaria Ismail
+ */
+public class TransportTest {
+
+	/**
+	 * Test that the in-process transport hands over the sent instance, also to a
+	 * receiver waiting before the send, and rejects a message of another type.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testInProcess() throws Exception {
+		Transport transport = new InProcessTransport();
+		ElevatorRequest request = new ElevatorRequest(new Timestamp(0), 1, Direction.UP, 5);
+		transport.send(request, "127.0.0.1", 4001);
+		Endpoint<ElevatorRequest> endpoint = transport.bind(4001, ElevatorRequest.class);
+		assertSame(request, endpoint.receive());
+
+		Thread sender = new Thread(() -> {
+			try {
+				Thread.sleep(50);
+				transport.send(request, "127.0.0.1", 4001);
+			} catch (InterruptedException | IOException e) {
+				e.printStackTrace();
+			}
+		});
+		sender.start();
+		assertSame(request, endpoint.receive());
+		sender.join();
+
+		transport.send(new ElevatorStatus(1), "127.0.0.1", 4001);
+		try {
+			endpoint.receive();
+			throw new AssertionError("status received as a request");
+		} catch (IOException e) {
+			// expected
+		}
+		endpoint.close();
+	}
+
+	/**
+	 * Test that messages go through the mapped ring buffer in order, wrapping
+	 * around its end many times.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testSharedMemory() throws Exception {
+		Path directory = Files.createTempDirectory("transport");
+		Transport transport = SharedMemoryTransport.getDefault(directory.toString(), 4096);
+		Endpoint<ElevatorStatus> statusEndpoint = transport.bind(4004, ElevatorStatus.class);
+		for (int i = 1; i <= 1000; i++) {
+			transport.send(new ElevatorStatus(i % 4 + 1, i, Direction.UP, 0, ElevatorStateEnum.MOVING_UP), "127.0.0.1",
+					4004);
+			ElevatorStatus status = statusEndpoint.receive();
+			assertEquals(i, status.getFloor());
+			assertEquals(i % 4 + 1, status.getElevatorId());
+		}
+
+		Endpoint<AssignedElevatorRequest> requestEndpoint = transport.bind(5101, AssignedElevatorRequest.class);
+		ElevatorRequest request = new ElevatorRequest(new Timestamp(1000), 3, Direction.DOWN, 1);
+		transport.send(new AssignedElevatorRequest(2, request), "127.0.0.1", 5101);
+		AssignedElevatorRequest assigned = requestEndpoint.receive();
+		assertEquals(request.getRequestId(), assigned.getRequestId());
+		assertEquals(2, assigned.getElevatorId());
+		statusEndpoint.close();
+		requestEndpoint.close();
+	}
+
+	/**
+	 * Test that a message of more than half a ring is rejected, even by an empty
+	 * ring it would have to wrap around, and that a message of half a ring wraps
+	 * around an empty ring.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testSharedMemoryMessageLimit() throws Exception {
+		Path directory = Files.createTempDirectory("transport");
+		Transport transport = SharedMemoryTransport.getDefault(directory.toString(), 128);
+		Endpoint<ElevatorStatus> endpoint = transport.bind(4004, ElevatorStatus.class);
+		// records of 32 bytes move the tail of the emptied ring to its middle
+		for (int floor = 1; floor <= 2; floor++) {
+			transport.send(status(floor, 0), "127.0.0.1", 4004);
+			assertEquals(floor, endpoint.receive().getFloor());
+		}
+
+		// a record of 72 bytes
+		try {
+			transport.send(status(3, 9), "127.0.0.1", 4004);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		transport.send(status(4, 0), "127.0.0.1", 4004);
+		assertEquals(4, endpoint.receive().getFloor());
+		// a record of 64 bytes, 32 bytes before the end of the ring
+		transport.send(status(5, 8), "127.0.0.1", 4004);
+		ElevatorStatus wrapped = endpoint.receive();
+		assertEquals(5, wrapped.getFloor());
+		assertEquals(8, wrapped.getPlannedStops().length);
+		endpoint.close();
+	}
+
+	/**
+	 * Build the status of a car with planned stops, 27 bytes encoded plus 4 bytes
+	 * per stop.
+	 *
+	 * @param floor    int, the floor of the car
+	 * @param numStops int, the number of planned stops
+	 * @return ElevatorStatus, the status
+	 */
+	private ElevatorStatus status(int floor, int numStops) {
+		ElevatorStatus status = new ElevatorStatus(1, floor, Direction.UP, 0, ElevatorStateEnum.MOVING_UP);
+		status.setPlannedStops(new int[numStops]);
+		return status;
+	}
+
+}